@@ -4,6 +4,9 @@
 
 package org.datagear.analysis.support;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.datagear.analysis.RenderContext;
 
 /**
@@ -22,4 +25,17 @@ public interface ChartWidgetSource
 	 * @throws Throwable
 	 */
 	<T extends RenderContext> ChartWidget<T> getChartWidget(String id) throws Throwable;
+
+	/**
+	 * 批量获取指定ID集的{@linkplain ChartWidget}。
+	 * <p>
+	 * 返回映射表以ID为关键字，仅包含找到的{@linkplain ChartWidget}；对于未包含的ID，调用方可以再使用{@linkplain #getChartWidget(String)}单独获取，
+	 * 以获得与单独获取一致的处理结果（比如异常）。
+	 * </p>
+	 * 
+	 * @param ids
+	 * @return
+	 * @throws Throwable
+	 */
+	<T extends RenderContext> Map<String, ChartWidget<T>> getChartWidgets(Collection<String> ids) throws Throwable;
 }
@@ -8,7 +8,10 @@
 package org.datagear.analysis.support;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.datagear.analysis.RenderContext;
@@ -54,4 +57,19 @@ public class SimpleChartWidgetSource implements ChartWidgetSource
 
 		return null;
 	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends RenderContext> Map<String, ChartWidget<T>> getChartWidgets(Collection<String> ids)
+	{
+		Map<String, ChartWidget<T>> re = new HashMap<>();
+
+		for (ChartWidget<?> chartWidget : this.chartWidgets)
+		{
+			if (ids.contains(chartWidget.getId()))
+				re.put(chartWidget.getId(), (ChartWidget<T>) chartWidget);
+		}
+
+		return re;
+	}
 }
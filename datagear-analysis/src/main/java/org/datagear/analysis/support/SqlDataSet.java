@@ -19,6 +19,7 @@ import org.datagear.analysis.DataSetProperty;
 import org.datagear.analysis.DataSetResult;
 import org.datagear.util.JdbcUtil;
 import org.datagear.util.QueryResultSet;
+import org.datagear.util.ResultSetLayoutCache;
 import org.datagear.util.Sql;
 import org.datagear.util.resource.ConnectionFactory;
 
@@ -38,7 +39,8 @@ public class SqlDataSet extends AbstractDataSet
 {
 	public static final TemplateSqlResolver TEMPLATE_SQL_RESOLVER = new TemplateFmkSqlResolver();
 
-	protected static final SqlDataSetSupport SQL_DATA_SET_SUPPORT = new SqlDataSetSupport();
+	protected static final SqlDataSetSupport SQL_DATA_SET_SUPPORT = new SqlDataSetSupport(
+			new ResultSetLayoutCache<SqlDataSetSupport.ResultsetLayout>());
 
 	private ConnectionFactory connectionFactory;
 
@@ -127,7 +129,7 @@ public class SqlDataSet extends AbstractDataSet
 		try
 		{
 			qrs = getSqlDataSetSupport().executeQuery(cn, sqlObj, ResultSet.TYPE_FORWARD_ONLY);
-			return toDataSetResult(cn, qrs.getResultSet());
+			return toDataSetResult(cn, sql, qrs.getResultSet());
 		}
 		catch (SQLException e)
 		{
@@ -141,12 +143,41 @@ public class SqlDataSet extends AbstractDataSet
 
 	public DataSetResult toDataSetResult(Connection cn, ResultSet rs) throws SQLException
 	{
-		List<Map<String, ?>> datas = getSqlDataSetSupport().resolveResultDatas(cn, rs, getProperties());
+		return toDataSetResult(cn, null, rs);
+	}
+
+	/**
+	 * 将结果集转换为{@linkplain DataSetResult}。
+	 * 
+	 * @param cn
+	 * @param sql
+	 *            结果集对应的SQL，它和{@linkplain #getConnectionIdentity()}都不为{@code null}时将复用已解析的结果集列布局
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	public DataSetResult toDataSetResult(Connection cn, String sql, ResultSet rs) throws SQLException
+	{
+		List<Map<String, ?>> datas = getSqlDataSetSupport().resolveResultDatas(cn, getConnectionIdentity(), sql, rs,
+				getProperties());
 		MapDataSetResult result = new MapDataSetResult(datas);
 
 		return result;
 	}
 
+	/**
+	 * 获取{@linkplain #getConnectionFactory()}的连接标识，用于复用结果集列布局。
+	 * <p>
+	 * 同一标识的连接应使用相同的数据库、用户和模式，返回{@code null}表示不复用，默认返回{@code null}。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	protected String getConnectionIdentity()
+	{
+		return null;
+	}
+
 	protected SqlDataSetSupport getSqlDataSetSupport()
 	{
 		return SQL_DATA_SET_SUPPORT;
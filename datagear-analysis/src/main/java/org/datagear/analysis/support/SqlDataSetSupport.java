@@ -21,6 +21,7 @@ import org.datagear.analysis.DataSetException;
 import org.datagear.analysis.DataSetProperty;
 import org.datagear.analysis.DataSetProperty.DataType;
 import org.datagear.util.JdbcSupport;
+import org.datagear.util.ResultSetLayoutCache;
 import org.datagear.util.SqlType;
 
 /**
@@ -31,11 +32,30 @@ import org.datagear.util.SqlType;
  */
 public class SqlDataSetSupport extends JdbcSupport
 {
+	/** 结果集列布局缓存，为{@code null}则不缓存 */
+	private ResultSetLayoutCache<ResultsetLayout> layoutCache = null;
+
 	public SqlDataSetSupport()
 	{
 		super();
 	}
 
+	public SqlDataSetSupport(ResultSetLayoutCache<ResultsetLayout> layoutCache)
+	{
+		super();
+		this.layoutCache = layoutCache;
+	}
+
+	public ResultSetLayoutCache<ResultsetLayout> getLayoutCache()
+	{
+		return layoutCache;
+	}
+
+	public void setLayoutCache(ResultSetLayoutCache<ResultsetLayout> layoutCache)
+	{
+		this.layoutCache = layoutCache;
+	}
+
 	/**
 	 * 解析结果数据。
 	 * 
@@ -47,11 +67,35 @@ public class SqlDataSetSupport extends JdbcSupport
 	 */
 	public List<Map<String, ?>> resolveResultDatas(Connection cn, ResultSet rs, List<DataSetProperty> properties)
 			throws SQLException
+	{
+		return resolveResultDatas(cn, null, null, rs, properties);
+	}
+
+	/**
+	 * 解析结果数据。
+	 * <p>
+	 * {@code connectionId}、{@code sql}都不为{@code null}且设置了{@linkplain #getLayoutCache()}时，将复用已解析的结果集列布局。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param connectionId
+	 *            连接标识（比如数据源ID），参考{@linkplain ResultSetLayoutCache#buildKey(String, String, String)}，允许为{@code null}
+	 * @param sql
+	 *            结果集对应的SQL，允许为{@code null}
+	 * @param rs
+	 * @param properties
+	 * @return
+	 * @throws SQLException
+	 */
+	public List<Map<String, ?>> resolveResultDatas(Connection cn, String connectionId, String sql, ResultSet rs,
+			List<DataSetProperty> properties) throws SQLException
 	{
 		List<Map<String, ?>> datas = new ArrayList<>();
 
 		ResultSetMetaData rsMeta = rs.getMetaData();
-		int[] rsColumns = resolveResultsetColumns(properties, rsMeta);
+		ResultsetLayout layout = resolveResultsetLayout(cn, connectionId, sql, properties, rsMeta);
+		int[] rsColumns = layout.getColumns();
+		SqlType[] sqlTypes = layout.getSqlTypes();
 
 		while (rs.next())
 		{
@@ -62,8 +106,7 @@ public class SqlDataSetSupport extends JdbcSupport
 				DataSetProperty property = properties.get(i);
 				int rsColumn = rsColumns[i];
 
-				Object value = resolvePropertyDataValue(cn, rs, rsColumn, getColumnSqlType(rsMeta, rsColumn),
-						property.getType());
+				Object value = resolvePropertyDataValue(cn, rs, rsColumn, sqlTypes[i], property.getType());
 
 				row.put(property.getName(), value);
 			}
@@ -74,6 +117,54 @@ public class SqlDataSetSupport extends JdbcSupport
 		return datas;
 	}
 
+	/**
+	 * 解析结果集列布局。
+	 * 
+	 * @param cn
+	 * @param connectionId
+	 *            允许为{@code null}
+	 * @param sql
+	 *            允许为{@code null}
+	 * @param properties
+	 * @param rsMeta
+	 * @return
+	 * @throws SQLException
+	 * @throws DataSetException
+	 */
+	protected ResultsetLayout resolveResultsetLayout(Connection cn, String connectionId, String sql,
+			List<DataSetProperty> properties, ResultSetMetaData rsMeta) throws SQLException, DataSetException
+	{
+		String key = null;
+
+		if (connectionId != null && sql != null && this.layoutCache != null)
+		{
+			StringBuilder pnames = new StringBuilder();
+
+			for (DataSetProperty property : properties)
+				pnames.append(property.getName()).append(',');
+
+			key = ResultSetLayoutCache.buildKey(connectionId, sql, pnames.toString());
+
+			ResultsetLayout layout = this.layoutCache.get(key, rsMeta);
+
+			if (layout != null)
+				return layout;
+		}
+
+		int[] columns = resolveResultsetColumns(properties, rsMeta);
+		SqlType[] sqlTypes = new SqlType[columns.length];
+
+		for (int i = 0; i < columns.length; i++)
+			sqlTypes[i] = getColumnSqlType(rsMeta, columns[i]);
+
+		ResultsetLayout layout = new ResultsetLayout(columns, sqlTypes);
+
+		if (key != null)
+			this.layoutCache.put(key, rsMeta, layout);
+
+		return layout;
+	}
+
 	/**
 	 * 解析结果集中对应{@linkplain DataSetProperty}的索引数组。
 	 * 
@@ -428,4 +519,34 @@ public class SqlDataSetSupport extends JdbcSupport
 	{
 		return new DataSetProperty();
 	}
+
+	/**
+	 * 结果集列布局：各{@linkplain DataSetProperty}对应的结果集列索引及其{@linkplain SqlType}。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class ResultsetLayout
+	{
+		private final int[] columns;
+
+		private final SqlType[] sqlTypes;
+
+		public ResultsetLayout(int[] columns, SqlType[] sqlTypes)
+		{
+			super();
+			this.columns = columns;
+			this.sqlTypes = sqlTypes;
+		}
+
+		public int[] getColumns()
+		{
+			return columns;
+		}
+
+		public SqlType[] getSqlTypes()
+		{
+			return sqlTypes;
+		}
+	}
 }
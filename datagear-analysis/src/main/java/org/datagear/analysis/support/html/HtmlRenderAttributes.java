@@ -31,6 +31,8 @@ public class HtmlRenderAttributes
 
 	public static final String CHART_THEME = "chartTheme";
 
+	public static final String DASHBOARD_THEME_STYLE_KEY = "dashboardThemeStyleKey";
+
 	public static final String LOCALE = "locale";
 
 	public static final String HTML_TITLE_HANDLER = HtmlTitleHandler.class.getName();
@@ -99,6 +101,42 @@ public class HtmlRenderAttributes
 		renderContext.removeAttribute(DASHBOARD_THEME);
 	}
 
+	/**
+	 * 获取{@linkplain DashboardTheme}样式标识，没有则返回{@code null}。
+	 * <p>
+	 * 此标识用于替换看板导入项中的{@linkplain HtmlTplDashboardWidgetRenderer#getThemeStyleKeyPlaceholder()}占位符，
+	 * 通常是主题样式内容的摘要，以便浏览器缓存主题样式。
+	 * </p>
+	 * 
+	 * @param renderContext
+	 * @return
+	 */
+	public static String getDashboardThemeStyleKey(RenderContext renderContext)
+	{
+		return renderContext.getAttribute(DASHBOARD_THEME_STYLE_KEY);
+	}
+
+	/**
+	 * 设置{@linkplain DashboardTheme}样式标识。
+	 * 
+	 * @param renderContext
+	 * @param dashboardThemeStyleKey
+	 */
+	public static void setDashboardThemeStyleKey(RenderContext renderContext, String dashboardThemeStyleKey)
+	{
+		renderContext.setAttribute(DASHBOARD_THEME_STYLE_KEY, dashboardThemeStyleKey);
+	}
+
+	/**
+	 * 移除{@linkplain DashboardTheme}样式标识。
+	 * 
+	 * @param renderContext
+	 */
+	public static void removeDashboardThemeStyleKey(RenderContext renderContext)
+	{
+		renderContext.removeAttribute(DASHBOARD_THEME_STYLE_KEY);
+	}
+
 	/**
 	 * 获取{@linkplain ChartTheme}，没有则返回{@code null}。
 	 * 
@@ -552,15 +552,15 @@ public class HtmlTplDashboardWidgetHtmlRenderer<T extends HtmlRenderContext> ext
 	protected List<HtmlChartWidget<HtmlRenderContext>> getHtmlChartWidgets(HtmlRenderContext renderContext,
 			List<ChartInfo> chartInfos)
 	{
-		List<HtmlChartWidget<HtmlRenderContext>> list = new ArrayList<HtmlChartWidget<HtmlRenderContext>>();
-
 		if (chartInfos == null)
-			return list;
+			return new ArrayList<HtmlChartWidget<HtmlRenderContext>>();
+
+		List<String> widgetIds = new ArrayList<String>(chartInfos.size());
 
 		for (ChartInfo chartInfo : chartInfos)
-			list.add(getHtmlChartWidgetForRender(renderContext, chartInfo.getWidgetId()));
+			widgetIds.add(chartInfo.getWidgetId());
 
-		return list;
+		return getHtmlChartWidgetsForRender(renderContext, widgetIds);
 	}
 
 	/**
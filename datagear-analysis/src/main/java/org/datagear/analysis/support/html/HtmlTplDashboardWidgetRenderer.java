@@ -12,7 +12,10 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.datagear.analysis.Chart;
 import org.datagear.analysis.ChartDefinition;
@@ -69,6 +72,10 @@ import org.datagear.util.StringUtil;
  * 在渲染时，占位符会被替换为{@linkplain Global#VERSION}（可用于支持版本更新时浏览器缓存更新）。
  * </p>
  * <p>
+ * 此类的{@linkplain #getHtmlTplDashboardImports()}的{@linkplain HtmlTplDashboardImport#getContent()}可以包含{@linkplain #getThemeStyleKeyPlaceholder()}占位符，
+ * 在渲染时，占位符会被替换为{@linkplain HtmlRenderAttributes#getDashboardThemeStyleKey(org.datagear.analysis.RenderContext)}（可用于支持主题样式的浏览器缓存）。
+ * </p>
+ * <p>
  * 此类的{@linkplain #getExtDashboardInitScript()}可以包含{@linkplain #getDashboardVarPlaceholder()}占位符，
  * 在渲染时，占位符会被替换为实际的{@linkplain HtmlTplDashboard#getVarName()}。
  * </p>
@@ -83,6 +90,8 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 
 	public static final String DEFAULT_VERSION_PLACE_HOLDER = "$VERSION";
 
+	public static final String DEFAULT_THEME_STYLE_KEY_PLACE_HOLDER = "$THEMESTYLEKEY";
+
 	public static final String DEFAULT_DASHBOARD_VAR_PLACE_HOLDER = "$DASHBOARD";
 
 	public static final String DEFAULT_DASHBOARD_FACTORY_VAR = "dashboardFactory";
@@ -134,6 +143,9 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 	/** 应用版本号占位符 */
 	private String versionPlaceholder = DEFAULT_VERSION_PLACE_HOLDER;
 
+	/** 主题样式标识占位符 */
+	private String themeStyleKeyPlaceholder = DEFAULT_THEME_STYLE_KEY_PLACE_HOLDER;
+
 	/** 扩展看板初始化脚本 */
 	private String extDashboardInitScript;
 
@@ -303,6 +315,16 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 		this.versionPlaceholder = versionPlaceholder;
 	}
 
+	public String getThemeStyleKeyPlaceholder()
+	{
+		return themeStyleKeyPlaceholder;
+	}
+
+	public void setThemeStyleKeyPlaceholder(String themeStyleKeyPlaceholder)
+	{
+		this.themeStyleKeyPlaceholder = themeStyleKeyPlaceholder;
+	}
+
 	public String getExtDashboardInitScript()
 	{
 		return extDashboardInitScript;
@@ -725,6 +747,62 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 		return (HtmlChartWidget<HtmlRenderContext>) chartWidget;
 	}
 
+	/**
+	 * 批量获取用于渲染指定ID图表的{@linkplain ChartWidget}列表。
+	 * <p>
+	 * 此方法使用{@linkplain ChartWidgetSource#getChartWidgets(java.util.Collection)}一次获取所有图表部件，对于批量获取未包含的ID、
+	 * 或者批量获取出现异常时，将使用{@linkplain #getHtmlChartWidgetForRender(HtmlRenderContext, String)}单独获取，因此处理结果与之一致。
+	 * </p>
+	 * 
+	 * @param renderContext
+	 * @param ids
+	 * @return 与{@code ids}一一对应的列表，元素不会为{@code null}
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected List<HtmlChartWidget<HtmlRenderContext>> getHtmlChartWidgetsForRender(HtmlRenderContext renderContext,
+			List<String> ids)
+	{
+		List<HtmlChartWidget<HtmlRenderContext>> list = new ArrayList<HtmlChartWidget<HtmlRenderContext>>(ids.size());
+
+		Set<String> idSet = new HashSet<String>();
+		for (String id : ids)
+		{
+			if (!StringUtil.isEmpty(id))
+				idSet.add(id);
+		}
+
+		Map<String, ChartWidget<HtmlRenderContext>> chartWidgets = null;
+
+		if (!idSet.isEmpty())
+		{
+			try
+			{
+				chartWidgets = this.chartWidgetSource.getChartWidgets(idSet);
+			}
+			catch (Throwable t)
+			{
+				chartWidgets = null;
+			}
+		}
+
+		for (String id : ids)
+		{
+			ChartWidget chartWidget = (chartWidgets == null ? null : chartWidgets.get(id));
+
+			if (chartWidget == null)
+				list.add(getHtmlChartWidgetForRender(renderContext, id));
+			else
+			{
+				if (chartWidget.getPlugin() == null)
+					chartWidget = createHtmlChartWidgetForPluginNull(chartWidget);
+
+				list.add((HtmlChartWidget<HtmlRenderContext>) chartWidget);
+			}
+		}
+
+		return list;
+	}
+
 	protected HtmlChartWidget<HtmlRenderContext> createHtmlChartWidgetForGetException(String exceptionWidgetId,
 			Throwable t)
 	{
@@ -944,6 +1022,8 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 						renderContext.getWebContext().getContextPath());
 
 				content = replaceVersionPlaceholder(content, Global.VERSION);
+				content = replaceThemeStyleKeyPlaceholder(content,
+						HtmlRenderAttributes.getDashboardThemeStyleKey(renderContext));
 
 				writeNewLine(out);
 				out.write(content);
@@ -1091,6 +1171,24 @@ public abstract class HtmlTplDashboardWidgetRenderer<T extends HtmlRenderContext
 		return str.replace(getVersionPlaceholder(), version);
 	}
 
+	/**
+	 * 替换字符串中的主题样式标识占位符为真实的主题样式标识。
+	 * 
+	 * @param str
+	 * @param themeStyleKey
+	 * @return
+	 */
+	protected String replaceThemeStyleKeyPlaceholder(String str, String themeStyleKey)
+	{
+		if (StringUtil.isEmpty(str))
+			return str;
+
+		if (themeStyleKey == null)
+			themeStyleKey = "";
+
+		return str.replace(getThemeStyleKeyPlaceholder(), themeStyleKey);
+	}
+
 	/**
 	 * 替换字符串中的看板变量名占位符为真实的看板变量名。
 	 * 
@@ -46,6 +46,9 @@ public class HtmlTplDashboardWidgetEntity extends HtmlTplDashboardWidget<HtmlRen
 	/** 权限 */
 	private int dataPermission = PERMISSION_NOT_LOADED;
 
+	/** 快照更新间隔分钟数，小于等于{@code 0}表示不使用快照 */
+	private int snapshotInterval = 0;
+
 	public HtmlTplDashboardWidgetEntity()
 	{
 		super();
@@ -105,6 +108,16 @@ public class HtmlTplDashboardWidgetEntity extends HtmlTplDashboardWidget<HtmlRen
 		this.dataPermission = dataPermission;
 	}
 
+	public int getSnapshotInterval()
+	{
+		return snapshotInterval;
+	}
+
+	public void setSnapshotInterval(int snapshotInterval)
+	{
+		this.snapshotInterval = snapshotInterval;
+	}
+
 	/**
 	 * 返回{@linkplain #getTemplates()}的JSON。
 	 * 
@@ -79,6 +79,15 @@ public class SqlDataSetEntity extends SqlDataSet implements CreateUserEntity<Str
 		setConnectionFactory(schemaConnectionFactory);
 	}
 
+	@Override
+	protected String getConnectionIdentity()
+	{
+		SchemaConnectionFactory connectionFactory = getConnectionFactory();
+		Schema schema = (connectionFactory == null ? null : connectionFactory.getSchema());
+
+		return (schema == null ? null : schema.getId());
+	}
+
 	@Override
 	public User getCreateUser()
 	{
@@ -7,6 +7,9 @@
  */
 package org.datagear.management.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.datagear.analysis.support.SqlDataSet;
 import org.datagear.management.domain.SqlDataSetEntity;
 
@@ -25,4 +28,15 @@ public interface SqlDataSetEntityService extends DataPermissionEntityService<Str
 	 * @return
 	 */
 	SqlDataSet getSqlDataSet(String id);
+
+	/**
+	 * 批量获取可用于执行分析的{@linkplain SqlDataSet}。
+	 * <p>
+	 * 返回映射表以ID为关键字，仅包含找到的{@linkplain SqlDataSet}。
+	 * </p>
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	Map<String, SqlDataSet> getSqlDataSets(Collection<String> ids);
 }
@@ -12,6 +12,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,8 +25,10 @@ import org.datagear.analysis.DataSet;
 import org.datagear.analysis.RenderContext;
 import org.datagear.analysis.support.ChartWidget;
 import org.datagear.analysis.support.JsonSupport;
+import org.datagear.analysis.support.SqlDataSet;
 import org.datagear.analysis.support.html.HtmlChartPlugin;
 import org.datagear.analysis.support.html.HtmlRenderContext;
+import org.datagear.management.domain.Authorization;
 import org.datagear.management.domain.ChartDataSetVO;
 import org.datagear.management.domain.HtmlChartWidgetEntity;
 import org.datagear.management.domain.User;
@@ -33,6 +36,7 @@ import org.datagear.management.service.AuthorizationService;
 import org.datagear.management.service.HtmlChartWidgetEntityService;
 import org.datagear.management.service.PermissionDeniedException;
 import org.datagear.management.service.SqlDataSetEntityService;
+import org.datagear.management.util.ChartWidgetCache;
 import org.datagear.util.StringUtil;
 import org.mybatis.spring.SqlSessionTemplate;
 
@@ -54,6 +58,9 @@ public class HtmlChartWidgetEntityServiceImpl
 
 	private AuthorizationService authorizationService;
 
+	/** 用于展示的图表部件缓存，为{@code null}则不缓存 */
+	private ChartWidgetCache chartWidgetCache = null;
+
 	public HtmlChartWidgetEntityServiceImpl()
 	{
 		super();
@@ -108,26 +115,74 @@ public class HtmlChartWidgetEntityServiceImpl
 		this.authorizationService = authorizationService;
 	}
 
+	public ChartWidgetCache getChartWidgetCache()
+	{
+		return chartWidgetCache;
+	}
+
+	public void setChartWidgetCache(ChartWidgetCache chartWidgetCache)
+	{
+		this.chartWidgetCache = chartWidgetCache;
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T extends RenderContext> ChartWidget<T> getChartWidget(String id) throws Throwable
 	{
 		ChartWidgetSourceContext context = ChartWidgetSourceContext.get();
 
-		HtmlChartWidgetEntity entity = null;
+		if (context.hasUser())
+		{
+			int permission = getPermission(context.getUser(), id);
+
+			if (!Authorization.canRead(permission))
+				throw new PermissionDeniedException();
+		}
+
+		List<String> ids = new ArrayList<>(1);
+		ids.add(id);
+
+		Map<String, HtmlChartWidgetEntity> widgets = getHtmlChartWidgetsForAnalysis(ids);
+
+		return (ChartWidget<T>) widgets.get(id);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T extends RenderContext> Map<String, ChartWidget<T>> getChartWidgets(Collection<String> ids)
+			throws Throwable
+	{
+		Map<String, ChartWidget<T>> re = new HashMap<>();
+
+		if (ids == null || ids.isEmpty())
+			return re;
+
+		ChartWidgetSourceContext context = ChartWidgetSourceContext.get();
+
+		List<String> idList = new ArrayList<>(new LinkedHashSet<>(ids));
 
+		// 没有读权限的图表部件不会被返回，由调用方按单个获取的逻辑处理
 		if (context.hasUser())
-			entity = getById(context.getUser(), id);
-		else
-			entity = getById(id);
+		{
+			List<Integer> permissions = getPermissions(context.getUser(), idList, Authorization.PERMISSION_NONE_START);
 
-		if (entity == null)
-			return null;
+			List<String> readableIds = new ArrayList<>(idList.size());
+
+			for (int i = 0; i < idList.size(); i++)
+			{
+				if (Authorization.canRead(permissions.get(i)))
+					readableIds.add(idList.get(i));
+			}
+
+			idList = readableIds;
+		}
+
+		Map<String, HtmlChartWidgetEntity> widgets = getHtmlChartWidgetsForAnalysis(idList);
 
-		setHtmlChartPlugin(entity, true);
-		setChartDataSets(entity, true);
+		for (Map.Entry<String, HtmlChartWidgetEntity> entry : widgets.entrySet())
+			re.put(entry.getKey(), (ChartWidget<T>) entry.getValue());
 
-		return (ChartWidget<T>) entity;
+		return re;
 	}
 
 	@Override
@@ -159,8 +214,13 @@ public class HtmlChartWidgetEntityServiceImpl
 		boolean success = super.update(entity, params);
 
 		if (success)
+		{
 			saveWidgetDataSetRelations(entity);
 
+			if (this.chartWidgetCache != null)
+				this.chartWidgetCache.invalidate(entity.getId());
+		}
+
 		return success;
 	}
 
@@ -170,8 +230,13 @@ public class HtmlChartWidgetEntityServiceImpl
 		boolean deleted = super.deleteById(id, params);
 
 		if (deleted)
+		{
 			this.authorizationService.deleteByResource(HtmlChartWidgetEntity.AUTHORIZATION_RESOURCE_TYPE, id);
 
+			if (this.chartWidgetCache != null)
+				this.chartWidgetCache.invalidate(id);
+		}
+
 		return deleted;
 	}
 
@@ -221,6 +286,141 @@ public class HtmlChartWidgetEntityServiceImpl
 		return SQL_NAMESPACE;
 	}
 
+	/**
+	 * 获取用于展示的{@linkplain HtmlChartWidgetEntity}映射表，不检查权限。
+	 * <p>
+	 * 优先从{@linkplain #getChartWidgetCache()}中获取，未缓存的将批量加载并添加至缓存。
+	 * </p>
+	 * 
+	 * @param ids
+	 * @return 不存在的图表部件不会包含在返回映射表中
+	 */
+	protected Map<String, HtmlChartWidgetEntity> getHtmlChartWidgetsForAnalysis(List<String> ids)
+	{
+		Map<String, HtmlChartWidgetEntity> re = new HashMap<>();
+
+		if (ids.isEmpty())
+			return re;
+
+		List<String> loadIds = new ArrayList<>(ids.size());
+
+		if (this.chartWidgetCache == null)
+			loadIds.addAll(ids);
+		else
+		{
+			for (String id : ids)
+			{
+				HtmlChartWidgetEntity widget = this.chartWidgetCache.get(id);
+
+				if (widget != null && isHtmlChartPluginCurrent(widget))
+					re.put(id, widget);
+				else
+					loadIds.add(id);
+			}
+		}
+
+		if (loadIds.isEmpty())
+			return re;
+
+		long generation = (this.chartWidgetCache == null ? 0 : this.chartWidgetCache.getGeneration());
+
+		List<HtmlChartWidgetEntity> widgets = loadHtmlChartWidgetsForAnalysis(loadIds);
+
+		for (HtmlChartWidgetEntity widget : widgets)
+		{
+			re.put(widget.getId(), widget);
+
+			// 插件不存在的图表部件不缓存，以便插件上传后可立即使用
+			if (this.chartWidgetCache != null && widget.getHtmlChartPlugin() != null)
+				this.chartWidgetCache.put(widget, generation);
+		}
+
+		return re;
+	}
+
+	/**
+	 * 批量加载用于展示的{@linkplain HtmlChartWidgetEntity}，不检查权限。
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<HtmlChartWidgetEntity> loadHtmlChartWidgetsForAnalysis(List<String> ids)
+	{
+		Map<String, Object> params = buildParamMapWithIdentifierQuoteParameter();
+		params.put("ids", ids);
+
+		List<HtmlChartWidgetEntity> entities = selectListMybatis("getByIds", params);
+
+		if (entities.isEmpty())
+			return entities;
+
+		List<String> widgetIds = new ArrayList<>(entities.size());
+		for (HtmlChartWidgetEntity entity : entities)
+			widgetIds.add(entity.getId());
+
+		Map<String, Object> relationParams = buildParamMapWithIdentifierQuoteParameter();
+		relationParams.put("widgetIds", widgetIds);
+
+		List<WidgetDataSetRelation> relations = selectListMybatis("getDataSetRelationsByWidgetIds", relationParams);
+
+		Set<String> dataSetIds = new HashSet<>();
+		Map<String, List<WidgetDataSetRelation>> widgetRelationss = new HashMap<>();
+
+		for (WidgetDataSetRelation relation : relations)
+		{
+			if (!StringUtil.isEmpty(relation.getDataSetId()))
+				dataSetIds.add(relation.getDataSetId());
+
+			List<WidgetDataSetRelation> widgetRelations = widgetRelationss.get(relation.getWidgetId());
+			if (widgetRelations == null)
+			{
+				widgetRelations = new ArrayList<>();
+				widgetRelationss.put(relation.getWidgetId(), widgetRelations);
+			}
+
+			widgetRelations.add(relation);
+		}
+
+		Map<String, SqlDataSet> dataSets = this.sqlDataSetEntityService.getSqlDataSets(dataSetIds);
+
+		for (HtmlChartWidgetEntity entity : entities)
+		{
+			setHtmlChartPlugin(entity, true);
+
+			List<WidgetDataSetRelation> widgetRelations = widgetRelationss.get(entity.getId());
+			if (widgetRelations == null)
+				widgetRelations = Collections.EMPTY_LIST;
+
+			List<ChartDataSetVO> chartDataSets = new ArrayList<>(widgetRelations.size());
+
+			for (WidgetDataSetRelation relation : widgetRelations)
+			{
+				ChartDataSetVO chartDataSet = toChartDataSet(relation, dataSets.get(relation.getDataSetId()));
+
+				if (chartDataSet != null)
+					chartDataSets.add(chartDataSet);
+			}
+
+			entity.setChartDataSets(chartDataSets.toArray(new ChartDataSetVO[chartDataSets.size()]));
+		}
+
+		return entities;
+	}
+
+	/**
+	 * 缓存的{@linkplain HtmlChartWidgetEntity}的图表插件是否仍是{@linkplain #getChartPluginManager()}中的当前插件。
+	 * 
+	 * @param widget
+	 * @return
+	 */
+	protected boolean isHtmlChartPluginCurrent(HtmlChartWidgetEntity widget)
+	{
+		HtmlChartPlugin<HtmlRenderContext> plugin = widget.getHtmlChartPlugin();
+
+		return (plugin != null && plugin == getHtmlChartPlugin(plugin.getId()));
+	}
+
 	protected void setHtmlChartPlugin(HtmlChartWidgetEntity obj, boolean forAnalysis)
 	{
 		HtmlChartPlugin<HtmlRenderContext> htmlChartPlugin = obj.getHtmlChartPlugin();
@@ -274,7 +474,12 @@ public class HtmlChartWidgetEntityServiceImpl
 		else
 			dataSet = this.sqlDataSetEntityService.getById(relation.getDataSetId());
 
-		if (dataSet == null)
+		return toChartDataSet(relation, dataSet);
+	}
+
+	protected ChartDataSetVO toChartDataSet(WidgetDataSetRelation relation, DataSet dataSet)
+	{
+		if (relation == null || dataSet == null)
 			return null;
 
 		ChartDataSetVO chartDataSet = new ChartDataSetVO(dataSet);
@@ -15,6 +15,7 @@ import org.datagear.management.domain.User;
 import org.datagear.management.service.AuthorizationService;
 import org.datagear.management.service.PermissionDeniedException;
 import org.datagear.management.service.SchemaService;
+import org.datagear.management.util.ChartWidgetCache;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.persistence.Query;
@@ -35,6 +36,9 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 
 	private AuthorizationService authorizationService;
 
+	/** 用于展示的图表部件缓存，数据源修改后需使其失效 */
+	private ChartWidgetCache chartWidgetCache = null;
+
 	public SchemaServiceImpl()
 	{
 		super();
@@ -76,6 +80,16 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		this.authorizationService = authorizationService;
 	}
 
+	public ChartWidgetCache getChartWidgetCache()
+	{
+		return chartWidgetCache;
+	}
+
+	public void setChartWidgetCache(ChartWidgetCache chartWidgetCache)
+	{
+		this.chartWidgetCache = chartWidgetCache;
+	}
+
 	@Override
 	public String getResourceType()
 	{
@@ -98,6 +112,17 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		return super.update(user, entity);
 	}
 
+	@Override
+	protected boolean update(Schema entity, Map<String, Object> params)
+	{
+		boolean success = super.update(entity, params);
+
+		if (success && this.chartWidgetCache != null)
+			this.chartWidgetCache.invalidateBySchema(entity.getId());
+
+		return success;
+	}
+
 	@Override
 	public Schema getByStringId(User user, String id) throws PermissionDeniedException
 	{
@@ -120,8 +145,13 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		boolean deleted = super.deleteById(id, params);
 
 		if (deleted)
+		{
 			this.authorizationService.deleteByResource(Schema.AUTHORIZATION_RESOURCE_TYPE, id);
 
+			if (this.chartWidgetCache != null)
+				this.chartWidgetCache.invalidateBySchema(id);
+		}
+
 		return deleted;
 	}
 
@@ -167,7 +197,12 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		addIdentifierQuoteParameter(params);
 		params.put("userIds", userIds);
 
-		return updateMybatis("deleteByUserId", params);
+		int count = updateMybatis("deleteByUserId", params);
+
+		if (count > 0 && this.chartWidgetCache != null)
+			this.chartWidgetCache.invalidateAll();
+
+		return count;
 	}
 
 	@Override
@@ -8,6 +8,10 @@
 package org.datagear.management.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +21,7 @@ import org.datagear.analysis.DataSetParam;
 import org.datagear.analysis.DataSetProperty;
 import org.datagear.analysis.support.SqlDataSet;
 import org.datagear.connection.ConnectionSource;
+import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.SchemaConnectionFactory;
 import org.datagear.management.domain.SqlDataSetEntity;
 import org.datagear.management.domain.User;
@@ -24,6 +29,7 @@ import org.datagear.management.service.AuthorizationService;
 import org.datagear.management.service.PermissionDeniedException;
 import org.datagear.management.service.SchemaService;
 import org.datagear.management.service.SqlDataSetEntityService;
+import org.datagear.management.util.ChartWidgetCache;
 import org.mybatis.spring.SqlSessionTemplate;
 
 /**
@@ -43,6 +49,9 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 
 	private AuthorizationService authorizationService;
 
+	/** 用于展示的图表部件缓存，数据集修改后需使其失效 */
+	private ChartWidgetCache chartWidgetCache = null;
+
 	public SqlDataSetEntityServiceImpl()
 	{
 		super();
@@ -96,6 +105,16 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 		this.authorizationService = authorizationService;
 	}
 
+	public ChartWidgetCache getChartWidgetCache()
+	{
+		return chartWidgetCache;
+	}
+
+	public void setChartWidgetCache(ChartWidgetCache chartWidgetCache)
+	{
+		this.chartWidgetCache = chartWidgetCache;
+	}
+
 	@Override
 	public SqlDataSet getSqlDataSet(String id)
 	{
@@ -109,6 +128,66 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 		return entity;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<String, SqlDataSet> getSqlDataSets(Collection<String> ids)
+	{
+		Map<String, SqlDataSet> re = new HashMap<>();
+
+		if (ids == null || ids.isEmpty())
+			return re;
+
+		Map<String, Object> params = buildParamMapWithIdentifierQuoteParameter();
+		params.put("ids", new ArrayList<>(new LinkedHashSet<>(ids)));
+
+		List<SqlDataSetEntity> entities = selectListMybatis("getByIds", params);
+
+		if (entities.isEmpty())
+			return re;
+
+		List<String> dataSetIds = new ArrayList<>(entities.size());
+		for (SqlDataSetEntity entity : entities)
+			dataSetIds.add(entity.getId());
+
+		Map<String, Object> childParams = buildParamMapWithIdentifierQuoteParameter();
+		childParams.put("dataSetIds", dataSetIds);
+
+		List<DataSetPropertyPO> propertyPOs = selectListMybatis("getPropertyPOsByDataSetIds", childParams);
+		Map<String, List<DataSetProperty>> propertiess = DataSetPropertyPO.toGroups(propertyPOs);
+
+		List<DataSetParamPO> paramPOs = selectListMybatis("getParamPOsByDataSetIds", childParams);
+		Map<String, List<DataSetParam>> paramss = DataSetParamPO.toGroups(paramPOs);
+
+		// 数据集通常共用少量数据源，避免重复查询
+		Map<String, Schema> schemas = new HashMap<>();
+
+		for (SqlDataSetEntity entity : entities)
+		{
+			List<DataSetProperty> properties = propertiess.get(entity.getId());
+			entity.setProperties(properties == null ? Collections.EMPTY_LIST : properties);
+
+			List<DataSetParam> dataSetParams = paramss.get(entity.getId());
+			entity.setParams(dataSetParams == null ? Collections.EMPTY_LIST : dataSetParams);
+
+			SchemaConnectionFactory connectionFactory = entity.getConnectionFactory();
+			String schemaId = connectionFactory.getSchema().getId();
+
+			Schema schema = schemas.get(schemaId);
+			if (schema == null)
+			{
+				schema = this.schemaService.getById(schemaId);
+				schemas.put(schemaId, schema);
+			}
+
+			connectionFactory.setSchema(schema);
+			connectionFactory.setConnectionSource(this.connectionSource);
+
+			re.put(entity.getId(), entity);
+		}
+
+		return re;
+	}
+
 	@Override
 	protected boolean add(SqlDataSetEntity entity, Map<String, Object> params)
 	{
@@ -126,8 +205,13 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 		boolean success = super.update(entity, params);
 
 		if (success)
+		{
 			saveDataSetChildren(entity);
 
+			if (this.chartWidgetCache != null)
+				this.chartWidgetCache.invalidateByDataSet(entity.getId());
+		}
+
 		return success;
 	}
 
@@ -151,6 +235,9 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 		if (deleted)
 		{
 			this.authorizationService.deleteByResource(SqlDataSetEntity.AUTHORIZATION_RESOURCE_TYPE, id);
+
+			if (this.chartWidgetCache != null)
+				this.chartWidgetCache.invalidateByDataSet(id);
 		}
 
 		return deleted;
@@ -286,6 +373,35 @@ public class SqlDataSetEntityServiceImpl extends AbstractMybatisDataPermissionEn
 
 			return childs;
 		}
+
+		/**
+		 * 按照{@linkplain #getDataSetId()}分组，组内保持原顺序。
+		 * 
+		 * @param pos
+		 * @return
+		 */
+		public static <T> Map<String, List<T>> toGroups(List<? extends DataSetChildPO<T>> pos)
+		{
+			Map<String, List<T>> groups = new HashMap<String, List<T>>();
+
+			if (pos != null)
+			{
+				for (DataSetChildPO<T> po : pos)
+				{
+					List<T> childs = groups.get(po.getDataSetId());
+
+					if (childs == null)
+					{
+						childs = new ArrayList<T>();
+						groups.put(po.getDataSetId(), childs);
+					}
+
+					childs.add(po.getChild());
+				}
+			}
+
+			return groups;
+		}
 	}
 
 	public static class DataSetPropertyPO extends DataSetChildPO<DataSetProperty>
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.management.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.DataSet;
+import org.datagear.management.domain.HtmlChartWidgetEntity;
+import org.datagear.management.domain.Schema;
+import org.datagear.management.domain.SchemaConnectionFactory;
+import org.datagear.management.domain.SqlDataSetEntity;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * 用于展示的{@linkplain HtmlChartWidgetEntity}缓存。
+ * <p>
+ * 缓存的是已完整加载（图表插件、数据集、数据源）的图表部件，它们与用户无关，权限应由调用方另行检查。
+ * </p>
+ * <p>
+ * 图表部件、数据集、数据源被修改或删除后，应调用对应的{@code invalidate}方法。
+ * 为了避免在加载期间发生修改导致缓存旧数据，加载前应先调用{@linkplain #getGeneration()}，
+ * 然后使用{@linkplain #put(HtmlChartWidgetEntity, long)}添加缓存。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class ChartWidgetCache
+{
+	/** 缓存值的最大数 */
+	private int maximumSize = 500;
+
+	/** 缓存过期分钟数 */
+	private int expireAfterAccessMinutes = 60 * 24;
+
+	private Cache<String, HtmlChartWidgetEntity> _cache = null;
+
+	/** 失效代数，每次执行失效操作都会增加 */
+	private volatile long _generation = 0;
+
+	public ChartWidgetCache()
+	{
+		super();
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireAfterAccessMinutes()
+	{
+		return expireAfterAccessMinutes;
+	}
+
+	public void setExpireAfterAccessMinutes(int expireAfterAccessMinutes)
+	{
+		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+				.expireAfterAccess(this.expireAfterAccessMinutes * 60, TimeUnit.SECONDS).build();
+	}
+
+	/**
+	 * 获取当前失效代数。
+	 *
+	 * @return
+	 */
+	public long getGeneration()
+	{
+		return this._generation;
+	}
+
+	/**
+	 * 获取{@linkplain HtmlChartWidgetEntity}。
+	 *
+	 * @param id
+	 * @return 返回{@code null}表示没有缓存
+	 */
+	public HtmlChartWidgetEntity get(String id)
+	{
+		return this._cache.getIfPresent(id);
+	}
+
+	/**
+	 * 将{@linkplain HtmlChartWidgetEntity}添加至缓存。
+	 * <p>
+	 * 如果在{@code generation}之后执行过失效操作，则不会添加。
+	 * </p>
+	 *
+	 * @param widget
+	 * @param generation
+	 *            加载{@code widget}之前的{@linkplain #getGeneration()}
+	 * @return 是否已添加
+	 */
+	public synchronized boolean put(HtmlChartWidgetEntity widget, long generation)
+	{
+		if (generation != this._generation)
+			return false;
+
+		this._cache.put(widget.getId(), widget);
+
+		return true;
+	}
+
+	/**
+	 * 清除指定ID的{@linkplain HtmlChartWidgetEntity}缓存。
+	 *
+	 * @param id
+	 */
+	public synchronized void invalidate(String id)
+	{
+		this._generation++;
+		this._cache.invalidate(id);
+	}
+
+	/**
+	 * 清除所有使用了指定数据集ID的{@linkplain HtmlChartWidgetEntity}缓存。
+	 *
+	 * @param dataSetId
+	 */
+	public synchronized void invalidateByDataSet(String dataSetId)
+	{
+		this._generation++;
+
+		Set<String> ids = new HashSet<>();
+
+		for (Map.Entry<String, HtmlChartWidgetEntity> entry : this._cache.asMap().entrySet())
+		{
+			ChartDataSet[] chartDataSets = entry.getValue().getChartDataSets();
+
+			if (chartDataSets == null)
+				continue;
+
+			for (ChartDataSet chartDataSet : chartDataSets)
+			{
+				DataSet dataSet = chartDataSet.getDataSet();
+
+				if (dataSet != null && dataSetId.equals(dataSet.getId()))
+				{
+					ids.add(entry.getKey());
+					break;
+				}
+			}
+		}
+
+		if (!ids.isEmpty())
+			this._cache.invalidateAll(ids);
+	}
+
+	/**
+	 * 清除所有使用了指定{@linkplain Schema} ID的{@linkplain HtmlChartWidgetEntity}缓存。
+	 *
+	 * @param schemaId
+	 */
+	public synchronized void invalidateBySchema(String schemaId)
+	{
+		this._generation++;
+
+		Set<String> ids = new HashSet<>();
+
+		for (Map.Entry<String, HtmlChartWidgetEntity> entry : this._cache.asMap().entrySet())
+		{
+			ChartDataSet[] chartDataSets = entry.getValue().getChartDataSets();
+
+			if (chartDataSets == null)
+				continue;
+
+			for (ChartDataSet chartDataSet : chartDataSets)
+			{
+				DataSet dataSet = chartDataSet.getDataSet();
+
+				if (!(dataSet instanceof SqlDataSetEntity))
+					continue;
+
+				SchemaConnectionFactory connectionFactory = ((SqlDataSetEntity) dataSet).getConnectionFactory();
+				Schema schema = (connectionFactory == null ? null : connectionFactory.getSchema());
+
+				if (schema != null && schemaId.equals(schema.getId()))
+				{
+					ids.add(entry.getKey());
+					break;
+				}
+			}
+		}
+
+		if (!ids.isEmpty())
+			this._cache.invalidateAll(ids);
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public synchronized void invalidateAll()
+	{
+		this._generation++;
+		this._cache.invalidateAll();
+	}
+}
@@ -305,3 +305,6 @@ ALTER TABLE DATAGEAR_HCW_DS ADD COLUMN DS_ALIAS VARCHAR(100);
 
 --添加图表数据集参数值列
 ALTER TABLE DATAGEAR_HCW_DS ADD COLUMN DS_PARAM_VALUES VARCHAR(1000);
+
+--添加看板快照间隔列
+ALTER TABLE DATAGEAR_HTML_DASHBOARD ADD COLUMN HD_SNAPSHOT_INTERVAL INTEGER DEFAULT 0;
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.management.util;
+
+import org.datagear.management.domain.ChartDataSetVO;
+import org.datagear.management.domain.HtmlChartWidgetEntity;
+import org.datagear.management.domain.Schema;
+import org.datagear.management.domain.SchemaConnectionFactory;
+import org.datagear.management.domain.SqlDataSetEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain ChartWidgetCache}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class ChartWidgetCacheTest
+{
+	@Test
+	public void putTest()
+	{
+		ChartWidgetCache cache = createChartWidgetCache();
+
+		long generation = cache.getGeneration();
+		Assert.assertTrue(cache.put(createWidget("w0", "ds0", "s0"), generation));
+		Assert.assertNotNull(cache.get("w0"));
+
+		cache.invalidate("w1");
+
+		// 加载期间发生过失效操作，不应缓存
+		Assert.assertFalse(cache.put(createWidget("w2", "ds2", "s2"), generation));
+		Assert.assertNull(cache.get("w2"));
+	}
+
+	@Test
+	public void invalidateTest()
+	{
+		ChartWidgetCache cache = createChartWidgetCache();
+
+		cache.put(createWidget("w0", "ds0", "s0"), cache.getGeneration());
+		cache.put(createWidget("w1", "ds1", "s0"), cache.getGeneration());
+		cache.put(createWidget("w2", "ds2", "s1"), cache.getGeneration());
+
+		cache.invalidateByDataSet("ds0");
+		Assert.assertNull(cache.get("w0"));
+		Assert.assertNotNull(cache.get("w1"));
+		Assert.assertNotNull(cache.get("w2"));
+
+		cache.invalidateBySchema("s0");
+		Assert.assertNull(cache.get("w1"));
+		Assert.assertNotNull(cache.get("w2"));
+
+		cache.invalidate("w2");
+		Assert.assertNull(cache.get("w2"));
+	}
+
+	protected ChartWidgetCache createChartWidgetCache()
+	{
+		ChartWidgetCache cache = new ChartWidgetCache();
+		cache.init();
+
+		return cache;
+	}
+
+	protected HtmlChartWidgetEntity createWidget(String id, String dataSetId, String schemaId)
+	{
+		Schema schema = new Schema(schemaId, schemaId, "jdbc:derby:memory:test", "", "");
+		SqlDataSetEntity dataSet = new SqlDataSetEntity(dataSetId, dataSetId, null,
+				new SchemaConnectionFactory(null, schema), "SELECT 1", null);
+
+		HtmlChartWidgetEntity widget = new HtmlChartWidgetEntity();
+		widget.setId(id);
+		widget.setChartDataSetVOs(new ChartDataSetVO[] { new ChartDataSetVO(dataSet) });
+
+		return widget;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta;
+
+import java.util.Arrays;
+
+/**
+ * 索引键。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class IndexKey extends AbstractKey
+{
+	private static final long serialVersionUID = 1L;
+
+	/** 是否全文索引 */
+	private boolean fullText = false;
+
+	/** 全文索引配置，比如PostgreSQL的文本搜索配置名，允许为null */
+	private String fullTextConfig = null;
+
+	public IndexKey()
+	{
+		super();
+	}
+
+	public IndexKey(String[] columnNames)
+	{
+		super(columnNames);
+	}
+
+	public IndexKey(String[] columnNames, boolean fullText)
+	{
+		super(columnNames);
+		this.fullText = fullText;
+	}
+
+	public boolean isFullText()
+	{
+		return fullText;
+	}
+
+	public void setFullText(boolean fullText)
+	{
+		this.fullText = fullText;
+	}
+
+	public String getFullTextConfig()
+	{
+		return fullTextConfig;
+	}
+
+	public void setFullTextConfig(String fullTextConfig)
+	{
+		this.fullTextConfig = fullTextConfig;
+	}
+
+	/**
+	 * 是否以指定列名开头。
+	 * 
+	 * @param columnName
+	 * @return
+	 */
+	public boolean isLeadingColumn(String columnName)
+	{
+		String[] columnNames = getColumnNames();
+
+		return (columnNames != null && columnNames.length > 0 && columnNames[0].equals(columnName));
+	}
+
+	/**
+	 * 是否包含指定列名。
+	 * 
+	 * @param columnName
+	 * @return
+	 */
+	public boolean containsColumn(String columnName)
+	{
+		String[] columnNames = getColumnNames();
+
+		if (columnNames == null)
+			return false;
+
+		for (String cn : columnNames)
+		{
+			if (cn.equals(columnName))
+				return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [columnNames=" + Arrays.toString(getColumnNames()) + ", keyName="
+				+ getKeyName() + ", fullText=" + fullText + ", fullTextConfig=" + fullTextConfig + "]";
+	}
+}
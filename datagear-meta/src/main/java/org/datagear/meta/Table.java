@@ -32,6 +32,9 @@ public class Table extends AbstractTable
 	/** 导入外键 */
 	private ImportKey[] importKeys;
 
+	/** 索引键 */
+	private IndexKey[] indexKeys;
+
 	/** 表是否只读 */
 	private boolean readonly = false;
 
@@ -119,6 +122,49 @@ public class Table extends AbstractTable
 		this.importKeys = importKeys;
 	}
 
+	public boolean hasIndexKey()
+	{
+		return (this.indexKeys != null && this.indexKeys.length > 0);
+	}
+
+	public IndexKey[] getIndexKeys()
+	{
+		return indexKeys;
+	}
+
+	public void setIndexKeys(IndexKey[] indexKeys)
+	{
+		this.indexKeys = indexKeys;
+	}
+
+	/**
+	 * 指定列是否是某个非全文索引的首列。
+	 * 
+	 * @param columnName
+	 * @return
+	 */
+	public boolean isIndexLeadingColumn(String columnName)
+	{
+		if (this.primaryKey != null)
+		{
+			String[] pkNames = this.primaryKey.getColumnNames();
+
+			if (pkNames != null && pkNames.length > 0 && pkNames[0].equals(columnName))
+				return true;
+		}
+
+		if (this.indexKeys != null)
+		{
+			for (IndexKey key : this.indexKeys)
+			{
+				if (!key.isFullText() && key.isLeadingColumn(columnName))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
 	public boolean isReadonly()
 	{
 		return readonly;
@@ -167,7 +213,8 @@ public class Table extends AbstractTable
 	{
 		return getClass().getSimpleName() + " [name=" + getName() + ", type=" + getType() + ", comment=" + getComment()
 				+ ", columns=" + Arrays.toString(columns) + ", primaryKey=" + primaryKey + ", uniqueKeys="
-				+ Arrays.toString(uniqueKeys) + ", importKeys=" + Arrays.toString(importKeys) + "]";
+				+ Arrays.toString(uniqueKeys) + ", importKeys=" + Arrays.toString(importKeys) + ", indexKeys="
+				+ Arrays.toString(indexKeys) + "]";
 	}
 
 	/**
@@ -188,4 +235,26 @@ public class Table extends AbstractTable
 
 		return bcs.toArray(new Column[bcs.size()]);
 	}
+
+	/**
+	 * 获取所有全文索引键。
+	 * 
+	 * @return 返回空数组表示没有。
+	 */
+	public static IndexKey[] getFullTextIndexKeys(Table table)
+	{
+		List<IndexKey> keys = new ArrayList<>(1);
+
+		IndexKey[] indexKeys = table.getIndexKeys();
+		if (indexKeys != null)
+		{
+			for (IndexKey key : indexKeys)
+			{
+				if (key.isFullText())
+					keys.add(key);
+			}
+		}
+
+		return keys.toArray(new IndexKey[keys.size()]);
+	}
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta;
+
+import org.datagear.util.StringInterner;
+
+/**
+ * {@linkplain Table}字符串共享处理器。
+ * <p>
+ * 不同表的列名、类型名、默认值、注释、键名等字符串大量重复，此类将它们替换为{@linkplain StringInterner}中的共享实例，
+ * 从而减少缓存大量{@linkplain Table}时的内存占用。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableInterner
+{
+	/** 共享实例 */
+	public static final TableInterner SHARED = new TableInterner(new StringInterner());
+
+	private final StringInterner stringInterner;
+
+	public TableInterner(StringInterner stringInterner)
+	{
+		super();
+		this.stringInterner = stringInterner;
+	}
+
+	public StringInterner getStringInterner()
+	{
+		return stringInterner;
+	}
+
+	/**
+	 * 将{@linkplain Table}中的字符串替换为共享实例。
+	 *
+	 * @param table
+	 *            允许为{@code null}
+	 * @return 参数{@linkplain Table}本身
+	 */
+	public Table intern(Table table)
+	{
+		if (table == null)
+			return null;
+
+		table.setName(intern(table.getName()));
+		table.setType(intern(table.getType()));
+		table.setComment(intern(table.getComment()));
+
+		Column[] columns = table.getColumns();
+
+		if (columns != null)
+		{
+			for (Column column : columns)
+				intern(column);
+		}
+
+		intern(table.getPrimaryKey());
+		intern(table.getUniqueKeys());
+		intern(table.getIndexKeys());
+
+		ImportKey[] importKeys = table.getImportKeys();
+
+		if (importKeys != null)
+		{
+			for (ImportKey importKey : importKeys)
+			{
+				intern(importKey);
+				importKey.setPrimaryTableName(intern(importKey.getPrimaryTableName()));
+				this.stringInterner.intern(importKey.getPrimaryColumnNames());
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * 将{@linkplain Column}中的字符串替换为共享实例。
+	 *
+	 * @param column
+	 *            允许为{@code null}
+	 * @return 参数{@linkplain Column}本身
+	 */
+	public Column intern(Column column)
+	{
+		if (column == null)
+			return null;
+
+		column.setName(intern(column.getName()));
+		column.setTypeName(intern(column.getTypeName()));
+		column.setComment(intern(column.getComment()));
+		column.setDefaultValue(intern(column.getDefaultValue()));
+
+		return column;
+	}
+
+	protected void intern(AbstractKey[] keys)
+	{
+		if (keys == null)
+			return;
+
+		for (AbstractKey key : keys)
+			intern(key);
+	}
+
+	protected void intern(AbstractKey key)
+	{
+		if (key == null)
+			return;
+
+		key.setKeyName(intern(key.getKeyName()));
+		this.stringInterner.intern(key.getColumnNames());
+
+		if (key instanceof IndexKey)
+		{
+			IndexKey indexKey = (IndexKey) key;
+			indexKey.setFullTextConfig(intern(indexKey.getFullTextConfig()));
+		}
+	}
+
+	protected String intern(String str)
+	{
+		return this.stringInterner.intern(str);
+	}
+}
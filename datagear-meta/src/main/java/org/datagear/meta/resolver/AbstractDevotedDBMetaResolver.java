@@ -11,26 +11,35 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.datagear.connection.ConnectionOption;
 import org.datagear.meta.Column;
 import org.datagear.meta.DataType;
 import org.datagear.meta.Database;
 import org.datagear.meta.ImportKey;
+import org.datagear.meta.IndexKey;
 import org.datagear.meta.PrimaryKey;
 import org.datagear.meta.SearchableType;
 import org.datagear.meta.SimpleTable;
 import org.datagear.meta.Table;
+import org.datagear.meta.TableInterner;
 import org.datagear.meta.TableType;
 import org.datagear.meta.UniqueKey;
 import org.datagear.util.JDBCCompatiblity;
 import org.datagear.util.JdbcSupport;
 import org.datagear.util.JdbcUtil;
+import org.datagear.util.QueryResultSet;
+import org.datagear.util.Sql;
 import org.datagear.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,11 +59,37 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 
 	protected static final String[] EMPTY_STRING_ARRAY = new String[0];
 
+	/** 批量获取表时，表数目小于此值则逐表获取 */
+	private int bulkTableCountThreshold = 5;
+
+	/** 按表名批量获取表时，表数目占模式下所有表的比例不小于此值才使用整库范围的列查询，否则逐表获取列 */
+	private double bulkColumnsTableRatio = 0.5;
+
 	public AbstractDevotedDBMetaResolver()
 	{
 		super();
 	}
 
+	public int getBulkTableCountThreshold()
+	{
+		return bulkTableCountThreshold;
+	}
+
+	public void setBulkTableCountThreshold(int bulkTableCountThreshold)
+	{
+		this.bulkTableCountThreshold = bulkTableCountThreshold;
+	}
+
+	public double getBulkColumnsTableRatio()
+	{
+		return bulkColumnsTableRatio;
+	}
+
+	public void setBulkColumnsTableRatio(double bulkColumnsTableRatio)
+	{
+		this.bulkColumnsTableRatio = bulkColumnsTableRatio;
+	}
+
 	@Override
 	public Database getDatabase(Connection cn) throws DBMetaResolverException
 	{
@@ -158,6 +193,21 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		return getTable(cn, metaData, catalog, schema, tableName);
 	}
 
+	@Override
+	public List<Table> getTables(Connection cn, String... tableNames) throws DBMetaResolverException
+	{
+		@JDBCCompatiblity("同getTable(Connection, String)")
+		boolean readonly = JdbcUtil.isReadonlyIfSupports(cn, true);
+		if (readonly)
+			JdbcUtil.setReadonlyIfSupports(cn, false);
+
+		String catalog = getCatalog(cn);
+		DatabaseMetaData metaData = getDatabaseMetaData(cn);
+		String schema = getSchema(cn, metaData);
+
+		return getTables(cn, metaData, catalog, schema, tableNames);
+	}
+
 	@Override
 	public Column[] getColumns(Connection cn, String tableName) throws DBMetaResolverException
 	{
@@ -165,7 +215,7 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		DatabaseMetaData metaData = getDatabaseMetaData(cn);
 		String schema = getSchema(cn, metaData);
 
-		return getColumns(cn, metaData, schema, catalog, tableName, null);
+		return getColumns(cn, metaData, catalog, schema, tableName, null);
 	}
 
 	@Override
@@ -231,6 +281,16 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		return getDataTypes(cn, metaData);
 	}
 
+	@Override
+	public String getChangeFingerprint(Connection cn) throws DBMetaResolverException
+	{
+		String catalog = getCatalog(cn);
+		DatabaseMetaData metaData = getDatabaseMetaData(cn);
+		String schema = getSchema(cn, metaData);
+
+		return getChangeFingerprint(cn, metaData, catalog, schema);
+	}
+
 	@Override
 	public List<String[]> getImportTables(Connection cn, String... tableNames)
 	{
@@ -240,6 +300,14 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		DatabaseMetaData metaData = getDatabaseMetaData(cn);
 		String schema = getSchema(cn, metaData);
 
+		Map<String, ImportKey[]> bulkImportKeys = null;
+
+		if (tableNames.length > 1)
+			bulkImportKeys = getImportKeysBulk(cn, metaData, catalog, schema, toNameSet(tableNames));
+
+		// 已处理表名 -> 导入表，用于处理重复表
+		Map<String, String[]> importTablesMap = new HashMap<>();
+
 		for (int i = 0; i < tableNames.length; i++)
 		{
 			String[] importTables = null;
@@ -248,19 +316,12 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 				importTables = EMPTY_STRING_ARRAY;
 			else
 			{
-				// 处理重复表
-				for (int k = 0; i < i; k++)
-				{
-					if (tableNames[k].equals(tableNames[i]))
-					{
-						importTables = importTabless.get(k);
-						break;
-					}
-				}
+				importTables = importTablesMap.get(tableNames[i]);
 
 				if (importTables == null)
 				{
-					ImportKey[] importKeys = getImportKeys(cn, metaData, catalog, schema, tableNames[i]);
+					ImportKey[] importKeys = (bulkImportKeys != null ? bulkImportKeys.get(tableNames[i])
+							: getImportKeys(cn, metaData, catalog, schema, tableNames[i]));
 
 					if (importKeys == null || importKeys.length == 0)
 						importTables = EMPTY_STRING_ARRAY;
@@ -279,6 +340,8 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 						importTables = new String[importedTableList.size()];
 						importedTableList.toArray(importTables);
 					}
+
+					importTablesMap.put(tableNames[i], importTables);
 				}
 			}
 
@@ -365,108 +428,705 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 				}
 			}
 
-			return simpleTables;
-		}
-		catch (SQLException e)
-		{
-			throw new DBMetaResolverException(e);
-		}
-		finally
+			return simpleTables;
+		}
+		catch (SQLException e)
+		{
+			throw new DBMetaResolverException(e);
+		}
+		finally
+		{
+			JdbcUtil.closeResultSet(rs);
+		}
+	}
+
+	/**
+	 * @return 返回{@code null}表示未读取到
+	 */
+	protected SimpleTable readSimpleTable(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			MetaResultSet rs)
+	{
+		try
+		{
+			String name = rs.getString("TABLE_NAME", null);
+			String type = TableType.toTableType(rs.getString("TABLE_TYPE", ""));
+
+			if (StringUtil.isEmpty(name) || StringUtil.isEmpty(type))
+			{
+				LOGGER.warn("invalid table : name={}, type={}", name, type);
+				return null;
+			}
+
+			SimpleTable simpleTable = new SimpleTable(name, type);
+			simpleTable.setComment(rs.getString("REMARKS", ""));
+
+			return simpleTable;
+		}
+		catch (SQLException e)
+		{
+			return null;
+		}
+	}
+
+	protected SimpleTable postProcessSimpleTable(Connection cn, DatabaseMetaData metaData, String schema,
+			SimpleTable simpleTable) throws SQLException
+	{
+		return simpleTable;
+	}
+
+	protected List<DataType> getDataTypes(Connection cn, DatabaseMetaData metaData) throws DBMetaResolverException
+	{
+		List<DataType> dataTypes = new ArrayList<>();
+
+		ResultSet rs = null;
+
+		try
+		{
+			rs = getDataTypeResultSet(cn, metaData);
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				DataType dataType = readDataType(mrs);
+
+				if (dataType != null)
+					dataTypes.add(dataType);
+			}
+
+			return dataTypes;
+		}
+		catch (SQLException e)
+		{
+			throw new DBMetaResolverException(e);
+		}
+		finally
+		{
+			JdbcUtil.closeResultSet(rs);
+		}
+	}
+
+	protected Table getTable(Connection cn, DatabaseMetaData metaData, String catalog, String schema, String tableName)
+			throws DBMetaResolverException
+	{
+		boolean readonly = resolveTableReadonly(cn);
+
+		List<SimpleTable> simpleTables = getSimpleTables(cn, metaData, catalog, schema, tableName);
+
+		if (simpleTables == null || simpleTables.isEmpty())
+			throw new TableNotFoundException(tableName);
+
+		SimpleTable simpleTable = simpleTables.get(0);
+
+		Table table = new Table();
+		table.setName(simpleTable.getName());
+		table.setType(simpleTable.getType());
+		table.setComment(simpleTable.getComment());
+		table.setColumns(getColumns(cn, metaData, catalog, schema, tableName, null));
+		table.setPrimaryKey(getPrimaryKey(cn, metaData, catalog, schema, tableName));
+		table.setUniqueKeys(getUniqueKeys(cn, metaData, catalog, schema, tableName));
+		table.setImportKeys(getImportKeys(cn, metaData, catalog, schema, tableName));
+		table.setIndexKeys(getIndexKeys(cn, metaData, catalog, schema, tableName));
+		table.setReadonly(readonly);
+
+		table = postProcessTable(cn, metaData, schema, table);
+		table = internTable(table);
+
+		return table;
+	}
+
+	/**
+	 * 批量获取表。
+	 * <p>
+	 * 指定的表名数目小于{@linkplain #getBulkTableCountThreshold()}时逐表获取，不读取整库的表列表；
+	 * 未指定表名、或者表数目占模式下所有表的比例不小于{@linkplain #getBulkColumnsTableRatio()}时，
+	 * 列使用一次整库范围的{@linkplain #getColumnsBulk(Connection, DatabaseMetaData, String, String, Set)}读取，否则逐表读取列；
+	 * 主键、唯一键、导入键、索引键使用对应的批量方法读取，批量方法不支持时再逐表读取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 *            为空时获取所有用户数据表
+	 * @return
+	 * @throws DBMetaResolverException
+	 */
+	protected List<Table> getTables(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String[] tableNames) throws DBMetaResolverException
+	{
+		boolean allTables = (tableNames == null || tableNames.length == 0);
+
+		if (!allTables)
+		{
+			Set<String> nameSet = toNameSet(tableNames);
+
+			if (nameSet.size() < this.bulkTableCountThreshold)
+			{
+				List<Table> tables = new ArrayList<>(nameSet.size());
+
+				for (String tableName : nameSet)
+				{
+					try
+					{
+						tables.add(getTable(cn, metaData, catalog, schema, tableName));
+					}
+					catch (TableNotFoundException e)
+					{
+						// 与批量获取一致，忽略不存在的表
+					}
+				}
+
+				return tables;
+			}
+		}
+
+		List<SimpleTable> simpleTables = getSimpleTables(cn, metaData, catalog, schema, null);
+		List<SimpleTable> targets = new ArrayList<>();
+
+		if (allTables)
+		{
+			for (SimpleTable simpleTable : simpleTables)
+			{
+				if (isUserDataTable(cn, simpleTable))
+					targets.add(simpleTable);
+			}
+		}
+		else
+		{
+			Map<String, SimpleTable> simpleTableMap = new HashMap<>();
+			for (SimpleTable simpleTable : simpleTables)
+				simpleTableMap.put(simpleTable.getName(), simpleTable);
+
+			Set<String> added = new HashSet<>();
+
+			for (String tableName : tableNames)
+			{
+				SimpleTable simpleTable = simpleTableMap.get(tableName);
+
+				if (simpleTable != null && added.add(tableName))
+					targets.add(simpleTable);
+			}
+		}
+
+		List<Table> tables = new ArrayList<>(targets.size());
+
+		if (targets.isEmpty())
+			return tables;
+
+		if (targets.size() < this.bulkTableCountThreshold)
+		{
+			for (SimpleTable simpleTable : targets)
+				tables.add(getTable(cn, metaData, catalog, schema, simpleTable.getName()));
+
+			return tables;
+		}
+
+		boolean readonly = resolveTableReadonly(cn);
+
+		Set<String> names = new HashSet<>();
+		for (SimpleTable simpleTable : targets)
+			names.add(simpleTable.getName());
+
+		boolean bulkColumns = (allTables || targets.size() >= simpleTables.size() * this.bulkColumnsTableRatio);
+
+		Map<String, List<Column>> columnsMap = (bulkColumns ? getColumnsBulk(cn, metaData, catalog, schema, names)
+				: null);
+		Map<String, PrimaryKey> primaryKeys = getPrimaryKeysBulk(cn, metaData, catalog, schema, names);
+		Map<String, UniqueKey[]> uniqueKeys = getUniqueKeysBulk(cn, metaData, catalog, schema, names);
+		Map<String, ImportKey[]> importKeys = getImportKeysBulk(cn, metaData, catalog, schema, names);
+		Map<String, IndexKey[]> indexKeys = getIndexKeysBulk(cn, metaData, catalog, schema, names);
+
+		for (SimpleTable simpleTable : targets)
+		{
+			String tableName = simpleTable.getName();
+			Table table = new Table();
+			table.setName(tableName);
+			table.setType(simpleTable.getType());
+			table.setComment(simpleTable.getComment());
+
+			if (columnsMap != null)
+			{
+				List<Column> columns = columnsMap.get(tableName);
+				table.setColumns(columns == null ? new Column[0] : columns.toArray(new Column[columns.size()]));
+			}
+			else
+				table.setColumns(getColumns(cn, metaData, catalog, schema, tableName, null));
+
+			table.setPrimaryKey(primaryKeys != null ? primaryKeys.get(tableName)
+					: getPrimaryKey(cn, metaData, catalog, schema, tableName));
+			table.setUniqueKeys(uniqueKeys != null ? uniqueKeys.get(tableName)
+					: getUniqueKeys(cn, metaData, catalog, schema, tableName));
+			table.setImportKeys(importKeys != null ? importKeys.get(tableName)
+					: getImportKeys(cn, metaData, catalog, schema, tableName));
+			table.setIndexKeys(indexKeys != null ? indexKeys.get(tableName)
+					: getIndexKeys(cn, metaData, catalog, schema, tableName));
+			table.setReadonly(readonly);
+
+			table = postProcessTable(cn, metaData, schema, table);
+			table = internTable(table);
+
+			tables.add(table);
+		}
+
+		return tables;
+	}
+
+	/**
+	 * 使用一次整库范围的列查询，批量获取表的列。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 * @return 表名 -> 列
+	 * @throws DBMetaResolverException
+	 */
+	protected Map<String, List<Column>> getColumnsBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames) throws DBMetaResolverException
+	{
+		Map<String, List<Column>> columnsMap = new HashMap<>();
+
+		ResultSet rs = null;
+
+		try
+		{
+			rs = getColumnResulSet(cn, metaData, catalog, schema, "%");
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				String tableName = mrs.getString("TABLE_NAME", null);
+
+				if (tableName == null || !tableNames.contains(tableName))
+					continue;
+
+				Column column = readColumn(cn, metaData, schema, tableName, mrs);
+
+				if (column == null)
+					continue;
+
+				column = postProcessColumn(cn, metaData, schema, tableName, column);
+
+				List<Column> columns = columnsMap.get(tableName);
+
+				if (columns == null)
+				{
+					columns = new ArrayList<>();
+					columnsMap.put(tableName, columns);
+				}
+
+				addColumn(columns, column);
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new DBMetaResolverException(e);
+		}
+		finally
+		{
+			JdbcUtil.closeResultSet(rs);
+		}
+
+		for (List<Column> columns : columnsMap.values())
+			sortColumns(columns);
+
+		return columnsMap;
+	}
+
+	/**
+	 * 批量获取主键。
+	 * <p>
+	 * JDBC规范要求{@linkplain DatabaseMetaData#getPrimaryKeys(String, String, String)}的表名不能为{@code null}，
+	 * 而某些驱动程序（比如Oracle）对其静默返回空结果，所以这里默认不支持，子类可以通过特定数据库的系统表实现。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 * @return 表名 -> 主键，没有的表即无主键；返回{@code null}表示不支持，将逐表获取
+	 * @throws DBMetaResolverException
+	 */
+	protected Map<String, PrimaryKey> getPrimaryKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames) throws DBMetaResolverException
+	{
+		return null;
+	}
+
+	/**
+	 * 批量获取唯一键，默认不支持，参考{@linkplain #getPrimaryKeysBulk(Connection, DatabaseMetaData, String, String, Set)}。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 * @return 表名 -> 唯一键，没有的表即无唯一键；返回{@code null}表示不支持，将逐表获取
+	 * @throws DBMetaResolverException
+	 */
+	protected Map<String, UniqueKey[]> getUniqueKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames) throws DBMetaResolverException
+	{
+		return null;
+	}
+
+	/**
+	 * 批量获取导入键，默认不支持，参考{@linkplain #getPrimaryKeysBulk(Connection, DatabaseMetaData, String, String, Set)}。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 * @return 表名 -> 导入键，没有的表即无导入键；返回{@code null}表示不支持，将逐表获取
+	 * @throws DBMetaResolverException
+	 */
+	protected Map<String, ImportKey[]> getImportKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames) throws DBMetaResolverException
+	{
+		return null;
+	}
+
+	/**
+	 * 批量获取索引键（包括全文索引键），默认不支持，参考{@linkplain #getPrimaryKeysBulk(Connection, DatabaseMetaData, String, String, Set)}。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableNames
+	 * @return 表名 -> 索引键，没有的表即无索引键；返回{@code null}表示不支持，将逐表获取
+	 * @throws DBMetaResolverException
+	 */
+	protected Map<String, IndexKey[]> getIndexKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames) throws DBMetaResolverException
+	{
+		return null;
+	}
+
+	/**
+	 * 执行“表名、键名、列名”查询，按照表名、键名分组读取键列名。
+	 * <p>
+	 * 查询结果中同一键的行应按照列序排列。查询出现异常时将返回{@code null}，以便降级为逐表获取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param tableNameLabel
+	 * @param keyNameLabel
+	 * @param columnNameLabel
+	 * @param tableNames
+	 *            仅读取这些表的行
+	 * @return 表名 -> 键名 -> 列名
+	 */
+	protected Map<String, Map<String, List<String>>> queryKeyColumnNames(Connection cn, Sql sql,
+			String tableNameLabel, String keyNameLabel, String columnNameLabel, Set<String> tableNames)
+	{
+		Map<String, Map<String, List<String>>> keyColumnNamess = new HashMap<>();
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+
+			ResultSet rs = qrs.getResultSet();
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				String tableName = mrs.getString(tableNameLabel, null);
+
+				if (tableName == null || !tableNames.contains(tableName))
+					continue;
+
+				String keyName = mrs.getString(keyNameLabel, "");
+				String columnName = mrs.getString(columnNameLabel, null);
+
+				Map<String, List<String>> tableKeys = keyColumnNamess.get(tableName);
+
+				if (tableKeys == null)
+				{
+					tableKeys = new LinkedHashMap<>();
+					keyColumnNamess.put(tableName, tableKeys);
+				}
+
+				List<String> columnNames = tableKeys.get(keyName);
+
+				if (columnNames == null)
+				{
+					columnNames = new ArrayList<>();
+					tableKeys.put(keyName, columnNames);
+				}
+
+				addName(columnNames, columnName);
+			}
+		}
+		catch (SQLException e)
+		{
+			LOGGER.warn("bulk keys query is ignored for exception", e);
+			return null;
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+
+		return keyColumnNamess;
+	}
+
+	/**
+	 * 执行“表名、键名、列名、主表名、主表列名”查询，批量读取导入键。
+	 * <p>
+	 * 查询结果中同一键的行应按照列序排列。查询出现异常时将返回{@code null}，以便降级为逐表获取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param tableNameLabel
+	 * @param keyNameLabel
+	 * @param columnNameLabel
+	 * @param primaryTableNameLabel
+	 * @param primaryColumnNameLabel
+	 * @param tableNames
+	 *            仅读取这些表的行
+	 * @return 表名 -> 导入键
+	 */
+	protected Map<String, ImportKey[]> queryImportKeys(Connection cn, Sql sql, String tableNameLabel,
+			String keyNameLabel, String columnNameLabel, String primaryTableNameLabel, String primaryColumnNameLabel,
+			Set<String> tableNames)
+	{
+		// 表名 -> 键名 -> 导入键
+		Map<String, Map<String, ImportKey>> importKeyss = new HashMap<>();
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+
+			ResultSet rs = qrs.getResultSet();
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				String tableName = mrs.getString(tableNameLabel, null);
+
+				if (tableName == null || !tableNames.contains(tableName))
+					continue;
+
+				String keyName = mrs.getString(keyNameLabel, "");
+				String columnName = mrs.getString(columnNameLabel, null);
+				String primaryColumnName = mrs.getString(primaryColumnNameLabel, null);
+
+				if (StringUtil.isEmpty(columnName) || StringUtil.isEmpty(primaryColumnName))
+					continue;
+
+				Map<String, ImportKey> tableImportKeys = importKeyss.get(tableName);
+
+				if (tableImportKeys == null)
+				{
+					tableImportKeys = new LinkedHashMap<>();
+					importKeyss.put(tableName, tableImportKeys);
+				}
+
+				ImportKey importKey = tableImportKeys.get(keyName);
+
+				if (importKey == null)
+				{
+					importKey = new ImportKey();
+					importKey.setKeyName(keyName);
+					importKey.setPrimaryTableName(mrs.getString(primaryTableNameLabel, ""));
+					importKey.setColumnNames(new String[] { columnName });
+					importKey.setPrimaryColumnNames(new String[] { primaryColumnName });
+
+					tableImportKeys.put(keyName, importKey);
+				}
+				else
+				{
+					importKey.setColumnNames(appendName(importKey.getColumnNames(), columnName));
+					importKey.setPrimaryColumnNames(appendName(importKey.getPrimaryColumnNames(), primaryColumnName));
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			LOGGER.warn("bulk import keys query is ignored for exception", e);
+			return null;
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+
+		Map<String, ImportKey[]> importKeys = new HashMap<>();
+
+		for (Map.Entry<String, Map<String, ImportKey>> entry : importKeyss.entrySet())
+		{
+			Collection<ImportKey> tableImportKeys = entry.getValue().values();
+			importKeys.put(entry.getKey(), tableImportKeys.toArray(new ImportKey[tableImportKeys.size()]));
+		}
+
+		return importKeys;
+	}
+
+	/**
+	 * 将“键名 -> 列名”转换为{@linkplain UniqueKey}数组。
+	 * 
+	 * @param keyColumnNames
+	 * @return 返回{@code null}表示没有
+	 */
+	protected UniqueKey[] toUniqueKeys(Map<String, List<String>> keyColumnNames)
+	{
+		if (keyColumnNames == null || keyColumnNames.isEmpty())
+			return null;
+
+		UniqueKey[] uniqueKeys = new UniqueKey[keyColumnNames.size()];
+
+		int i = 0;
+		for (Map.Entry<String, List<String>> entry : keyColumnNames.entrySet())
 		{
-			JdbcUtil.closeResultSet(rs);
+			List<String> columnNames = entry.getValue();
+
+			uniqueKeys[i] = new UniqueKey(columnNames.toArray(new String[columnNames.size()]));
+			uniqueKeys[i].setKeyName(entry.getKey());
+			i++;
 		}
+
+		return uniqueKeys;
 	}
 
 	/**
-	 * @return 返回{@code null}表示未读取到
+	 * 将“键名 -> 列名”转换为{@linkplain IndexKey}列表。
+	 * 
+	 * @param keyColumnNames
+	 *            允许为{@code null}
+	 * @param fullText
+	 * @return
 	 */
-	protected SimpleTable readSimpleTable(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
-			MetaResultSet rs)
+	protected List<IndexKey> toIndexKeys(Map<String, List<String>> keyColumnNames, boolean fullText)
 	{
-		try
-		{
-			String name = rs.getString("TABLE_NAME", null);
-			String type = TableType.toTableType(rs.getString("TABLE_TYPE", ""));
+		List<IndexKey> indexKeys = new ArrayList<>();
 
-			if (StringUtil.isEmpty(name) || StringUtil.isEmpty(type))
-			{
-				LOGGER.warn("invalid table : name={}, type={}", name, type);
-				return null;
-			}
+		if (keyColumnNames == null)
+			return indexKeys;
 
-			SimpleTable simpleTable = new SimpleTable(name, type);
-			simpleTable.setComment(rs.getString("REMARKS", ""));
+		for (Map.Entry<String, List<String>> entry : keyColumnNames.entrySet())
+		{
+			List<String> columnNames = entry.getValue();
 
-			return simpleTable;
+			IndexKey indexKey = new IndexKey(columnNames.toArray(new String[columnNames.size()]), fullText);
+			indexKey.setKeyName(entry.getKey());
+
+			indexKeys.add(indexKey);
 		}
-		catch (SQLException e)
+
+		return indexKeys;
+	}
+
+	protected String[] appendName(String[] names, String name)
+	{
+		for (String n : names)
 		{
-			return null;
+			if (n.equals(name))
+				return names;
 		}
+
+		String[] newNames = new String[names.length + 1];
+		System.arraycopy(names, 0, newNames, 0, names.length);
+		newNames[names.length] = name;
+
+		return newNames;
 	}
 
-	protected SimpleTable postProcessSimpleTable(Connection cn, DatabaseMetaData metaData, String schema,
-			SimpleTable simpleTable) throws SQLException
+	protected Set<String> toNameSet(String[] names)
 	{
-		return simpleTable;
+		Set<String> set = new LinkedHashSet<>();
+
+		for (String name : names)
+		{
+			if (!StringUtil.isEmpty(name))
+				set.add(name);
+		}
+
+		return set;
 	}
 
-	protected List<DataType> getDataTypes(Connection cn, DatabaseMetaData metaData) throws DBMetaResolverException
+	/**
+	 * 获取数据库结构变更指纹，默认不支持，子类可以通过特定数据库的系统表实现。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @return 返回{@code null}表示不支持
+	 * @throws DBMetaResolverException
+	 */
+	protected String getChangeFingerprint(Connection cn, DatabaseMetaData metaData, String catalog, String schema)
+			throws DBMetaResolverException
 	{
-		List<DataType> dataTypes = new ArrayList<>();
+		return null;
+	}
 
-		ResultSet rs = null;
+	/**
+	 * 执行单行查询，将其各列值拼接为数据库结构变更指纹。
+	 * <p>
+	 * 查询出现异常时将返回{@code null}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @return
+	 */
+	protected String queryChangeFingerprint(Connection cn, Sql sql)
+	{
+		QueryResultSet qrs = null;
 
 		try
 		{
-			rs = getDataTypeResultSet(cn, metaData);
-			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
 
-			while (rs.next())
+			ResultSet rs = qrs.getResultSet();
+
+			if (!rs.next())
+				return null;
+
+			int columnCount = rs.getMetaData().getColumnCount();
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 1; i <= columnCount; i++)
 			{
-				DataType dataType = readDataType(mrs);
+				if (i > 1)
+					sb.append(';');
 
-				if (dataType != null)
-					dataTypes.add(dataType);
+				sb.append(rs.getString(i));
 			}
 
-			return dataTypes;
+			return sb.toString();
 		}
 		catch (SQLException e)
 		{
-			throw new DBMetaResolverException(e);
+			LOGGER.warn("ignore change fingerprint for exception", e);
+			return null;
 		}
 		finally
 		{
-			JdbcUtil.closeResultSet(rs);
+			QueryResultSet.close(qrs);
 		}
 	}
 
-	protected Table getTable(Connection cn, DatabaseMetaData metaData, String catalog, String schema, String tableName)
-			throws DBMetaResolverException
+	/**
+	 * 将{@linkplain Table}中的字符串替换为共享实例，以减少缓存大量表时的内存占用。
+	 * 
+	 * @param table
+	 * @return
+	 */
+	protected Table internTable(Table table)
 	{
-		boolean readonly = resolveTableReadonly(cn);
-
-		List<SimpleTable> simpleTables = getSimpleTables(cn, metaData, catalog, schema, tableName);
-
-		if (simpleTables == null || simpleTables.isEmpty())
-			throw new TableNotFoundException(tableName);
-
-		SimpleTable simpleTable = simpleTables.get(0);
-
-		Table table = new Table();
-		table.setName(simpleTable.getName());
-		table.setType(simpleTable.getType());
-		table.setComment(simpleTable.getComment());
-		table.setColumns(getColumns(cn, metaData, catalog, schema, tableName, null));
-		table.setPrimaryKey(getPrimaryKey(cn, metaData, catalog, schema, tableName));
-		table.setUniqueKeys(getUniqueKeys(cn, metaData, catalog, schema, tableName));
-		table.setImportKeys(getImportKeys(cn, metaData, catalog, schema, tableName));
-		table.setReadonly(readonly);
-
-		table = postProcessTable(cn, metaData, schema, table);
-
-		return table;
+		return TableInterner.SHARED.intern(table);
 	}
 
 	protected boolean resolveTableReadonly(Connection cn)
@@ -794,6 +1454,208 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		return uniqueKeys;
 	}
 
+	/**
+	 * 获取索引键，包括全文索引键（参考{@linkplain #getFullTextIndexKeys(Connection, DatabaseMetaData, String, String, String)}）。
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableName
+	 * @return 返回{@code null}表示无索引键
+	 * @throws DBMetaResolverException
+	 */
+	protected IndexKey[] getIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName) throws DBMetaResolverException
+	{
+		List<IndexKey> indexKeys = new ArrayList<>();
+
+		ResultSet rs = null;
+
+		List<String> keyNames = new ArrayList<>();
+		List<List<String>> keyColumnNamess = new ArrayList<>();
+
+		try
+		{
+			rs = getIndexKeyResulSet(cn, metaData, catalog, schema, tableName);
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				String keyName = mrs.getString("INDEX_NAME", "");
+				String columnName = mrs.getString("COLUMN_NAME", null);
+
+				// 统计信息行没有列名
+				if (StringUtil.isEmpty(columnName))
+					continue;
+
+				int myIndex = keyNames.indexOf(keyName);
+				List<String> keyColumnNames = null;
+
+				if (myIndex < 0)
+				{
+					keyNames.add(keyName);
+					keyColumnNames = new ArrayList<>();
+					keyColumnNamess.add(keyColumnNames);
+				}
+				else
+					keyColumnNames = keyColumnNamess.get(myIndex);
+
+				addName(keyColumnNames, columnName);
+			}
+		}
+		catch (SQLException e)
+		{
+			LOGGER.warn("ignore index keys for exception", e);
+
+			keyNames.clear();
+			keyColumnNamess.clear();
+		}
+		finally
+		{
+			JdbcUtil.closeResultSet(rs);
+		}
+
+		IndexKey[] fullTextIndexKeys = getFullTextIndexKeys(cn, metaData, catalog, schema, tableName);
+
+		for (int i = 0; i < keyNames.size(); i++)
+		{
+			String keyName = keyNames.get(i);
+
+			// 某些驱动程序（比如MySQL）也会返回全文索引，应以全文索引键为准
+			if (findKeyByName(fullTextIndexKeys, keyName) != null)
+				continue;
+
+			List<String> keyColumnNames = keyColumnNamess.get(i);
+			IndexKey indexKey = new IndexKey(keyColumnNames.toArray(new String[keyColumnNames.size()]));
+			indexKey.setKeyName(keyName);
+
+			indexKeys.add(indexKey);
+		}
+
+		if (fullTextIndexKeys != null)
+		{
+			for (IndexKey fullTextIndexKey : fullTextIndexKeys)
+				indexKeys.add(fullTextIndexKey);
+		}
+
+		if (indexKeys.isEmpty())
+		{
+			IndexKey[] nullIndexKeys = null;
+			return nullIndexKeys;
+		}
+
+		return indexKeys.toArray(new IndexKey[indexKeys.size()]);
+	}
+
+	/**
+	 * 获取全文索引键。
+	 * <p>
+	 * {@linkplain DatabaseMetaData#getIndexInfo(String, String, String, boolean, boolean)}并不能区分全文索引，
+	 * 子类可以重写此方法，通过特定数据库的系统表来获取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param metaData
+	 * @param catalog
+	 * @param schema
+	 * @param tableName
+	 * @return 返回{@code null}表示无全文索引键
+	 * @throws DBMetaResolverException
+	 */
+	protected IndexKey[] getFullTextIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName) throws DBMetaResolverException
+	{
+		return null;
+	}
+
+	/**
+	 * 执行“键名、列名”查询，并读取为全文索引键。
+	 * <p>
+	 * 查询结果中同一键名的行应按照列序排列。查询出现异常时将返回{@code null}，因为数据库可能并未安装全文检索组件。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param keyNameLabel
+	 *            键名列标签，为{@code null}时所有行作为同一个键
+	 * @param columnNameLabel
+	 *            列名列标签
+	 * @return 返回{@code null}表示没有
+	 */
+	protected IndexKey[] queryFullTextIndexKeys(Connection cn, Sql sql, String keyNameLabel, String columnNameLabel)
+	{
+		List<String> keyNames = new ArrayList<>();
+		List<List<String>> keyColumnNamess = new ArrayList<>();
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+
+			ResultSet rs = qrs.getResultSet();
+			MetaResultSet mrs = MetaResultSet.valueOf(rs);
+
+			while (rs.next())
+			{
+				String keyName = (keyNameLabel == null ? "" : mrs.getString(keyNameLabel, ""));
+				String columnName = mrs.getString(columnNameLabel, null);
+
+				int myIndex = keyNames.indexOf(keyName);
+				List<String> keyColumnNames = null;
+
+				if (myIndex < 0)
+				{
+					keyNames.add(keyName);
+					keyColumnNames = new ArrayList<>();
+					keyColumnNamess.add(keyColumnNames);
+				}
+				else
+					keyColumnNames = keyColumnNamess.get(myIndex);
+
+				addName(keyColumnNames, columnName);
+			}
+		}
+		catch (SQLException e)
+		{
+			LOGGER.warn("ignore full-text index keys for exception", e);
+			return null;
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+
+		if (keyNames.isEmpty())
+			return null;
+
+		IndexKey[] indexKeys = new IndexKey[keyNames.size()];
+
+		for (int i = 0; i < indexKeys.length; i++)
+		{
+			List<String> keyColumnNames = keyColumnNamess.get(i);
+			indexKeys[i] = new IndexKey(keyColumnNames.toArray(new String[keyColumnNames.size()]), true);
+			indexKeys[i].setKeyName(keyNames.get(i));
+		}
+
+		return indexKeys;
+	}
+
+	protected IndexKey findKeyByName(IndexKey[] keys, String keyName)
+	{
+		if (keys == null || StringUtil.isEmpty(keyName))
+			return null;
+
+		for (IndexKey key : keys)
+		{
+			if (keyName.equals(key.getKeyName()))
+				return key;
+		}
+
+		return null;
+	}
+
 	protected ImportKey[] getImportKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
 			String tableName) throws DBMetaResolverException
 	{
@@ -950,6 +1812,12 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		return databaseMetaData.getIndexInfo(catalog, schema, tableName, true, false);
 	}
 
+	protected ResultSet getIndexKeyResulSet(Connection cn, DatabaseMetaData databaseMetaData, String catalog,
+			String schema, String tableName) throws SQLException
+	{
+		return databaseMetaData.getIndexInfo(catalog, schema, tableName, false, true);
+	}
+
 	protected ResultSet getImportKeyResulSet(Connection cn, DatabaseMetaData databaseMetaData, String catalog,
 			String schema, String tableName) throws SQLException
 	{
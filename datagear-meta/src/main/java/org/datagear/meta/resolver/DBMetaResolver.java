@@ -89,6 +89,20 @@ public interface DBMetaResolver
 	 */
 	Table getTable(Connection cn, String tableName) throws DBMetaResolverException;
 
+	/**
+	 * 批量获取{@linkplain Table}。
+	 * <p>
+	 * 此方法会尽量使用整库范围的元信息查询，避免逐表查询。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param tableNames
+	 *            为空时获取所有用户数据表（参考{@linkplain #isUserDataTable(Connection, SimpleTable)}）
+	 * @return 不存在的表将被忽略
+	 * @throws DBMetaResolverException
+	 */
+	List<Table> getTables(Connection cn, String... tableNames) throws DBMetaResolverException;
+
 	/**
 	 * 获取指定表的所有{@linkplain Column}。
 	 * 
@@ -146,4 +160,16 @@ public interface DBMetaResolver
 	 * @return
 	 */
 	List<String[]> getImportTables(Connection cn, String... tableNames);
+
+	/**
+	 * 获取数据库结构变更指纹。
+	 * <p>
+	 * 指纹是一个廉价查询（比如最后DDL时间、表及列数目）的结果，数据库结构变更后它会改变，可用于检测元信息缓存是否过期。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @return 返回{@code null}表示不支持
+	 * @throws DBMetaResolverException
+	 */
+	String getChangeFingerprint(Connection cn) throws DBMetaResolverException;
 }
@@ -17,6 +17,9 @@ import org.datagear.meta.PrimaryKey;
 import org.datagear.meta.SimpleTable;
 import org.datagear.meta.Table;
 import org.datagear.meta.resolver.support.MySqlDevotedDBMetaResolver;
+import org.datagear.meta.resolver.support.OracleDevotedDBMetaResolver;
+import org.datagear.meta.resolver.support.PostgresqlDevotedDBMetaResolver;
+import org.datagear.meta.resolver.support.SqlServerDevotedDBMetaResolver;
 
 /**
  * 通用{@linkplain DBMetaResolver}。
@@ -43,6 +46,9 @@ public class GenericDBMetaResolver implements DBMetaResolver
 
 		this.devotedDBMetaResolvers = new ArrayList<>();
 		this.devotedDBMetaResolvers.add(new MySqlDevotedDBMetaResolver());
+		this.devotedDBMetaResolvers.add(new PostgresqlDevotedDBMetaResolver());
+		this.devotedDBMetaResolvers.add(new SqlServerDevotedDBMetaResolver());
+		this.devotedDBMetaResolvers.add(new OracleDevotedDBMetaResolver());
 		this.devotedDBMetaResolvers.add(new WildcardDevotedDBMetaResolver());
 	}
 
@@ -98,6 +104,13 @@ public class GenericDBMetaResolver implements DBMetaResolver
 		return resolver.getTable(cn, tableName);
 	}
 
+	@Override
+	public List<Table> getTables(Connection cn, String... tableNames) throws DBMetaResolverException
+	{
+		DevotedDBMetaResolver resolver = doGetDevotedDBMetaResolverNotNull(cn);
+		return resolver.getTables(cn, tableNames);
+	}
+
 	@Override
 	public Column[] getColumns(Connection cn, String tableName) throws DBMetaResolverException
 	{
@@ -140,6 +153,13 @@ public class GenericDBMetaResolver implements DBMetaResolver
 		return resolver.getImportTables(cn, tableNames);
 	}
 
+	@Override
+	public String getChangeFingerprint(Connection cn) throws DBMetaResolverException
+	{
+		DevotedDBMetaResolver resolver = doGetDevotedDBMetaResolverNotNull(cn);
+		return resolver.getChangeFingerprint(cn);
+	}
+
 	/**
 	 * 获取支持指定{@linkplain Connection}的{@linkplain DevotedDBMetaResolver}。
 	 * 
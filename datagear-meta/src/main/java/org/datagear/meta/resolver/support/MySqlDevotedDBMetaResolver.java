@@ -7,13 +7,24 @@ package org.datagear.meta.resolver.support;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.datagear.connection.ConnectionSensor;
 import org.datagear.connection.URLConnectionSensor;
 import org.datagear.connection.support.MySqlURLSensor;
+import org.datagear.meta.ImportKey;
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.PrimaryKey;
 import org.datagear.meta.SimpleTable;
+import org.datagear.meta.UniqueKey;
 import org.datagear.meta.resolver.AbstractConnectionDevotedDBMetaResolver;
 import org.datagear.meta.resolver.DevotedDBMetaResolver;
+import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 import org.datagear.util.StringUtil;
 
 /**
@@ -43,6 +54,135 @@ public class MySqlDevotedDBMetaResolver extends AbstractConnectionDevotedDBMetaR
 		return simpleTable;
 	}
 
+	@Override
+	protected IndexKey[] getFullTextIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName)
+	{
+		Sql sql = Sql.valueOf("SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_TYPE = 'FULLTEXT'"
+				+ " ORDER BY INDEX_NAME, SEQ_IN_INDEX").param(new SqlParamValue(tableName, Types.VARCHAR));
+
+		return queryFullTextIndexKeys(cn, sql, "INDEX_NAME", "COLUMN_NAME");
+	}
+
+	@Override
+	protected String getChangeFingerprint(Connection cn, DatabaseMetaData metaData, String catalog, String schema)
+	{
+		Sql sql = Sql.valueOf("SELECT (SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()),"
+				+ " (SELECT MAX(CREATE_TIME) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()),"
+				+ " (SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()),"
+				+ " (SELECT SUM(CRC32(CONCAT_WS(',', TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE)))"
+				+ " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()),"
+				+ " (SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE())");
+
+		return queryChangeFingerprint(cn, sql);
+	}
+
+	@Override
+	protected Map<String, PrimaryKey> getPrimaryKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames)
+	{
+		Sql sql = Sql.valueOf("SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND CONSTRAINT_NAME = 'PRIMARY'"
+				+ " ORDER BY TABLE_NAME, ORDINAL_POSITION");
+
+		Map<String, Map<String, List<String>>> keyColumnNamess = queryKeyColumnNames(cn, sql, "TABLE_NAME",
+				"CONSTRAINT_NAME", "COLUMN_NAME", tableNames);
+
+		if (keyColumnNamess == null)
+			return null;
+
+		Map<String, PrimaryKey> primaryKeys = new HashMap<>();
+
+		for (Map.Entry<String, Map<String, List<String>>> entry : keyColumnNamess.entrySet())
+		{
+			for (Map.Entry<String, List<String>> key : entry.getValue().entrySet())
+			{
+				List<String> columnNames = key.getValue();
+
+				PrimaryKey primaryKey = new PrimaryKey(columnNames.toArray(new String[columnNames.size()]));
+				primaryKey.setKeyName(key.getKey());
+
+				primaryKeys.put(entry.getKey(), primaryKey);
+			}
+		}
+
+		return primaryKeys;
+	}
+
+	@Override
+	protected Map<String, UniqueKey[]> getUniqueKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames)
+	{
+		Sql sql = Sql.valueOf("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND NON_UNIQUE = 0"
+				+ " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX");
+
+		Map<String, Map<String, List<String>>> keyColumnNamess = queryKeyColumnNames(cn, sql, "TABLE_NAME",
+				"INDEX_NAME", "COLUMN_NAME", tableNames);
+
+		if (keyColumnNamess == null)
+			return null;
+
+		Map<String, UniqueKey[]> uniqueKeys = new HashMap<>();
+
+		for (Map.Entry<String, Map<String, List<String>>> entry : keyColumnNamess.entrySet())
+			uniqueKeys.put(entry.getKey(), toUniqueKeys(entry.getValue()));
+
+		return uniqueKeys;
+	}
+
+	@Override
+	protected Map<String, ImportKey[]> getImportKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames)
+	{
+		Sql sql = Sql.valueOf("SELECT TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, REFERENCED_TABLE_NAME,"
+				+ " REFERENCED_COLUMN_NAME FROM information_schema.KEY_COLUMN_USAGE"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME IS NOT NULL"
+				+ " ORDER BY TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION");
+
+		return queryImportKeys(cn, sql, "TABLE_NAME", "CONSTRAINT_NAME", "COLUMN_NAME", "REFERENCED_TABLE_NAME",
+				"REFERENCED_COLUMN_NAME", tableNames);
+	}
+
+	@Override
+	protected Map<String, IndexKey[]> getIndexKeysBulk(Connection cn, DatabaseMetaData metaData, String catalog,
+			String schema, Set<String> tableNames)
+	{
+		Sql sql = Sql.valueOf("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND INDEX_TYPE <> 'FULLTEXT'"
+				+ " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX");
+
+		Map<String, Map<String, List<String>>> keyColumnNamess = queryKeyColumnNames(cn, sql, "TABLE_NAME",
+				"INDEX_NAME", "COLUMN_NAME", tableNames);
+
+		if (keyColumnNamess == null)
+			return null;
+
+		Sql fullTextSql = Sql.valueOf("SELECT TABLE_NAME, INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS"
+				+ " WHERE TABLE_SCHEMA = DATABASE() AND INDEX_TYPE = 'FULLTEXT'"
+				+ " ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX");
+
+		Map<String, Map<String, List<String>>> fullTextKeyColumnNamess = queryKeyColumnNames(cn, fullTextSql,
+				"TABLE_NAME", "INDEX_NAME", "COLUMN_NAME", tableNames);
+
+		if (fullTextKeyColumnNamess == null)
+			fullTextKeyColumnNamess = new HashMap<>();
+
+		Map<String, IndexKey[]> indexKeys = new HashMap<>();
+
+		for (String tableName : tableNames)
+		{
+			List<IndexKey> tableIndexKeys = toIndexKeys(keyColumnNamess.get(tableName), false);
+			tableIndexKeys.addAll(toIndexKeys(fullTextKeyColumnNamess.get(tableName), true));
+
+			if (!tableIndexKeys.isEmpty())
+				indexKeys.put(tableName, tableIndexKeys.toArray(new IndexKey[tableIndexKeys.size()]));
+		}
+
+		return indexKeys;
+	}
+
 	protected void resolveTableComment(SimpleTable st)
 	{
 		String comment = st.getComment();
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta.resolver.support;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+
+import org.datagear.connection.ConnectionSensor;
+import org.datagear.connection.URLConnectionSensor;
+import org.datagear.connection.support.OracleURLSensor;
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.resolver.AbstractConnectionDevotedDBMetaResolver;
+import org.datagear.meta.resolver.DevotedDBMetaResolver;
+import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
+import org.datagear.util.StringUtil;
+
+/**
+ * Oracle {@linkplain DevotedDBMetaResolver}。
+ * <p>
+ * 它将Oracle Text的<code>CTXSYS.CONTEXT</code>索引解析为全文索引键。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class OracleDevotedDBMetaResolver extends AbstractConnectionDevotedDBMetaResolver
+{
+	public OracleDevotedDBMetaResolver()
+	{
+		super(new URLConnectionSensor(new OracleURLSensor()));
+	}
+
+	@Override
+	public void setConnectionSensor(ConnectionSensor connectionSensor)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected IndexKey[] getFullTextIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName)
+	{
+		Sql sql = Sql.valueOf("SELECT i.INDEX_NAME, c.COLUMN_NAME FROM ALL_INDEXES i"
+				+ " INNER JOIN ALL_IND_COLUMNS c ON i.OWNER = c.INDEX_OWNER AND i.INDEX_NAME = c.INDEX_NAME"
+				+ " WHERE i.ITYP_OWNER = 'CTXSYS' AND i.ITYP_NAME = 'CONTEXT' AND i.TABLE_NAME = ?")
+				.param(new SqlParamValue(tableName, Types.VARCHAR));
+
+		if (StringUtil.isEmpty(schema))
+			sql.sql(" AND i.TABLE_OWNER = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')");
+		else
+			sql.sql(" AND i.TABLE_OWNER = ?", new SqlParamValue(schema, Types.VARCHAR));
+
+		sql.sql(" ORDER BY i.INDEX_NAME, c.COLUMN_POSITION");
+
+		return queryFullTextIndexKeys(cn, sql, "INDEX_NAME", "COLUMN_NAME");
+	}
+
+	@Override
+	protected String getChangeFingerprint(Connection cn, DatabaseMetaData metaData, String catalog, String schema)
+	{
+		Sql sql = Sql.valueOf("SELECT COUNT(*), TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') FROM ALL_OBJECTS"
+				+ " WHERE OBJECT_TYPE IN ('TABLE', 'VIEW', 'INDEX')");
+
+		if (StringUtil.isEmpty(schema))
+			sql.sql(" AND OWNER = SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA')");
+		else
+			sql.sql(" AND OWNER = ?", new SqlParamValue(schema, Types.VARCHAR));
+
+		return queryChangeFingerprint(cn, sql);
+	}
+}
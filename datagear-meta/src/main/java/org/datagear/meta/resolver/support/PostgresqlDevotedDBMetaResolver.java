@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta.resolver.support;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.datagear.connection.ConnectionSensor;
+import org.datagear.connection.URLConnectionSensor;
+import org.datagear.connection.support.PostgresqlURLSensor;
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.resolver.AbstractConnectionDevotedDBMetaResolver;
+import org.datagear.meta.resolver.DevotedDBMetaResolver;
+import org.datagear.util.QueryResultSet;
+import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
+import org.datagear.util.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PostgreSQL {@linkplain DevotedDBMetaResolver}。
+ * <p>
+ * 它将单列的<code>to_tsvector('配置', 列)</code>表达式索引解析为全文索引键。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class PostgresqlDevotedDBMetaResolver extends AbstractConnectionDevotedDBMetaResolver
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(PostgresqlDevotedDBMetaResolver.class);
+
+	/**
+	 * 索引定义中的全文检索表达式，比如：
+	 * <p>
+	 * <code>to_tsvector('english'::regconfig, body)</code>、<code>to_tsvector('english'::regconfig, (title)::text)</code>
+	 * </p>
+	 */
+	protected static final Pattern TSVECTOR_INDEX_PATTERN = Pattern.compile(
+			"to_tsvector\\('([^']+)'::regconfig,\\s*(?:\\((\"?)([^\"()]+)\\2\\)::[\\w ]+|(\"?)([^\"()]+)\\4)\\)");
+
+	public PostgresqlDevotedDBMetaResolver()
+	{
+		super(new URLConnectionSensor(new PostgresqlURLSensor()));
+	}
+
+	@Override
+	public void setConnectionSensor(ConnectionSensor connectionSensor)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected IndexKey[] getFullTextIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName)
+	{
+		Sql sql = Sql.valueOf("SELECT indexname, indexdef FROM pg_indexes WHERE ");
+
+		if (StringUtil.isEmpty(schema))
+			sql.sql("schemaname = current_schema()");
+		else
+			sql.sql("schemaname = ?", new SqlParamValue(schema, Types.VARCHAR));
+
+		sql.sql(" AND tablename = ?", new SqlParamValue(tableName, Types.VARCHAR));
+
+		List<IndexKey> indexKeys = new ArrayList<>();
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+
+			ResultSet rs = qrs.getResultSet();
+
+			while (rs.next())
+			{
+				String keyName = rs.getString(1);
+				String indexDef = rs.getString(2);
+
+				IndexKey indexKey = resolveFullTextIndexKey(keyName, indexDef);
+
+				if (indexKey != null)
+					indexKeys.add(indexKey);
+			}
+		}
+		catch (SQLException e)
+		{
+			LOGGER.warn("ignore full-text index keys for exception", e);
+			return null;
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+
+		return (indexKeys.isEmpty() ? null : indexKeys.toArray(new IndexKey[indexKeys.size()]));
+	}
+
+	/**
+	 * PostgreSQL没有DDL时间，这里使用表、列系统目录行的事务号：DDL会更新对应的目录行，从而改变它们。
+	 */
+	@Override
+	protected String getChangeFingerprint(Connection cn, DatabaseMetaData metaData, String catalog, String schema)
+	{
+		Sql nspCondition = (StringUtil.isEmpty(schema) ? Sql.valueOf("n.nspname = current_schema()")
+				: Sql.valueOf("n.nspname = ?").param(new SqlParamValue(schema, Types.VARCHAR)));
+
+		Sql sql = Sql.valueOf("SELECT COUNT(*), SUM(c.xmin::text::bigint),"
+				+ " (SELECT SUM(a.xmin::text::bigint) FROM pg_catalog.pg_attribute a"
+				+ " INNER JOIN pg_catalog.pg_class c2 ON c2.oid = a.attrelid"
+				+ " INNER JOIN pg_catalog.pg_namespace n ON n.oid = c2.relnamespace WHERE ")
+				.sql(nspCondition).sql(") FROM pg_catalog.pg_class c"
+						+ " INNER JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace WHERE ")
+				.sql(nspCondition);
+
+		return queryChangeFingerprint(cn, sql);
+	}
+
+	/**
+	 * 由索引定义解析全文索引键。
+	 * 
+	 * @param keyName
+	 * @param indexDef
+	 * @return 返回{@code null}表示不是单列全文索引
+	 */
+	protected IndexKey resolveFullTextIndexKey(String keyName, String indexDef)
+	{
+		if (StringUtil.isEmpty(indexDef))
+			return null;
+
+		Matcher matcher = TSVECTOR_INDEX_PATTERN.matcher(indexDef);
+
+		if (!matcher.find())
+			return null;
+
+		String config = matcher.group(1);
+		String columnName = (matcher.group(3) != null ? matcher.group(3) : matcher.group(5));
+
+		// 多个表达式的组合索引无法直接用于单列检索
+		if (matcher.find())
+			return null;
+
+		IndexKey indexKey = new IndexKey(new String[] { columnName }, true);
+		indexKey.setKeyName(keyName);
+		indexKey.setFullTextConfig(config);
+
+		return indexKey;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta.resolver.support;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+
+import org.datagear.connection.ConnectionSensor;
+import org.datagear.connection.URLConnectionSensor;
+import org.datagear.connection.support.SqlServerURLSensor;
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.resolver.AbstractConnectionDevotedDBMetaResolver;
+import org.datagear.meta.resolver.DevotedDBMetaResolver;
+import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
+import org.datagear.util.StringUtil;
+
+/**
+ * SQLServer {@linkplain DevotedDBMetaResolver}。
+ * <p>
+ * SQLServer每个表最多只有一个全文索引，它将被解析为一个全文索引键。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SqlServerDevotedDBMetaResolver extends AbstractConnectionDevotedDBMetaResolver
+{
+	public SqlServerDevotedDBMetaResolver()
+	{
+		super(new URLConnectionSensor(new SqlServerURLSensor()));
+	}
+
+	@Override
+	public void setConnectionSensor(ConnectionSensor connectionSensor)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	protected IndexKey[] getFullTextIndexKeys(Connection cn, DatabaseMetaData metaData, String catalog, String schema,
+			String tableName)
+	{
+		String objectName = (StringUtil.isEmpty(schema) ? "" : "[" + schema + "].") + "[" + tableName + "]";
+
+		Sql sql = Sql.valueOf("SELECT c.name AS COLUMN_NAME FROM sys.fulltext_index_columns fic"
+				+ " INNER JOIN sys.columns c ON fic.object_id = c.object_id AND fic.column_id = c.column_id"
+				+ " WHERE fic.object_id = OBJECT_ID(?) ORDER BY fic.column_id")
+				.param(new SqlParamValue(objectName, Types.VARCHAR));
+
+		return queryFullTextIndexKeys(cn, sql, null, "COLUMN_NAME");
+	}
+
+	@Override
+	protected String getChangeFingerprint(Connection cn, DatabaseMetaData metaData, String catalog, String schema)
+	{
+		Sql sql = Sql.valueOf("SELECT COUNT(*), CONVERT(VARCHAR(30), MAX(modify_date), 126) FROM sys.objects"
+				+ " WHERE type IN ('U', 'V')");
+
+		if (!StringUtil.isEmpty(schema))
+			sql.sql(" AND SCHEMA_NAME(schema_id) = ?", new SqlParamValue(schema, Types.VARCHAR));
+
+		return queryChangeFingerprint(cn, sql);
+	}
+}
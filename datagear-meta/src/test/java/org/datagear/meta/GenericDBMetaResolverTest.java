@@ -9,9 +9,16 @@ import static org.hamcrest.collection.ArrayMatching.arrayContaining;
 import static org.hamcrest.collection.ArrayMatching.hasItemInArray;
 import static org.hamcrest.core.IsIterableContaining.hasItem;
 import static org.hamcrest.text.IsEqualIgnoringCase.equalToIgnoringCase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.datagear.meta.resolver.GenericDBMetaResolver;
@@ -78,4 +85,75 @@ public class GenericDBMetaResolverTest extends DBTestSupport
 					hasItemInArray(hasProperty("columnNames", arrayContaining(equalToIgnoringCase("ACCOUNT_ID")))));
 		}
 	}
+
+	@Test
+	public void getTablesTest() throws Exception
+	{
+		// 不指定表名时批量加载所有用户数据表
+		List<Table> tables = this.genericDBMetaResolver.getTables(this.connection);
+
+		assertFalse(tables.isEmpty());
+
+		String[] names = { "T_ACCOUNT", "T_ADDRESS" };
+
+		for (String name : names)
+		{
+			Table bulk = findTable(tables, name);
+			assertNotNull(bulk);
+
+			Table single = this.genericDBMetaResolver.getTable(this.connection, bulk.getName());
+
+			assertEquals(single.getName(), bulk.getName());
+			assertEquals(single.getType(), bulk.getType());
+			assertEquals(Arrays.toString(single.getColumns()), Arrays.toString(bulk.getColumns()));
+			assertEquals(String.valueOf(single.getPrimaryKey()), String.valueOf(bulk.getPrimaryKey()));
+			assertEquals(toSortedStrings(single.getUniqueKeys()), toSortedStrings(bulk.getUniqueKeys()));
+			assertEquals(toSortedStrings(single.getImportKeys()), toSortedStrings(bulk.getImportKeys()));
+			assertEquals(toSortedStrings(single.getIndexKeys()), toSortedStrings(bulk.getIndexKeys()));
+		}
+	}
+
+	@Test
+	public void getImportTablesTest_duplicateTableName() throws Exception
+	{
+		List<SimpleTable> simpleTables = this.genericDBMetaResolver.getSimpleTables(this.connection);
+
+		String account = findTable(simpleTables, "T_ACCOUNT").getName();
+		String address = findTable(simpleTables, "T_ADDRESS").getName();
+
+		List<String[]> importTabless = this.genericDBMetaResolver.getImportTables(this.connection, address, account,
+				address);
+
+		assertEquals(3, importTabless.size());
+		assertThat(importTabless.get(0), hasItemInArray(equalToIgnoringCase("T_ACCOUNT")));
+
+		// 重复表复用已读取的导入表，不再重新读取
+		assertSame(importTabless.get(0), importTabless.get(2));
+	}
+
+	protected <T extends AbstractTable> T findTable(List<T> tables, String name)
+	{
+		for (T table : tables)
+		{
+			if (table.getName().equalsIgnoreCase(name))
+				return table;
+		}
+
+		return null;
+	}
+
+	protected List<String> toSortedStrings(Object[] objs)
+	{
+		List<String> strs = new ArrayList<>();
+
+		if (objs != null)
+		{
+			for (Object obj : objs)
+				strs.add(String.valueOf(obj));
+		}
+
+		Collections.sort(strs);
+
+		return strs;
+	}
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.datagear.util.StringInterner;
+import org.junit.Test;
+
+/**
+ * {@linkplain TableInterner}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class TableInternerTest
+{
+	@Test
+	public void internTest()
+	{
+		TableInterner interner = new TableInterner(new StringInterner());
+
+		Table[] tables = new Table[20];
+		for (int i = 0; i < tables.length; i++)
+			tables[i] = createTable("T_" + i);
+
+		Set<String> before = collectStrings(tables);
+
+		for (Table table : tables)
+			interner.intern(table);
+
+		Set<String> after = collectStrings(tables);
+
+		assertSame(tables[0].getColumns()[0].getName(), tables[1].getColumns()[0].getName());
+		assertSame(tables[0].getColumns()[1].getTypeName(), tables[1].getColumns()[1].getTypeName());
+		assertSame(tables[0].getColumns()[0].getName(), tables[1].getPrimaryKey().getColumnNames()[0]);
+
+		// 每个表仅表名不同，其他字符串都应共享
+		assertTrue(before.size() > after.size() * 5);
+		assertEquals(tables.length + 8, after.size());
+	}
+
+	protected Table createTable(String name)
+	{
+		Column id = new Column(new String("ID"), Types.INTEGER);
+		id.setTypeName(new String("INT"));
+		id.setComment(new String(""));
+
+		Column title = new Column(new String("TITLE"), Types.VARCHAR);
+		title.setTypeName(new String("VARCHAR"));
+		title.setComment(new String("title"));
+		title.setDefaultValue(new String("NULL"));
+
+		Table table = new Table(name, new String(TableType.TABLE), new Column[] { id, title });
+
+		PrimaryKey primaryKey = new PrimaryKey(new String[] { new String("ID") });
+		table.setPrimaryKey(primaryKey);
+
+		return table;
+	}
+
+	protected Set<String> collectStrings(Table[] tables)
+	{
+		Set<String> strs = Collections.newSetFromMap(new IdentityHashMap<String, Boolean>());
+
+		for (Table table : tables)
+		{
+			strs.add(table.getName());
+			strs.add(table.getType());
+
+			for (Column column : table.getColumns())
+			{
+				strs.add(column.getName());
+				strs.add(column.getTypeName());
+				strs.add(column.getComment());
+
+				if (column.getDefaultValue() != null)
+					strs.add(column.getDefaultValue());
+			}
+
+			for (String columnName : table.getPrimaryKey().getColumnNames())
+				strs.add(columnName);
+		}
+
+		return strs;
+	}
+}
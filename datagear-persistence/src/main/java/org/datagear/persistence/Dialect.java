@@ -4,6 +4,7 @@
 
 package org.datagear.persistence;
 
+import java.sql.Connection;
 import java.sql.ResultSet;
 
 import org.datagear.meta.Table;
@@ -116,4 +117,29 @@ public interface Dialect
 	 * @return
 	 */
 	Sql toOrderSql(Sql query, Order[] orders);
+
+	/**
+	 * 构建表的估算记录数查询SQL。
+	 * <p>
+	 * 估算记录数通常来自数据库的统计信息，查询很快，但不一定准确。查询结果应是单行单列的数值，
+	 * 返回{@code null}表示不支持。
+	 * </p>
+	 * 
+	 * @param table
+	 * @return
+	 */
+	Sql toEstimatedCountSql(Table table);
+
+	/**
+	 * 获取查询的执行计划。
+	 * <p>
+	 * 执行计划通常由数据库的<code>EXPLAIN</code>语句得到，并不会实际执行查询。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param query
+	 * @return 返回{@code null}表示不支持
+	 * @throws PersistenceException
+	 */
+	QueryPlan getQueryPlan(Connection cn, Sql query) throws PersistenceException;
 }
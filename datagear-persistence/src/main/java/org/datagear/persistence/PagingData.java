@@ -21,6 +21,9 @@ public class PagingData<T>
 	/** 总记录数 */
 	private long total = 0;
 
+	/** 总记录数是否精确，为{@code false}时表示是估算、缓存或者仅到下一页的记录数 */
+	private boolean totalExact = true;
+
 	/** 当前页数据 */
 	private List<T> items;
 
@@ -30,6 +33,12 @@ public class PagingData<T>
 	/** 分页信息 */
 	private Paging paging = new Paging();
 
+	/** 键集分页的下一页游标，为{@code null}表示没有 */
+	private String nextCursor;
+
+	/** 超出代价阈值但仍被执行的查询的执行计划，为{@code null}表示没有 */
+	private QueryPlan queryPlan;
+
 	public PagingData()
 	{
 		this(1, 0);
@@ -67,6 +76,16 @@ public class PagingData<T>
 		this.total = total;
 	}
 
+	public boolean isTotalExact()
+	{
+		return totalExact;
+	}
+
+	public void setTotalExact(boolean totalExact)
+	{
+		this.totalExact = totalExact;
+	}
+
 	public List<T> getItems()
 	{
 		return items;
@@ -107,6 +126,26 @@ public class PagingData<T>
 		this.paging.setPageSize(pageSize);
 	}
 
+	public String getNextCursor()
+	{
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor)
+	{
+		this.nextCursor = nextCursor;
+	}
+
+	public QueryPlan getQueryPlan()
+	{
+		return queryPlan;
+	}
+
+	public void setQueryPlan(QueryPlan queryPlan)
+	{
+		this.queryPlan = queryPlan;
+	}
+
 	/**
 	 * 获取当前页在整个记录中的开始位置，以{@code 0}开始计数。
 	 * 
@@ -19,6 +19,15 @@ public class PagingQuery extends Query
 	/** 分页信息 */
 	private Paging paging = new Paging();
 
+	/** 是否使用键集分页 */
+	private boolean keyset = false;
+
+	/** 键集分页游标，即上一页的{@linkplain PagingData#getNextCursor()} */
+	private String cursor;
+
+	/** 总记录数计算方式 */
+	private PagingTotalMode totalMode = PagingTotalMode.EXACT;
+
 	public PagingQuery()
 	{
 		super();
@@ -71,12 +80,56 @@ public class PagingQuery extends Query
 		this.paging.setPageSize(pageSize);
 	}
 
+	/**
+	 * 是否使用键集分页。
+	 * <p>
+	 * 键集分页会以唯一键补全排序，并在{@linkplain PagingData#getNextCursor()}中返回下一页游标，
+	 * 查询下一页时设置{@linkplain #setCursor(String)}，即可直接定位而无需跳过之前的记录。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public boolean isKeyset()
+	{
+		return keyset;
+	}
+
+	public void setKeyset(boolean keyset)
+	{
+		this.keyset = keyset;
+	}
+
+	public boolean hasCursor()
+	{
+		return (this.cursor != null && !this.cursor.isEmpty());
+	}
+
+	public String getCursor()
+	{
+		return cursor;
+	}
+
+	public void setCursor(String cursor)
+	{
+		this.cursor = cursor;
+	}
+
+	public PagingTotalMode getTotalMode()
+	{
+		return totalMode;
+	}
+
+	public void setTotalMode(PagingTotalMode totalMode)
+	{
+		this.totalMode = totalMode;
+	}
+
 	@Override
 	public String toString()
 	{
 		return getClass().getSimpleName() + " [page=" + getPage() + ", pageSize=" + getPageSize() + ", notLike="
 				+ isNotLike() + ", keyword=" + getKeyword() + ", condition=" + getCondition() + ", orders="
-				+ Arrays.toString(getOrders()) + "]";
+				+ Arrays.toString(getOrders()) + ", keyset=" + keyset + ", cursor=" + cursor + ", totalMode=" + totalMode + "]";
 	}
 
 	@Override
@@ -85,6 +138,9 @@ public class PagingQuery extends Query
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + ((paging == null) ? 0 : paging.hashCode());
+		result = prime * result + (keyset ? 1231 : 1237);
+		result = prime * result + ((cursor == null) ? 0 : cursor.hashCode());
+		result = prime * result + ((totalMode == null) ? 0 : totalMode.hashCode());
 		return result;
 	}
 
@@ -105,6 +161,17 @@ public class PagingQuery extends Query
 		}
 		else if (!paging.equals(other.paging))
 			return false;
+		if (keyset != other.keyset)
+			return false;
+		if (cursor == null)
+		{
+			if (other.cursor != null)
+				return false;
+		}
+		else if (!cursor.equals(other.cursor))
+			return false;
+		if (totalMode != other.totalMode)
+			return false;
 		return true;
 	}
 }
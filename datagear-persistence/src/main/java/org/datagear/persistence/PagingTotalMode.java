@@ -0,0 +1,26 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence;
+
+/**
+ * 分页查询总记录数的计算方式。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public enum PagingTotalMode
+{
+	/** 每次都精确计数 */
+	EXACT,
+
+	/** 精确计数，并在一定时间内缓存计数结果 */
+	CACHED,
+
+	/** 无查询条件时使用数据库统计信息估算，否则同{@linkplain #CACHED} */
+	ESTIMATED,
+
+	/** 不计数，仅判断是否有下一页 */
+	HAS_NEXT
+}
@@ -126,6 +126,66 @@ public interface PersistenceManager
 	int delete(Connection cn, Dialect dialect, Table table, Row[] rows, SqlParamValueMapper mapper)
 			throws PersistenceException;
 
+	/**
+	 * 批量插入行对象。
+	 * <p>
+	 * 列结构相同的行将合并为一个批次（{@linkplain java.sql.PreparedStatement#executeBatch()}）执行，不返回自动生成列值。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param dialect
+	 *            允许为{@code null}
+	 * @param table
+	 * @param rows
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @return 插入数，驱动程序未返回更新数时为{@code -1}
+	 * @throws PersistenceException
+	 */
+	int batchInsert(Connection cn, Dialect dialect, Table table, Row[] rows, SqlParamValueMapper mapper)
+			throws PersistenceException;
+
+	/**
+	 * 批量更新行对象。
+	 * <p>
+	 * 列结构相同的行将合并为一个批次（{@linkplain java.sql.PreparedStatement#executeBatch()}）执行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param dialect
+	 *            允许为{@code null}
+	 * @param table
+	 * @param origins
+	 *            原行数组
+	 * @param updates
+	 *            更新行数组，长度应与{@code origins}相同
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @return 更新数，驱动程序未返回更新数时为{@code -1}
+	 * @throws PersistenceException
+	 */
+	int batchUpdate(Connection cn, Dialect dialect, Table table, Row[] origins, Row[] updates,
+			SqlParamValueMapper mapper) throws PersistenceException;
+
+	/**
+	 * 批量删除行对象。
+	 * <p>
+	 * 列结构相同的行将合并为一个批次（{@linkplain java.sql.PreparedStatement#executeBatch()}）执行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param dialect
+	 *            允许为{@code null}
+	 * @param table
+	 * @param rows
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @return 删除数，驱动程序未返回更新数时为{@code -1}
+	 * @throws PersistenceException
+	 */
+	int batchDelete(Connection cn, Dialect dialect, Table table, Row[] rows, SqlParamValueMapper mapper)
+			throws PersistenceException;
+
 	/**
 	 * 删除查询结果。
 	 * 
@@ -210,6 +270,24 @@ public interface PersistenceManager
 	List<Row> query(Connection cn, Dialect dialect, Table table, Query query, RowMapper mapper)
 			throws PersistenceException;
 
+	/**
+	 * 查询，并将结果行依次交给{@linkplain RowConsumer}处理，不在内存中保留行列表。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 *            允许为{@code null}
+	 * @param table
+	 * @param query
+	 *            为{@code null}表示查询全部
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param consumer
+	 * @return 处理的行数
+	 * @throws PersistenceException
+	 */
+	int query(Connection cn, Dialect dialect, Table table, Query query, RowMapper mapper, RowConsumer consumer)
+			throws PersistenceException;
+
 	/**
 	 * 分页查询。
 	 * 
@@ -258,4 +336,27 @@ public interface PersistenceManager
 	 * @return
 	 */
 	String getQuerySql(Connection cn, Dialect dialect, Table table, Query query);
+
+	/**
+	 * 获取查询的执行计划。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 *            允许为{@code null}
+	 * @param table
+	 * @param query
+	 * @return 返回{@code null}表示不支持
+	 * @throws PersistenceException
+	 */
+	QueryPlan getQueryPlan(Connection cn, Dialect dialect, Table table, Query query) throws PersistenceException;
+
+	/**
+	 * 是否开启了查询代价检查。
+	 * <p>
+	 * 未开启时调用方无需获取执行计划。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	boolean isQueryCostGuarded();
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence;
+
+/**
+ * 查询代价超出阈值异常。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class QueryCostExceededException extends PersistenceException
+{
+	private static final long serialVersionUID = 1L;
+
+	private QueryPlan queryPlan;
+
+	public QueryCostExceededException(QueryPlan queryPlan)
+	{
+		super("query cost exceeded : " + queryPlan);
+		this.queryPlan = queryPlan;
+	}
+
+	public QueryPlan getQueryPlan()
+	{
+		return queryPlan;
+	}
+}
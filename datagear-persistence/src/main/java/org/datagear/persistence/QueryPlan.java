@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence;
+
+import java.io.Serializable;
+
+/**
+ * 查询执行计划。
+ * <p>
+ * 它由数据库的<code>EXPLAIN</code>语句得到，估算行数、估算代价是数据库的估算值，不一定准确，不同数据库的代价单位也不同。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class QueryPlan implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** 执行计划文本 */
+	private String plan;
+
+	/** 估算行数，为null表示未知 */
+	private Long estimatedRows;
+
+	/** 估算代价，为null表示未知 */
+	private Double estimatedCost;
+
+	/** 是否超出了代价阈值 */
+	private boolean expensive = false;
+
+	public QueryPlan()
+	{
+		super();
+	}
+
+	public QueryPlan(String plan, Long estimatedRows, Double estimatedCost)
+	{
+		super();
+		this.plan = plan;
+		this.estimatedRows = estimatedRows;
+		this.estimatedCost = estimatedCost;
+	}
+
+	public String getPlan()
+	{
+		return plan;
+	}
+
+	public void setPlan(String plan)
+	{
+		this.plan = plan;
+	}
+
+	public Long getEstimatedRows()
+	{
+		return estimatedRows;
+	}
+
+	public void setEstimatedRows(Long estimatedRows)
+	{
+		this.estimatedRows = estimatedRows;
+	}
+
+	public Double getEstimatedCost()
+	{
+		return estimatedCost;
+	}
+
+	public void setEstimatedCost(Double estimatedCost)
+	{
+		this.estimatedCost = estimatedCost;
+	}
+
+	public boolean isExpensive()
+	{
+		return expensive;
+	}
+
+	public void setExpensive(boolean expensive)
+	{
+		this.expensive = expensive;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [estimatedRows=" + estimatedRows + ", estimatedCost=" + estimatedCost
+				+ ", expensive=" + expensive + "]";
+	}
+}
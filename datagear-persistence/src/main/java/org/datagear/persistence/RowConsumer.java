@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence;
+
+import java.sql.Connection;
+
+import org.datagear.meta.Table;
+
+/**
+ * 查询结果行消费者。
+ * <p>
+ * 用于逐行处理查询结果（比如直接序列化输出），而无需在内存中保留整个行列表。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public interface RowConsumer
+{
+	/**
+	 * 消费行对象。
+	 * <p>
+	 * 注意：如果{@linkplain RowMapper}重用行对象（参考{@linkplain org.datagear.persistence.support.AbstractRowMapper#setReuseRow(boolean)}），
+	 * 那么{@code row}仅在此方法内有效，不应被持有。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param row
+	 * @param rowIndex
+	 *            行号，以{@code 1}开始
+	 * @return 是否继续读取下一行
+	 * @throws Throwable
+	 */
+	boolean accept(Connection cn, Table table, Row row, int rowIndex) throws Throwable;
+}
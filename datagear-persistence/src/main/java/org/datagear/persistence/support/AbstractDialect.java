@@ -5,15 +5,26 @@
 package org.datagear.persistence.support;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.datagear.meta.Column;
+import org.datagear.meta.IndexKey;
 import org.datagear.meta.SearchableType;
 import org.datagear.meta.Table;
 import org.datagear.persistence.Dialect;
 import org.datagear.persistence.Order;
+import org.datagear.persistence.PersistenceException;
 import org.datagear.persistence.Query;
+import org.datagear.persistence.QueryPlan;
+import org.datagear.util.QueryResultSet;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * 抽象{@linkplain Dialect}。
@@ -29,6 +40,9 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 	/** 作为关键字查询的列数 */
 	private int keywordQueryColumnCount = Dialect.DEFAULT_KEYWORD_QUERY_COLUMN_COUNT;
 
+	/** 关键字查询是否使用索引优化 */
+	private boolean indexedKeywordQuery = false;
+
 	public AbstractDialect()
 	{
 		super();
@@ -62,6 +76,32 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		this.keywordQueryColumnCount = keywordQueryColumnCount;
 	}
 
+	public boolean isIndexedKeywordQuery()
+	{
+		return indexedKeywordQuery;
+	}
+
+	/**
+	 * 设置关键字查询是否使用索引优化。
+	 * <p>
+	 * 设置为{@code true}时，有全文索引的列将使用全文检索条件（参考{@linkplain #toFullTextKeywordQueryCondition(Table, IndexKey, String, boolean)}），
+	 * 是索引首列的列将使用前缀匹配<code>LIKE 'keyword%'</code>，其他列仍使用<code>LIKE '%keyword%'</code>。
+	 * 注意：全文检索和前缀匹配的结果可能少于<code>LIKE '%keyword%'</code>。
+	 * </p>
+	 * <p>
+	 * 全文索引的列也计入{@linkplain #getKeywordQueryColumnCount()}，只有所有列都在其范围内的全文索引才会被使用。
+	 * </p>
+	 * <p>
+	 * 默认为{@code false}。
+	 * </p>
+	 * 
+	 * @param indexedKeywordQuery
+	 */
+	public void setIndexedKeywordQuery(boolean indexedKeywordQuery)
+	{
+		this.indexedKeywordQuery = indexedKeywordQuery;
+	}
+
 	@Override
 	public String quote(String name)
 	{
@@ -93,17 +133,60 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		if (!query.hasKeyword())
 			return sql;
 
+		String keyword = query.getKeyword();
+
 		String joinOpt = (query.isNotLike() ? " AND " : " OR ");
 		String likeOpt = (query.isNotLike() ? " NOT LIKE " : " LIKE ");
 		String equalOpt = (query.isNotLike() ? " != " : " = ");
 
+		boolean indexed = isIndexedKeywordQuery(query);
+		Set<String> fullTextColumnNames = new HashSet<>();
+
 		Column[] columns = table.getColumns();
+
+		if (indexed)
+		{
+			// 全文索引的列也计入关键字查询列数
+			Set<String> keywordColumnNames = new HashSet<>();
+			for (int i = 0, len = Math.min(columns.length, this.keywordQueryColumnCount); i < len; i++)
+				keywordColumnNames.add(columns[i].getName());
+
+			IndexKey[] fullTextIndexKeys = Table.getFullTextIndexKeys(table);
+
+			for (IndexKey fullTextIndexKey : fullTextIndexKeys)
+			{
+				if (!keywordColumnNames.containsAll(Arrays.asList(fullTextIndexKey.getColumnNames())))
+					continue;
+
+				if (!isFullTextIndexKeySearchable(table, fullTextIndexKey))
+					continue;
+
+				Sql fullTextCondition = toFullTextKeywordQueryCondition(table, fullTextIndexKey, keyword,
+						parameterized);
+
+				if (isEmptySql(fullTextCondition))
+					continue;
+
+				if (!sql.isEmpty())
+					sql.sql(joinOpt);
+
+				sql.sql(fullTextCondition);
+
+				for (String columnName : fullTextIndexKey.getColumnNames())
+					fullTextColumnNames.add(columnName);
+			}
+		}
+
 		for (int i = 0; i < columns.length; i++)
 		{
 			if (i >= this.keywordQueryColumnCount)
 				break;
 
 			Column column = columns[i];
+
+			if (fullTextColumnNames.contains(column.getName()))
+				continue;
+
 			SearchableType searchableType = column.getSearchableType();
 			String myOperator = null;
 			Object myKeyword = null;
@@ -113,11 +196,16 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 			else if (SearchableType.ONLY_LIKE.equals(searchableType) || SearchableType.ALL.equals(searchableType))
 			{
 				myOperator = likeOpt;
-				myKeyword = wrapLikeKeyword(query.getKeyword());
+
+				// 索引首列使用前缀匹配，使得数据库可以使用索引
+				if (indexed && table.isIndexLeadingColumn(column.getName()))
+					myKeyword = keyword + "%";
+				else
+					myKeyword = wrapLikeKeyword(keyword);
 			}
 			else
 			{
-				Number number = parseToNumber(query.getKeyword(), column.getType());
+				Number number = parseToNumber(keyword, column.getType());
 
 				if (number != null)
 				{
@@ -135,7 +223,7 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 					sql.sql(quote(column.getName()) + myOperator + "?", createSqlParamValue(column, myKeyword));
 				else
 					sql.sql(quote(column.getName()) + myOperator
-							+ (myKeyword instanceof Number ? query.getKeyword() : "'" + myKeyword + "'"));
+							+ (myKeyword instanceof Number ? keyword : "'" + myKeyword + "'"));
 			}
 		}
 
@@ -153,6 +241,78 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		return Sql.valueOf().sql(query).sql(" ORDER BY ").sql(orderSql);
 	}
 
+	@Override
+	public Sql toEstimatedCountSql(Table table)
+	{
+		return null;
+	}
+
+	@Override
+	public QueryPlan getQueryPlan(Connection cn, Sql query) throws PersistenceException
+	{
+		Sql sql = toExplainSql(query);
+
+		if (sql == null)
+			return null;
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+			return readQueryPlan(qrs.getResultSet());
+		}
+		catch (SQLException e)
+		{
+			throw new PersistenceException(e);
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+	}
+
+	/**
+	 * 构建执行计划查询SQL。
+	 * 
+	 * @param query
+	 * @return 返回{@code null}表示不支持
+	 */
+	protected Sql toExplainSql(Sql query)
+	{
+		return null;
+	}
+
+	/**
+	 * 读取执行计划查询结果。
+	 * 
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected QueryPlan readQueryPlan(ResultSet rs) throws SQLException
+	{
+		StringBuilder sb = new StringBuilder();
+
+		int columnCount = rs.getMetaData().getColumnCount();
+
+		while (rs.next())
+		{
+			if (sb.length() > 0)
+				sb.append('\n');
+
+			for (int i = 1; i <= columnCount; i++)
+			{
+				if (i > 1)
+					sb.append('\t');
+
+				sb.append(rs.getString(i));
+			}
+		}
+
+		return new QueryPlan(sb.toString(), null, null);
+	}
+
 	/**
 	 * 转换为排序SQL。
 	 * 
@@ -187,6 +347,127 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		return Sql.isEmpty(sql);
 	}
 
+	/**
+	 * 是否使用索引优化关键字查询。
+	 * <p>
+	 * 只有在{@linkplain #isIndexedKeywordQuery()}为{@code true}、不是{@code NOT LIKE}查询、且关键字没有以通配符开头或结尾时才使用。
+	 * </p>
+	 * 
+	 * @param query
+	 * @return
+	 */
+	protected boolean isIndexedKeywordQuery(Query query)
+	{
+		if (!this.indexedKeywordQuery || query.isNotLike())
+			return false;
+
+		String keyword = query.getKeyword();
+
+		if (keyword == null || keyword.isEmpty())
+			return false;
+
+		char first = keyword.charAt(0), last = keyword.charAt(keyword.length() - 1);
+
+		return (first != '%' && first != '_' && last != '%' && last != '_');
+	}
+
+	/**
+	 * 全文索引键的所有列是否都可用于关键字查询。
+	 * 
+	 * @param table
+	 * @param fullTextIndexKey
+	 * @return
+	 */
+	protected boolean isFullTextIndexKeySearchable(Table table, IndexKey fullTextIndexKey)
+	{
+		String[] columnNames = fullTextIndexKey.getColumnNames();
+
+		if (columnNames == null || columnNames.length == 0)
+			return false;
+
+		for (String columnName : columnNames)
+		{
+			Column column = table.getColumn(columnName);
+
+			if (column == null)
+				return false;
+
+			SearchableType searchableType = column.getSearchableType();
+
+			if (!SearchableType.ONLY_LIKE.equals(searchableType) && !SearchableType.ALL.equals(searchableType))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * 转换为全文检索关键字查询条件。
+	 * <p>
+	 * 此方法默认返回{@code null}，支持全文检索的方言应重写此方法。
+	 * </p>
+	 * 
+	 * @param table
+	 * @param fullTextIndexKey
+	 * @param keyword
+	 * @param parameterized
+	 * @return 返回{@code null}或空表示不支持
+	 */
+	protected Sql toFullTextKeywordQueryCondition(Table table, IndexKey fullTextIndexKey, String keyword,
+			boolean parameterized)
+	{
+		return null;
+	}
+
+	/**
+	 * 构建全文检索参数。
+	 * 
+	 * @param sql
+	 *            参数占位符使用{@code ?}
+	 * @param value
+	 * @param parameterized
+	 * @return
+	 */
+	protected Sql toFullTextParamSql(String sql, String value, boolean parameterized)
+	{
+		if (parameterized)
+			return Sql.valueOf().sql(sql, new SqlParamValue(value, Types.VARCHAR));
+		else
+			return Sql.valueOf(sql.replace("?", toStringLiteral(value)));
+	}
+
+	/**
+	 * 转换为SQL字符串字面值。
+	 * 
+	 * @param value
+	 * @return
+	 */
+	protected String toStringLiteral(String value)
+	{
+		return "'" + value.replace("'", "''") + "'";
+	}
+
+	/**
+	 * 引用指定列名。
+	 * 
+	 * @param columnNames
+	 * @return
+	 */
+	protected String quoteJoin(String[] columnNames)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			if (i > 0)
+				sb.append(", ");
+
+			sb.append(quote(columnNames[i]));
+		}
+
+		return sb.toString();
+	}
+
 	/**
 	 * 包裹Like关键字。
 	 * 
@@ -21,15 +21,39 @@ import org.datagear.persistence.RowMapperException;
  */
 public abstract class AbstractRowMapper extends PersistenceSupport implements RowMapper
 {
+	/** 是否重用行对象 */
+	private boolean reuseRow = false;
+
+	private Row _reusedRow = null;
+
 	public AbstractRowMapper()
 	{
 		super();
 	}
 
+	public boolean isReuseRow()
+	{
+		return reuseRow;
+	}
+
+	/**
+	 * 设置是否重用行对象。
+	 * <p>
+	 * 设置为{@code true}时，每次{@linkplain #map(Connection, Table, ResultSet, int)}都将清空并返回同一个行对象，
+	 * 仅适用于逐行处理且不持有行对象的场景（参考{@linkplain org.datagear.persistence.RowConsumer}），此时本对象不是线程安全的。
+	 * </p>
+	 * 
+	 * @param reuseRow
+	 */
+	public void setReuseRow(boolean reuseRow)
+	{
+		this.reuseRow = reuseRow;
+	}
+
 	@Override
 	public Row map(Connection cn, Table table, ResultSet rs, int rowIndex) throws RowMapperException
 	{
-		Row rowObj = new Row();
+		Row rowObj = createRow();
 
 		try
 		{
@@ -55,6 +79,24 @@ public abstract class AbstractRowMapper extends PersistenceSupport implements Ro
 		return rowObj;
 	}
 
+	/**
+	 * 创建行对象。
+	 * 
+	 * @return
+	 */
+	protected Row createRow()
+	{
+		if (!this.reuseRow)
+			return new Row();
+
+		if (this._reusedRow == null)
+			this._reusedRow = new Row();
+		else
+			this._reusedRow.clear();
+
+		return this._reusedRow;
+	}
+
 	/**
 	 * 映射列值。
 	 * <p>
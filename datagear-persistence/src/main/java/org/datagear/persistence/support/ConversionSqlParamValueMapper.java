@@ -31,6 +31,7 @@ import org.datagear.persistence.SqlParamValueMapper;
 import org.datagear.persistence.SqlParamValueMapperException;
 import org.datagear.persistence.support.expression.ExpressionEvaluationContext;
 import org.datagear.persistence.support.expression.NameExpression;
+import org.datagear.persistence.support.expression.SpelExpressionCache;
 import org.datagear.persistence.support.expression.SqlExpressionResolver;
 import org.datagear.persistence.support.expression.VariableExpressionResolver;
 import org.datagear.util.FileUtil;
@@ -74,6 +75,8 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 	protected static final VariableExpressionResolver DEFAULT_VARIABLE_EXPRESSION_RESOLVER = new VariableExpressionResolver();
 	protected static final SqlExpressionResolver DEFAULT_SQL_EXPRESSION_RESOLVER = new SqlExpressionResolver();
 	protected static final SpelExpressionParser DEFAULT_SPEL_EXPRESSION_PARSER = new SpelExpressionParser();
+	protected static final SpelExpressionCache DEFAULT_SPEL_EXPRESSION_CACHE = new SpelExpressionCache(
+			DEFAULT_SPEL_EXPRESSION_PARSER);
 
 	/** 用于支持基本类型转换的转换服务类 */
 	private ConversionService conversionService = null;
@@ -96,6 +99,9 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 	/** 变量表达式计算器 */
 	private SpelExpressionParser spelExpressionParser = DEFAULT_SPEL_EXPRESSION_PARSER;
 
+	/** 已解析变量表达式缓存 */
+	private SpelExpressionCache spelExpressionCache = DEFAULT_SPEL_EXPRESSION_CACHE;
+
 	/** 表达式计算上下文 */
 	private ExpressionEvaluationContext expressionEvaluationContext = new ExpressionEvaluationContext();
 
@@ -179,9 +185,28 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 		return spelExpressionParser;
 	}
 
+	/**
+	 * 设置变量表达式计算器。
+	 * <p>
+	 * 同时会为其创建新的{@linkplain SpelExpressionCache}。
+	 * </p>
+	 * 
+	 * @param spelExpressionParser
+	 */
 	public void setSpelExpressionParser(SpelExpressionParser spelExpressionParser)
 	{
 		this.spelExpressionParser = spelExpressionParser;
+		this.spelExpressionCache = new SpelExpressionCache(spelExpressionParser);
+	}
+
+	public SpelExpressionCache getSpelExpressionCache()
+	{
+		return spelExpressionCache;
+	}
+
+	public void setSpelExpressionCache(SpelExpressionCache spelExpressionCache)
+	{
+		this.spelExpressionCache = spelExpressionCache;
 	}
 
 	public ExpressionEvaluationContext getExpressionEvaluationContext()
@@ -242,6 +267,10 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 		String valueStr = (String) value;
 		Object result = valueStr;
 
+		// 不包含任何表达式起始标识符的普通字面值，既不会有表达式，也无需反转义
+		if (!mayContainExpression(valueStr))
+			return result;
+
 		if (this.enableVariableExpression)
 		{
 			List<NameExpression> expressions = this.variableExpressionResolver.resolveNameExpressions(valueStr);
@@ -269,6 +298,24 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 		return result;
 	}
 
+	/**
+	 * 给定字符串是否可能包含开启的表达式。
+	 * 
+	 * @param value
+	 * @return
+	 */
+	protected boolean mayContainExpression(String value)
+	{
+		if (this.enableVariableExpression
+				&& value.indexOf(this.variableExpressionResolver.getStartIdentifier()) > -1)
+			return true;
+
+		if (this.enableSqlExpression && value.indexOf(this.sqlExpressionResolver.getStartIdentifier()) > -1)
+			return true;
+
+		return false;
+	}
+
 	/**
 	 * 计算变量表达式列值。
 	 * 
@@ -312,13 +359,13 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 			NameExpression expression, ExpressionEvaluationContext expressionEvaluationContext,
 			List<Object> expressionValues) throws Throwable
 	{
-		Object expValue;
+		Object expValue = null;
 
 		org.springframework.expression.Expression spelExpression = null;
 
 		try
 		{
-			spelExpression = this.spelExpressionParser.parseExpression(expression.getContent());
+			spelExpression = this.spelExpressionCache.getExpression(expression.getContent());
 		}
 		catch (Throwable t)
 		{
@@ -330,17 +377,21 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 						t);
 		}
 
-		try
-		{
-			expValue = spelExpression.getValue(expressionEvaluationContext.getVariableExpressionBean());
-		}
-		catch (Throwable t)
+		if (spelExpression != null)
 		{
-			// 如果是表达式不合法，且列是文本类型，则忽略计算
-			if (JdbcUtil.isTextType(column.getType()))
-				expValue = expression.toString();
-			else
-				throw new SqlParamValueVariableExpressionException(table, column, value, expression.getContent(), t);
+			try
+			{
+				expValue = spelExpression.getValue(expressionEvaluationContext.getVariableExpressionBean());
+			}
+			catch (Throwable t)
+			{
+				// 如果是表达式不合法，且列是文本类型，则忽略计算
+				if (JdbcUtil.isTextType(column.getType()))
+					expValue = expression.toString();
+				else
+					throw new SqlParamValueVariableExpressionException(table, column, value, expression.getContent(),
+							t);
+			}
 		}
 
 		expressionValues.add(expValue);
@@ -395,7 +446,15 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 				expressionEvaluationContext.putCachedValue(expression, sql);
 			}
 
-			Object sqlValue = evaluateSqlExpressionResultIfSelect(cn, table, column, value, expression, sql);
+			Object sqlValue;
+
+			// 相同SQL的子查询仅执行一次
+			if (expressionEvaluationContext.containsSqlResult(sql))
+				sqlValue = expressionEvaluationContext.getSqlResult(sql);
+			else
+				sqlValue = evaluateSqlExpressionResultIfSelect(cn, table, column, value, expression, sql,
+						expressionEvaluationContext);
+
 			expressionValues.add(sqlValue);
 		}
 
@@ -404,8 +463,15 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 		return evaluated;
 	}
 
+	/**
+	 * 如果是查询SQL，则执行并返回其结果。
+	 * <p>
+	 * 执行成功的结果将存入{@linkplain ExpressionEvaluationContext#putSqlResult(String, Object)}。
+	 * </p>
+	 */
 	protected Object evaluateSqlExpressionResultIfSelect(Connection cn, Table table, Column column, String value,
-			NameExpression expression, String sql) throws Throwable
+			NameExpression expression, String sql, ExpressionEvaluationContext expressionEvaluationContext)
+			throws Throwable
 	{
 		if (!DefaultPersistenceManager.isSelectSql(sql))
 			return expression.toString();
@@ -422,6 +488,8 @@ public class ConversionSqlParamValueMapper extends AbstractSqlParamValueMapper
 			if (rs.next())
 				sqlResult = rs.getObject(1);
 
+			expressionEvaluationContext.putSqlResult(sql, sqlResult);
+
 			return sqlResult;
 		}
 		catch (SQLNonTransientException e)
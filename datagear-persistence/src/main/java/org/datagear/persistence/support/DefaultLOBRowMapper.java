@@ -138,6 +138,36 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 		return (isReadActualBinaryAll() || rowIndex <= this.readActualBinaryRows);
 	}
 
+	/**
+	 * 是否读取指定行、列的真实CLOB数据。
+	 * <p>
+	 * 返回{@code false}时将直接返回占位符，对于{@linkplain Clob}、{@linkplain NClob}、{@linkplain SQLXML}，不会打开数据流。
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param column
+	 * @return
+	 */
+	protected boolean isReadActualClob(int rowIndex, Column column)
+	{
+		return isReadActualClobRow(rowIndex);
+	}
+
+	/**
+	 * 是否读取指定行、列的真实二进制数据。
+	 * <p>
+	 * 返回{@code false}时将直接返回占位符，对于{@linkplain Blob}，不会打开数据流。
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param column
+	 * @return
+	 */
+	protected boolean isReadActualBinary(int rowIndex, Column column)
+	{
+		return isReadActualBinaryRow(rowIndex);
+	}
+
 	public boolean hasBinaryDirectory()
 	{
 		return (this.binaryDirectory != null);
@@ -289,6 +319,9 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 		if (isNullValue(rs, value))
 			return null;
 
+		if (!isReadActualClob(rowIndex, column))
+			return this.clobPlaceholder;
+
 		Reader in = value.getCharacterStream();
 		return mapColumnForLargeReaderValue(cn, table, rs, rowIndex, column, in, this.clobPlaceholder);
 	}
@@ -302,6 +335,9 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 		if (isNullValue(rs, value))
 			return null;
 
+		if (!isReadActualBinary(rowIndex, column))
+			return this.binaryPlaceholder;
+
 		InputStream in = value.getBinaryStream();
 		return mapColumnForInputStreamValue(cn, table, rs, rowIndex, column, in, this.binaryPlaceholder);
 	}
@@ -330,6 +366,9 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 		if (isNullValue(rs, value))
 			return null;
 
+		if (!isReadActualClob(rowIndex, column))
+			return this.clobPlaceholder;
+
 		Reader in = value.getCharacterStream();
 		return mapColumnForLargeReaderValue(cn, table, rs, rowIndex, column, in, this.clobPlaceholder);
 	}
@@ -343,6 +382,9 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 		if (isNullValue(rs, value))
 			return null;
 
+		if (!isReadActualClob(rowIndex, column))
+			return this.sqlXmlPlaceholder;
+
 		Reader in = value.getCharacterStream();
 		return mapColumnForLargeReaderValue(cn, table, rs, rowIndex, column, in, this.sqlXmlPlaceholder);
 	}
@@ -352,7 +394,7 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 	{
 		try
 		{
-			if (isReadActualClobRow(rowIndex))
+			if (isReadActualClob(rowIndex, column))
 				return IOUtil.readString(value, false);
 			else
 				return placeholder;
@@ -368,7 +410,7 @@ public class DefaultLOBRowMapper extends AbstractLOBRowMapper
 	{
 		try
 		{
-			if (isReadActualBinaryRow(rowIndex))
+			if (isReadActualBinary(rowIndex, column))
 			{
 				if (hasBinaryDirectory())
 				{
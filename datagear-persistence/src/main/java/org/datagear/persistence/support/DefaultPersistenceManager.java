@@ -9,8 +9,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.datagear.connection.ConnectionOption;
@@ -20,12 +22,17 @@ import org.datagear.persistence.Dialect;
 import org.datagear.persistence.DialectSource;
 import org.datagear.persistence.LiteralSqlParamValue;
 import org.datagear.persistence.NonUniqueResultException;
+import org.datagear.persistence.Order;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
+import org.datagear.persistence.PagingTotalMode;
 import org.datagear.persistence.PersistenceException;
 import org.datagear.persistence.PersistenceManager;
 import org.datagear.persistence.Query;
+import org.datagear.persistence.QueryCostExceededException;
+import org.datagear.persistence.QueryPlan;
 import org.datagear.persistence.Row;
+import org.datagear.persistence.RowConsumer;
 import org.datagear.persistence.RowMapper;
 import org.datagear.persistence.SqlParamValueMapper;
 import org.datagear.util.Sql;
@@ -46,6 +53,24 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 
 	private DialectSource dialectSource;
 
+	/** 分页查询总记录数缓存，为{@code null}时不缓存 */
+	private PagingTotalCache pagingTotalCache = null;
+
+	/** 估算记录数小于此值时，精确计数的开销不大，不使用估算值 */
+	private long estimatedTotalThreshold = 100000;
+
+	/** SQL语句模板缓存，为{@code null}时不缓存 */
+	private SqlTemplateCache sqlTemplateCache = null;
+
+	/** 查询估算行数超过此值时视为代价过高，小于等于0表示不限制 */
+	private long expensiveQueryRows = -1;
+
+	/** 查询估算代价超过此值时视为代价过高，小于等于0表示不限制 */
+	private double expensiveQueryCost = -1;
+
+	/** 是否拒绝执行代价过高的查询，为{@code false}时仅在结果中标记 */
+	private boolean rejectExpensiveQuery = true;
+
 	public DefaultPersistenceManager()
 	{
 		super();
@@ -68,6 +93,98 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		this.dialectSource = dialectSource;
 	}
 
+	public PagingTotalCache getPagingTotalCache()
+	{
+		return pagingTotalCache;
+	}
+
+	public void setPagingTotalCache(PagingTotalCache pagingTotalCache)
+	{
+		this.pagingTotalCache = pagingTotalCache;
+	}
+
+	public long getEstimatedTotalThreshold()
+	{
+		return estimatedTotalThreshold;
+	}
+
+	public void setEstimatedTotalThreshold(long estimatedTotalThreshold)
+	{
+		this.estimatedTotalThreshold = estimatedTotalThreshold;
+	}
+
+	public SqlTemplateCache getSqlTemplateCache()
+	{
+		return sqlTemplateCache;
+	}
+
+	public void setSqlTemplateCache(SqlTemplateCache sqlTemplateCache)
+	{
+		this.sqlTemplateCache = sqlTemplateCache;
+	}
+
+	public long getExpensiveQueryRows()
+	{
+		return expensiveQueryRows;
+	}
+
+	/**
+	 * 设置分页查询代价检查的估算行数阈值。
+	 * <p>
+	 * 设置后，有关键字或者条件的分页查询在执行前会先获取执行计划（参考{@linkplain Dialect#getQueryPlan(Connection, Sql)}），
+	 * 估算行数超过此值时将根据{@linkplain #isRejectExpensiveQuery()}拒绝执行或者标记。
+	 * </p>
+	 * <p>
+	 * 默认为{@code -1}，不检查。
+	 * </p>
+	 * 
+	 * @param expensiveQueryRows
+	 */
+	public void setExpensiveQueryRows(long expensiveQueryRows)
+	{
+		this.expensiveQueryRows = expensiveQueryRows;
+	}
+
+	public double getExpensiveQueryCost()
+	{
+		return expensiveQueryCost;
+	}
+
+	/**
+	 * 设置分页查询代价检查的估算代价阈值，参考{@linkplain #setExpensiveQueryRows(long)}。
+	 * <p>
+	 * 默认为{@code -1}，不检查。
+	 * </p>
+	 * 
+	 * @param expensiveQueryCost
+	 */
+	public void setExpensiveQueryCost(double expensiveQueryCost)
+	{
+		this.expensiveQueryCost = expensiveQueryCost;
+	}
+
+	public boolean isRejectExpensiveQuery()
+	{
+		return rejectExpensiveQuery;
+	}
+
+	/**
+	 * 设置是否拒绝执行代价过高的分页查询。
+	 * <p>
+	 * 为{@code true}时将抛出{@linkplain QueryCostExceededException}；为{@code false}时执行查询，并将执行计划设置到
+	 * {@linkplain PagingData#setQueryPlan(QueryPlan)}。
+	 * </p>
+	 * <p>
+	 * 默认为{@code true}。
+	 * </p>
+	 * 
+	 * @param rejectExpensiveQuery
+	 */
+	public void setRejectExpensiveQuery(boolean rejectExpensiveQuery)
+	{
+		this.rejectExpensiveQuery = rejectExpensiveQuery;
+	}
+
 	@Override
 	public Row insert(Connection cn, Table table, Row row) throws PersistenceException
 	{
@@ -85,54 +202,17 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		// 用于避免SQL参数转换中出现异常导致已转换的资源无法释放
 		ReleasableRegistry releasableRegistry = createReleasableRegistry();
 
-		Sql sql = Sql.valueOf().sql("INSERT INTO ").sql(quote(dialect, table.getName())).sql(" (").delimit(",");
-		Sql valueSql = Sql.valueOf().sql(" VALUES (").delimit(",");
-
-		Column[] columns = table.getColumns();
 		List<Column> autoGeneratedColumns = new ArrayList<>(2);
 
 		AutoGeneratedResult generatedResult;
 
 		try
 		{
-			for (int i = 0; i < columns.length; i++)
-			{
-				Column column = columns[i];
-
-				// 忽略不支持的列，避免程序不可用
-				if (!supportsColumn(column))
-					continue;
-
-				String name = column.getName();
-				Object value = row.get(name);
-
-				// 如果是自动生成列且没有初值，才返回自动生成值，因为即使自动生成列，也是允许手动赋值的
-				if (column.isAutoincrement() && StringUtil.isEmpty(value))
-					autoGeneratedColumns.add(column);
-
-				// 忽略不插入的列
-				if (!row.containsKey(name))
-					continue;
-
-				// 忽略null值，留给数据库生成默认值
-				if (value == null)
-					continue;
-
-				SqlParamValue sqlParamValue = mapToSqlParamValue(cn, table, column, value, mapper, releasableRegistry);
-
-				sql.sqld(quote(dialect, name));
-
-				if (sqlParamValue instanceof LiteralSqlParamValue)
-					valueSql.sqld(addBracketIfSelectSql(((LiteralSqlParamValue) sqlParamValue).getValue()));
-				else
-					valueSql.sqld("?").param(sqlParamValue);
-			}
-
-			sql.sql(")");
-			valueSql.sql(")");
-			sql.sql(valueSql);
+			Sql sql = buildInsertSql(cn, dialect, table, row, mapper, releasableRegistry, autoGeneratedColumns);
 
 			generatedResult = executeUpdateWrap(cn, sql, autoGeneratedColumns);
+
+			invalidatePagingTotal(cn, table);
 		}
 		finally
 		{
@@ -167,39 +247,15 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		// 用于避免SQL参数转换中出现异常导致已转换的资源无法释放
 		ReleasableRegistry releasableRegistry = createReleasableRegistry();
 
-		Sql sql = Sql.valueOf().sql("UPDATE ").sql(quote(dialect, table.getName())).sql(" SET ").delimit(",");
-
-		Column[] columns = table.getColumns();
-
 		try
 		{
-			for (int i = 0; i < columns.length; i++)
-			{
-				Column column = columns[i];
-
-				// 忽略不支持的列，避免程序不可用
-				if (!supportsColumn(column))
-					continue;
-
-				String name = column.getName();
-
-				if (!update.containsKey(name))
-					continue;
-
-				Object value = update.get(name);
-
-				SqlParamValue sqlParamValue = mapToSqlParamValue(cn, table, column, value, mapper, releasableRegistry);
+			Sql sql = buildUpdateSql(cn, dialect, table, origin, update, mapper, releasableRegistry);
 
-				if (sqlParamValue instanceof LiteralSqlParamValue)
-					sql.sqld(quote(dialect, name) + "="
-							+ addBracketIfSelectSql(((LiteralSqlParamValue) sqlParamValue).getValue()));
-				else
-					sql.sqld(quote(dialect, name) + "=?").param(sqlParamValue);
-			}
+			int count = executeUpdateWrap(cn, sql);
 
-			sql.sql(" WHERE ").sql(buildUniqueRecordCondition(cn, dialect, table, origin, mapper, releasableRegistry));
+			invalidatePagingTotal(cn, table);
 
-			return executeUpdateWrap(cn, sql);
+			return count;
 		}
 		finally
 		{
@@ -237,15 +293,14 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 
 			for (int i = 0; i < rows.length; i++)
 			{
-				Row row = rows[i];
-
-				Sql sql = Sql.valueOf().sql("DELETE FROM ").sql(quote(dialect, table.getName())).sql(" WHERE ");
-				sql.sql(buildUniqueRecordCondition(cn, dialect, table, row, mapper, releasableRegistry));
+				Sql sql = buildDeleteSql(cn, dialect, table, rows[i], mapper, releasableRegistry);
 				count += executeUpdate(cn, sql);
 
 				releasableRegistry.releaseClear();
 			}
 
+			invalidatePagingTotal(cn, table);
+
 			return count;
 		}
 		catch (SQLException e)
@@ -258,6 +313,100 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		}
 	}
 
+	@Override
+	public int batchInsert(Connection cn, Dialect dialect, Table table, Row[] rows, SqlParamValueMapper mapper)
+			throws PersistenceException
+	{
+		checkValidTable(table);
+
+		dialect = getDialect(cn, dialect);
+
+		// 批量执行前，所有行的SQL参数资源都不能释放
+		ReleasableRegistry releasableRegistry = createReleasableRegistry();
+
+		try
+		{
+			List<Sql> sqls = new ArrayList<>(rows.length);
+
+			for (int i = 0; i < rows.length; i++)
+				sqls.add(buildInsertSql(cn, dialect, table, rows[i], mapper, releasableRegistry,
+						new ArrayList<Column>(2)));
+
+			int count = executeBatchWrap(cn, sqls);
+
+			invalidatePagingTotal(cn, table);
+
+			return count;
+		}
+		finally
+		{
+			releasableRegistry.release();
+		}
+	}
+
+	@Override
+	public int batchUpdate(Connection cn, Dialect dialect, Table table, Row[] origins, Row[] updates,
+			SqlParamValueMapper mapper) throws PersistenceException
+	{
+		checkValidTable(table);
+
+		if (origins.length != updates.length)
+			throw new IllegalArgumentException("[origins] and [updates] must have the same length");
+
+		dialect = getDialect(cn, dialect);
+
+		// 批量执行前，所有行的SQL参数资源都不能释放
+		ReleasableRegistry releasableRegistry = createReleasableRegistry();
+
+		try
+		{
+			List<Sql> sqls = new ArrayList<>(origins.length);
+
+			for (int i = 0; i < origins.length; i++)
+				sqls.add(buildUpdateSql(cn, dialect, table, origins[i], updates[i], mapper, releasableRegistry));
+
+			int count = executeBatchWrap(cn, sqls);
+
+			invalidatePagingTotal(cn, table);
+
+			return count;
+		}
+		finally
+		{
+			releasableRegistry.release();
+		}
+	}
+
+	@Override
+	public int batchDelete(Connection cn, Dialect dialect, Table table, Row[] rows, SqlParamValueMapper mapper)
+			throws PersistenceException
+	{
+		checkValidTable(table);
+
+		dialect = getDialect(cn, dialect);
+
+		// 批量执行前，所有行的SQL参数资源都不能释放
+		ReleasableRegistry releasableRegistry = createReleasableRegistry();
+
+		try
+		{
+			List<Sql> sqls = new ArrayList<>(rows.length);
+
+			for (int i = 0; i < rows.length; i++)
+				sqls.add(buildDeleteSql(cn, dialect, table, rows[i], mapper, releasableRegistry));
+
+			int count = executeBatchWrap(cn, sqls);
+
+			invalidatePagingTotal(cn, table);
+
+			return count;
+		}
+		finally
+		{
+			releasableRegistry.release();
+		}
+	}
+
 	@Override
 	public int delete(Connection cn, Table table, Query query) throws PersistenceException
 	{
@@ -290,11 +439,25 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		// 用于避免SQL参数转换中出现异常导致已转换的资源无法释放
 		ReleasableRegistry releasableRegistry = createReleasableRegistry();
 
-		Sql sql = Sql.valueOf().sql("SELECT * FROM ").sql(quote(dialect, table.getName())).sql(" WHERE ");
-
 		try
 		{
-			sql.sql(buildUniqueRecordCondition(cn, dialect, table, param, sqlParamValueMapper, releasableRegistry));
+			Column[] conditionColumns = getUniqueRecordColumns(table);
+			SqlParamValue[] conditionValues = mapToSqlParamValues(cn, table, conditionColumns, param,
+					sqlParamValueMapper, releasableRegistry);
+
+			String templateKey = buildSqlTemplateKey(dialect, "GET", table, null, null, conditionColumns,
+					conditionValues);
+			Sql sql = getSqlTemplate(templateKey);
+
+			if (sql != null)
+				addConditionParams(sql, conditionValues);
+			else
+			{
+				sql = Sql.valueOf().sql("SELECT * FROM ").sql(quote(dialect, table.getName())).sql(" WHERE ");
+				sql.sql(buildUniqueRecordCondition(dialect, conditionColumns, conditionValues));
+
+				putSqlTemplate(table, templateKey, sql);
+			}
 
 			List<Row> rows = executeListQuery(cn, table, sql, ResultSet.TYPE_FORWARD_ONLY, rowMapper);
 
@@ -329,6 +492,18 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		return executeListQuery(cn, table, sql, ResultSet.TYPE_FORWARD_ONLY, mapper);
 	}
 
+	@Override
+	public int query(Connection cn, Dialect dialect, Table table, Query query, RowMapper mapper,
+			RowConsumer consumer) throws PersistenceException
+	{
+		checkValidTable(table);
+
+		dialect = getDialect(cn, dialect);
+
+		Sql sql = buildQuerySql(cn, dialect, table, query, true);
+		return executeQuery(cn, table, sql, ResultSet.TYPE_FORWARD_ONLY, 1, -1, mapper, consumer);
+	}
+
 	@Override
 	public PagingData<Row> pagingQuery(Connection cn, Table table, PagingQuery pagingQuery) throws PersistenceException
 	{
@@ -345,18 +520,101 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 
 		Sql queryView = buildQuerySql(cn, dialect, table, pagingQuery, true);
 
-		long total = queryCount(cn, queryView);
+		// 无关键字、条件的查询总是可以借助分页快速返回，仅检查过滤查询
+		QueryPlan expensivePlan = null;
+
+		if (isQueryCostGuarded() && (pagingQuery.hasKeyword() || pagingQuery.hasCondition()))
+		{
+			QueryPlan queryPlan = explainQuery(cn, dialect, queryView);
+
+			if (queryPlan != null && queryPlan.isExpensive())
+			{
+				if (this.rejectExpensiveQuery)
+					throw new QueryCostExceededException(queryPlan);
+
+				if (LOGGER.isWarnEnabled())
+					LOGGER.warn("expensive query will be executed : {}, {}", queryPlan, queryView);
+
+				expensivePlan = queryPlan;
+			}
+		}
+
+		PagingTotalMode totalMode = pagingQuery.getTotalMode();
+		String tableKey = null;
+		String queryKey = null;
+		Long total = null;
+
+		if (PagingTotalMode.ESTIMATED.equals(totalMode) && !pagingQuery.hasKeyword() && !pagingQuery.hasCondition())
+			total = queryEstimatedCount(cn, dialect, table);
+
+		if (total == null && this.pagingTotalCache != null
+				&& (PagingTotalMode.CACHED.equals(totalMode) || PagingTotalMode.ESTIMATED.equals(totalMode)))
+		{
+			tableKey = buildPagingTotalTableKey(cn, table);
+			queryKey = buildPagingTotalQueryKey(queryView);
+			total = this.pagingTotalCache.get(tableKey, queryKey);
+		}
+
+		// 总记录数不精确时，多查询一条记录以判断是否有下一页，并据此修正总记录数
+		boolean totalExact = (total == null && !PagingTotalMode.HAS_NEXT.equals(totalMode));
+
+		if (totalExact)
+		{
+			total = queryCount(cn, queryView);
+
+			if (tableKey != null)
+				this.pagingTotalCache.put(tableKey, queryKey, total);
+		}
+
+		PagingData<Row> pagingData = null;
 
-		PagingData<Row> pagingData = new PagingData<>(pagingQuery.getPage(), total, pagingQuery.getPageSize());
+		if (totalExact)
+			pagingData = new PagingData<>(pagingQuery.getPage(), total, pagingQuery.getPageSize());
+		else
+		{
+			// 避免不精确的总记录数限制了请求页码
+			long minTotal = (long) pagingQuery.getPage() * pagingQuery.getPageSize();
+			pagingData = new PagingData<>(pagingQuery.getPage(), Math.max((total == null ? 0 : total), minTotal),
+					pagingQuery.getPageSize());
+		}
 
 		Sql query = null;
 		List<Row> rows = null;
 		int startRow = pagingData.getStartRow();
-		int count = pagingData.getPageSize();
+		int count = (totalExact ? pagingData.getPageSize() : pagingData.getPageSize() + 1);
+
+		Order[] orders = pagingQuery.getOrders();
+		Order[] keysetOrders = (pagingQuery.isKeyset() ? buildKeysetOrders(table, orders) : null);
+		String keysetFingerprint = null;
+
+		if (keysetOrders != null)
+		{
+			orders = keysetOrders;
+			keysetFingerprint = buildKeysetFingerprint(queryView, pagingQuery, keysetOrders);
+
+			KeysetCursor cursor = KeysetCursor.decode(pagingQuery.getCursor());
+
+			// 游标与当前页、查询一致时，直接定位到上一页最后一行之后，无需跳过之前的记录
+			if (cursor != null && cursor.getPage() == pagingData.getPage()
+					&& keysetFingerprint.equals(cursor.getFingerprint())
+					&& cursor.getValues().length == keysetOrders.length)
+			{
+				Sql condition = buildQueryCondition(cn, dialect, table, pagingQuery, true);
+				Sql seekCondition = buildKeysetSeekCondition(dialect, table, keysetOrders, cursor.getValues());
+
+				if (Sql.isEmpty(condition))
+					condition = seekCondition;
+				else
+					condition = Sql.valueOf().sql("(").sql(condition).sql(") AND (").sql(seekCondition).sql(")");
+
+				queryView = buildQuerySql(dialect, table, condition);
+				startRow = 1;
+			}
+		}
 
 		if (dialect.supportsPagingSql())
 		{
-			query = dialect.toPagingQuerySql(queryView, pagingQuery.getOrders(), startRow, count);
+			query = dialect.toPagingQuerySql(queryView, orders, startRow, count);
 
 			// 数据库分页
 			if (query != null)
@@ -372,12 +630,56 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 			if (LOGGER.isWarnEnabled())
 				LOGGER.warn("memory pagination will be used for [{}]", ConnectionOption.valueOfNonNull(cn));
 
-			query = dialect.toOrderSql(queryView, pagingQuery.getOrders());
+			query = dialect.toOrderSql(queryView, orders);
 		}
 
 		rows = executeListQuery(cn, table, query, ResultSet.TYPE_SCROLL_INSENSITIVE, startRow, count, mapper);
 
+		if (!totalExact)
+		{
+			int pageSize = pagingData.getPageSize();
+			int startIndex = pagingData.getStartIndex();
+			boolean hasNext = (rows.size() > pageSize);
+
+			if (hasNext)
+				rows = new ArrayList<>(rows.subList(0, pageSize));
+
+			// 已到最后一页，总记录数可确定
+			if (!hasNext && (!rows.isEmpty() || startIndex == 0))
+			{
+				total = (long) (startIndex + rows.size());
+				totalExact = true;
+			}
+			else
+			{
+				long minTotal = startIndex + rows.size() + (hasNext ? 1 : 0);
+				total = (total == null ? minTotal : Math.max(total, minTotal));
+			}
+
+			int pages = (int) (total / pageSize);
+			if (total % pageSize > 0)
+				pages += 1;
+
+			pagingData.setTotal(total);
+			pagingData.setPages(pages);
+			pagingData.setTotalExact(totalExact);
+		}
+
 		pagingData.setItems(rows);
+		pagingData.setQueryPlan(expensivePlan);
+
+		if (keysetOrders != null && pagingData.getPage() < pagingData.getPages()
+				&& rows.size() == pagingData.getPageSize())
+		{
+			Row lastRow = rows.get(rows.size() - 1);
+			Object[] values = new Object[keysetOrders.length];
+
+			for (int i = 0; i < keysetOrders.length; i++)
+				values[i] = lastRow.get(keysetOrders[i].getName());
+
+			KeysetCursor nextCursor = new KeysetCursor(pagingData.getPage() + 1, keysetFingerprint, values);
+			pagingData.setNextCursor(nextCursor.encode());
+		}
 
 		return pagingData;
 	}
@@ -401,29 +703,163 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		return sql.getSqlValue();
 	}
 
-	protected long queryCount(Connection cn, Sql query)
+	@Override
+	public QueryPlan getQueryPlan(Connection cn, Dialect dialect, Table table, Query query)
+			throws PersistenceException
 	{
-		Sql countQuery = Sql.valueOf().sql("SELECT COUNT(*) FROM (").sql(query).sql(") T");
+		checkValidTable(table);
 
-		long re = executeCountQueryWrap(cn, countQuery);
+		dialect = getDialect(cn, dialect);
 
-		return re;
+		Sql sql = buildQuerySql(cn, dialect, table, query, true);
+		sql = dialect.toOrderSql(sql, query.getOrders());
+
+		return explainQuery(cn, dialect, sql);
 	}
 
-	protected Sql buildQuerySql(Connection cn, Dialect dialect, Table table, Query query, boolean parameterized)
+	@Override
+	public boolean isQueryCostGuarded()
 	{
-		Sql sql = Sql.valueOf().sql("SELECT ").delimit(",");
-
-		Column[] columns = table.getColumns();
-		for (int i = 0; i < columns.length; i++)
-			sql.sqld(quote(dialect, columns[i].getName()));
-
-		sql.sql(" FROM ");
-		sql.sql(quote(dialect, table.getName()));
-		Sql condition = buildQueryCondition(cn, dialect, table, query, parameterized);
+		return (this.expensiveQueryRows > 0 || this.expensiveQueryCost > 0);
+	}
 
-		if (!Sql.isEmpty(condition))
-		{
+	/**
+	 * 获取执行计划，并根据阈值设置{@linkplain QueryPlan#isExpensive()}。
+	 * <p>
+	 * 获取执行计划出现异常时将返回{@code null}，而不影响查询的执行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param query
+	 * @return 返回{@code null}表示不支持
+	 */
+	protected QueryPlan explainQuery(Connection cn, Dialect dialect, Sql query)
+	{
+		QueryPlan queryPlan = null;
+
+		try
+		{
+			queryPlan = dialect.getQueryPlan(cn, query);
+		}
+		catch (PersistenceException e)
+		{
+			LOGGER.debug("query plan is not available for exception :", e);
+			return null;
+		}
+
+		if (queryPlan == null)
+			return null;
+
+		boolean expensive = false;
+
+		if (this.expensiveQueryRows > 0 && queryPlan.getEstimatedRows() != null
+				&& queryPlan.getEstimatedRows() > this.expensiveQueryRows)
+			expensive = true;
+
+		if (this.expensiveQueryCost > 0 && queryPlan.getEstimatedCost() != null
+				&& queryPlan.getEstimatedCost() > this.expensiveQueryCost)
+			expensive = true;
+
+		queryPlan.setExpensive(expensive);
+
+		return queryPlan;
+	}
+
+	protected long queryCount(Connection cn, Sql query)
+	{
+		Sql countQuery = Sql.valueOf().sql("SELECT COUNT(*) FROM (").sql(query).sql(") T");
+
+		long re = executeCountQueryWrap(cn, countQuery);
+
+		return re;
+	}
+
+	/**
+	 * 查询表的估算记录数。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @return 返回{@code null}表示无法估算，或者估算值小于{@linkplain #getEstimatedTotalThreshold()}
+	 */
+	protected Long queryEstimatedCount(Connection cn, Dialect dialect, Table table)
+	{
+		Sql sql = dialect.toEstimatedCountSql(table);
+
+		if (sql == null)
+			return null;
+
+		try
+		{
+			long count = executeCountQueryWrap(cn, sql);
+
+			// 没有统计信息时，数据库可能返回0或者负数
+			return (count > 0 && count >= this.estimatedTotalThreshold ? count : null);
+		}
+		catch (PersistenceException e)
+		{
+			LOGGER.debug("estimated count is not available for exception :", e);
+			return null;
+		}
+	}
+
+	/**
+	 * 清除表的分页查询总记录数缓存。
+	 * 
+	 * @param cn
+	 * @param table
+	 */
+	protected void invalidatePagingTotal(Connection cn, Table table)
+	{
+		if (this.pagingTotalCache != null)
+			this.pagingTotalCache.invalidate(buildPagingTotalTableKey(cn, table));
+	}
+
+	protected String buildPagingTotalTableKey(Connection cn, Table table)
+	{
+		ConnectionOption connectionOption = ConnectionOption.valueOfNonNull(cn);
+		return connectionOption.getUrl() + "\n" + connectionOption.getUser() + "\n" + table.getName();
+	}
+
+	protected String buildPagingTotalQueryKey(Sql queryView)
+	{
+		StringBuilder sb = new StringBuilder(queryView.getSqlValue());
+
+		for (SqlParamValue paramValue : queryView.getParamValues())
+			sb.append("\n").append(paramValue.getValue());
+
+		return sb.toString();
+	}
+
+	protected Sql buildQuerySql(Connection cn, Dialect dialect, Table table, Query query, boolean parameterized)
+	{
+		Sql condition = buildQueryCondition(cn, dialect, table, query, parameterized);
+		return buildQuerySql(dialect, table, condition);
+	}
+
+	/**
+	 * 构建查询SQL。
+	 * 
+	 * @param dialect
+	 * @param table
+	 * @param condition
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected Sql buildQuerySql(Dialect dialect, Table table, Sql condition)
+	{
+		Sql sql = Sql.valueOf().sql("SELECT ").delimit(",");
+
+		Column[] columns = table.getColumns();
+		for (int i = 0; i < columns.length; i++)
+			sql.sqld(quote(dialect, columns[i].getName()));
+
+		sql.sql(" FROM ");
+		sql.sql(quote(dialect, table.getName()));
+
+		if (!Sql.isEmpty(condition))
+		{
 			sql.sql(" WHERE ");
 			sql.sql(condition);
 		}
@@ -471,6 +907,137 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		}
 	}
 
+	/**
+	 * 构建键集分页的排序。
+	 * <p>
+	 * 在原排序之后追加主键（或者唯一键）列作为排序，使排序能够确定唯一行记录。
+	 * </p>
+	 * 
+	 * @param table
+	 * @param orders
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示不支持键集分页（没有主键和唯一键、排序列允许为{@code null}等）
+	 */
+	protected Order[] buildKeysetOrders(Table table, Order[] orders)
+	{
+		Column[] keyColumns = null;
+		boolean primaryKey = table.hasPrimaryKey();
+
+		if (primaryKey)
+			keyColumns = table.getColumns(table.getPrimaryKey().getColumnNames());
+		else if (table.hasUniqueKey())
+			keyColumns = table.getColumns(table.getUniqueKeys()[0].getColumnNames());
+
+		if (keyColumns == null || keyColumns.length == 0)
+			return null;
+
+		List<Order> keysetOrders = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+
+		if (orders != null)
+		{
+			for (Order order : orders)
+			{
+				Column column = table.getColumn(order.getName());
+
+				// 允许为null的列无法用比较条件定位
+				if (column == null || column.isNullable() || !isKeysetColumn(column))
+					return null;
+
+				if (names.add(column.getName()))
+					keysetOrders.add(new Order(column.getName(), (order.isAsc() ? Order.ASC : Order.DESC)));
+			}
+		}
+
+		for (Column column : keyColumns)
+		{
+			if (column == null || (!primaryKey && column.isNullable()) || !isKeysetColumn(column))
+				return null;
+
+			if (names.add(column.getName()))
+				keysetOrders.add(new Order(column.getName(), Order.ASC));
+		}
+
+		return keysetOrders.toArray(new Order[keysetOrders.size()]);
+	}
+
+	/**
+	 * 是否可以作为键集分页的列。
+	 * 
+	 * @param column
+	 * @return
+	 */
+	protected boolean isKeysetColumn(Column column)
+	{
+		int type = column.getType();
+
+		return (Types.TINYINT == type || Types.SMALLINT == type || Types.INTEGER == type || Types.BIGINT == type
+				|| Types.DECIMAL == type || Types.NUMERIC == type || Types.REAL == type || Types.FLOAT == type
+				|| Types.DOUBLE == type || Types.CHAR == type || Types.VARCHAR == type || Types.NCHAR == type
+				|| Types.NVARCHAR == type || Types.BIT == type || Types.BOOLEAN == type || Types.DATE == type
+				|| Types.TIME == type || Types.TIMESTAMP == type);
+	}
+
+	/**
+	 * 构建键集分页的查询指纹，用于校验游标是否适用于当前查询。
+	 * 
+	 * @param queryView
+	 * @param query
+	 * @param keysetOrders
+	 * @return
+	 */
+	protected String buildKeysetFingerprint(Sql queryView, Query query, Order[] keysetOrders)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(queryView.getSqlValue());
+		sb.append('\n').append(query.getKeyword()).append('\n').append(query.isNotLike());
+
+		for (Order order : keysetOrders)
+			sb.append('\n').append(order.getName()).append(' ').append(order.getType());
+
+		return Integer.toHexString(sb.toString().hashCode());
+	}
+
+	/**
+	 * 构建键集分页的定位条件，即：
+	 * <p>
+	 * <code>(k1 &gt; v1) OR (k1 = v1 AND k2 &gt; v2) OR ...</code>
+	 * </p>
+	 * <p>
+	 * 降序列使用<code>&lt;</code>。
+	 * </p>
+	 * 
+	 * @param dialect
+	 * @param table
+	 * @param keysetOrders
+	 * @param values
+	 * @return
+	 */
+	protected Sql buildKeysetSeekCondition(Dialect dialect, Table table, Order[] keysetOrders, Object[] values)
+	{
+		Sql sql = Sql.valueOf().delimit(" OR ");
+
+		for (int i = 0; i < keysetOrders.length; i++)
+		{
+			Sql item = Sql.valueOf().delimit(" AND ");
+
+			for (int j = 0; j <= i; j++)
+			{
+				Order order = keysetOrders[j];
+				Column column = table.getColumn(order.getName());
+				String operator = (j < i ? "=" : (order.isAsc() ? ">" : "<"));
+
+				item.sqld(quote(dialect, column.getName()) + operator + "?")
+						.param(createSqlParamValue(column, values[j]));
+			}
+
+			sql.sqld(Sql.valueOf().sql("(").sql(item).sql(")"));
+		}
+
+		return sql;
+	}
+
 	/**
 	 * 尝试构建能够确定唯一行记录的查询条件。
 	 * <p>
@@ -491,30 +1058,336 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 			SqlParamValueMapper mapper, ReleasableRegistry releasableRegistry) throws PersistenceException
 	{
 		Column[] columns = getUniqueRecordColumns(table);
+		SqlParamValue[] values = mapToSqlParamValues(cn, table, columns, row, mapper, releasableRegistry);
+
+		return buildUniqueRecordCondition(dialect, columns, values);
+	}
 
+	/**
+	 * 构建行唯一条件SQL。
+	 * 
+	 * @param dialect
+	 * @param columns
+	 * @param values
+	 * @return
+	 */
+	protected Sql buildUniqueRecordCondition(Dialect dialect, Column[] columns, SqlParamValue[] values)
+	{
 		Sql sql = Sql.valueOf().delimit(" AND ");
 
+		for (int i = 0; i < columns.length; i++)
+		{
+			String name = columns[i].getName();
+			SqlParamValue sqlParamValue = values[i];
+
+			if (sqlParamValue instanceof LiteralSqlParamValue)
+				sql.sqld(quote(dialect, name) + "="
+						+ addBracketIfSelectSql(((LiteralSqlParamValue) sqlParamValue).getValue()));
+			else if (sqlParamValue.hasValue())
+				sql.sqld(quote(dialect, name) + "=?").param(sqlParamValue);
+			else
+				sql.sqld(quote(dialect, name) + " IS NULL");
+		}
+
+		return sql;
+	}
+
+	/**
+	 * 将{@linkplain #buildUniqueRecordCondition(Dialect, Column[], SqlParamValue[])}条件中的参数添加至{@linkplain Sql}。
+	 * 
+	 * @param sql
+	 * @param values
+	 * @return
+	 */
+	protected Sql addConditionParams(Sql sql, SqlParamValue[] values)
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			if (values[i].hasValue())
+				sql.param(values[i]);
+		}
+
+		return sql;
+	}
+
+	/**
+	 * 构建插入SQL。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param row
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param releasableRegistry
+	 * @param autoGeneratedColumns
+	 *            用于写入需返回自动生成值的列
+	 * @return
+	 * @throws PersistenceException
+	 */
+	protected Sql buildInsertSql(Connection cn, Dialect dialect, Table table, Row row, SqlParamValueMapper mapper,
+			ReleasableRegistry releasableRegistry, List<Column> autoGeneratedColumns) throws PersistenceException
+	{
+		Column[] columns = table.getColumns();
+
+		List<Column> insertColumns = new ArrayList<>(columns.length);
+		List<SqlParamValue> insertValues = new ArrayList<>(columns.length);
+
 		for (int i = 0; i < columns.length; i++)
 		{
 			Column column = columns[i];
-			String name = column.getName();
 
+			// 忽略不支持的列，避免程序不可用
+			if (!supportsColumn(column))
+				continue;
+
+			String name = column.getName();
 			Object value = row.get(name);
 
-			SqlParamValue sqlParamValue = mapToSqlParamValue(cn, table, column, value, mapper, releasableRegistry);
+			// 如果是自动生成列且没有初值，才返回自动生成值，因为即使自动生成列，也是允许手动赋值的
+			if (column.isAutoincrement() && StringUtil.isEmpty(value))
+				autoGeneratedColumns.add(column);
+
+			// 忽略不插入的列
+			if (!row.containsKey(name))
+				continue;
+
+			// 忽略null值，留给数据库生成默认值
+			if (value == null)
+				continue;
+
+			insertColumns.add(column);
+			insertValues.add(mapToSqlParamValue(cn, table, column, value, mapper, releasableRegistry));
+		}
+
+		String templateKey = buildSqlTemplateKey(dialect, "INSERT", table, insertColumns, insertValues, null, null);
+		Sql template = getSqlTemplate(templateKey);
+
+		if (template != null)
+			return template.param(insertValues);
+
+		Sql sql = Sql.valueOf().sql("INSERT INTO ").sql(quote(dialect, table.getName())).sql(" (").delimit(",");
+		Sql valueSql = Sql.valueOf().sql(" VALUES (").delimit(",");
+
+		for (int i = 0, len = insertColumns.size(); i < len; i++)
+		{
+			SqlParamValue sqlParamValue = insertValues.get(i);
+
+			sql.sqld(quote(dialect, insertColumns.get(i).getName()));
+
+			if (sqlParamValue instanceof LiteralSqlParamValue)
+				valueSql.sqld(addBracketIfSelectSql(((LiteralSqlParamValue) sqlParamValue).getValue()));
+			else
+				valueSql.sqld("?").param(sqlParamValue);
+		}
+
+		sql.sql(")");
+		valueSql.sql(")");
+		sql.sql(valueSql);
+
+		putSqlTemplate(table, templateKey, sql);
+
+		return sql;
+	}
+
+	/**
+	 * 构建更新SQL。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param origin
+	 * @param update
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param releasableRegistry
+	 * @return
+	 * @throws PersistenceException
+	 */
+	protected Sql buildUpdateSql(Connection cn, Dialect dialect, Table table, Row origin, Row update,
+			SqlParamValueMapper mapper, ReleasableRegistry releasableRegistry) throws PersistenceException
+	{
+		Column[] columns = table.getColumns();
+
+		List<Column> updateColumns = new ArrayList<>(columns.length);
+		List<SqlParamValue> updateValues = new ArrayList<>(columns.length);
+
+		for (int i = 0; i < columns.length; i++)
+		{
+			Column column = columns[i];
+
+			// 忽略不支持的列，避免程序不可用
+			if (!supportsColumn(column))
+				continue;
+
+			String name = column.getName();
+
+			if (!update.containsKey(name))
+				continue;
+
+			updateColumns.add(column);
+			updateValues.add(mapToSqlParamValue(cn, table, column, update.get(name), mapper, releasableRegistry));
+		}
+
+		Column[] conditionColumns = getUniqueRecordColumns(table);
+		SqlParamValue[] conditionValues = mapToSqlParamValues(cn, table, conditionColumns, origin, mapper,
+				releasableRegistry);
+
+		String templateKey = buildSqlTemplateKey(dialect, "UPDATE", table, updateColumns, updateValues,
+				conditionColumns, conditionValues);
+		Sql template = getSqlTemplate(templateKey);
+
+		if (template != null)
+			return addConditionParams(template.param(updateValues), conditionValues);
+
+		Sql sql = Sql.valueOf().sql("UPDATE ").sql(quote(dialect, table.getName())).sql(" SET ").delimit(",");
+
+		for (int i = 0, len = updateColumns.size(); i < len; i++)
+		{
+			String name = updateColumns.get(i).getName();
+			SqlParamValue sqlParamValue = updateValues.get(i);
 
 			if (sqlParamValue instanceof LiteralSqlParamValue)
 				sql.sqld(quote(dialect, name) + "="
 						+ addBracketIfSelectSql(((LiteralSqlParamValue) sqlParamValue).getValue()));
-			else if (sqlParamValue.hasValue())
-				sql.sqld(quote(dialect, name) + "=?").param(sqlParamValue);
 			else
-				sql.sqld(quote(dialect, name) + " IS NULL");
+				sql.sqld(quote(dialect, name) + "=?").param(sqlParamValue);
 		}
 
+		sql.sql(" WHERE ").sql(buildUniqueRecordCondition(dialect, conditionColumns, conditionValues));
+
+		putSqlTemplate(table, templateKey, sql);
+
 		return sql;
 	}
 
+	/**
+	 * 构建删除SQL。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param row
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param releasableRegistry
+	 * @return
+	 * @throws PersistenceException
+	 */
+	protected Sql buildDeleteSql(Connection cn, Dialect dialect, Table table, Row row, SqlParamValueMapper mapper,
+			ReleasableRegistry releasableRegistry) throws PersistenceException
+	{
+		Column[] conditionColumns = getUniqueRecordColumns(table);
+		SqlParamValue[] conditionValues = mapToSqlParamValues(cn, table, conditionColumns, row, mapper,
+				releasableRegistry);
+
+		String templateKey = buildSqlTemplateKey(dialect, "DELETE", table, null, null, conditionColumns,
+				conditionValues);
+		Sql template = getSqlTemplate(templateKey);
+
+		if (template != null)
+			return addConditionParams(template, conditionValues);
+
+		Sql sql = Sql.valueOf().sql("DELETE FROM ").sql(quote(dialect, table.getName())).sql(" WHERE ");
+		sql.sql(buildUniqueRecordCondition(dialect, conditionColumns, conditionValues));
+
+		putSqlTemplate(table, templateKey, sql);
+
+		return sql;
+	}
+
+	/**
+	 * 构建SQL语句模板缓存关键字。
+	 * <p>
+	 * 关键字由方言、操作、表名、列名及其值类型（参数、{@code null}）组成，它完全确定了SQL语句文本。
+	 * </p>
+	 * 
+	 * @param dialect
+	 * @param operation
+	 * @param table
+	 * @param columns
+	 *            允许为{@code null}
+	 * @param values
+	 *            允许为{@code null}
+	 * @param conditionColumns
+	 *            允许为{@code null}
+	 * @param conditionValues
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示未开启缓存，或者包含{@linkplain LiteralSqlParamValue}而不可缓存
+	 */
+	protected String buildSqlTemplateKey(Dialect dialect, String operation, Table table, List<Column> columns,
+			List<SqlParamValue> values, Column[] conditionColumns, SqlParamValue[] conditionValues)
+	{
+		if (this.sqlTemplateCache == null)
+			return null;
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(dialect.getClass().getName()).append('\n').append(dialect.getIdentifierQuote()).append('\n')
+				.append(operation).append('\n').append(table.getName()).append('\n');
+
+		if (columns != null)
+		{
+			for (int i = 0, len = columns.size(); i < len; i++)
+			{
+				if (values.get(i) instanceof LiteralSqlParamValue)
+					return null;
+
+				sb.append(columns.get(i).getName()).append('\n');
+			}
+		}
+
+		sb.append("WHERE\n");
+
+		if (conditionColumns != null)
+		{
+			for (int i = 0; i < conditionColumns.length; i++)
+			{
+				SqlParamValue value = conditionValues[i];
+
+				if (value instanceof LiteralSqlParamValue)
+					return null;
+
+				sb.append(conditionColumns[i].getName()).append(value.hasValue() ? '?' : '0').append('\n');
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * 获取缓存的SQL语句模板。
+	 * 
+	 * @param templateKey
+	 *            允许为{@code null}
+	 * @return 不包含参数的{@linkplain Sql}，返回{@code null}表示没有缓存
+	 */
+	protected Sql getSqlTemplate(String templateKey)
+	{
+		if (templateKey == null || this.sqlTemplateCache == null)
+			return null;
+
+		String template = this.sqlTemplateCache.get(templateKey);
+
+		return (template == null ? null : Sql.valueOf(template));
+	}
+
+	/**
+	 * 缓存SQL语句模板。
+	 * 
+	 * @param table
+	 * @param templateKey
+	 *            允许为{@code null}
+	 * @param sql
+	 */
+	protected void putSqlTemplate(Table table, String templateKey, Sql sql)
+	{
+		if (templateKey == null || this.sqlTemplateCache == null)
+			return;
+
+		this.sqlTemplateCache.put(table.getName(), templateKey, sql.getSqlValue());
+	}
+
 	/**
 	 * 尝试获取能确定唯一行记录的列数组。
 	 * 
@@ -566,6 +1439,31 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		return re.toArray(new Column[re.size()]);
 	}
 
+	/**
+	 * 将行对象中指定列的值映射为{@linkplain SqlParamValue}数组。
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param columns
+	 * @param row
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param releasableRegistry
+	 * @return
+	 * @throws PersistenceException
+	 */
+	protected SqlParamValue[] mapToSqlParamValues(Connection cn, Table table, Column[] columns, Row row,
+			SqlParamValueMapper mapper, ReleasableRegistry releasableRegistry) throws PersistenceException
+	{
+		SqlParamValue[] values = new SqlParamValue[columns.length];
+
+		for (int i = 0; i < columns.length; i++)
+			values[i] = mapToSqlParamValue(cn, table, columns[i], row.get(columns[i].getName()), mapper,
+					releasableRegistry);
+
+		return values;
+	}
+
 	/**
 	 * 
 	 * @param cn
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * 键集分页游标。
+ * <p>
+ * 游标记录了上一页最后一行的排序键值，以及它适用的页码和查询指纹，编码为不透明的字符串：
+ * </p>
+ * <p>
+ * <code>页码.指纹.值1.值2...</code>
+ * </p>
+ * <p>
+ * 每个值为类型标识加上Base64（URL安全）编码的值字符串，仅支持数值、字符串、日期时间、布尔类型的值。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class KeysetCursor
+{
+	protected static final String SEPARATOR = ".";
+
+	protected static final char TYPE_NULL = 'N';
+
+	protected static final char TYPE_LONG = 'L';
+
+	protected static final char TYPE_DECIMAL = 'M';
+
+	protected static final char TYPE_DOUBLE = 'F';
+
+	protected static final char TYPE_STRING = 'S';
+
+	protected static final char TYPE_BOOLEAN = 'Z';
+
+	protected static final char TYPE_DATE = 'd';
+
+	protected static final char TYPE_TIME = 't';
+
+	protected static final char TYPE_TIMESTAMP = 'T';
+
+	/** 游标适用的页码 */
+	private final int page;
+
+	/** 游标适用的查询指纹 */
+	private final String fingerprint;
+
+	/** 排序键值 */
+	private final Object[] values;
+
+	public KeysetCursor(int page, String fingerprint, Object[] values)
+	{
+		super();
+		this.page = page;
+		this.fingerprint = fingerprint;
+		this.values = values;
+	}
+
+	public int getPage()
+	{
+		return page;
+	}
+
+	public String getFingerprint()
+	{
+		return fingerprint;
+	}
+
+	public Object[] getValues()
+	{
+		return values;
+	}
+
+	/**
+	 * 编码。
+	 *
+	 * @return 返回{@code null}表示包含不支持的值
+	 */
+	public String encode()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(this.page).append(SEPARATOR).append(this.fingerprint);
+
+		for (Object value : this.values)
+		{
+			String str = encodeValue(value);
+
+			if (str == null)
+				return null;
+
+			sb.append(SEPARATOR).append(str);
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * 解码。
+	 *
+	 * @param cursor
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示游标为空或不合法
+	 */
+	public static KeysetCursor decode(String cursor)
+	{
+		if (cursor == null || cursor.isEmpty())
+			return null;
+
+		String[] tokens = cursor.split("\\" + SEPARATOR, -1);
+
+		if (tokens.length < 3)
+			return null;
+
+		try
+		{
+			int page = Integer.parseInt(tokens[0]);
+			Object[] values = new Object[tokens.length - 2];
+
+			for (int i = 2; i < tokens.length; i++)
+				values[i - 2] = decodeValue(tokens[i]);
+
+			return new KeysetCursor(page, tokens[1], values);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * 编码值。
+	 *
+	 * @param value
+	 * @return 返回{@code null}表示不支持
+	 */
+	protected static String encodeValue(Object value)
+	{
+		char type;
+		String str;
+
+		if (value == null)
+			return String.valueOf(TYPE_NULL);
+		else if (value instanceof Integer || value instanceof Long || value instanceof Short
+				|| value instanceof Byte)
+		{
+			type = TYPE_LONG;
+			str = value.toString();
+		}
+		else if (value instanceof BigDecimal)
+		{
+			type = TYPE_DECIMAL;
+			str = ((BigDecimal) value).toString();
+		}
+		else if (value instanceof BigInteger)
+		{
+			type = TYPE_DECIMAL;
+			str = value.toString();
+		}
+		else if (value instanceof Double || value instanceof Float)
+		{
+			type = TYPE_DOUBLE;
+			str = Double.toString(((Number) value).doubleValue());
+		}
+		else if (value instanceof String)
+		{
+			type = TYPE_STRING;
+			str = (String) value;
+		}
+		else if (value instanceof Boolean)
+		{
+			type = TYPE_BOOLEAN;
+			str = value.toString();
+		}
+		else if (value instanceof java.sql.Date)
+		{
+			type = TYPE_DATE;
+			str = Long.toString(((java.sql.Date) value).getTime());
+		}
+		else if (value instanceof Time)
+		{
+			type = TYPE_TIME;
+			str = Long.toString(((Time) value).getTime());
+		}
+		else if (value instanceof Timestamp)
+		{
+			Timestamp timestamp = (Timestamp) value;
+
+			type = TYPE_TIMESTAMP;
+			str = timestamp.getTime() + ":" + timestamp.getNanos();
+		}
+		else
+			return null;
+
+		return type + Base64.getUrlEncoder().withoutPadding().encodeToString(str.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 解码值。
+	 *
+	 * @param token
+	 * @return
+	 * @throws IllegalArgumentException
+	 */
+	protected static Object decodeValue(String token) throws IllegalArgumentException
+	{
+		if (token.isEmpty())
+			throw new IllegalArgumentException();
+
+		char type = token.charAt(0);
+
+		if (type == TYPE_NULL)
+			return null;
+
+		String str = new String(Base64.getUrlDecoder().decode(token.substring(1)), StandardCharsets.UTF_8);
+
+		switch (type)
+		{
+			case TYPE_LONG:
+				return Long.valueOf(str);
+			case TYPE_DECIMAL:
+				return new BigDecimal(str);
+			case TYPE_DOUBLE:
+				return Double.valueOf(str);
+			case TYPE_STRING:
+				return str;
+			case TYPE_BOOLEAN:
+				return Boolean.valueOf(str);
+			case TYPE_DATE:
+				return new java.sql.Date(Long.parseLong(str));
+			case TYPE_TIME:
+				return new Time(Long.parseLong(str));
+			case TYPE_TIMESTAMP:
+			{
+				int idx = str.indexOf(':');
+
+				if (idx < 0)
+					throw new IllegalArgumentException();
+
+				Timestamp timestamp = new Timestamp(Long.parseLong(str.substring(0, idx)));
+				timestamp.setNanos(Integer.parseInt(str.substring(idx + 1)));
+
+				return timestamp;
+			}
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+}
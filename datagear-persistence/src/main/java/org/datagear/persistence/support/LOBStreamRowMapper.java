@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import org.datagear.meta.Column;
+import org.datagear.meta.Table;
+import org.datagear.util.IOUtil;
+
+/**
+ * 大对象列流式输出{@linkplain DefaultLOBRowMapper}。
+ * <p>
+ * 它在映射时将指定列的值直接从结果集数据流写入{@linkplain #getOutputStream()}，而不在内存或者临时文件中保存，
+ * 映射结果中此列的值将是占位符；其他大对象列的值也将是占位符，且不会打开数据流。
+ * </p>
+ * <p>
+ * 二进制值原样写入，字符值以{@linkplain #getCharacterEncoding()}编码写入。只有第一行的值会被写入。
+ * </p>
+ * <p>
+ * 输出流在首次写入列值时才通过{@linkplain #openOutputStream()}获取，子类可以重写它以延迟打开输出流。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class LOBStreamRowMapper extends DefaultLOBRowMapper
+{
+	public static final String DEFAULT_CHARACTER_ENCODING = "UTF-8";
+
+	/** 要输出的列名 */
+	private String columnName;
+
+	/** 输出流 */
+	private OutputStream outputStream;
+
+	/** 字符值的输出编码 */
+	private String characterEncoding = DEFAULT_CHARACTER_ENCODING;
+
+	/** 是否已写入 */
+	private boolean written = false;
+
+	public LOBStreamRowMapper()
+	{
+		super();
+		setReadActualClobRows(0);
+		setReadActualBinaryRows(0);
+	}
+
+	public LOBStreamRowMapper(String columnName, OutputStream outputStream)
+	{
+		this();
+		this.columnName = columnName;
+		this.outputStream = outputStream;
+	}
+
+	public String getColumnName()
+	{
+		return columnName;
+	}
+
+	public void setColumnName(String columnName)
+	{
+		this.columnName = columnName;
+	}
+
+	public OutputStream getOutputStream()
+	{
+		return outputStream;
+	}
+
+	public void setOutputStream(OutputStream outputStream)
+	{
+		this.outputStream = outputStream;
+	}
+
+	public String getCharacterEncoding()
+	{
+		return characterEncoding;
+	}
+
+	public void setCharacterEncoding(String characterEncoding)
+	{
+		this.characterEncoding = characterEncoding;
+	}
+
+	/**
+	 * 是否已写入列值。
+	 * 
+	 * @return
+	 */
+	public boolean isWritten()
+	{
+		return written;
+	}
+
+	@Override
+	protected boolean isReadActualClob(int rowIndex, Column column)
+	{
+		if (isStreamColumn(column))
+			return true;
+
+		return super.isReadActualClob(rowIndex, column);
+	}
+
+	@Override
+	protected boolean isReadActualBinary(int rowIndex, Column column)
+	{
+		if (isStreamColumn(column))
+			return true;
+
+		return super.isReadActualBinary(rowIndex, column);
+	}
+
+	@Override
+	protected Object mapColumnForLargeReaderValue(Connection cn, Table table, ResultSet rs, int rowIndex,
+			Column column, Reader value, String placeholder) throws Throwable
+	{
+		if (!isStreamColumn(column))
+			return super.mapColumnForLargeReaderValue(cn, table, rs, rowIndex, column, value, placeholder);
+
+		try
+		{
+			Writer writer = IOUtil.getWriter(openOutputStream(), this.characterEncoding);
+			IOUtil.write(value, writer);
+			writer.flush();
+
+			this.written = true;
+
+			return placeholder;
+		}
+		finally
+		{
+			IOUtil.close(value);
+		}
+	}
+
+	@Override
+	protected Object mapColumnForInputStreamValue(Connection cn, Table table, ResultSet rs, int rowIndex,
+			Column column, InputStream value, String placeholder) throws Throwable
+	{
+		if (!isStreamColumn(column))
+			return super.mapColumnForInputStreamValue(cn, table, rs, rowIndex, column, value, placeholder);
+
+		try
+		{
+			OutputStream out = openOutputStream();
+			IOUtil.write(value, out);
+			out.flush();
+
+			this.written = true;
+
+			return placeholder;
+		}
+		finally
+		{
+			IOUtil.close(value);
+		}
+	}
+
+	/**
+	 * 获取写入列值的输出流。
+	 * <p>
+	 * 此方法在写入列值前调用，默认返回{@linkplain #getOutputStream()}。
+	 * </p>
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	protected OutputStream openOutputStream() throws IOException
+	{
+		return this.outputStream;
+	}
+
+	/**
+	 * 是否是待写入的列。
+	 * 
+	 * @param column
+	 * @return
+	 */
+	protected boolean isStreamColumn(Column column)
+	{
+		return (!this.written && column.getName().equals(this.columnName));
+	}
+}
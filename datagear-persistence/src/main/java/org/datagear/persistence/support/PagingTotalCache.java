@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分页查询总记录数缓存。
+ * <p>
+ * 缓存按表分组，表数据被修改后应调用{@linkplain #invalidate(String)}。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class PagingTotalCache
+{
+	/** 缓存的最大数 */
+	private int maximumSize = 1000;
+
+	/** 缓存过期秒数 */
+	private int expireSeconds = 60 * 5;
+
+	private final LinkedHashMap<String, TotalEntry> entries = new LinkedHashMap<String, TotalEntry>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TotalEntry> eldest)
+		{
+			return size() > maximumSize;
+		}
+	};
+
+	public PagingTotalCache()
+	{
+		super();
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireSeconds()
+	{
+		return expireSeconds;
+	}
+
+	public void setExpireSeconds(int expireSeconds)
+	{
+		this.expireSeconds = expireSeconds;
+	}
+
+	/**
+	 * 获取缓存的总记录数。
+	 * 
+	 * @param tableKey
+	 * @param queryKey
+	 * @return 返回{@code null}表示没有缓存或已过期
+	 */
+	public synchronized Long get(String tableKey, String queryKey)
+	{
+		String key = tableKey + "\n" + queryKey;
+		TotalEntry entry = this.entries.get(key);
+
+		if (entry == null)
+			return null;
+
+		if (System.currentTimeMillis() - entry.getCreateTime() > this.expireSeconds * 1000L)
+		{
+			this.entries.remove(key);
+			return null;
+		}
+
+		return entry.getTotal();
+	}
+
+	/**
+	 * 缓存总记录数。
+	 * 
+	 * @param tableKey
+	 * @param queryKey
+	 * @param total
+	 */
+	public synchronized void put(String tableKey, String queryKey, long total)
+	{
+		this.entries.put(tableKey + "\n" + queryKey, new TotalEntry(tableKey, total, System.currentTimeMillis()));
+	}
+
+	/**
+	 * 清除指定表的所有缓存。
+	 * 
+	 * @param tableKey
+	 */
+	public synchronized void invalidate(String tableKey)
+	{
+		Iterator<TotalEntry> it = this.entries.values().iterator();
+
+		while (it.hasNext())
+		{
+			if (it.next().getTableKey().equals(tableKey))
+				it.remove();
+		}
+	}
+
+	protected static class TotalEntry
+	{
+		private final String tableKey;
+
+		private final long total;
+
+		private final long createTime;
+
+		public TotalEntry(String tableKey, long total, long createTime)
+		{
+			super();
+			this.tableKey = tableKey;
+			this.total = total;
+			this.createTime = createTime;
+		}
+
+		public String getTableKey()
+		{
+			return tableKey;
+		}
+
+		public long getTotal()
+		{
+			return total;
+		}
+
+		public long getCreateTime()
+		{
+			return createTime;
+		}
+	}
+}
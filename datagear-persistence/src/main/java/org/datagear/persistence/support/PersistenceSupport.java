@@ -7,6 +7,7 @@ package org.datagear.persistence.support;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -17,6 +18,7 @@ import org.datagear.meta.Table;
 import org.datagear.persistence.Dialect;
 import org.datagear.persistence.PersistenceException;
 import org.datagear.persistence.Row;
+import org.datagear.persistence.RowConsumer;
 import org.datagear.persistence.RowMapper;
 import org.datagear.persistence.RowMapperException;
 import org.datagear.util.JdbcSupport;
@@ -84,6 +86,90 @@ public class PersistenceSupport extends JdbcSupport
 		}
 	}
 
+	/**
+	 * 批量执行更新。
+	 * <p>
+	 * 连续的SQL语句相同的{@linkplain Sql}将合并为一个批次执行，SQL语句改变时即执行当前批次，因而保持原有的执行顺序。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sqls
+	 * @return 总更新数，驱动程序未返回更新数（{@linkplain Statement#SUCCESS_NO_INFO}）时返回{@code -1}表示未知
+	 * @throws PersistenceException
+	 */
+	public int executeBatchWrap(Connection cn, List<Sql> sqls) throws PersistenceException
+	{
+		int count = 0;
+		boolean unknown = false;
+
+		String batchSql = null;
+		List<List<SqlParamValue>> paramValuess = new ArrayList<>();
+
+		try
+		{
+			for (Sql sql : sqls)
+			{
+				if (batchSql != null && !batchSql.equals(sql.getSqlValue()))
+				{
+					int myCount = executeBatchCount(cn, batchSql, paramValuess);
+
+					if (myCount < 0)
+						unknown = true;
+					else
+						count += myCount;
+
+					paramValuess = new ArrayList<>();
+				}
+
+				batchSql = sql.getSqlValue();
+				paramValuess.add(sql.getParamValues());
+			}
+
+			if (batchSql != null)
+			{
+				int myCount = executeBatchCount(cn, batchSql, paramValuess);
+
+				if (myCount < 0)
+					unknown = true;
+				else
+					count += myCount;
+			}
+		}
+		catch (SQLException e)
+		{
+			throw new PersistenceException(e);
+		}
+
+		return (unknown ? -1 : count);
+	}
+
+	/**
+	 * 执行批次并返回总更新数。
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param paramValuess
+	 * @return 总更新数，存在{@linkplain Statement#SUCCESS_NO_INFO}（比如Oracle）时返回{@code -1}表示未知
+	 * @throws SQLException
+	 */
+	protected int executeBatchCount(Connection cn, String sql, List<List<SqlParamValue>> paramValuess)
+			throws SQLException
+	{
+		int count = 0;
+
+		int[] counts = executeBatch(cn, sql, paramValuess);
+
+		for (int c : counts)
+		{
+			if (c == Statement.SUCCESS_NO_INFO)
+				return -1;
+
+			count += c;
+		}
+
+		return count;
+	}
+
 	/**
 	 * 执行更新。
 	 * 
@@ -194,6 +280,45 @@ public class PersistenceSupport extends JdbcSupport
 		}
 	}
 
+	/**
+	 * 执行查询，并将结果行依次交给{@linkplain RowConsumer}处理，不在内存中保留行列表。
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param sql
+	 * @param resultSetType
+	 * @param startRow
+	 *            起始行号，以{@code 1}开头
+	 * @param count
+	 *            读取行数，如果{@code <0}，表示读取全部
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param consumer
+	 * @return 处理的行数
+	 * @throws PersistenceException
+	 */
+	public int executeQuery(Connection cn, Table table, Sql sql, int resultSetType, int startRow, int count,
+			RowMapper mapper, RowConsumer consumer) throws PersistenceException
+	{
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = executeQuery(cn, sql, resultSetType);
+			ResultSet rs = qrs.getResultSet();
+
+			return consumeRows(cn, table, rs, startRow, count, mapper, consumer);
+		}
+		catch (SQLException e)
+		{
+			throw new PersistenceException(e);
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+	}
+
 	/**
 	 * 将结果集映射至{@linkplain Row}洌表。
 	 * 
@@ -212,12 +337,47 @@ public class PersistenceSupport extends JdbcSupport
 	 */
 	protected List<Row> mapToRows(Connection cn, Table table, ResultSet rs, int startRow, int count, RowMapper mapper)
 			throws RowMapperException, SQLException
+	{
+		final List<Row> resultList = new ArrayList<>();
+
+		consumeRows(cn, table, rs, startRow, count, mapper, new RowConsumer()
+		{
+			@Override
+			public boolean accept(Connection cn, Table table, Row row, int rowIndex)
+			{
+				resultList.add(row);
+				return true;
+			}
+		});
+
+		return resultList;
+	}
+
+	/**
+	 * 将结果集逐行映射为{@linkplain Row}，并交给{@linkplain RowConsumer}处理。
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param rs
+	 * @param startRow
+	 *            起始行，以{@code 1}开头
+	 * @param count
+	 *            映射行数，{@code -1}表示全部
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param consumer
+	 * @return 处理的行数
+	 * @throws RowMapperException
+	 * @throws SQLException
+	 * @throws PersistenceException
+	 *             {@linkplain RowConsumer}抛出的非运行时异常将被包装为此异常
+	 */
+	protected int consumeRows(Connection cn, Table table, ResultSet rs, int startRow, int count, RowMapper mapper,
+			RowConsumer consumer) throws RowMapperException, SQLException, PersistenceException
 	{
 		if (startRow < 1)
 			startRow = 1;
 
-		List<Row> resultList = new ArrayList<>();
-
 		if (count >= 0 && startRow > 1)
 			forwardBefore(rs, startRow);
 
@@ -231,12 +391,28 @@ public class PersistenceSupport extends JdbcSupport
 
 			Row row = mapToRow(cn, table, rs, rowIndex, mapper);
 
-			resultList.add(row);
+			boolean next;
+
+			try
+			{
+				next = consumer.accept(cn, table, row, rowIndex);
+			}
+			catch (RuntimeException | SQLException e)
+			{
+				throw e;
+			}
+			catch (Throwable t)
+			{
+				throw new PersistenceException(t);
+			}
 
 			rowIndex++;
+
+			if (!next)
+				break;
 		}
 
-		return resultList;
+		return rowIndex - startRow;
 	}
 
 	/**
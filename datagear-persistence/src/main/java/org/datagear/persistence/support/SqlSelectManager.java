@@ -6,6 +6,7 @@ package org.datagear.persistence.support;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -13,9 +14,12 @@ import org.datagear.meta.Column;
 import org.datagear.meta.Table;
 import org.datagear.meta.TableType;
 import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.persistence.PersistenceException;
 import org.datagear.persistence.Row;
+import org.datagear.persistence.RowConsumer;
 import org.datagear.persistence.RowMapper;
 import org.datagear.util.QueryResultSet;
+import org.datagear.util.ResultSetLayoutCache;
 import org.datagear.util.Sql;
 
 /**
@@ -23,6 +27,10 @@ import org.datagear.util.Sql;
  * <p>
  * 它将SQL查询当作一个虚拟的{@linkplain Table}来处理。
  * </p>
+ * <p>
+ * 设置{@linkplain #setColumnsCache(ResultSetLayoutCache)}后，{@linkplain #buildTable(Connection, String, String, ResultSet)}
+ * 将为重复执行的SQL复用已解析的列元信息，而不必每次都通过{@linkplain DBMetaResolver}解析。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -33,6 +41,9 @@ public class SqlSelectManager extends PersistenceSupport
 
 	private DBMetaResolver dbMetaResolver;
 
+	/** 查询结果列元信息缓存，为{@code null}则不缓存 */
+	private ResultSetLayoutCache<Column[]> columnsCache = null;
+
 	public SqlSelectManager()
 	{
 		super();
@@ -54,6 +65,16 @@ public class SqlSelectManager extends PersistenceSupport
 		this.dbMetaResolver = dbMetaResolver;
 	}
 
+	public ResultSetLayoutCache<Column[]> getColumnsCache()
+	{
+		return columnsCache;
+	}
+
+	public void setColumnsCache(ResultSetLayoutCache<Column[]> columnsCache)
+	{
+		this.columnsCache = columnsCache;
+	}
+
 	/**
 	 * 查询SQL并返回结果。
 	 * 
@@ -104,6 +125,42 @@ public class SqlSelectManager extends PersistenceSupport
 		}
 	}
 
+	/**
+	 * 查询SQL，并将结果行依次交给{@linkplain RowConsumer}处理，不在内存中保留行列表。
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param startRow
+	 * @param fetchSize
+	 * @param rowMapper
+	 *            允许为{@code null}
+	 * @param consumer
+	 * @return 查询结果的虚拟表
+	 * @throws SQLException
+	 */
+	public Table select(Connection cn, String sql, int startRow, int fetchSize, RowMapper rowMapper,
+			RowConsumer consumer) throws SQLException
+	{
+		QueryResultSet qrs = null;
+
+		Sql sqlo = Sql.valueOf(sql);
+
+		try
+		{
+			qrs = executeQuery(cn, sqlo, ResultSet.TYPE_FORWARD_ONLY);
+			ResultSet rs = qrs.getResultSet();
+			Table table = buildTable(cn, rs);
+
+			consumeRows(cn, table, rs, startRow, fetchSize, rowMapper, consumer);
+
+			return table;
+		}
+		finally
+		{
+			QueryResultSet.close(qrs);
+		}
+	}
+
 	/**
 	 * 获取SQL查询结果。
 	 * 
@@ -146,9 +203,127 @@ public class SqlSelectManager extends PersistenceSupport
 		return new SqlSelectResult(sql, table, startRow, fetchSize, rows);
 	}
 
+	/**
+	 * 从结果集的当前位置继续读取行，并依次交给{@linkplain RowConsumer}处理。
+	 * <p>
+	 * 与{@linkplain #select(Connection, String, ResultSet, int, int)}不同，此方法不会跳过行，也不会多读取一行，
+	 * 因此可以在同一结果集上多次调用，实现游标式的分页读取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param rs
+	 * @param startRow
+	 *            当前位置下一行的行号，以{@code 1}开头
+	 * @param fetchSize
+	 * @param rowMapper
+	 *            允许为{@code null}
+	 * @param consumer
+	 * @return 读取的行数，小于{@code fetchSize}表示结果集已读完
+	 * @throws SQLException
+	 */
+	public int fetch(Connection cn, Table table, ResultSet rs, int startRow, int fetchSize, RowMapper rowMapper,
+			RowConsumer consumer) throws SQLException
+	{
+		int count = 0;
+
+		while (count < fetchSize && rs.next())
+		{
+			int rowIndex = startRow + count;
+			Row row = mapToRow(cn, table, rs, rowIndex, rowMapper);
+
+			boolean next;
+
+			try
+			{
+				next = consumer.accept(cn, table, row, rowIndex);
+			}
+			catch (RuntimeException | SQLException e)
+			{
+				throw e;
+			}
+			catch (Throwable t)
+			{
+				throw new PersistenceException(t);
+			}
+
+			count++;
+
+			if (!next)
+				break;
+		}
+
+		return count;
+	}
+
 	public Table buildTable(Connection cn, ResultSet rs) throws SQLException
 	{
 		Column[] columns = this.dbMetaResolver.getColumns(cn, rs.getMetaData());
 		return new Table(SELECT_TABLE_NAME, TableType.VIEW, columns);
 	}
+
+	/**
+	 * 构建查询结果的虚拟表，列元信息将优先从{@linkplain #getColumnsCache()}中获取。
+	 * 
+	 * @param cn
+	 * @param connectionId
+	 *            连接标识（比如数据源ID），参考{@linkplain ResultSetLayoutCache#buildKey(String, String, String)}，
+	 *            为{@code null}则不使用缓存
+	 * @param sql
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	public Table buildTable(Connection cn, String connectionId, String sql, ResultSet rs) throws SQLException
+	{
+		if (this.columnsCache == null || connectionId == null)
+			return buildTable(cn, rs);
+
+		ResultSetMetaData rsMeta = rs.getMetaData();
+		String key = ResultSetLayoutCache.buildKey(connectionId, sql, null);
+
+		Column[] columns = this.columnsCache.get(key, rsMeta);
+
+		if (columns == null)
+		{
+			columns = this.dbMetaResolver.getColumns(cn, rsMeta);
+			this.columnsCache.put(key, rsMeta, copyColumns(columns));
+		}
+		else
+			columns = copyColumns(columns);
+
+		return new Table(SELECT_TABLE_NAME, TableType.VIEW, columns);
+	}
+
+	/**
+	 * 复制列数组，避免缓存中的列元信息被调用方修改。
+	 * 
+	 * @param columns
+	 * @return
+	 */
+	protected Column[] copyColumns(Column[] columns)
+	{
+		Column[] copies = new Column[columns.length];
+
+		for (int i = 0; i < columns.length; i++)
+		{
+			Column column = columns[i];
+			Column copy = new Column(column.getName(), column.getType());
+
+			copy.setTypeName(column.getTypeName());
+			copy.setSize(column.getSize());
+			copy.setDecimalDigits(column.getDecimalDigits());
+			copy.setNullable(column.isNullable());
+			copy.setComment(column.getComment());
+			copy.setDefaultValue(column.getDefaultValue());
+			copy.setAutoincrement(column.isAutoincrement());
+			copy.setSearchableType(column.getSearchableType());
+			copy.setSortable(column.isSortable());
+			copy.setPosition(column.getPosition());
+
+			copies[i] = copy;
+		}
+
+		return copies;
+	}
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL语句模板缓存。
+ * <p>
+ * 缓存由表名、列结构、方言确定的SQL语句文本，关键字已完全确定SQL语句文本，所以缓存不会过期，
+ * 表结构变化时可调用{@linkplain #invalidate(String)}释放不再使用的缓存。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SqlTemplateCache
+{
+	/** 缓存的最大数 */
+	private int maximumSize = 2000;
+
+	private final LinkedHashMap<String, TemplateEntry> entries = new LinkedHashMap<String, TemplateEntry>(16, 0.75f,
+			true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, TemplateEntry> eldest)
+		{
+			return size() > maximumSize;
+		}
+	};
+
+	public SqlTemplateCache()
+	{
+		super();
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * 获取SQL语句模板。
+	 * 
+	 * @param key
+	 * @return 返回{@code null}表示没有缓存
+	 */
+	public synchronized String get(String key)
+	{
+		TemplateEntry entry = this.entries.get(key);
+
+		return (entry == null ? null : entry.getSql());
+	}
+
+	/**
+	 * 缓存SQL语句模板。
+	 * 
+	 * @param tableName
+	 * @param key
+	 * @param sql
+	 */
+	public synchronized void put(String tableName, String key, String sql)
+	{
+		this.entries.put(key, new TemplateEntry(tableName, sql));
+	}
+
+	/**
+	 * 清除指定表名的所有缓存。
+	 * 
+	 * @param tableName
+	 */
+	public synchronized void invalidate(String tableName)
+	{
+		Iterator<TemplateEntry> it = this.entries.values().iterator();
+
+		while (it.hasNext())
+		{
+			if (it.next().getTableName().equals(tableName))
+				it.remove();
+		}
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public synchronized void clear()
+	{
+		this.entries.clear();
+	}
+
+	/**
+	 * 缓存数。
+	 * 
+	 * @return
+	 */
+	public synchronized int size()
+	{
+		return this.entries.size();
+	}
+
+	protected static class TemplateEntry
+	{
+		private final String tableName;
+
+		private final String sql;
+
+		public TemplateEntry(String tableName, String sql)
+		{
+			super();
+			this.tableName = tableName;
+			this.sql = sql;
+		}
+
+		public String getTableName()
+		{
+			return tableName;
+		}
+
+		public String getSql()
+		{
+			return sql;
+		}
+	}
+}
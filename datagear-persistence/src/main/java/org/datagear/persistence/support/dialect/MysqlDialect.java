@@ -4,9 +4,17 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
+import org.datagear.persistence.QueryPlan;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * Mysql方言。
@@ -56,4 +64,61 @@ public class MysqlDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toEstimatedCountSql(Table table)
+	{
+		return Sql.valueOf("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")
+				.param(new SqlParamValue(table.getName(), Types.VARCHAR));
+	}
+
+	@Override
+	protected Sql toExplainSql(Sql query)
+	{
+		return Sql.valueOf().sql("EXPLAIN ").sql(query);
+	}
+
+	/**
+	 * 读取<code>EXPLAIN</code>结果。
+	 * <p>
+	 * 估算行数为各行<code>rows</code>的乘积，即连接操作需扫描的行数；MySQL的传统<code>EXPLAIN</code>不提供代价。
+	 * </p>
+	 */
+	@Override
+	protected QueryPlan readQueryPlan(ResultSet rs) throws SQLException
+	{
+		StringBuilder sb = new StringBuilder();
+		double rows = 1;
+		boolean hasRows = false;
+
+		while (rs.next())
+		{
+			if (sb.length() > 0)
+				sb.append('\n');
+
+			sb.append(rs.getString("table")).append('\t').append(rs.getString("type")).append('\t')
+					.append(rs.getString("key")).append('\t').append(rs.getString("rows")).append('\t')
+					.append(rs.getString("Extra"));
+
+			long myRows = rs.getLong("rows");
+
+			if (!rs.wasNull())
+			{
+				rows = rows * Math.max(myRows, 1);
+				hasRows = true;
+			}
+		}
+
+		Long estimatedRows = (hasRows ? (long) Math.min(rows, Long.MAX_VALUE) : null);
+
+		return new QueryPlan(sb.toString(), estimatedRows, null);
+	}
+
+	@Override
+	protected Sql toFullTextKeywordQueryCondition(Table table, IndexKey fullTextIndexKey, String keyword,
+			boolean parameterized)
+	{
+		return toFullTextParamSql("MATCH (" + quoteJoin(fullTextIndexKey.getColumnNames()) + ") AGAINST (?)", keyword,
+				parameterized);
+	}
 }
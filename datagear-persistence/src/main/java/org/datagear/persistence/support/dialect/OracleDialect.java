@@ -4,9 +4,14 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.Types;
+
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * Oracle方言。
@@ -63,4 +68,27 @@ public class OracleDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toEstimatedCountSql(Table table)
+	{
+		return Sql.valueOf("SELECT NUM_ROWS FROM USER_TABLES WHERE TABLE_NAME = ?")
+				.param(new SqlParamValue(table.getName(), Types.VARCHAR));
+	}
+
+	@Override
+	protected Sql toFullTextKeywordQueryCondition(Table table, IndexKey fullTextIndexKey, String keyword,
+			boolean parameterized)
+	{
+		String[] columnNames = fullTextIndexKey.getColumnNames();
+
+		// CONTEXT索引仅支持单列
+		if (columnNames.length != 1)
+			return null;
+
+		// 使用花括号转义，避免关键字被解析为检索语法
+		String text = "{" + keyword.replace("}", "}}") + "}";
+
+		return toFullTextParamSql("CONTAINS(" + quote(columnNames[0]) + ", ?) > 0", text, parameterized);
+	}
 }
@@ -4,9 +4,19 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
+import org.datagear.persistence.QueryPlan;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * PostgreSQL方言。
@@ -16,6 +26,9 @@ import org.datagear.util.Sql;
  */
 public class PostgresqlDialect extends AbstractDialect
 {
+	/** EXPLAIN结果中的代价、行数 */
+	protected static final Pattern EXPLAIN_COST_PATTERN = Pattern.compile("cost=[\\d.]+\\.\\.([\\d.]+) rows=(\\d+)");
+
 	public PostgresqlDialect()
 	{
 		super();
@@ -56,4 +69,69 @@ public class PostgresqlDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toEstimatedCountSql(Table table)
+	{
+		return Sql.valueOf("SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST(? AS regclass)")
+				.param(new SqlParamValue(quote(table.getName()), Types.VARCHAR));
+	}
+
+	@Override
+	protected Sql toExplainSql(Sql query)
+	{
+		return Sql.valueOf().sql("EXPLAIN ").sql(query);
+	}
+
+	/**
+	 * 读取<code>EXPLAIN</code>结果。
+	 * <p>
+	 * 估算行数、估算代价取自第一行（根节点）的<code>(cost=启动代价..总代价 rows=行数 width=宽度)</code>。
+	 * </p>
+	 */
+	@Override
+	protected QueryPlan readQueryPlan(ResultSet rs) throws SQLException
+	{
+		StringBuilder sb = new StringBuilder();
+		Long estimatedRows = null;
+		Double estimatedCost = null;
+
+		while (rs.next())
+		{
+			String line = rs.getString(1);
+
+			if (sb.length() == 0)
+			{
+				Matcher matcher = EXPLAIN_COST_PATTERN.matcher(line);
+
+				if (matcher.find())
+				{
+					estimatedCost = Double.valueOf(matcher.group(1));
+					estimatedRows = Long.valueOf(matcher.group(2));
+				}
+			}
+			else
+				sb.append('\n');
+
+			sb.append(line);
+		}
+
+		return new QueryPlan(sb.toString(), estimatedRows, estimatedCost);
+	}
+
+	@Override
+	protected Sql toFullTextKeywordQueryCondition(Table table, IndexKey fullTextIndexKey, String keyword,
+			boolean parameterized)
+	{
+		String[] columnNames = fullTextIndexKey.getColumnNames();
+
+		// 表达式必须与索引定义一致才能使用索引
+		if (columnNames.length != 1 || fullTextIndexKey.getFullTextConfig() == null)
+			return null;
+
+		String config = toStringLiteral(fullTextIndexKey.getFullTextConfig());
+
+		return toFullTextParamSql("to_tsvector(" + config + ", " + quote(columnNames[0]) + ") @@ plainto_tsquery("
+				+ config + ", ?)", keyword, parameterized);
+	}
 }
@@ -4,9 +4,14 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.Types;
+
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * SqlServer方言。
@@ -49,4 +54,22 @@ public class SqlServerDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toEstimatedCountSql(Table table)
+	{
+		return Sql.valueOf("SELECT SUM(p.rows) FROM sys.partitions p WHERE p.object_id = OBJECT_ID(?) AND p.index_id IN (0, 1)")
+				.param(new SqlParamValue(quote(table.getName()), Types.VARCHAR));
+	}
+
+	@Override
+	protected Sql toFullTextKeywordQueryCondition(Table table, IndexKey fullTextIndexKey, String keyword,
+			boolean parameterized)
+	{
+		// 作为短语检索，避免关键字被解析为检索语法
+		String phrase = "\"" + keyword.replace("\"", "\"\"") + "\"";
+
+		return toFullTextParamSql("CONTAINS((" + quoteJoin(fullTextIndexKey.getColumnNames()) + "), ?)", phrase,
+				parameterized);
+	}
 }
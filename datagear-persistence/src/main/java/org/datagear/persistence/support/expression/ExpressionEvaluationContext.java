@@ -27,6 +27,9 @@ public class ExpressionEvaluationContext
 	/** 变量表达式求值Bean */
 	private VariableExpressionBean variableExpressionBean = new VariableExpressionBean();
 
+	/** SQL表达式查询结果缓存，使相同SQL的子查询仅执行一次 */
+	private Map<String, Object> sqlResultCache = new HashMap<String, Object>(3);
+
 	public ExpressionEvaluationContext()
 	{
 		super();
@@ -43,6 +46,16 @@ public class ExpressionEvaluationContext
 		this.valueCache = valueCache;
 	}
 
+	public Map<String, Object> getSqlResultCache()
+	{
+		return sqlResultCache;
+	}
+
+	public void setSqlResultCache(Map<String, Object> sqlResultCache)
+	{
+		this.sqlResultCache = sqlResultCache;
+	}
+
 	public VariableExpressionBean getVariableExpressionBean()
 	{
 		return variableExpressionBean;
@@ -129,6 +142,22 @@ public class ExpressionEvaluationContext
 	public void clearCachedValue()
 	{
 		this.valueCache.clear();
+		this.sqlResultCache.clear();
+	}
+
+	public boolean containsSqlResult(String sql)
+	{
+		return this.sqlResultCache.containsKey(sql);
+	}
+
+	public Object getSqlResult(String sql)
+	{
+		return this.sqlResultCache.get(sql);
+	}
+
+	public void putSqlResult(String sql, Object result)
+	{
+		this.sqlResultCache.put(sql, result);
 	}
 
 	/**
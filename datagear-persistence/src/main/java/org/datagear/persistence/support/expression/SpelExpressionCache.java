@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support.expression;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * 已解析SpEL表达式缓存。
+ * <p>
+ * 以表达式文本为关键字缓存{@linkplain SpelExpressionParser#parseExpression(String)}的结果，线程安全。
+ * 缓存数超过{@linkplain #getMaximumSize()}时将整体清空，解析出错的表达式不会被缓存。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SpelExpressionCache
+{
+	public static final int DEFAULT_MAXIMUM_SIZE = 500;
+
+	private final SpelExpressionParser spelExpressionParser;
+
+	/** 缓存最大数 */
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+	public SpelExpressionCache(SpelExpressionParser spelExpressionParser)
+	{
+		super();
+		this.spelExpressionParser = spelExpressionParser;
+	}
+
+	public SpelExpressionParser getSpelExpressionParser()
+	{
+		return spelExpressionParser;
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * 获取已解析的表达式，没有则解析并缓存。
+	 * 
+	 * @param content
+	 * @return
+	 * @throws ParseException
+	 */
+	public Expression getExpression(String content) throws ParseException
+	{
+		Expression expression = this.expressions.get(content);
+
+		if (expression == null)
+		{
+			expression = this.spelExpressionParser.parseExpression(content);
+
+			if (this.expressions.size() >= this.maximumSize)
+				this.expressions.clear();
+
+			this.expressions.put(content, expression);
+		}
+
+		return expression;
+	}
+
+	/**
+	 * 获取缓存数。
+	 * 
+	 * @return
+	 */
+	public int size()
+	{
+		return this.expressions.size();
+	}
+
+	/**
+	 * 清空缓存。
+	 */
+	public void clear()
+	{
+		this.expressions.clear();
+	}
+}
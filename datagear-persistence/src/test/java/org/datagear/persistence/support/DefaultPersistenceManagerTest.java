@@ -6,13 +6,16 @@ package org.datagear.persistence.support;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
 import org.datagear.meta.Table;
+import org.datagear.persistence.Order;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
+import org.datagear.persistence.PagingTotalMode;
 import org.datagear.persistence.PersistenceTestSupport;
 import org.datagear.persistence.Row;
 import org.junit.Test;
@@ -68,6 +71,49 @@ public class DefaultPersistenceManagerTest extends PersistenceTestSupport
 		}
 	}
 
+	@Test
+	public void batchTest() throws Exception
+	{
+		Table table = this.genericDBMetaResolver.getTable(this.connection, "T_ACCOUNT");
+
+		Row[] rows = new Row[3];
+
+		for (int i = 0; i < rows.length; i++)
+		{
+			rows[i] = new Row();
+			rows[i].put("ID", 999999990 + i);
+			rows[i].put("NAME", "NAME-FOR-TEST-" + i);
+		}
+
+		// 不同列结构的行
+		rows[2].put("INTRODUCTION", "INTRODUCTION-for-test");
+
+		try
+		{
+			this.defaultPersistenceManager.delete(connection, table, rows);
+
+			assertEquals(3, this.defaultPersistenceManager.batchInsert(connection, null, table, rows, null));
+
+			Row[] updates = new Row[rows.length];
+			for (int i = 0; i < rows.length; i++)
+			{
+				updates[i] = new Row();
+				updates[i].put("NAME", "NAME-UPDATE-" + i);
+			}
+
+			assertEquals(3, this.defaultPersistenceManager.batchUpdate(connection, null, table, rows, updates, null));
+
+			Row actual = this.defaultPersistenceManager.get(connection, table, rows[1]);
+			assertEquals("NAME-UPDATE-1", actual.get("NAME"));
+
+			assertEquals(3, this.defaultPersistenceManager.batchDelete(connection, null, table, rows, null));
+		}
+		finally
+		{
+			this.defaultPersistenceManager.delete(connection, table, rows);
+		}
+	}
+
 	@Test
 	public void pagingQueryTest()
 	{
@@ -79,4 +125,50 @@ public class DefaultPersistenceManagerTest extends PersistenceTestSupport
 
 		assertTrue(rows.size() <= 1);
 	}
+
+	@Test
+	public void pagingQueryTest_hasNext()
+	{
+		Table table = this.genericDBMetaResolver.getTable(this.connection, "T_ACCOUNT");
+
+		PagingData<Row> expected = this.defaultPersistenceManager.pagingQuery(connection, table,
+				new PagingQuery(1, 1));
+
+		PagingQuery pagingQuery = new PagingQuery(1, 1);
+		pagingQuery.setTotalMode(PagingTotalMode.HAS_NEXT);
+
+		PagingData<Row> pagingData = this.defaultPersistenceManager.pagingQuery(connection, table, pagingQuery);
+
+		assertEquals(expected.getItems().size(), pagingData.getItems().size());
+		assertEquals(Math.min(expected.getPages(), 2), pagingData.getPages());
+		assertEquals(expected.getTotal() <= 1, pagingData.isTotalExact());
+	}
+
+	@Test
+	public void pagingQueryTest_keyset()
+	{
+		Table table = this.genericDBMetaResolver.getTable(this.connection, "T_ACCOUNT");
+
+		PagingQuery offsetQuery = new PagingQuery(2, 1);
+		offsetQuery.setOrders(new Order("ID", Order.ASC));
+
+		PagingQuery keysetQuery = new PagingQuery(1, 1);
+		keysetQuery.setKeyset(true);
+
+		PagingData<Row> first = this.defaultPersistenceManager.pagingQuery(connection, table, keysetQuery);
+
+		if (first.getPages() < 2)
+			return;
+
+		assertNotNull(first.getNextCursor());
+
+		keysetQuery.setPage(2);
+		keysetQuery.setCursor(first.getNextCursor());
+
+		PagingData<Row> second = this.defaultPersistenceManager.pagingQuery(connection, table, keysetQuery);
+		PagingData<Row> expected = this.defaultPersistenceManager.pagingQuery(connection, table, offsetQuery);
+
+		assertEquals(((Number) expected.getItems().get(0).get("ID")).longValue(),
+				((Number) second.getItems().get(0).get("ID")).longValue());
+	}
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain KeysetCursor}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class KeysetCursorTest
+{
+	@Test
+	public void encodeDecodeTest()
+	{
+		Timestamp timestamp = new Timestamp(1000L);
+		timestamp.setNanos(123456789);
+
+		Object[] values = new Object[] { 3L, new BigDecimal("1.50"), "a.b:c", null, timestamp, true };
+
+		String cursor = new KeysetCursor(5, "ff", values).encode();
+
+		KeysetCursor actual = KeysetCursor.decode(cursor);
+
+		assertEquals(5, actual.getPage());
+		assertEquals("ff", actual.getFingerprint());
+		assertArrayEquals(values, actual.getValues());
+	}
+
+	@Test
+	public void decodeTest_invalid()
+	{
+		assertNull(KeysetCursor.decode(null));
+		assertNull(KeysetCursor.decode(""));
+		assertNull(KeysetCursor.decode("1.ff"));
+		assertNull(KeysetCursor.decode("x.ff.N"));
+		assertNull(KeysetCursor.decode("1.ff.Q"));
+	}
+
+	@Test
+	public void encodeTest_unsupported()
+	{
+		assertNull(new KeysetCursor(1, "ff", new Object[] { new byte[0] }).encode());
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain PagingTotalCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class PagingTotalCacheTest
+{
+	@Test
+	public void test()
+	{
+		PagingTotalCache cache = new PagingTotalCache();
+		cache.setMaximumSize(2);
+
+		cache.put("t0", "q0", 10);
+		cache.put("t0", "q1", 11);
+		cache.put("t1", "q0", 20);
+
+		// 超出最大数，最久未访问的被移除
+		assertNull(cache.get("t0", "q0"));
+		assertEquals(11L, cache.get("t0", "q1").longValue());
+		assertEquals(20L, cache.get("t1", "q0").longValue());
+
+		cache.invalidate("t0");
+
+		assertNull(cache.get("t0", "q1"));
+		assertEquals(20L, cache.get("t1", "q0").longValue());
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain SqlTemplateCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SqlTemplateCacheTest
+{
+	@Test
+	public void test()
+	{
+		SqlTemplateCache cache = new SqlTemplateCache();
+		cache.setMaximumSize(2);
+
+		cache.put("T0", "k0", "DELETE FROM T0 WHERE ID=?");
+		cache.put("T0", "k1", "DELETE FROM T0 WHERE ID IS NULL");
+		cache.put("T1", "k2", "DELETE FROM T1 WHERE ID=?");
+
+		// 超出最大数，最久未访问的被移除
+		assertNull(cache.get("k0"));
+		assertEquals("DELETE FROM T0 WHERE ID IS NULL", cache.get("k1"));
+
+		cache.invalidate("T0");
+
+		assertNull(cache.get("k1"));
+		assertEquals("DELETE FROM T1 WHERE ID=?", cache.get("k2"));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support.dialect;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Types;
+
+import org.datagear.meta.Column;
+import org.datagear.meta.IndexKey;
+import org.datagear.meta.PrimaryKey;
+import org.datagear.meta.SearchableType;
+import org.datagear.meta.Table;
+import org.datagear.persistence.Query;
+import org.datagear.util.Sql;
+import org.junit.Test;
+
+/**
+ * {@linkplain MysqlDialect}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class MysqlDialectTest
+{
+	@Test
+	public void toKeywordQueryConditionTest()
+	{
+		MysqlDialect dialect = new MysqlDialect("`");
+		dialect.setKeywordQueryColumnCount(10);
+		Table table = createTable();
+
+		// 默认不使用索引优化
+		{
+			Sql sql = dialect.toKeywordQueryCondition(table, new Query("abc"), true);
+
+			assertEquals("`NAME` LIKE ? OR `TITLE` LIKE ? OR `BODY` LIKE ? OR `REMARK` LIKE ?", sql.getSqlValue());
+			assertEquals("%abc%", sql.getParamValues().get(0).getValue());
+		}
+
+		dialect.setIndexedKeywordQuery(true);
+
+		{
+			Sql sql = dialect.toKeywordQueryCondition(table, new Query("abc"), true);
+
+			assertEquals("MATCH (`TITLE`, `BODY`) AGAINST (?) OR `NAME` LIKE ? OR `REMARK` LIKE ?",
+					sql.getSqlValue());
+			assertEquals("abc", sql.getParamValues().get(0).getValue());
+			assertEquals("abc%", sql.getParamValues().get(1).getValue());
+			assertEquals("%abc%", sql.getParamValues().get(2).getValue());
+		}
+
+		{
+			Sql sql = dialect.toKeywordQueryCondition(table, new Query("%abc"), true);
+
+			assertEquals("`NAME` LIKE ? OR `TITLE` LIKE ? OR `BODY` LIKE ? OR `REMARK` LIKE ?", sql.getSqlValue());
+		}
+
+		// 全文索引的列超出关键字查询列数时不使用全文检索
+		{
+			dialect.setKeywordQueryColumnCount(3);
+			Sql sql = dialect.toKeywordQueryCondition(table, new Query("abc"), true);
+
+			assertEquals("`NAME` LIKE ? OR `TITLE` LIKE ?", sql.getSqlValue());
+			dialect.setKeywordQueryColumnCount(10);
+		}
+
+		{
+			dialect.setIndexedKeywordQuery(false);
+			Sql sql = dialect.toKeywordQueryCondition(table, new Query("abc"), false);
+
+			assertEquals("`NAME` LIKE '%abc%' OR `TITLE` LIKE '%abc%' OR `BODY` LIKE '%abc%' OR `REMARK` LIKE '%abc%'",
+					sql.getSqlValue());
+		}
+	}
+
+	protected Table createTable()
+	{
+		Column id = new Column("ID", Types.INTEGER);
+		id.setSearchableType(SearchableType.EXPCEPT_LIKE);
+
+		Column name = createTextColumn("NAME");
+		Column title = createTextColumn("TITLE");
+		Column body = createTextColumn("BODY");
+		Column remark = createTextColumn("REMARK");
+
+		Table table = new Table("T", "TABLE", new Column[] { id, name, title, body, remark });
+		table.setPrimaryKey(new PrimaryKey(new String[] { "ID" }));
+
+		IndexKey nameIndex = new IndexKey(new String[] { "NAME", "ID" });
+		nameIndex.setKeyName("IDX_NAME");
+
+		IndexKey fullTextIndex = new IndexKey(new String[] { "TITLE", "BODY" }, true);
+		fullTextIndex.setKeyName("FT_TITLE_BODY");
+
+		table.setIndexKeys(new IndexKey[] { nameIndex, fullTextIndex });
+
+		return table;
+	}
+
+	protected Column createTextColumn(String name)
+	{
+		Column column = new Column(name, Types.VARCHAR);
+		column.setSearchableType(SearchableType.ALL);
+
+		return column;
+	}
+}
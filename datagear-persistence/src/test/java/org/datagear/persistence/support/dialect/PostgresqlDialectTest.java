@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support.dialect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain PostgresqlDialect}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class PostgresqlDialectTest
+{
+	@Test
+	public void explainCostPatternTest()
+	{
+		Matcher matcher = PostgresqlDialect.EXPLAIN_COST_PATTERN
+				.matcher("Seq Scan on t  (cost=0.00..35.50 rows=2550 width=4)");
+
+		assertTrue(matcher.find());
+		assertEquals("35.50", matcher.group(1));
+		assertEquals("2550", matcher.group(2));
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * {@linkplain SpelExpressionCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SpelExpressionCacheTest
+{
+	@Test
+	public void getExpressionTest()
+	{
+		SpelExpressionCache cache = new SpelExpressionCache(new SpelExpressionParser());
+		cache.setMaximumSize(2);
+
+		Expression e0 = cache.getExpression("index + 1");
+
+		assertSame(e0, cache.getExpression("index + 1"));
+		assertEquals(2, e0.getValue(new VariableExpressionBean(1)));
+
+		cache.getExpression("index + 2");
+		assertEquals(2, cache.size());
+
+		// 超出最大数，整体清空
+		cache.getExpression("index + 3");
+		assertEquals(1, cache.size());
+		assertNotSame(e0, cache.getExpression("index + 1"));
+	}
+}
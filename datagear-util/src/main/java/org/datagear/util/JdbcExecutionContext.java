@@ -0,0 +1,355 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.util;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JDBC执行上下文。
+ * <p>
+ * 此类绑定至当前线程，携带执行截止时间和取消标记，{@linkplain JdbcSupport}创建的所有{@linkplain Statement}都会被设置剩余的查询超时秒数，并注册到此上下文中，
+ * 以支持在超时或者客户端断开时通过{@linkplain #cancel()}调用{@linkplain Statement#cancel()}取消正在执行的语句。
+ * </p>
+ * <p>
+ * 此类同时按照{@linkplain #getName()}统计超时次数、取消次数，参考{@linkplain #getTimeoutCounts()}、{@linkplain #getCancelCounts()}。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class JdbcExecutionContext
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(JdbcExecutionContext.class);
+
+	private static final ThreadLocal<JdbcExecutionContext> THREAD_LOCAL_JDBC_EXECUTION_CONTEXT = new ThreadLocal<JdbcExecutionContext>();
+
+	/** 名称 -> 超时次数 */
+	private static final ConcurrentHashMap<String, AtomicLong> TIMEOUT_COUNTS = new ConcurrentHashMap<String, AtomicLong>();
+
+	/** 名称 -> 取消次数 */
+	private static final ConcurrentHashMap<String, AtomicLong> CANCEL_COUNTS = new ConcurrentHashMap<String, AtomicLong>();
+
+	/** 名称，用于统计 */
+	private final String name;
+
+	/** 截止时间毫秒数，小于等于0表示不限 */
+	private final long deadline;
+
+	private volatile boolean cancelled = false;
+
+	private volatile boolean timeout = false;
+
+	private final Set<Statement> statements = Collections
+			.newSetFromMap(new ConcurrentHashMap<Statement, Boolean>());
+
+	/**
+	 * 创建。
+	 *
+	 * @param name
+	 *            名称，用于统计
+	 * @param timeoutSeconds
+	 *            超时秒数，小于等于0表示不限
+	 */
+	public JdbcExecutionContext(String name, int timeoutSeconds)
+	{
+		super();
+		this.name = name;
+		this.deadline = (timeoutSeconds > 0 ? System.currentTimeMillis() + timeoutSeconds * 1000L : 0);
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+
+	public long getDeadline()
+	{
+		return deadline;
+	}
+
+	/**
+	 * 是否有截止时间。
+	 *
+	 * @return
+	 */
+	public boolean hasDeadline()
+	{
+		return (this.deadline > 0);
+	}
+
+	/**
+	 * 获取剩余的超时秒数。
+	 *
+	 * @return {@code 0}表示不限；已超过截止时间时返回{@code 1}，以让驱动程序尽快超时
+	 */
+	public int getRemainingSeconds()
+	{
+		if (!hasDeadline())
+			return 0;
+
+		long remaining = this.deadline - System.currentTimeMillis();
+
+		if (remaining <= 0)
+			return 1;
+
+		return (int) Math.max(1, (remaining + 999) / 1000);
+	}
+
+	/**
+	 * 是否已超过截止时间。
+	 *
+	 * @return
+	 */
+	public boolean isExpired()
+	{
+		return (hasDeadline() && System.currentTimeMillis() >= this.deadline);
+	}
+
+	/**
+	 * 是否已取消。
+	 *
+	 * @return
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * 是否已超时。
+	 *
+	 * @return
+	 */
+	public boolean isTimeout()
+	{
+		return timeout;
+	}
+
+	/**
+	 * 应用此上下文至{@linkplain Statement}：设置查询超时秒数、注册以支持取消。
+	 * <p>
+	 * 如果此上下文已取消，将抛出{@linkplain SQLTimeoutException}。
+	 * </p>
+	 *
+	 * @param st
+	 * @throws SQLException
+	 */
+	public void apply(Statement st) throws SQLException
+	{
+		if (this.cancelled)
+			throw new SQLTimeoutException("JDBC execution has been cancelled");
+
+		int seconds = getRemainingSeconds();
+
+		if (seconds > 0)
+		{
+			try
+			{
+				st.setQueryTimeout(seconds);
+			}
+			catch (SQLException e)
+			{
+				@JDBCCompatiblity("某些驱动程序不支持设置查询超时，此时仅依靠cancel()取消")
+				SQLException e1 = e;
+
+				LOGGER.debug("set query timeout is ignored for exception :" + e1);
+			}
+		}
+
+		this.statements.add(st);
+	}
+
+	/**
+	 * 注销{@linkplain Statement}。
+	 *
+	 * @param st
+	 */
+	public void unregister(Statement st)
+	{
+		this.statements.remove(st);
+	}
+
+	/**
+	 * 取消此上下文，并取消所有正在执行的{@linkplain Statement}。
+	 *
+	 * @return 是否首次取消
+	 */
+	public boolean cancel()
+	{
+		if (this.cancelled)
+			return false;
+
+		this.cancelled = true;
+
+		incrementCount(CANCEL_COUNTS, this.name);
+
+		for (Statement st : this.statements)
+		{
+			try
+			{
+				st.cancel();
+			}
+			catch (Throwable t)
+			{
+				LOGGER.debug("cancel statement error :" + t);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * 超时，取消此上下文。
+	 *
+	 * @return 是否首次超时
+	 */
+	public boolean cancelForTimeout()
+	{
+		boolean first = markTimeout();
+
+		cancel();
+
+		return first;
+	}
+
+	/**
+	 * 处理执行异常：如果是超时异常，或者已超过截止时间，则记为超时。
+	 *
+	 * @param t
+	 * @return 是否是超时
+	 */
+	public boolean handleThrowable(Throwable t)
+	{
+		boolean isTimeout = (this.timeout || isExpired());
+
+		Throwable cause = t;
+		while (!isTimeout && cause != null)
+		{
+			if (cause instanceof SQLTimeoutException)
+				isTimeout = true;
+
+			cause = cause.getCause();
+		}
+
+		if (isTimeout)
+			markTimeout();
+
+		return isTimeout;
+	}
+
+	protected boolean markTimeout()
+	{
+		if (this.timeout)
+			return false;
+
+		this.timeout = true;
+
+		incrementCount(TIMEOUT_COUNTS, this.name);
+
+		if (LOGGER.isWarnEnabled())
+			LOGGER.warn("JDBC execution [" + this.name + "] timeout");
+
+		return true;
+	}
+
+	/**
+	 * 获取当前线程的{@linkplain JdbcExecutionContext}，没有则返回{@code null}。
+	 *
+	 * @return
+	 */
+	public static JdbcExecutionContext get()
+	{
+		return THREAD_LOCAL_JDBC_EXECUTION_CONTEXT.get();
+	}
+
+	/**
+	 * 设置当前线程的{@linkplain JdbcExecutionContext}。
+	 *
+	 * @param context
+	 */
+	public static void set(JdbcExecutionContext context)
+	{
+		THREAD_LOCAL_JDBC_EXECUTION_CONTEXT.set(context);
+	}
+
+	/**
+	 * 删除当前线程的{@linkplain JdbcExecutionContext}。
+	 */
+	public static void remove()
+	{
+		THREAD_LOCAL_JDBC_EXECUTION_CONTEXT.remove();
+	}
+
+	/**
+	 * 取消当前线程的{@linkplain JdbcExecutionContext}（如果有的话）。
+	 */
+	public static void cancelCurrent()
+	{
+		JdbcExecutionContext context = get();
+
+		if (context != null)
+			context.cancel();
+	}
+
+	/**
+	 * 获取各名称的超时次数。
+	 *
+	 * @return
+	 */
+	public static Map<String, Long> getTimeoutCounts()
+	{
+		return toCountMap(TIMEOUT_COUNTS);
+	}
+
+	/**
+	 * 获取各名称的取消次数。
+	 *
+	 * @return
+	 */
+	public static Map<String, Long> getCancelCounts()
+	{
+		return toCountMap(CANCEL_COUNTS);
+	}
+
+	protected static void incrementCount(ConcurrentHashMap<String, AtomicLong> counts, String name)
+	{
+		if (name == null)
+			name = "";
+
+		AtomicLong count = counts.get(name);
+
+		if (count == null)
+		{
+			AtomicLong newCount = new AtomicLong();
+			count = counts.putIfAbsent(name, newCount);
+
+			if (count == null)
+				count = newCount;
+		}
+
+		count.incrementAndGet();
+	}
+
+	protected static Map<String, Long> toCountMap(ConcurrentHashMap<String, AtomicLong> counts)
+	{
+		Map<String, Long> map = new HashMap<String, Long>();
+
+		for (Map.Entry<String, AtomicLong> entry : counts.entrySet())
+			map.put(entry.getKey(), entry.getValue().get());
+
+		return map;
+	}
+}
@@ -169,6 +169,45 @@ public class JdbcSupport
 		}
 	}
 
+	/**
+	 * 批量执行更新。
+	 * <p>
+	 * 使用同一个{@linkplain PreparedStatement}，以{@linkplain PreparedStatement#addBatch()}、{@linkplain PreparedStatement#executeBatch()}方式执行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param paramValuess
+	 *            每一批的SQL参数
+	 * @return 每一批的更新数，元素可能为{@linkplain Statement#SUCCESS_NO_INFO}
+	 * @throws SQLException
+	 */
+	public int[] executeBatch(Connection cn, String sql, List<List<SqlParamValue>> paramValuess) throws SQLException
+	{
+		LOGGER.debug("execute batch {}, size={}", sql, paramValuess.size());
+
+		PreparedStatement pst = null;
+		List<Object> setParams = new ArrayList<>();
+
+		try
+		{
+			pst = createUpdatePreparedStatement(cn, sql);
+
+			for (List<SqlParamValue> paramValues : paramValuess)
+			{
+				setParams.addAll(setParamValues(cn, pst, paramValues));
+				pst.addBatch();
+			}
+
+			return pst.executeBatch();
+		}
+		finally
+		{
+			IOUtil.closeIf(setParams);
+			JdbcUtil.closeStatement(pst);
+		}
+	}
+
 	/**
 	 * 执行更新。
 	 * <p>
@@ -311,14 +350,14 @@ public class JdbcSupport
 	public PreparedStatement createQueryPreparedStatement(Connection cn, String sql, int resultSetType)
 			throws SQLException
 	{
+		PreparedStatement pst = null;
+
 		if (ResultSet.TYPE_FORWARD_ONLY == resultSetType)
 		{
-			return cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			pst = cn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 		}
 		else
 		{
-			PreparedStatement pst = null;
-
 			try
 			{
 				pst = cn.prepareStatement(sql, resultSetType, ResultSet.CONCUR_READ_ONLY);
@@ -333,9 +372,9 @@ public class JdbcSupport
 						ResultSet.CONCUR_READ_ONLY);
 				pst = thenPst;
 			}
-
-			return pst;
 		}
+
+		return applyExecutionContext(pst);
 	}
 
 	/**
@@ -348,7 +387,7 @@ public class JdbcSupport
 	 */
 	public PreparedStatement createUpdatePreparedStatement(Connection cn, String sql) throws SQLException
 	{
-		return cn.prepareStatement(sql);
+		return applyExecutionContext(cn.prepareStatement(sql));
 	}
 
 	/**
@@ -368,7 +407,7 @@ public class JdbcSupport
 
 		try
 		{
-			pst = cn.prepareStatement(sql, returnedColumnNames);
+			pst = applyExecutionContext(cn.prepareStatement(sql, returnedColumnNames));
 		}
 		catch (SQLException e)
 		{
@@ -394,14 +433,14 @@ public class JdbcSupport
 	 */
 	public Statement createQueryStatement(Connection cn, int resultSetType) throws SQLException
 	{
+		Statement st = null;
+
 		if (ResultSet.TYPE_FORWARD_ONLY == resultSetType)
 		{
-			return cn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			st = cn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 		}
 		else
 		{
-			Statement st = null;
-
 			try
 			{
 				st = cn.createStatement(resultSetType, ResultSet.CONCUR_READ_ONLY);
@@ -414,9 +453,9 @@ public class JdbcSupport
 				Statement thenSt = cn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 				st = thenSt;
 			}
-
-			return st;
 		}
+
+		return applyExecutionContext(st);
 	}
 
 	/**
@@ -429,7 +468,37 @@ public class JdbcSupport
 	 */
 	public Statement createUpdateStatement(Connection cn) throws SQLException
 	{
-		return cn.createStatement();
+		return applyExecutionContext(cn.createStatement());
+	}
+
+	/**
+	 * 将当前线程的{@linkplain JdbcExecutionContext}（如果有的话）应用于新创建的{@linkplain Statement}。
+	 * <p>
+	 * 应用失败时将关闭{@linkplain Statement}。
+	 * </p>
+	 * 
+	 * @param st
+	 * @return
+	 * @throws SQLException
+	 */
+	protected <T extends Statement> T applyExecutionContext(T st) throws SQLException
+	{
+		JdbcExecutionContext context = JdbcExecutionContext.get();
+
+		if (context == null)
+			return st;
+
+		try
+		{
+			context.apply(st);
+		}
+		catch (SQLException e)
+		{
+			JdbcUtil.closeStatement(st);
+			throw e;
+		}
+
+		return st;
 	}
 
 	/**
@@ -135,6 +135,11 @@ public class JdbcUtil
 		if (st == null)
 			return;
 
+		JdbcExecutionContext context = JdbcExecutionContext.get();
+
+		if (context != null)
+			context.unregister(st);
+
 		try
 		{
 			st.close();
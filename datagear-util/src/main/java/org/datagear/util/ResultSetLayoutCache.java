@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.util;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 结果集列布局缓存。
+ * <p>
+ * 它以“调用方提供的连接标识 + 规范化的SQL + 附加标识”为键，缓存由{@linkplain ResultSetMetaData}解析得到的值（比如列元信息、列索引），
+ * 读取时仅比较列数、列名和列类型进行校验，不一致则视为未命中，因此重复执行同一SQL时可省去完整的元信息解析。
+ * </p>
+ * <p>
+ * 注意：列长度、精度等其他结构变更不会被检测到。
+ * </p>
+ * <p>
+ * 此类是线程安全的，超过{@linkplain #getMaximumSize()}时将移除最久未访问的缓存。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ * @param <V>
+ */
+public class ResultSetLayoutCache<V>
+{
+	/** 最大缓存数 */
+	private int maximumSize = 500;
+
+	private final LinkedHashMap<String, LayoutEntry<V>> _cache = new LinkedHashMap<String, LayoutEntry<V>>(16, 0.75f,
+			true)
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LayoutEntry<V>> eldest)
+		{
+			return size() > maximumSize;
+		}
+	};
+
+	public ResultSetLayoutCache()
+	{
+		super();
+	}
+
+	public ResultSetLayoutCache(int maximumSize)
+	{
+		super();
+		this.maximumSize = maximumSize;
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * 获取缓存值。
+	 *
+	 * @param key
+	 * @param metaData
+	 * @return 没有缓存或者列布局已改变时返回{@code null}
+	 * @throws SQLException
+	 */
+	public V get(String key, ResultSetMetaData metaData) throws SQLException
+	{
+		LayoutEntry<V> entry;
+
+		synchronized (this._cache)
+		{
+			entry = this._cache.get(key);
+		}
+
+		if (entry == null)
+			return null;
+
+		if (!entry.matches(metaData))
+		{
+			synchronized (this._cache)
+			{
+				this._cache.remove(key);
+			}
+
+			return null;
+		}
+
+		return entry.getValue();
+	}
+
+	/**
+	 * 添加缓存值。
+	 *
+	 * @param key
+	 * @param metaData
+	 * @param value
+	 * @throws SQLException
+	 */
+	public void put(String key, ResultSetMetaData metaData, V value) throws SQLException
+	{
+		LayoutEntry<V> entry = new LayoutEntry<V>(metaData, value);
+
+		synchronized (this._cache)
+		{
+			this._cache.put(key, entry);
+		}
+	}
+
+	/**
+	 * 获取缓存数。
+	 *
+	 * @return
+	 */
+	public int size()
+	{
+		synchronized (this._cache)
+		{
+			return this._cache.size();
+		}
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public void clear()
+	{
+		synchronized (this._cache)
+		{
+			this._cache.clear();
+		}
+	}
+
+	/**
+	 * 构建缓存键。
+	 * <p>
+	 * 连接标识由调用方提供（比如数据源ID），同一标识的连接应使用相同的数据库、用户和模式，
+	 * 这里不通过驱动程序获取连接信息，因为很多驱动程序获取用户名、模式时需要访问数据库。
+	 * </p>
+	 *
+	 * @param connectionId
+	 *            连接标识
+	 * @param sql
+	 * @param extra
+	 *            附加标识，允许为{@code null}
+	 * @return
+	 */
+	public static String buildKey(String connectionId, String sql, String extra)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(connectionId).append('\n');
+		sb.append(normalizeSql(sql));
+
+		if (extra != null)
+			sb.append('\n').append(extra);
+
+		return sb.toString();
+	}
+
+	/**
+	 * 规范化SQL：删除首尾空白，并将连续空白替换为单个空格。
+	 *
+	 * @param sql
+	 * @return
+	 */
+	public static String normalizeSql(String sql)
+	{
+		if (sql == null)
+			return "";
+
+		StringBuilder sb = new StringBuilder(sql.length());
+		boolean prevWhitespace = false;
+
+		for (int i = 0, len = sql.length(); i < len; i++)
+		{
+			char c = sql.charAt(i);
+
+			if (Character.isWhitespace(c))
+			{
+				prevWhitespace = true;
+			}
+			else
+			{
+				if (prevWhitespace && sb.length() > 0)
+					sb.append(' ');
+
+				sb.append(c);
+				prevWhitespace = false;
+			}
+		}
+
+		return sb.toString();
+	}
+
+	protected static class LayoutEntry<V>
+	{
+		private final String[] labels;
+
+		private final int[] types;
+
+		private final V value;
+
+		public LayoutEntry(ResultSetMetaData metaData, V value) throws SQLException
+		{
+			super();
+
+			int count = metaData.getColumnCount();
+
+			this.labels = new String[count];
+			this.types = new int[count];
+
+			for (int i = 0; i < count; i++)
+			{
+				this.labels[i] = metaData.getColumnLabel(i + 1);
+				this.types[i] = metaData.getColumnType(i + 1);
+			}
+
+			this.value = value;
+		}
+
+		public V getValue()
+		{
+			return value;
+		}
+
+		public boolean matches(ResultSetMetaData metaData) throws SQLException
+		{
+			int count = metaData.getColumnCount();
+
+			if (count != this.labels.length)
+				return false;
+
+			for (int i = 0; i < count; i++)
+			{
+				if (this.types[i] != metaData.getColumnType(i + 1))
+					return false;
+
+				String label = metaData.getColumnLabel(i + 1);
+
+				if (label == null ? this.labels[i] != null : !label.equals(this.labels[i]))
+					return false;
+			}
+
+			return true;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.util;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * 字符串池。
+ * <p>
+ * 它使相等的字符串共享同一实例，用于减少大量重复字符串（比如数据库元信息中的类型名、列名）的内存占用。
+ * 池中的字符串是弱引用的，不再被使用时将被垃圾回收。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class StringInterner
+{
+	private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+	public StringInterner()
+	{
+		super();
+	}
+
+	/**
+	 * 获取与给定字符串相等的共享实例。
+	 *
+	 * @param str
+	 *            允许为{@code null}
+	 * @return
+	 */
+	public synchronized String intern(String str)
+	{
+		if (str == null)
+			return null;
+
+		WeakReference<String> ref = this.pool.get(str);
+		String interned = (ref == null ? null : ref.get());
+
+		if (interned == null)
+		{
+			this.pool.put(str, new WeakReference<String>(str));
+			interned = str;
+		}
+
+		return interned;
+	}
+
+	/**
+	 * 将数组中的元素替换为共享实例。
+	 *
+	 * @param strs
+	 *            允许为{@code null}
+	 * @return 参数数组本身
+	 */
+	public String[] intern(String[] strs)
+	{
+		if (strs == null)
+			return null;
+
+		for (int i = 0; i < strs.length; i++)
+			strs[i] = intern(strs[i]);
+
+		return strs;
+	}
+
+	/**
+	 * 获取池中的字符串数目。
+	 *
+	 * @return
+	 */
+	public synchronized int size()
+	{
+		return this.pool.size();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain JdbcExecutionContext}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class JdbcExecutionContextTest
+{
+	@Test
+	public void applyTest() throws Exception
+	{
+		Map<String, Object> calls = new HashMap<String, Object>();
+		Statement st = createStatement(calls);
+
+		JdbcExecutionContext context = new JdbcExecutionContext("applyTest", 60);
+		context.apply(st);
+
+		int seconds = (Integer) calls.get("setQueryTimeout");
+		assertTrue(seconds > 0 && seconds <= 60);
+
+		assertTrue(context.cancel());
+		assertFalse(context.cancel());
+		assertTrue(calls.containsKey("cancel"));
+		assertEquals(1L, JdbcExecutionContext.getCancelCounts().get("applyTest").longValue());
+
+		try
+		{
+			context.apply(createStatement(calls));
+			assertTrue(false);
+		}
+		catch (SQLTimeoutException e)
+		{
+		}
+	}
+
+	@Test
+	public void handleThrowableTest() throws Exception
+	{
+		JdbcExecutionContext context = new JdbcExecutionContext("handleThrowableTest", 0);
+
+		Map<String, Object> calls = new HashMap<String, Object>();
+		context.apply(createStatement(calls));
+		assertFalse(calls.containsKey("setQueryTimeout"));
+
+		assertFalse(context.handleThrowable(new SQLException()));
+		assertTrue(context.handleThrowable(new RuntimeException(new SQLTimeoutException())));
+		assertTrue(context.isTimeout());
+		assertEquals(1L, JdbcExecutionContext.getTimeoutCounts().get("handleThrowableTest").longValue());
+	}
+
+	protected Statement createStatement(final Map<String, Object> calls)
+	{
+		return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Statement.class },
+				new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						calls.put(method.getName(), (args == null || args.length == 0 ? null : args[0]));
+
+						if ("hashCode".equals(method.getName()))
+							return System.identityHashCode(proxy);
+						else if ("equals".equals(method.getName()))
+							return (proxy == args[0]);
+
+						return null;
+					}
+				});
+	}
+}
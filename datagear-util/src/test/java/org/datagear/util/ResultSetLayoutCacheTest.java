@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+
+import org.junit.Test;
+
+/**
+ * {@linkplain ResultSetLayoutCache}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class ResultSetLayoutCacheTest
+{
+	@Test
+	public void getTest() throws Exception
+	{
+		ResultSetLayoutCache<String> cache = new ResultSetLayoutCache<String>();
+
+		ResultSetMetaData meta = createMetaData(new String[] { "ID", "NAME" }, new int[] { Types.INTEGER, Types.VARCHAR });
+
+		cache.put("key", meta, "value");
+
+		assertEquals("value", cache.get("key", meta));
+		assertEquals("value", cache.get("key",
+				createMetaData(new String[] { "ID", "NAME" }, new int[] { Types.INTEGER, Types.VARCHAR })));
+
+		// 列数改变
+		assertNull(cache.get("key", createMetaData(new String[] { "ID" }, new int[] { Types.INTEGER })));
+		assertEquals(0, cache.size());
+
+		// 列名改变
+		cache.put("key", meta, "value");
+		assertNull(cache.get("key",
+				createMetaData(new String[] { "ID", "TITLE" }, new int[] { Types.INTEGER, Types.VARCHAR })));
+
+		// 列类型改变
+		cache.put("key", meta, "value");
+		assertNull(cache.get("key",
+				createMetaData(new String[] { "ID", "NAME" }, new int[] { Types.BIGINT, Types.VARCHAR })));
+
+		assertNull(cache.get("other", meta));
+	}
+
+	@Test
+	public void maximumSizeTest() throws Exception
+	{
+		ResultSetLayoutCache<String> cache = new ResultSetLayoutCache<String>(2);
+
+		ResultSetMetaData meta = createMetaData(new String[] { "ID" }, new int[] { Types.INTEGER });
+
+		cache.put("a", meta, "a");
+		cache.put("b", meta, "b");
+		cache.get("a", meta);
+		cache.put("c", meta, "c");
+
+		assertEquals(2, cache.size());
+		assertEquals("a", cache.get("a", meta));
+		assertNull(cache.get("b", meta));
+		assertEquals("c", cache.get("c", meta));
+	}
+
+	@Test
+	public void normalizeSqlTest()
+	{
+		assertEquals("SELECT * FROM T WHERE A = 1", ResultSetLayoutCache.normalizeSql("  SELECT *\n\tFROM T   WHERE A = 1 \r\n"));
+		assertEquals("", ResultSetLayoutCache.normalizeSql(null));
+	}
+
+	@Test
+	public void buildKeyTest()
+	{
+		String sql = "SELECT * FROM T";
+		String key = ResultSetLayoutCache.buildKey("s1", sql, null);
+
+		assertEquals(key, ResultSetLayoutCache.buildKey("s1", " SELECT *\n FROM T ", null));
+		assertNotEquals(key, ResultSetLayoutCache.buildKey("s2", sql, null));
+		assertNotEquals(key, ResultSetLayoutCache.buildKey("s1", sql, "extra"));
+	}
+
+	protected ResultSetMetaData createMetaData(final String[] labels, final int[] types)
+	{
+		return (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						String name = method.getName();
+
+						if ("getColumnCount".equals(name))
+							return labels.length;
+						else if ("getColumnLabel".equals(name) || "getColumnName".equals(name))
+							return labels[(Integer) args[0] - 1];
+						else if ("getColumnType".equals(name))
+							return types[(Integer) args[0] - 1];
+
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+}
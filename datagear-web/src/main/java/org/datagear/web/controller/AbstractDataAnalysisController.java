@@ -7,6 +7,7 @@
  */
 package org.datagear.web.controller;
 
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
@@ -18,6 +19,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -36,8 +43,16 @@ import org.datagear.analysis.support.html.HtmlRenderAttributes;
 import org.datagear.analysis.support.html.HtmlRenderContext;
 import org.datagear.analysis.support.html.HtmlRenderContext.WebContext;
 import org.datagear.analysis.support.html.HtmlTplDashboard;
+import org.datagear.util.JdbcExecutionContext;
 import org.datagear.util.StringUtil;
+import org.datagear.web.json.jackson.DataSetResultJsonWriter;
+import org.datagear.web.util.DashboardThemeStyleCache;
 import org.datagear.web.util.WebUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 抽象数据分析控制器。
@@ -49,6 +64,18 @@ public class AbstractDataAnalysisController extends AbstractController
 {
 	private DataSetParamValueConverter dataSetParamValueConverter = new DataSetParamValueConverter();
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/** 并行计算图表数据的执行器，为{@code null}时在请求线程内依次计算 */
+	@Autowired(required = false)
+	private ExecutorService dashboardDataExecutor;
+
+	private DataSetResultJsonWriter dataSetResultJsonWriter = new DataSetResultJsonWriter();
+
+	@Autowired
+	private DashboardThemeStyleCache dashboardThemeStyleCache;
+
 	public AbstractDataAnalysisController()
 	{
 		super();
@@ -64,6 +91,46 @@ public class AbstractDataAnalysisController extends AbstractController
 		this.dataSetParamValueConverter = dataSetParamValueConverter;
 	}
 
+	public ObjectMapper getObjectMapper()
+	{
+		return objectMapper;
+	}
+
+	public void setObjectMapper(ObjectMapper objectMapper)
+	{
+		this.objectMapper = objectMapper;
+	}
+
+	public ExecutorService getDashboardDataExecutor()
+	{
+		return dashboardDataExecutor;
+	}
+
+	public void setDashboardDataExecutor(ExecutorService dashboardDataExecutor)
+	{
+		this.dashboardDataExecutor = dashboardDataExecutor;
+	}
+
+	public DataSetResultJsonWriter getDataSetResultJsonWriter()
+	{
+		return dataSetResultJsonWriter;
+	}
+
+	public void setDataSetResultJsonWriter(DataSetResultJsonWriter dataSetResultJsonWriter)
+	{
+		this.dataSetResultJsonWriter = dataSetResultJsonWriter;
+	}
+
+	public DashboardThemeStyleCache getDashboardThemeStyleCache()
+	{
+		return dashboardThemeStyleCache;
+	}
+
+	public void setDashboardThemeStyleCache(DashboardThemeStyleCache dashboardThemeStyleCache)
+	{
+		this.dashboardThemeStyleCache = dashboardThemeStyleCache;
+	}
+
 	protected RenderStyle resolveRenderStyle(HttpServletRequest request)
 	{
 		String style = request.getParameter("renderStyle");
@@ -108,6 +175,18 @@ public class AbstractDataAnalysisController extends AbstractController
 		session.setAttribute(AbstractDataAnalysisController.class.getSimpleName(), theme);
 	}
 
+	/**
+	 * 设置{@linkplain DashboardTheme}的样式标识，用于看板导入项中引用可缓存的主题样式表。
+	 * 
+	 * @param renderContext
+	 * @param theme
+	 */
+	protected void setDashboardThemeStyleKey(HtmlRenderContext renderContext, DashboardTheme theme)
+	{
+		HtmlRenderAttributes.setDashboardThemeStyleKey(renderContext,
+				this.dashboardThemeStyleCache.get(theme).getKey());
+	}
+
 	/**
 	 * 获取{@linkplain DashboardTheme}，没有则返回{@code null}。
 	 * 
@@ -145,19 +224,24 @@ public class AbstractDataAnalysisController extends AbstractController
 	}
 
 	/**
-	 * 获取看板数据。
+	 * 流式输出看板数据。
+	 * <p>
+	 * 各图表的数据将由{@linkplain #getDashboardDataExecutor()}并行计算，并在每个图表数据就绪后立即由{@linkplain JsonGenerator}
+	 * 写入响应，不必等待所有图表数据都加载至内存。输出格式为以图表ID为名、{@linkplain DataSetResult}数组为值的JSON对象。
+	 * </p>
+	 * <p>
+	 * 如果在第一个图表数据就绪前出现异常，响应尚未写入，异常将被正常抛出；之后出现的异常将导致响应被中断。
+	 * </p>
 	 * 
 	 * @param request
 	 * @param response
-	 * @param model
 	 * @param webContext
 	 * @param dashboardParams
-	 * @return
 	 * @throws Exception
 	 */
 	@SuppressWarnings("unchecked")
-	protected Map<String, DataSetResult[]> getDashboardData(HttpServletRequest request, HttpServletResponse response,
-			org.springframework.ui.Model model, WebContext webContext, Map<String, ?> dashboardParams) throws Exception
+	protected void writeDashboardData(HttpServletRequest request, HttpServletResponse response, WebContext webContext,
+			Map<String, ?> dashboardParams) throws Exception
 	{
 		String dashboardId = (String) dashboardParams.get(webContext.getDashboardIdParam());
 		Collection<String> chartIds = (Collection<String>) dashboardParams.get(webContext.getChartIdsParam());
@@ -174,17 +258,112 @@ public class AbstractDataAnalysisController extends AbstractController
 		if (dashboard == null)
 			throw new RecordNotFoundException();
 
-		if (chartIds == null || chartIds.isEmpty())
-			return dashboard.getDataSetResults();
-		else
+		List<Chart> charts = new ArrayList<>();
+		Map<String, List<? extends Map<String, ?>>> paramValuess = null;
+
+		if (dashboard.hasChart())
 		{
-			if (chartsParamValues == null)
-				chartsParamValues = Collections.EMPTY_MAP;
+			if (chartIds == null || chartIds.isEmpty())
+				charts.addAll(dashboard.getCharts());
+			else
+			{
+				Set<String> chartIdSet = new HashSet<>(chartIds);
 
-			Set<String> chartIdSet = new HashSet<>(chartIds.size());
-			chartIdSet.addAll(chartIds);
+				for (Chart chart : dashboard.getCharts())
+				{
+					if (chartIdSet.contains(chart.getId()))
+						charts.add(chart);
+				}
 
-			return dashboard.getDataSetResults(chartIdSet, convertChartsParamValues(dashboard, chartsParamValues));
+				paramValuess = convertChartsParamValues(dashboard,
+						(chartsParamValues == null ? Collections.EMPTY_MAP : chartsParamValues));
+			}
+		}
+
+		response.setCharacterEncoding(RESPONSE_ENCODING);
+		response.setContentType(CONTENT_TYPE_JSON);
+
+		writeChartsData(response.getOutputStream(), charts, paramValuess);
+	}
+
+	/**
+	 * 将图表数据以<code>{图表ID: 数据集结果}</code>的JSON格式写入输出流。
+	 * 
+	 * @param out
+	 * @param charts
+	 * @param paramValuess
+	 *            为{@code null}时加载默认数据集结果
+	 * @throws Exception
+	 */
+	protected void writeChartsData(OutputStream out, List<Chart> charts,
+			Map<String, List<? extends Map<String, ?>>> paramValuess) throws Exception
+	{
+		List<Future<ChartDataSetResults>> futures = new ArrayList<>(charts.size());
+		CompletionService<ChartDataSetResults> completionService = null;
+
+		if (this.dashboardDataExecutor != null && charts.size() > 1)
+		{
+			completionService = new ExecutorCompletionService<>(this.dashboardDataExecutor);
+
+			for (Chart chart : charts)
+				futures.add(completionService.submit(new ChartDataSetResultsLoader(chart, paramValuess)));
+		}
+
+		JsonGenerator generator = null;
+
+		try
+		{
+			for (int i = 0; i < charts.size(); i++)
+			{
+				ChartDataSetResults results = null;
+
+				if (completionService == null)
+					results = new ChartDataSetResultsLoader(charts.get(i), paramValuess).call();
+				else
+					results = takeChartDataSetResults(completionService);
+
+				if (generator == null)
+				{
+					generator = this.objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+					generator.writeStartObject();
+				}
+
+				generator.writeFieldName(results.getChart().getId());
+				this.dataSetResultJsonWriter.write(generator, results.getChart(), results.getResults());
+				generator.flush();
+			}
+		}
+		finally
+		{
+			for (Future<ChartDataSetResults> future : futures)
+				future.cancel(true);
+		}
+
+		if (generator == null)
+		{
+			generator = this.objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+			generator.writeStartObject();
+		}
+
+		generator.writeEndObject();
+		generator.close();
+	}
+
+	protected ChartDataSetResults takeChartDataSetResults(CompletionService<ChartDataSetResults> completionService)
+			throws Exception
+	{
+		try
+		{
+			return completionService.take().get();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+
+			if (cause instanceof Exception)
+				throw (Exception) cause;
+			else
+				throw e;
 		}
 	}
 
@@ -241,6 +420,73 @@ public class AbstractDataAnalysisController extends AbstractController
 		return re;
 	}
 
+	protected static class ChartDataSetResults
+	{
+		private final Chart chart;
+
+		private final DataSetResult[] results;
+
+		public ChartDataSetResults(Chart chart, DataSetResult[] results)
+		{
+			super();
+			this.chart = chart;
+			this.results = results;
+		}
+
+		public Chart getChart()
+		{
+			return chart;
+		}
+
+		public DataSetResult[] getResults()
+		{
+			return results;
+		}
+	}
+
+	protected static class ChartDataSetResultsLoader implements Callable<ChartDataSetResults>
+	{
+		private final Chart chart;
+
+		/** 为{@code null}时加载默认数据集结果 */
+		private final Map<String, List<? extends Map<String, ?>>> chartsParamValues;
+
+		/** 创建此加载器的请求线程的{@linkplain JdbcExecutionContext}，允许为{@code null} */
+		private final JdbcExecutionContext jdbcExecutionContext;
+
+		public ChartDataSetResultsLoader(Chart chart, Map<String, List<? extends Map<String, ?>>> chartsParamValues)
+		{
+			super();
+			this.chart = chart;
+			this.chartsParamValues = chartsParamValues;
+			this.jdbcExecutionContext = JdbcExecutionContext.get();
+		}
+
+		@Override
+		public ChartDataSetResults call() throws Exception
+		{
+			// 加载器可能在其他线程执行，因而需要在执行线程上设置请求的超时、取消上下文
+			JdbcExecutionContext prev = JdbcExecutionContext.get();
+
+			JdbcExecutionContext.set(this.jdbcExecutionContext);
+
+			try
+			{
+				DataSetResult[] results = (this.chartsParamValues == null ? this.chart.getDataSetResults()
+						: this.chart.getDataSetResults(this.chartsParamValues.get(this.chart.getId())));
+
+				return new ChartDataSetResults(this.chart, results);
+			}
+			finally
+			{
+				if (prev == null)
+					JdbcExecutionContext.remove();
+				else
+					JdbcExecutionContext.set(prev);
+			}
+		}
+	}
+
 	protected static class SessionHtmlTplDashboardManager implements Serializable
 	{
 		private static final long serialVersionUID = 1L;
@@ -17,11 +17,15 @@ import javax.sql.DataSource;
 import org.datagear.connection.ConnectionSource;
 import org.datagear.connection.ConnectionSourceException;
 import org.datagear.management.domain.Schema;
+import org.datagear.management.domain.SchemaConnectionFactory;
 import org.datagear.management.domain.User;
 import org.datagear.management.service.PermissionDeniedException;
 import org.datagear.management.service.SchemaService;
 import org.datagear.management.util.SchemaConnectionSupport;
 import org.datagear.util.JdbcUtil;
+import org.datagear.web.util.TableMetaPrefetcher;
+import org.datagear.web.util.TableNameIndex;
+import org.datagear.web.util.TableNameIndexCache;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -39,6 +43,12 @@ public abstract class AbstractSchemaConnController extends AbstractController
 	@Autowired
 	private ConnectionSource connectionSource;
 
+	@Autowired
+	private TableNameIndexCache tableNameIndexCache;
+
+	@Autowired
+	private TableMetaPrefetcher tableMetaPrefetcher;
+
 	private SchemaConnectionSupport schemaConnectionSupport = new SchemaConnectionSupport();
 
 	public AbstractSchemaConnController()
@@ -66,6 +76,26 @@ public abstract class AbstractSchemaConnController extends AbstractController
 		this.connectionSource = connectionSource;
 	}
 
+	public TableNameIndexCache getTableNameIndexCache()
+	{
+		return tableNameIndexCache;
+	}
+
+	public void setTableNameIndexCache(TableNameIndexCache tableNameIndexCache)
+	{
+		this.tableNameIndexCache = tableNameIndexCache;
+	}
+
+	public TableMetaPrefetcher getTableMetaPrefetcher()
+	{
+		return tableMetaPrefetcher;
+	}
+
+	public void setTableMetaPrefetcher(TableMetaPrefetcher tableMetaPrefetcher)
+	{
+		this.tableMetaPrefetcher = tableMetaPrefetcher;
+	}
+
 	public SchemaConnectionSupport getSchemaConnectionSupport()
 	{
 		return schemaConnectionSupport;
@@ -131,6 +161,30 @@ public abstract class AbstractSchemaConnController extends AbstractController
 		return this.schemaConnectionSupport.getSchemaConnection(this.connectionSource, schema);
 	}
 
+	/**
+	 * 获取指定{@linkplain Schema}的{@linkplain TableNameIndex}。
+	 * 
+	 * @param schema
+	 * @param cn
+	 *            没有缓存时用于加载的连接
+	 * @return
+	 */
+	protected TableNameIndex getTableNameIndex(Schema schema, Connection cn)
+	{
+		return this.tableNameIndexCache.get(schema.getId(), cn,
+				new SchemaConnectionFactory(this.connectionSource, schema));
+	}
+
+	/**
+	 * 在后台预取指定{@linkplain Schema}的常用表元信息。
+	 * 
+	 * @param schema
+	 */
+	protected void prefetchTableMeta(Schema schema)
+	{
+		this.tableMetaPrefetcher.prefetch(schema.getId(), new SchemaConnectionFactory(this.connectionSource, schema));
+	}
+
 	protected void checkReadTableDataPermission(Schema schema, User user)
 	{
 		if (!Schema.canReadTableData(schema.getDataPermission()))
@@ -203,6 +257,8 @@ public abstract class AbstractSchemaConnController extends AbstractController
 
 			springModel.addAttribute("schema", this._schema);
 
+			prefetchTableMeta(this._schema);
+
 			try
 			{
 				doExecute(request, response, springModel, this._schema);
@@ -84,6 +84,10 @@ public abstract class AbstractSchemaConnTableController extends AbstractSchemaCo
 		{
 			springModel.addAttribute("tableName", this.tableName);
 
+			getTableMetaPrefetcher().recordAccess(schema.getId(), this.tableName);
+
+			getTableCache().check(schema.getId(), getConnection());
+
 			Table table = getTableCache().get(schema.getId(), this.tableName);
 			if (table == null)
 			{
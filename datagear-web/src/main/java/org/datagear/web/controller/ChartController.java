@@ -18,7 +18,6 @@ import javax.servlet.http.HttpServletResponse;
 import org.datagear.analysis.ChartPlugin;
 import org.datagear.analysis.ChartPluginManager;
 import org.datagear.analysis.DashboardTheme;
-import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.RenderStyle;
 import org.datagear.analysis.TemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.html.HtmlChartPlugin;
@@ -348,12 +347,11 @@ public class ChartController extends AbstractChartPluginAwareController implemen
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/showData", produces = CONTENT_TYPE_JSON)
-	@ResponseBody
-	public Map<String, DataSetResult[]> showData(HttpServletRequest request, HttpServletResponse response,
-			org.springframework.ui.Model model, @RequestBody Map<String, ?> paramData) throws Exception
+	public void showData(HttpServletRequest request, HttpServletResponse response, org.springframework.ui.Model model,
+			@RequestBody Map<String, ?> paramData) throws Exception
 	{
 		WebContext webContext = createWebContext(request);
-		return getDashboardData(request, response, model, webContext, paramData);
+		writeDashboardData(request, response, webContext, paramData);
 	}
 
 	/**
@@ -393,6 +391,7 @@ public class ChartController extends AbstractChartPluginAwareController implemen
 		AddPrefixHtmlTitleHandler htmlTitleHandler = new AddPrefixHtmlTitleHandler(
 				getMessage(request, "chart.show.htmlTitlePrefix", getMessage(request, "app.name")));
 		HtmlRenderAttributes.setHtmlTitleHandler(renderContext, htmlTitleHandler);
+		setDashboardThemeStyleKey(renderContext, dashboardTheme);
 		setDashboardThemeAttribute(request.getSession(), dashboardTheme);
 
 		HtmlTplDashboard dashboard = dashboardWidget.render(renderContext);
@@ -23,6 +23,7 @@ import org.datagear.meta.resolver.DBMetaResolverException;
 import org.datagear.meta.resolver.TableNotFoundException;
 import org.datagear.persistence.NonUniqueResultException;
 import org.datagear.persistence.PersistenceException;
+import org.datagear.persistence.QueryCostExceededException;
 import org.datagear.persistence.SqlParamValueMapperException;
 import org.datagear.persistence.support.NoColumnDefinedException;
 import org.datagear.persistence.support.SqlParamValueSqlExpressionException;
@@ -228,6 +229,19 @@ public class ControllerAdvice extends AbstractController
 		return getErrorView(request, response);
 	}
 
+	@ExceptionHandler(QueryCostExceededException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public String handlePersistenceQueryCostExceededException(HttpServletRequest request,
+			HttpServletResponse response, QueryCostExceededException exception)
+	{
+		Long estimatedRows = exception.getQueryPlan().getEstimatedRows();
+
+		setOperationMessageForThrowable(request, buildMessageCode(QueryCostExceededException.class), exception, false,
+				(estimatedRows == null ? "?" : estimatedRows.toString()));
+
+		return getErrorView(request, response);
+	}
+
 	@ExceptionHandler(NoColumnDefinedException.class)
 	@ResponseStatus(HttpStatus.BAD_REQUEST)
 	public String handlePersistenceNoColumnDefinedException(HttpServletRequest request, HttpServletResponse response,
@@ -4,14 +4,17 @@
 
 package org.datagear.web.controller;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,9 +24,8 @@ import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.datagear.analysis.ChartTheme;
+import org.datagear.analysis.Chart;
 import org.datagear.analysis.DashboardTheme;
-import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.RenderStyle;
 import org.datagear.analysis.TemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.html.HtmlRenderAttributes;
@@ -43,6 +45,10 @@ import org.datagear.util.IDUtil;
 import org.datagear.util.IOUtil;
 import org.datagear.util.StringUtil;
 import org.datagear.web.OperationMessage;
+import org.datagear.web.util.DashboardSnapshotManager;
+import org.datagear.web.util.DashboardSnapshotManager.DashboardSnapshot;
+import org.datagear.web.util.DashboardThemeStyleCache;
+import org.datagear.web.util.DashboardThemeStyleCache.DashboardThemeStyle;
 import org.datagear.web.util.WebUtils;
 import org.datagear.web.vo.DataFilterPagingQuery;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -80,6 +86,9 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 	@Autowired
 	private File tempDirectory;
 
+	@Autowired
+	private DashboardSnapshotManager dashboardSnapshotManager;
+
 	private ServletContext servletContext;
 
 	public DashboardController()
@@ -108,6 +117,16 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 		this.tempDirectory = tempDirectory;
 	}
 
+	public DashboardSnapshotManager getDashboardSnapshotManager()
+	{
+		return dashboardSnapshotManager;
+	}
+
+	public void setDashboardSnapshotManager(DashboardSnapshotManager dashboardSnapshotManager)
+	{
+		this.dashboardSnapshotManager = dashboardSnapshotManager;
+	}
+
 	public ServletContext getServletContext()
 	{
 		return servletContext;
@@ -549,6 +568,7 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 		{
 			String id = ids[i];
 			this.htmlTplDashboardWidgetEntityService.deleteById(user, id);
+			this.dashboardSnapshotManager.delete(id);
 		}
 
 		return buildOperationMessageDeleteSuccessResponseEntity(request);
@@ -595,19 +615,28 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 	 * 
 	 * @param request
 	 * @param response
+	 * @param webRequest
 	 * @param model
 	 * @param id
 	 * @throws Exception
 	 */
 	@RequestMapping("/show/{id}/")
-	public void show(HttpServletRequest request, HttpServletResponse response, org.springframework.ui.Model model,
-			@PathVariable("id") String id) throws Exception
+	public void show(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest,
+			org.springframework.ui.Model model, @PathVariable("id") String id) throws Exception
 	{
 		User user = WebUtils.getUser(request, response);
 		HtmlTplDashboardWidgetEntity dashboardWidget = this.htmlTplDashboardWidgetEntityService
 				.getHtmlTplDashboardWidget(user, id);
 
-		showDashboard(request, response, model, user, dashboardWidget, dashboardWidget.getFirstTemplate());
+		if (dashboardWidget == null)
+			throw new RecordNotFoundException();
+
+		String template = dashboardWidget.getFirstTemplate();
+
+		if (showDashboardSnapshot(request, response, webRequest, dashboardWidget, template))
+			return;
+
+		showDashboard(request, response, model, user, dashboardWidget, template);
 	}
 
 	/**
@@ -637,6 +666,12 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 			HtmlTplDashboardWidgetEntity dashboardWidget = this.htmlTplDashboardWidgetEntityService
 					.getHtmlTplDashboardWidget(user, id);
 
+			if (dashboardWidget == null)
+				throw new RecordNotFoundException();
+
+			if (showDashboardSnapshot(request, response, webRequest, dashboardWidget, resName))
+				return;
+
 			showDashboard(request, response, model, user, dashboardWidget, resName);
 		}
 		else
@@ -704,11 +739,7 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 			RenderStyle renderStyle = resolveRenderStyle(request);
 			HtmlRenderContext renderContext = createHtmlRenderContext(request, createWebContext(request), renderStyle,
 					out);
-			DashboardTheme dashboardTheme = getHtmlTplDashboardWidgetEntityService().getHtmlTplDashboardWidgetRenderer()
-					.inflateDashboardTheme(renderContext, renderStyle);
-			AddPrefixHtmlTitleHandler htmlTitleHandler = new AddPrefixHtmlTitleHandler(
-					getMessage(request, "dashboard.show.htmlTitlePrefix", getMessage(request, "app.name")));
-			HtmlRenderAttributes.setHtmlTitleHandler(renderContext, htmlTitleHandler);
+			DashboardTheme dashboardTheme = inflateDashboardRenderContext(request, renderContext, renderStyle);
 			setDashboardThemeAttribute(request.getSession(), dashboardTheme);
 
 			HtmlTplDashboard dashboard = dashboardWidget.render(renderContext, template);
@@ -722,74 +753,186 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 		}
 	}
 
+	/**
+	 * 展示看板快照。
+	 * <p>
+	 * 仅当看板设置了快照更新间隔（参考{@linkplain HtmlTplDashboardWidgetEntity#getSnapshotInterval()}）且请求不带参数时，才会使用快照，
+	 * 快照过期或者模板被修改后，由首个访问者重新生成，其他并发访问者仍使用旧快照。
+	 * </p>
+	 * 
+	 * @param request
+	 * @param response
+	 * @param webRequest
+	 * @param dashboardWidget
+	 * @param template
+	 * @return 是否已展示快照，返回{@code false}时应展示实时看板
+	 * @throws Exception
+	 */
+	protected boolean showDashboardSnapshot(HttpServletRequest request, HttpServletResponse response,
+			WebRequest webRequest, HtmlTplDashboardWidgetEntity dashboardWidget, String template) throws Exception
+	{
+		int snapshotInterval = dashboardWidget.getSnapshotInterval();
+
+		if (snapshotInterval <= 0 || !StringUtil.isEmpty(request.getQueryString()))
+			return false;
+
+		TemplateDashboardWidgetResManager dashboardWidgetResManager = this.htmlTplDashboardWidgetEntityService
+				.getHtmlTplDashboardWidgetRenderer().getTemplateDashboardWidgetResManager();
+
+		long templateLastModified = dashboardWidgetResManager.lastModifiedResource(dashboardWidget.getId(), template);
+		RenderStyle renderStyle = resolveRenderStyle(request);
+		String key = this.dashboardSnapshotManager.buildKey(dashboardWidget.getId(), template, renderStyle.name());
+
+		DashboardSnapshot snapshot = this.dashboardSnapshotManager.get(key);
+
+		if (snapshot == null || snapshot.isExpired(templateLastModified, snapshotInterval))
+		{
+			if (this.dashboardSnapshotManager.startRefresh(key))
+			{
+				try
+				{
+					snapshot = createDashboardSnapshot(request, dashboardWidget, template, templateLastModified,
+							renderStyle, key);
+				}
+				finally
+				{
+					this.dashboardSnapshotManager.endRefresh(key);
+				}
+			}
+		}
+
+		// 首个快照正在由其他请求生成
+		if (snapshot == null)
+			return false;
+
+		response.setHeader("Cache-Control", "no-cache");
+
+		if (webRequest.checkNotModified(snapshot.getHtmlETag()))
+			return true;
+
+		response.setCharacterEncoding(snapshot.getHtmlEncoding());
+		response.setContentType(CONTENT_TYPE_HTML);
+
+		writeFile(response, snapshot.getHtmlFile());
+
+		return true;
+	}
+
+	/**
+	 * 生成看板快照。
+	 * 
+	 * @param request
+	 * @param dashboardWidget
+	 * @param template
+	 * @param templateLastModified
+	 * @param renderStyle
+	 * @param key
+	 * @return
+	 * @throws Exception
+	 */
+	protected DashboardSnapshot createDashboardSnapshot(HttpServletRequest request,
+			HtmlTplDashboardWidgetEntity dashboardWidget, String template, long templateLastModified,
+			RenderStyle renderStyle, String key) throws Exception
+	{
+		// 确保看板创建用户对看板模板内定义的图表有权限
+		ChartWidgetSourceContext.set(new ChartWidgetSourceContext(dashboardWidget.getCreateUser()));
+
+		try
+		{
+			String encoding = dashboardWidget.getTemplateEncoding();
+
+			if (StringUtil.isEmpty(encoding))
+				encoding = this.htmlTplDashboardWidgetEntityService.getHtmlTplDashboardWidgetRenderer()
+						.getTemplateDashboardWidgetResManager().getDefaultEncoding();
+
+			String contextPath = getWebContextPath(request).get(request);
+			WebContext webContext = new WebContext(contextPath,
+					contextPath + "/analysis/dashboard/showSnapshotData/" + key);
+
+			StringWriter out = new StringWriter();
+
+			HtmlRenderContext renderContext = createHtmlRenderContext(request, webContext, renderStyle, out);
+			inflateDashboardRenderContext(request, renderContext, renderStyle);
+
+			HtmlTplDashboard dashboard = dashboardWidget.render(renderContext, template);
+
+			List<Chart> charts = (dashboard.hasChart() ? dashboard.getCharts() : Collections.<Chart> emptyList());
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			writeChartsData(data, charts, null);
+
+			return this.dashboardSnapshotManager.save(key, dashboardWidget.getId(), templateLastModified,
+					out.toString().getBytes(encoding), encoding, data.toByteArray());
+		}
+		finally
+		{
+			ChartWidgetSourceContext.remove();
+		}
+	}
+
+	/**
+	 * 设置看板渲染上下文的主题、标题等。
+	 * 
+	 * @param request
+	 * @param renderContext
+	 * @param renderStyle
+	 * @return
+	 */
+	protected DashboardTheme inflateDashboardRenderContext(HttpServletRequest request,
+			HtmlRenderContext renderContext, RenderStyle renderStyle)
+	{
+		DashboardTheme dashboardTheme = getHtmlTplDashboardWidgetEntityService().getHtmlTplDashboardWidgetRenderer()
+				.inflateDashboardTheme(renderContext, renderStyle);
+		AddPrefixHtmlTitleHandler htmlTitleHandler = new AddPrefixHtmlTitleHandler(
+				getMessage(request, "dashboard.show.htmlTitlePrefix", getMessage(request, "app.name")));
+		HtmlRenderAttributes.setHtmlTitleHandler(renderContext, htmlTitleHandler);
+		setDashboardThemeStyleKey(renderContext, dashboardTheme);
+
+		return dashboardTheme;
+	}
+
 	/**
 	 * 看板样式。
 	 * <p>
-	 * 根据当前渲染风格动态生成看板样式。
+	 * 如果请求参数包含主题样式标识（参考{@linkplain #setDashboardThemeStyleKey(HtmlRenderContext, DashboardTheme)}），
+	 * 则直接返回预编译的样式，并允许浏览器长期缓存；否则，根据当前会话的渲染风格返回样式，且不缓存。
 	 * </p>
 	 * 
 	 * @param request
 	 * @param response
+	 * @param webRequest
 	 * @param model
 	 * @throws Exception
 	 */
 	@RequestMapping("/showStyle")
-	public void showStyle(HttpServletRequest request, HttpServletResponse response, org.springframework.ui.Model model)
-			throws Exception
+	public void showStyle(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest,
+			org.springframework.ui.Model model) throws Exception
 	{
-		// 不缓存
-		response.setDateHeader("Expires", -1);
-		response.setHeader("Cache-Control", "no-cache");
-		response.setHeader("Pragma", "no-cache");
-		response.setContentType(CONTENT_TYPE_CSS);
-		Writer out = response.getWriter();
+		DashboardThemeStyle style = getDashboardThemeStyleCache().get(request.getParameter("key"));
 
-		StringBuilder style = new StringBuilder();
-		DashboardTheme dashboardTheme = getDashboardThemeAttribute(request.getSession());
-		ChartTheme chartTheme = (dashboardTheme == null ? null : dashboardTheme.getChartTheme());
+		if (style != null)
+		{
+			// 样式标识是样式内容的摘要，内容不会改变
+			response.setHeader("Cache-Control", "public, max-age=31536000");
 
-		if (chartTheme != null)
+			if (webRequest.checkNotModified(style.getKey()))
+				return;
+		}
+		else
 		{
-			// 表格行
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody tr{\n");
-			style.append("background:" + chartTheme.getBackgroundColor() + ";\n");
-			style.append("}\n");
-
-			// 表格奇数行
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody tr.odd,\n"
-					+ " .dg-chart-table .dg-chart-table-content table.dataTable.display tbody tr.odd{\n");
-			style.append("background:" + chartTheme.getBorderColor() + ";\n");
-			style.append("}\n");
-
-			// 表格选中、悬浮，拷贝自/src/main/resources/org/datagear/web/webapp/static/theme/lightness/common.css
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr.hover,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr:hover,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.display tbody tr:hover {\n");
-			style.append("	background-color: " + chartTheme.getAxisScaleLineColor() + ";\n");
-			style.append("}\n");
-
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr.hover.selected,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody > tr.selected,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody > tr > .selected,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody > tr.odd.selected,\n");
-			style.append(
-					".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody > tr.odd > .selected,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.odd.selected,\n");
-			style.append(
-					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.odd > .selected,\n");
-			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody > tr.selected:hover,\n");
-			style.append(
-					".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody > tr > .selected:hover,\n");
-			style.append(
-					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.selected:hover,\n");
-			style.append(
-					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr > .selected:hover {\n");
-			style.append("	background-color: " + chartTheme.getHighlightTheme().getBackgroundColor() + ";\n");
-			style.append("	color: " + chartTheme.getHighlightTheme().getColor() + ";\n");
-			style.append("}\n");
+			// 不缓存
+			response.setDateHeader("Expires", -1);
+			response.setHeader("Cache-Control", "no-cache");
+			response.setHeader("Pragma", "no-cache");
+
+			style = getDashboardThemeStyleCache().get(getDashboardThemeAttribute(request.getSession()));
 		}
 
-		out.write(style.toString());
+		response.setCharacterEncoding(DashboardThemeStyleCache.STYLE_ENCODING);
+		response.setContentType(CONTENT_TYPE_CSS);
+
+		byte[] content = style.getContent();
+		response.setContentLength(content.length);
+		response.getOutputStream().write(content);
 	}
 
 	/**
@@ -802,12 +945,64 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/showData", produces = CONTENT_TYPE_JSON)
-	@ResponseBody
-	public Map<String, DataSetResult[]> showData(HttpServletRequest request, HttpServletResponse response,
-			org.springframework.ui.Model model, @RequestBody Map<String, ?> paramData) throws Exception
+	public void showData(HttpServletRequest request, HttpServletResponse response, org.springframework.ui.Model model,
+			@RequestBody Map<String, ?> paramData) throws Exception
 	{
 		WebContext webContext = createWebContext(request);
-		return getDashboardData(request, response, model, webContext, paramData);
+		writeDashboardData(request, response, webContext, paramData);
+	}
+
+	/**
+	 * 看板快照数据。
+	 * 
+	 * @param request
+	 * @param response
+	 * @param webRequest
+	 * @param model
+	 * @param key
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/showSnapshotData/{key}", produces = CONTENT_TYPE_JSON)
+	public void showSnapshotData(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest,
+			org.springframework.ui.Model model, @PathVariable("key") String key) throws Exception
+	{
+		DashboardSnapshot snapshot = this.dashboardSnapshotManager.get(key);
+
+		if (snapshot == null)
+			throw new RecordNotFoundException();
+
+		User user = WebUtils.getUser(request, response);
+		HtmlTplDashboardWidgetEntity entity = this.htmlTplDashboardWidgetEntityService.getById(user,
+				snapshot.getDashboardId());
+
+		if (entity == null)
+			throw new RecordNotFoundException();
+
+		response.setHeader("Cache-Control", "no-cache");
+
+		if (webRequest.checkNotModified(snapshot.getDataETag()))
+			return;
+
+		response.setCharacterEncoding(RESPONSE_ENCODING);
+		response.setContentType(CONTENT_TYPE_JSON);
+
+		writeFile(response, snapshot.getDataFile());
+	}
+
+	protected void writeFile(HttpServletResponse response, File file) throws IOException
+	{
+		response.setContentLength((int) file.length());
+
+		InputStream in = IOUtil.getInputStream(file);
+
+		try
+		{
+			IOUtil.write(in, response.getOutputStream());
+		}
+		finally
+		{
+			IOUtil.close(in);
+		}
 	}
 
 	/**
@@ -4,12 +4,12 @@
 
 package org.datagear.web.controller;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.InputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.sql.Connection;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -29,6 +29,7 @@ import org.datagear.meta.Table;
 import org.datagear.persistence.Dialect;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
+import org.datagear.persistence.PagingTotalMode;
 import org.datagear.persistence.PersistenceManager;
 import org.datagear.persistence.Query;
 import org.datagear.persistence.Row;
@@ -36,12 +37,14 @@ import org.datagear.persistence.RowMapper;
 import org.datagear.persistence.SqlParamValueMapper;
 import org.datagear.persistence.support.ConversionSqlParamValueMapper;
 import org.datagear.persistence.support.DefaultLOBRowMapper;
+import org.datagear.persistence.support.LOBStreamRowMapper;
 import org.datagear.persistence.support.SqlParamValueSqlExpressionSyntaxException;
 import org.datagear.persistence.support.SqlParamValueVariableExpressionSyntaxException;
 import org.datagear.persistence.support.expression.ExpressionEvaluationContext;
 import org.datagear.util.FileInfo;
 import org.datagear.util.FileUtil;
 import org.datagear.util.IOUtil;
+import org.datagear.util.JdbcUtil;
 import org.datagear.util.StringUtil;
 import org.datagear.web.OperationMessage;
 import org.datagear.web.convert.StringToJsonConverter;
@@ -52,6 +55,7 @@ import org.datagear.web.format.SqlTimestampFormatter;
 import org.datagear.web.freemarker.WriteJsonTemplateDirectiveModel;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.ConversionException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -102,6 +106,12 @@ public class DataController extends AbstractSchemaConnTableController
 	@Autowired
 	private SqlTimeFormatter sqlTimeFormatter;
 
+	@Value("${dataGrid.keyset}")
+	private boolean dataGridKeyset = false;
+
+	@Value("${dataGrid.totalMode}")
+	private PagingTotalMode dataGridTotalMode = PagingTotalMode.EXACT;
+
 	public DataController()
 	{
 		super();
@@ -235,22 +245,29 @@ public class DataController extends AbstractSchemaConnTableController
 		final User user = WebUtils.getUser(request, response);
 		final Query query = (paramData == null ? new Query() : paramData);
 
-		String sql = new ReturnSchemaConnTableExecutor<String>(request, response, springModel, schemaId, tableName,
-				true)
+		Map<String, Object> map = new ReturnSchemaConnTableExecutor<Map<String, Object>>(request, response,
+				springModel, schemaId, tableName, true)
 		{
 			@Override
-			protected String execute(HttpServletRequest request, HttpServletResponse response,
+			protected Map<String, Object> execute(HttpServletRequest request, HttpServletResponse response,
 					org.springframework.ui.Model springModel, Schema schema, Table table) throws Throwable
 			{
 				checkReadTableDataPermission(schema, user);
 
-				return persistenceManager.getQuerySql(getConnection(), table, query);
+				Connection cn = getConnection();
+
+				Map<String, Object> map = new HashMap<>();
+				map.put("sql", persistenceManager.getQuerySql(cn, table, query));
+
+				// 执行计划用于界面在执行前提示代价过高的查询，未开启代价检查时不必执行EXPLAIN
+				if (persistenceManager.isQueryCostGuarded())
+					map.put("queryPlan", persistenceManager.getQueryPlan(cn, null, table, query));
+
+				return map;
 			}
 		}.execute();
 
-		Map<String, Object> map = new HashMap<>();
 		map.put("query", query);
-		map.put("sql", sql);
 
 		return map;
 	}
@@ -539,34 +556,27 @@ public class DataController extends AbstractSchemaConnTableController
 				int acutalUpdateCount = 0, actualAddCount = 0, actualDeleteCount = 0;
 
 				if (updateOriginRows != null && updateOriginRows.length > 0)
-				{
-					for (int i = 0; i < updateOriginRows.length; i++)
-					{
-						Row updateRow = updateTargetRows[i];
-
-						int myUpdateCount = persistenceManager.update(cn, dialect, table, updateOriginRows[i],
-								updateRow, paramValueMapper);
-						acutalUpdateCount += myUpdateCount;
-					}
-				}
+					acutalUpdateCount = persistenceManager.batchUpdate(cn, dialect, table, updateOriginRows,
+							updateTargetRows, paramValueMapper);
 
 				if (addRows != null && addRows.length > 0)
-				{
-					for (int i = 0; i < addRows.length; i++)
-					{
-						persistenceManager.insert(cn, dialect, table, addRows[i], paramValueMapper);
-						actualAddCount += 1;
-					}
-				}
+					actualAddCount = persistenceManager.batchInsert(cn, dialect, table, addRows, paramValueMapper);
 
 				if (deleteRows != null && deleteRows.length > 0)
-				{
-					int myDeleteCount = persistenceManager.delete(cn, dialect, table, deleteRows, paramValueMapper);
-					actualDeleteCount += myDeleteCount;
-				}
+					actualDeleteCount = persistenceManager.batchDelete(cn, dialect, table, deleteRows,
+							paramValueMapper);
+
+				String messageCode = "savessSuccess";
+
+				// 驱动程序未返回实际影响行数（比如Oracle批量执行），此时无法确认结果
+				if (acutalUpdateCount < 0 || actualAddCount < 0 || actualDeleteCount < 0)
+					messageCode = "savessCountUnknown";
+				else if (acutalUpdateCount != expectedUpdateCount || actualAddCount != expectedAddCount
+						|| actualDeleteCount != expectedDeleteCount)
+					messageCode = "savessCountMismatch";
 
 				OperationMessage operationMessage = buildOperationMessageSuccess(request,
-						buildMessageCode("savessSuccess"), expectedUpdateCount, acutalUpdateCount, expectedAddCount,
+						buildMessageCode(messageCode), expectedUpdateCount, acutalUpdateCount, expectedAddCount,
 						actualAddCount, expectedDeleteCount, actualDeleteCount);
 
 				ResponseEntity<OperationMessage> responseEntity = buildOperationMessageResponseEntity(HttpStatus.OK,
@@ -663,57 +673,32 @@ public class DataController extends AbstractSchemaConnTableController
 		final User user = WebUtils.getUser(request, response);
 		final Row row = convertToRow(rowJson);
 
-		final DefaultLOBRowMapper rowMapper = new DefaultLOBRowMapper();
-		rowMapper.setReadActualClobRows(0);
-		rowMapper.setReadActualBinaryRows(1);
-		rowMapper.setBinaryEncoder(DefaultLOBRowMapper.BINARY_ENCODER_NONE);
-		rowMapper.setBinaryDirectory(getDataBinaryTmpDirectory());
+		// 直接将列值从数据库数据流写入响应，不写临时文件；
+		// 响应头和输出流在读取到列值时才设置、打开，使之前的权限、列校验失败时仍可返回错误信息
+		final DownloadColumnValueRowMapper rowMapper = new DownloadColumnValueRowMapper(columnName, response);
 
-		Object columnValue = new ReturnSchemaConnTableExecutor<Object>(request, response, springModel, schemaId,
-				tableName, true)
+		new VoidSchemaConnTableExecutor(request, response, springModel, schemaId, tableName, true)
 		{
 			@Override
-			protected Object execute(HttpServletRequest request, HttpServletResponse response,
+			protected void execute(HttpServletRequest request, HttpServletResponse response,
 					org.springframework.ui.Model springModel, Schema schema, Table table) throws Throwable
 			{
 				checkReadTableDataPermission(schema, user);
 
+				Column column = table.getColumn(columnName);
+
+				if (column == null || !isDownloadableColumn(column))
+					throw new IllegalArgumentException(
+							"Table '" + table.getName() + "' column '" + columnName + "' 's value is not downloadable");
+
 				Connection cn = getConnection();
 
-				Row getRow = persistenceManager.get(cn, null, table, row, buildConditionSqlParamValueMapper(),
-						rowMapper);
-				return (getRow == null ? null : getRow.get(columnName));
+				persistenceManager.get(cn, null, table, row, buildConditionSqlParamValueMapper(), rowMapper);
 			}
 		}.execute();
 
-		response.setCharacterEncoding("utf-8");
-		response.setHeader("Content-Disposition", "attachment; filename=" + columnName + "");
-
-		InputStream in = null;
-		OutputStream out = null;
-
-		try
-		{
-			out = response.getOutputStream();
-
-			if (!StringUtil.isEmpty(columnValue))
-			{
-				if (columnValue instanceof String)
-					in = IOUtil.getInputStream(rowMapper.getBlobFile((String) columnValue));
-				else if (columnValue instanceof byte[])
-					in = new ByteArrayInputStream((byte[]) columnValue);
-				else
-					throw new IllegalArgumentException(
-							"Table '" + tableName + "' column '" + columnValue + "' 's value is not downloadable");
-
-				IOUtil.write(in, out);
-			}
-		}
-		finally
-		{
-			IOUtil.close(in);
-			IOUtil.close(out);
-		}
+		// 列值为null时输出空文件
+		IOUtil.close(rowMapper.openOutputStream());
 	}
 
 	@RequestMapping(value = "/uploadFile", produces = CONTENT_TYPE_JSON)
@@ -876,6 +861,35 @@ public class DataController extends AbstractSchemaConnTableController
 		return super.buildMessageCode("data", code);
 	}
 
+	/**
+	 * 是否是可下载值的列。
+	 * 
+	 * @param column
+	 * @return
+	 */
+	protected boolean isDownloadableColumn(Column column)
+	{
+		int sqlType = column.getType();
+
+		if (JdbcUtil.isBinaryType(sqlType))
+			return true;
+
+		switch (sqlType)
+		{
+			case Types.LONGVARCHAR:
+			case Types.CLOB:
+			case Types.LONGNVARCHAR:
+			case Types.NCLOB:
+			case Types.SQLXML:
+
+				return true;
+
+			default:
+
+				return false;
+		}
+	}
+
 	protected DefaultLOBRowMapper buildQueryDefaultLOBRowMapper()
 	{
 		DefaultLOBRowMapper rowMapper = new DefaultLOBRowMapper();
@@ -962,6 +976,8 @@ public class DataController extends AbstractSchemaConnTableController
 	{
 		springModel.addAttribute("queryDefaultLOBRowMapper", buildQueryDefaultLOBRowMapper());
 		springModel.addAttribute("keywordQueryColumnCount", dialect.getKeywordQueryColumnCount());
+		springModel.addAttribute("dataGridKeyset", this.dataGridKeyset);
+		springModel.addAttribute("dataGridTotalMode", this.dataGridTotalMode.name());
 
 		// 编辑表格需要表单属性
 		setFormPageAttributes(request, springModel);
@@ -1291,6 +1307,44 @@ public class DataController extends AbstractSchemaConnTableController
 		}
 	}
 
+	/**
+	 * 列值下载{@linkplain LOBStreamRowMapper}。
+	 * <p>
+	 * 它在首次写入时才设置下载响应头并打开响应输出流。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class DownloadColumnValueRowMapper extends LOBStreamRowMapper
+	{
+		private final HttpServletResponse response;
+
+		public DownloadColumnValueRowMapper(String columnName, HttpServletResponse response)
+		{
+			super();
+			setColumnName(columnName);
+			this.response = response;
+		}
+
+		@Override
+		protected OutputStream openOutputStream() throws IOException
+		{
+			OutputStream out = getOutputStream();
+
+			if (out == null)
+			{
+				this.response.setCharacterEncoding("utf-8");
+				this.response.setHeader("Content-Disposition", "attachment; filename=" + getColumnName() + "");
+
+				out = this.response.getOutputStream();
+				setOutputStream(out);
+			}
+
+			return out;
+		}
+	}
+
 	/**
 	 * 批量出错处理方式。
 	 * 
@@ -66,7 +66,6 @@ import org.datagear.dataexchange.support.SqlDataImport;
 import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.User;
 import org.datagear.meta.SimpleTable;
-import org.datagear.meta.TableType;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.util.FileInfo;
 import org.datagear.util.FileUtil;
@@ -1580,16 +1579,12 @@ public class DataExchangeController extends AbstractSchemaConnController
 			protected List<SimpleTable> execute(HttpServletRequest request, HttpServletResponse response,
 					org.springframework.ui.Model springModel, Schema schema) throws Throwable
 			{
-				Connection cn = getConnection();
-
-				List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn);
-				return TableType.filterUserDataEntityTables(cn, getDbMetaResolver(), tables);
+				return getTableNameIndex(schema, getConnection()).findEntity(null);
 			}
 
 		}.execute();
 
 		List<String> tableNames = toTableNames(tables);
-		Collections.sort(tableNames);
 
 		return tableNames;
 	}
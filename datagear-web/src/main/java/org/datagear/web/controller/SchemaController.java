@@ -5,8 +5,7 @@
 package org.datagear.web.controller;
 
 import java.sql.Connection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -19,14 +18,16 @@ import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.User;
 import org.datagear.meta.SimpleTable;
 import org.datagear.meta.Table;
-import org.datagear.meta.TableType;
+import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.persistence.Order;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.util.IDUtil;
 import org.datagear.util.JdbcUtil;
 import org.datagear.web.OperationMessage;
-import org.datagear.web.util.KeywordMatcher;
+import org.datagear.web.util.ParallelSchemaMetaResolver;
+import org.datagear.web.util.ParallelSchemaMetaResolver.SchemaMetaResult;
+import org.datagear.web.util.ParallelSchemaMetaResolver.SchemaMetaTask;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -52,6 +53,9 @@ public class SchemaController extends AbstractSchemaConnTableController
 	@Autowired
 	private DriverEntityManager driverEntityManager;
 
+	@Autowired
+	private ParallelSchemaMetaResolver parallelSchemaMetaResolver;
+
 	public SchemaController()
 	{
 		super();
@@ -67,6 +71,16 @@ public class SchemaController extends AbstractSchemaConnTableController
 		this.driverEntityManager = driverEntityManager;
 	}
 
+	public ParallelSchemaMetaResolver getParallelSchemaMetaResolver()
+	{
+		return parallelSchemaMetaResolver;
+	}
+
+	public void setParallelSchemaMetaResolver(ParallelSchemaMetaResolver parallelSchemaMetaResolver)
+	{
+		this.parallelSchemaMetaResolver = parallelSchemaMetaResolver;
+	}
+
 	@RequestMapping("/add")
 	public String add(org.springframework.ui.Model model,
 			@RequestParam(value = "copyId", required = false) String copyId)
@@ -149,7 +163,11 @@ public class SchemaController extends AbstractSchemaConnTableController
 		// 如果URL或者用户变更了，则需要清除缓存
 		if (updated && old != null
 				&& (!schema.getUrl().equals(old.getUrl()) || !schema.getUser().equals(old.getUser())))
+		{
 			getTableCache().invalidate(schema.getId());
+			getTableNameIndexCache().invalidate(schema.getId());
+			getTableMetaPrefetcher().invalidate(schema.getId());
+		}
 
 		return buildOperationMessageSaveSuccessResponseEntity(request, schema);
 	}
@@ -189,7 +207,11 @@ public class SchemaController extends AbstractSchemaConnTableController
 
 			// 清除缓存
 			if (deleted)
+			{
 				getTableCache().invalidate(id);
+				getTableNameIndexCache().invalidate(id);
+				getTableMetaPrefetcher().remove(id);
+			}
 		}
 
 		return buildOperationMessageDeleteSuccessResponseEntity(request);
@@ -255,6 +277,41 @@ public class SchemaController extends AbstractSchemaConnTableController
 		return buildOperationMessageSuccessResponseEntity(request, "schema.testConnection.ok");
 	}
 
+	/**
+	 * 并行检查多个{@linkplain Schema}的连接，并获取它们的用户数据表数目。
+	 * 
+	 * @param request
+	 * @param response
+	 * @param ids
+	 * @return
+	 */
+	@RequestMapping(value = "/overview", produces = CONTENT_TYPE_JSON)
+	@ResponseBody
+	public List<SchemaMetaResult<Integer>> overview(HttpServletRequest request, HttpServletResponse response,
+			@RequestBody String[] ids)
+	{
+		User user = WebUtils.getUser(request, response);
+
+		List<Schema> schemas = new ArrayList<>(ids.length);
+
+		for (String id : ids)
+		{
+			Schema schema = getSchemaService().getById(user, id);
+
+			if (schema != null)
+				schemas.add(schema);
+		}
+
+		return this.parallelSchemaMetaResolver.resolve(schemas, new SchemaMetaTask<Integer>()
+		{
+			@Override
+			public Integer resolve(Schema schema, Connection cn, DBMetaResolver dbMetaResolver) throws Throwable
+			{
+				return getTableNameIndexCache().get(schema.getId(), cn, null).size();
+			}
+		});
+	}
+
 	@RequestMapping(value = "/list", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
 	public List<Schema> list(HttpServletRequest request, HttpServletResponse response,
@@ -280,25 +337,18 @@ public class SchemaController extends AbstractSchemaConnTableController
 	{
 		final PagingQuery pagingQuery = inflatePagingQuery(request, pagingQueryParam, COOKIE_PAGINATION_SIZE);
 
-		List<SimpleTable> tables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response, springModel,
-				schemaId, true)
+		List<SimpleTable> keywordTables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response,
+				springModel, schemaId, true)
 		{
 			@Override
 			protected List<SimpleTable> execute(HttpServletRequest request, HttpServletResponse response,
 					org.springframework.ui.Model springModel, Schema schema) throws Throwable
 			{
-				Connection cn = getConnection();
-
-				List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn);
-				return TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+				return getTableNameIndex(schema, getConnection()).find(pagingQuery.getKeyword());
 			}
 
 		}.execute();
 
-		sortByTableName(tables);
-
-		List<SimpleTable> keywordTables = findByKeyword(tables, pagingQuery.getKeyword());
-
 		PagingData<SimpleTable> pagingData = new PagingData<>(pagingQuery.getPage(), keywordTables.size(),
 				pagingQuery.getPageSize());
 
@@ -350,42 +400,4 @@ public class SchemaController extends AbstractSchemaConnTableController
 			}
 		}
 	}
-
-	/**
-	 * 将{@linkplain SimpleTable}数组按照{@linkplain SimpleTable#getName()}排序。
-	 * 
-	 * @param tables
-	 */
-	public static void sortByTableName(List<SimpleTable> tables)
-	{
-		Collections.sort(tables, TABLE_SORT_BY_NAME_COMPARATOR);
-	}
-
-	/**
-	 * 根据表名称关键字查询{@linkplain TableInfo}列表。
-	 * 
-	 * @param tables
-	 * @param tableNameKeyword
-	 * @return
-	 */
-	public static List<SimpleTable> findByKeyword(List<SimpleTable> tables, String tableNameKeyword)
-	{
-		return KeywordMatcher.<SimpleTable> match(tables, tableNameKeyword, new KeywordMatcher.MatchValue<SimpleTable>()
-		{
-			@Override
-			public String[] get(SimpleTable t)
-			{
-				return new String[] { t.getName() };
-			}
-		});
-	}
-
-	public static Comparator<SimpleTable> TABLE_SORT_BY_NAME_COMPARATOR = new Comparator<SimpleTable>()
-	{
-		@Override
-		public int compare(SimpleTable o1, SimpleTable o2)
-		{
-			return o1.getName().compareTo(o2.getName());
-		}
-	};
 }
@@ -4,7 +4,6 @@
 
 package org.datagear.web.controller;
 
-import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -19,7 +18,6 @@ import org.datagear.management.domain.User;
 import org.datagear.meta.Column;
 import org.datagear.meta.SimpleTable;
 import org.datagear.meta.Table;
-import org.datagear.meta.TableType;
 import org.datagear.web.util.KeywordMatcher;
 import org.datagear.web.util.WebUtils;
 import org.springframework.stereotype.Controller;
@@ -51,8 +49,10 @@ public class SqlEditorController extends AbstractSchemaConnTableController
 	{
 		final User user = WebUtils.getUser(request, response);
 
-		List<SimpleTable> tables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response, springModel,
-				schemaId, true)
+		final String keywordFinal = keyword;
+
+		List<SimpleTable> keywordTables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response,
+				springModel, schemaId, true)
 		{
 			@Override
 			protected List<SimpleTable> execute(HttpServletRequest request, HttpServletResponse response,
@@ -60,18 +60,11 @@ public class SqlEditorController extends AbstractSchemaConnTableController
 			{
 				checkReadTableDataPermission(schema, user);
 
-				Connection cn = getConnection();
-
-				List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn);
-				return TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+				return getTableNameIndex(schema, getConnection()).find(keywordFinal);
 			}
 
 		}.execute();
 
-		SchemaController.sortByTableName(tables);
-
-		List<SimpleTable> keywordTables = SchemaController.findByKeyword(tables, keyword);
-
 		List<String> tableNames = new ArrayList<>();
 
 		for (SimpleTable tableInfo : keywordTables)
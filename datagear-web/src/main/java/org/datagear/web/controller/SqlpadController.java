@@ -9,6 +9,9 @@ import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,19 +23,26 @@ import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.SqlHistory;
 import org.datagear.management.domain.User;
 import org.datagear.management.service.SqlHistoryService;
+import org.datagear.meta.Table;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.persistence.support.DefaultLOBRowMapper;
 import org.datagear.persistence.support.SqlSelectManager;
-import org.datagear.persistence.support.SqlSelectResult;
 import org.datagear.util.FileInfo;
 import org.datagear.util.FileUtil;
 import org.datagear.util.IDUtil;
 import org.datagear.util.IOUtil;
+import org.datagear.util.JdbcExecutionContext;
+import org.datagear.util.JdbcUtil;
+import org.datagear.util.QueryResultSet;
+import org.datagear.util.Sql;
 import org.datagear.util.SqlScriptParser;
 import org.datagear.util.SqlScriptParser.SqlStatement;
 import org.datagear.util.StringUtil;
 import org.datagear.web.OperationMessage;
+import org.datagear.web.json.jackson.SqlSelectResultJsonWriter;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry.SqlpadCursor;
 import org.datagear.web.sqlpad.SqlpadExecutionService;
 import org.datagear.web.sqlpad.SqlpadExecutionService.CommitMode;
 import org.datagear.web.sqlpad.SqlpadExecutionService.ExceptionHandleMode;
@@ -49,6 +59,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * SQL工作台控制器。
  * 
@@ -67,12 +81,18 @@ public class SqlpadController extends AbstractSchemaConnController
 	@Autowired
 	private SqlpadExecutionService sqlpadExecutionService;
 
+	@Autowired
+	private SqlpadCursorRegistry sqlpadCursorRegistry;
+
 	@Autowired
 	private SqlHistoryService sqlHistoryService;
 
 	@Autowired
 	private File tempDirectory;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	private int sqlResultReadActualLobRows = 3;
 
 	public SqlpadController()
@@ -100,6 +120,16 @@ public class SqlpadController extends AbstractSchemaConnController
 		this.sqlpadExecutionService = sqlpadExecutionService;
 	}
 
+	public SqlpadCursorRegistry getSqlpadCursorRegistry()
+	{
+		return sqlpadCursorRegistry;
+	}
+
+	public void setSqlpadCursorRegistry(SqlpadCursorRegistry sqlpadCursorRegistry)
+	{
+		this.sqlpadCursorRegistry = sqlpadCursorRegistry;
+	}
+
 	public SqlHistoryService getSqlHistoryService()
 	{
 		return sqlHistoryService;
@@ -227,14 +257,40 @@ public class SqlpadController extends AbstractSchemaConnController
 		return buildOperationMessageSuccessEmptyResponseEntity();
 	}
 
-	@RequestMapping(value = "/{schemaId}/select", produces = CONTENT_TYPE_JSON)
+	/**
+	 * 获取SQL工作台执行统计指标，仅管理员可访问。
+	 * 
+	 * @param request
+	 * @param response
+	 * @return
+	 * @throws Throwable
+	 */
+	@RequestMapping(value = "/executionMetrics", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
-	public SqlSelectResult select(HttpServletRequest request, HttpServletResponse response,
+	public Map<String, Integer> executionMetrics(HttpServletRequest request, HttpServletResponse response)
+			throws Throwable
+	{
+		return this.sqlpadExecutionService.getExecutionMetrics();
+	}
+
+	/**
+	 * 查询SQL结果。
+	 * <p>
+	 * 查询结果行读取后即写入响应，不在内存中保留行列表。
+	 * </p>
+	 * <p>
+	 * 读取一页后如果还有更多数据，查询结果将保留为{@linkplain SqlpadCursor}，并在响应中返回其ID，
+	 * 之后以此ID请求下一页时将从上次停止的位置继续读取，而不必重新执行SQL。
+	 * </p>
+	 */
+	@RequestMapping(value = "/{schemaId}/select", produces = CONTENT_TYPE_JSON)
+	public void select(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId,
 			@RequestParam("sqlpadId") String sqlpadId, @RequestParam("sql") final String sql,
 			@RequestParam(value = "startRow", required = false) Integer startRow,
 			@RequestParam(value = "fetchSize", required = false) Integer fetchSize,
-			@RequestParam(value = "returnMeta", required = false) Boolean returnMeta) throws Throwable
+			@RequestParam(value = "returnMeta", required = false) Boolean returnMeta,
+			@RequestParam(value = "cursorId", required = false) String cursorId) throws Throwable
 	{
 		final User user = WebUtils.getUser(request, response);
 
@@ -250,29 +306,77 @@ public class SqlpadController extends AbstractSchemaConnController
 		if (fetchSize > 1000)
 			fetchSize = 1000;
 
-		final int startRowFinal = startRow;
-		final int fetchSizeFinal = fetchSize;
+		if (startRow < 1)
+			startRow = 1;
+
+		Schema schema = getSchemaForUserNotNull(user, schemaId);
+
+		checkReadTableDataPermission(schema, user);
+
+		prefetchTableMeta(schema);
+
+		SqlpadCursor cursor = acquireSqlpadCursor(user, schemaId, sql, startRow, cursorId);
+		boolean acquired = (cursor != null);
 
-		SqlSelectResult result = new ReturnSchemaConnExecutor<SqlSelectResult>(request, response, springModel, schemaId,
-				true)
+		if (cursor == null)
+			cursor = openSqlpadCursor(user, schema, sql, startRow);
+
+		// 复用的游标语句由之前的请求创建，需注册至当前请求的上下文，以支持超时和取消
+		JdbcExecutionContext context = (acquired ? JdbcExecutionContext.get() : null);
+		Statement cursorStatement = (context == null ? null : cursor.getQueryResultSet().getStatement());
+
+		boolean keep = false;
+
+		try
 		{
-			@Override
-			protected SqlSelectResult execute(HttpServletRequest request, HttpServletResponse response,
-					Model springModel, Schema schema) throws Throwable
-			{
-				checkReadTableDataPermission(schema, user);
+			if (cursorStatement != null)
+				context.apply(cursorStatement);
 
-				SqlSelectResult result = getSqlSelectManager().select(getConnection(), sql, startRowFinal,
-						fetchSizeFinal, buildDefaultLOBRowMapper());
+			DefaultLOBRowMapper rowMapper = buildDefaultLOBRowMapper();
+			rowMapper.setReuseRow(true);
 
-				return result;
-			}
-		}.execute();
+			response.setCharacterEncoding(RESPONSE_ENCODING);
+			response.setContentType(CONTENT_TYPE_JSON);
+
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(),
+					JsonEncoding.UTF8);
+
+			SqlSelectResultJsonWriter writer = new SqlSelectResultJsonWriter(generator, sql, startRow, fetchSize,
+					returnMeta);
+
+			int fetched = getSqlSelectManager().fetch(cursor.getConnection(), cursor.getTable(),
+					cursor.getQueryResultSet().getResultSet(), startRow, fetchSize, rowMapper, writer);
+
+			cursor.setNextRow(startRow + fetched);
+
+			// 读取行数小于页大小时已没有更多数据，无需保留游标
+			keep = (fetched >= fetchSize && (acquired || this.sqlpadCursorRegistry.register(cursor)));
+
+			writer.writeEnd(cursor.getTable(), (keep ? cursor.getId() : null));
+		}
+		finally
+		{
+			if (cursorStatement != null)
+				context.unregister(cursorStatement);
 
-		if (!Boolean.TRUE.equals(returnMeta))
-			result.setTable(null);
+			if (!keep)
+				this.sqlpadCursorRegistry.discard(cursor);
+			else if (acquired)
+				this.sqlpadCursorRegistry.release(cursor);
+		}
+	}
+
+	@RequestMapping(value = "/{schemaId}/closeCursor", produces = CONTENT_TYPE_JSON)
+	@ResponseBody
+	public ResponseEntity<OperationMessage> closeCursor(HttpServletRequest request, HttpServletResponse response,
+			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId,
+			@RequestParam("sqlpadId") String sqlpadId, @RequestParam("cursorId") String cursorId) throws Throwable
+	{
+		final User user = WebUtils.getUser(request, response);
 
-		return result;
+		this.sqlpadCursorRegistry.close(cursorId, user.getId());
+
+		return buildOperationMessageSuccessEmptyResponseEntity();
 	}
 
 	@RequestMapping("/{schemaId}/downloadResultField")
@@ -355,6 +459,91 @@ public class SqlpadController extends AbstractSchemaConnController
 		return rowMapper;
 	}
 
+	/**
+	 * 获取可继续读取的{@linkplain SqlpadCursor}。
+	 * <p>
+	 * 游标的SQL、起始行与请求不一致时（比如刷新查询结果），将关闭此游标并返回{@code null}。
+	 * </p>
+	 * 
+	 * @param user
+	 * @param schemaId
+	 * @param sql
+	 * @param startRow
+	 * @param cursorId
+	 *            允许为{@code null}
+	 * @return 没有可用游标时返回{@code null}
+	 */
+	protected SqlpadCursor acquireSqlpadCursor(User user, String schemaId, String sql, int startRow, String cursorId)
+	{
+		if (isEmpty(cursorId))
+			return null;
+
+		SqlpadCursor cursor = this.sqlpadCursorRegistry.acquire(cursorId, user.getId());
+
+		if (cursor == null)
+			return null;
+
+		if (cursor.getNextRow() != startRow || !cursor.getSchemaId().equals(schemaId) || !cursor.getSql().equals(sql))
+		{
+			this.sqlpadCursorRegistry.discard(cursor);
+			return null;
+		}
+
+		return cursor;
+	}
+
+	/**
+	 * 执行SQL并打开一个定位于{@code startRow}之前的{@linkplain SqlpadCursor}。
+	 * 
+	 * @param user
+	 * @param schema
+	 * @param sql
+	 * @param startRow
+	 * @return
+	 * @throws Throwable
+	 */
+	protected SqlpadCursor openSqlpadCursor(User user, Schema schema, String sql, int startRow) throws Throwable
+	{
+		Connection cn = null;
+		QueryResultSet qrs = null;
+
+		try
+		{
+			cn = getSchemaConnection(schema);
+			JdbcUtil.setAutoCommitIfSupports(cn, false);
+			JdbcUtil.setReadonlyIfSupports(cn, true);
+
+			qrs = getSqlSelectManager().executeQuery(cn, Sql.valueOf(sql), ResultSet.TYPE_FORWARD_ONLY);
+			ResultSet rs = qrs.getResultSet();
+
+			Table table = getSqlSelectManager().buildTable(cn, schema.getId(), sql, rs);
+
+			if (startRow > 1)
+				getSqlSelectManager().forwardBefore(rs, startRow);
+
+			return new SqlpadCursor(IDUtil.uuid(), user.getId(), schema.getId(), sql, cn, qrs, table, startRow);
+		}
+		catch (Throwable t)
+		{
+			QueryResultSet.close(qrs);
+
+			if (cn != null)
+			{
+				try
+				{
+					JdbcUtil.rollbackIfSupports(cn);
+				}
+				catch (Throwable t1)
+				{
+				}
+			}
+
+			JdbcUtil.closeConnection(cn);
+
+			throw t;
+		}
+	}
+
 	protected File getSqlpadTmpDirectory()
 	{
 		return FileUtil.getDirectory(this.tempDirectory, "sqlpad", true);
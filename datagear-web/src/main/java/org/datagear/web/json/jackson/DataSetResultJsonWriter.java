@@ -0,0 +1,272 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.json.jackson;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.DataSet;
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetProperty.DataType;
+import org.datagear.analysis.DataSetResult;
+import org.datagear.analysis.support.MapDataSetResult;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * {@linkplain DataSetResult}流式JSON输出器。
+ * <p>
+ * 此类直接使用{@linkplain JsonGenerator}输出图表的{@linkplain DataSetResult}数组，对于{@linkplain MapDataSetResult}，
+ * 将根据{@linkplain DataSetProperty#getType()}选择对应类型的值输出器，避免反射序列化映射表；其他情况则委托给
+ * {@linkplain JsonGenerator#writeObject(Object)}。
+ * </p>
+ * <p>
+ * 输出格式与{@linkplain com.fasterxml.jackson.databind.ObjectMapper}序列化保持一致（忽略值为{@code null}的属性）。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DataSetResultJsonWriter
+{
+	public static final String PROPERTY_DATAS = "datas";
+
+	private static final Map<String, ValueWriter> TYPE_VALUE_WRITERS = new HashMap<>();
+	static
+	{
+		TYPE_VALUE_WRITERS.put(DataType.STRING, new StringValueWriter());
+		TYPE_VALUE_WRITERS.put(DataType.BOOLEAN, new BooleanValueWriter());
+		TYPE_VALUE_WRITERS.put(DataType.INTEGER, new NumberValueWriter());
+		TYPE_VALUE_WRITERS.put(DataType.DECIMAL, new NumberValueWriter());
+	}
+
+	public DataSetResultJsonWriter()
+	{
+		super();
+	}
+
+	/**
+	 * 输出图表的{@linkplain DataSetResult}数组。
+	 *
+	 * @param generator
+	 * @param chart
+	 * @param results
+	 *            允许为{@code null}、元素允许为{@code null}
+	 * @throws IOException
+	 */
+	public void write(JsonGenerator generator, Chart chart, DataSetResult[] results) throws IOException
+	{
+		if (results == null)
+		{
+			generator.writeNull();
+			return;
+		}
+
+		ChartDataSet[] chartDataSets = chart.getChartDataSets();
+
+		generator.writeStartArray();
+
+		for (int i = 0; i < results.length; i++)
+		{
+			DataSetResult result = results[i];
+
+			if (result == null)
+				generator.writeNull();
+			else if (result instanceof MapDataSetResult)
+			{
+				List<DataSetProperty> properties = null;
+
+				if (chartDataSets != null && i < chartDataSets.length)
+				{
+					DataSet dataSet = chartDataSets[i].getDataSet();
+					properties = (dataSet == null ? null : dataSet.getProperties());
+				}
+
+				write(generator, (MapDataSetResult) result, properties);
+			}
+			else
+				generator.writeObject(result);
+		}
+
+		generator.writeEndArray();
+	}
+
+	/**
+	 * 输出{@linkplain MapDataSetResult}。
+	 *
+	 * @param generator
+	 * @param result
+	 * @param properties
+	 *            允许为{@code null}
+	 * @throws IOException
+	 */
+	public void write(JsonGenerator generator, MapDataSetResult result, List<DataSetProperty> properties)
+			throws IOException
+	{
+		Map<String, ValueWriter> valueWriters = getValueWriters(properties);
+
+		generator.writeStartObject();
+
+		List<Map<String, ?>> datas = result.getDatas();
+
+		if (datas != null)
+		{
+			generator.writeFieldName(PROPERTY_DATAS);
+			generator.writeStartArray();
+
+			for (Map<String, ?> data : datas)
+			{
+				if (data == null)
+				{
+					generator.writeNull();
+					continue;
+				}
+
+				generator.writeStartObject();
+
+				for (Map.Entry<String, ?> entry : data.entrySet())
+				{
+					Object value = entry.getValue();
+
+					if (value == null)
+						continue;
+
+					generator.writeFieldName(entry.getKey());
+
+					ValueWriter valueWriter = valueWriters.get(entry.getKey());
+
+					if (valueWriter == null)
+						generator.writeObject(value);
+					else
+						valueWriter.write(generator, value);
+				}
+
+				generator.writeEndObject();
+			}
+
+			generator.writeEndArray();
+		}
+
+		generator.writeEndObject();
+	}
+
+	/**
+	 * 获取属性名/值输出器映射表。
+	 * <p>
+	 * 没有专用输出器的属性类型（比如日期、时间）不会包含在返回映射表中，它们将由
+	 * {@linkplain JsonGenerator#writeObject(Object)}输出，以保持与全局配置的序列化器一致。
+	 * </p>
+	 *
+	 * @param properties
+	 *            允许为{@code null}
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected Map<String, ValueWriter> getValueWriters(List<DataSetProperty> properties)
+	{
+		if (properties == null || properties.isEmpty())
+			return Collections.EMPTY_MAP;
+
+		Map<String, ValueWriter> valueWriters = new HashMap<>(properties.size());
+
+		for (DataSetProperty property : properties)
+		{
+			ValueWriter valueWriter = TYPE_VALUE_WRITERS.get(property.getType());
+
+			if (valueWriter != null)
+				valueWriters.put(property.getName(), valueWriter);
+		}
+
+		return valueWriters;
+	}
+
+	/**
+	 * 值输出器。
+	 * <p>
+	 * 实现类应对非预期类型的值使用{@linkplain JsonGenerator#writeObject(Object)}输出。
+	 * </p>
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static interface ValueWriter
+	{
+		/**
+		 * 输出值。
+		 *
+		 * @param generator
+		 * @param value
+		 *            不会为{@code null}
+		 * @throws IOException
+		 */
+		void write(JsonGenerator generator, Object value) throws IOException;
+	}
+
+	protected static class StringValueWriter implements ValueWriter
+	{
+		public StringValueWriter()
+		{
+			super();
+		}
+
+		@Override
+		public void write(JsonGenerator generator, Object value) throws IOException
+		{
+			if (value instanceof String)
+				generator.writeString((String) value);
+			else
+				generator.writeObject(value);
+		}
+	}
+
+	protected static class BooleanValueWriter implements ValueWriter
+	{
+		public BooleanValueWriter()
+		{
+			super();
+		}
+
+		@Override
+		public void write(JsonGenerator generator, Object value) throws IOException
+		{
+			if (value instanceof Boolean)
+				generator.writeBoolean((Boolean) value);
+			else
+				generator.writeObject(value);
+		}
+	}
+
+	protected static class NumberValueWriter implements ValueWriter
+	{
+		public NumberValueWriter()
+		{
+			super();
+		}
+
+		@Override
+		public void write(JsonGenerator generator, Object value) throws IOException
+		{
+			if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+				generator.writeNumber(((Number) value).longValue());
+			else if (value instanceof BigDecimal)
+				generator.writeNumber((BigDecimal) value);
+			else if (value instanceof BigInteger)
+				generator.writeNumber((BigInteger) value);
+			else if (value instanceof Double)
+				generator.writeNumber((Double) value);
+			else if (value instanceof Float)
+				generator.writeNumber((Float) value);
+			else
+				generator.writeObject(value);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.json.jackson;
+
+import java.io.IOException;
+import java.sql.Connection;
+
+import org.datagear.meta.Table;
+import org.datagear.persistence.Row;
+import org.datagear.persistence.RowConsumer;
+import org.datagear.persistence.support.SqlSelectResult;
+import org.datagear.util.JdbcExecutionContext;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * {@linkplain SqlSelectResult}流式JSON输出器。
+ * <p>
+ * 它作为{@linkplain RowConsumer}逐行输出查询结果，输出格式与{@linkplain SqlSelectResult}的序列化保持一致，
+ * 行对象读取后即被输出，不会在内存中保留行列表。
+ * </p>
+ * <p>
+ * 使用方式：作为{@linkplain RowConsumer}执行查询后，调用{@linkplain #writeEnd(Table)}结束输出。
+ * </p>
+ * <p>
+ * 输出失败（通常是客户端已断开）时，将取消当前线程的{@linkplain JdbcExecutionContext}。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlSelectResultJsonWriter implements RowConsumer
+{
+	private final JsonGenerator generator;
+
+	private final String sql;
+
+	private final int startRow;
+
+	private final int fetchSize;
+
+	/** 是否输出表元信息 */
+	private final boolean writeTable;
+
+	private boolean _started = false;
+
+	public SqlSelectResultJsonWriter(JsonGenerator generator, String sql, int startRow, int fetchSize,
+			boolean writeTable)
+	{
+		super();
+		this.generator = generator;
+		this.sql = sql;
+		this.startRow = startRow;
+		this.fetchSize = fetchSize;
+		this.writeTable = writeTable;
+	}
+
+	public JsonGenerator getGenerator()
+	{
+		return generator;
+	}
+
+	@Override
+	public boolean accept(Connection cn, Table table, Row row, int rowIndex) throws IOException
+	{
+		try
+		{
+			writeStartIf(table);
+
+			this.generator.writeObject(row);
+		}
+		catch (IOException e)
+		{
+			// 客户端已断开，取消仍在执行的查询
+			JdbcExecutionContext.cancelCurrent();
+			throw e;
+		}
+
+		return true;
+	}
+
+	/**
+	 * 结束输出。
+	 * 
+	 * @param table
+	 * @throws IOException
+	 */
+	public void writeEnd(Table table) throws IOException
+	{
+		writeEnd(table, null);
+	}
+
+	/**
+	 * 结束输出。
+	 * 
+	 * @param table
+	 * @param cursorId
+	 *            可继续读取下一页的游标ID，为{@code null}则不输出
+	 * @throws IOException
+	 */
+	public void writeEnd(Table table, String cursorId) throws IOException
+	{
+		writeStartIf(table);
+
+		this.generator.writeEndArray();
+		this.generator.writeNumberField("nextStartRow", this.startRow + this.fetchSize);
+
+		if (cursorId != null)
+			this.generator.writeStringField("cursorId", cursorId);
+
+		this.generator.writeEndObject();
+		this.generator.flush();
+	}
+
+	/**
+	 * 如果还未开始，则输出起始部分（直至行数组开始）。
+	 * 
+	 * @param table
+	 * @throws IOException
+	 */
+	protected void writeStartIf(Table table) throws IOException
+	{
+		if (this._started)
+			return;
+
+		this.generator.writeStartObject();
+
+		if (this.sql != null)
+			this.generator.writeStringField("sql", this.sql);
+
+		if (this.writeTable && table != null)
+		{
+			this.generator.writeFieldName("table");
+			this.generator.writeObject(table);
+		}
+
+		this.generator.writeNumberField("startRow", this.startRow);
+		this.generator.writeNumberField("fetchSize", this.fetchSize);
+		this.generator.writeFieldName("rows");
+		this.generator.writeStartArray();
+
+		this._started = true;
+	}
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.sqlpad;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.datagear.meta.Table;
+import org.datagear.util.JdbcUtil;
+import org.datagear.util.QueryResultSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL工作台查询游标注册表。
+ * <p>
+ * SQL工作台“加载更多”查询结果时，如果每次都重新执行SQL并跳过已读取的行，深度翻页的代价将随页数平方增长。
+ * 此类在读取一页后保留原始的{@linkplain Connection}和结果集，使下一页可以从上次停止的位置继续读取。
+ * </p>
+ * <p>
+ * 游标空闲超过{@linkplain #getIdleTimeoutSeconds()}秒后将被关闭；每个用户最多保留{@linkplain #getMaxCursorsPerUser()}个游标，
+ * 全局最多保留{@linkplain #getMaxCursors()}个游标，超出时将关闭最久未使用的空闲游标，没有空闲游标可关闭时则不再注册新游标。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlpadCursorRegistry
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SqlpadCursorRegistry.class);
+
+	/** 每个用户最多保留的游标数 */
+	private int maxCursorsPerUser = 3;
+
+	/** 全局最多保留的游标数 */
+	private int maxCursors = 50;
+
+	/** 游标空闲超时秒数 */
+	private int idleTimeoutSeconds = 300;
+
+	/** 游标ID -> 游标，按访问顺序排列 */
+	private final LinkedHashMap<String, SqlpadCursor> _cursors = new LinkedHashMap<String, SqlpadCursor>(16, 0.75f,
+			true);
+
+	private ScheduledExecutorService _cleaner = null;
+
+	public SqlpadCursorRegistry()
+	{
+		super();
+	}
+
+	public int getMaxCursorsPerUser()
+	{
+		return maxCursorsPerUser;
+	}
+
+	public void setMaxCursorsPerUser(int maxCursorsPerUser)
+	{
+		this.maxCursorsPerUser = maxCursorsPerUser;
+	}
+
+	public int getMaxCursors()
+	{
+		return maxCursors;
+	}
+
+	public void setMaxCursors(int maxCursors)
+	{
+		this.maxCursors = maxCursors;
+	}
+
+	public int getIdleTimeoutSeconds()
+	{
+		return idleTimeoutSeconds;
+	}
+
+	public void setIdleTimeoutSeconds(int idleTimeoutSeconds)
+	{
+		this.idleTimeoutSeconds = idleTimeoutSeconds;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		long period = Math.max(1, Math.min(this.idleTimeoutSeconds, 60));
+
+		this._cleaner = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "SqlpadCursorRegistry");
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		});
+
+		this._cleaner.scheduleWithFixedDelay(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					closeIdle();
+				}
+				catch (Throwable t)
+				{
+					LOGGER.warn("close idle sqlpad cursors error", t);
+				}
+			}
+		}, period, period, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 销毁，关闭所有游标。
+	 */
+	public void destroy()
+	{
+		if (this._cleaner != null)
+			this._cleaner.shutdownNow();
+
+		List<SqlpadCursor> cursors;
+
+		synchronized (this._cursors)
+		{
+			cursors = new ArrayList<SqlpadCursor>(this._cursors.values());
+			this._cursors.clear();
+		}
+
+		for (SqlpadCursor cursor : cursors)
+			closeOrCancel(cursor);
+	}
+
+	/**
+	 * 注册游标，注册后游标处于空闲状态。
+	 * <p>
+	 * 超出数目限制且没有可关闭的空闲游标时，将不注册并返回{@code false}，调用方应自行关闭此游标。
+	 * </p>
+	 *
+	 * @param cursor
+	 * @return
+	 */
+	public boolean register(SqlpadCursor cursor)
+	{
+		List<SqlpadCursor> evicts = new ArrayList<SqlpadCursor>();
+		boolean registered = false;
+
+		synchronized (this._cursors)
+		{
+			if (evictIdleFor(cursor.getUserId(), this.maxCursorsPerUser, evicts)
+					&& evictIdleFor(null, this.maxCursors, evicts))
+			{
+				cursor.touch();
+				cursor._inUse = false;
+				this._cursors.put(cursor.getId(), cursor);
+
+				registered = true;
+			}
+		}
+
+		for (SqlpadCursor evict : evicts)
+			evict.close();
+
+		return registered;
+	}
+
+	/**
+	 * 获取游标并将其标记为使用中，使用完后应调用{@linkplain #release(SqlpadCursor)}或者{@linkplain #discard(SqlpadCursor)}。
+	 *
+	 * @param cursorId
+	 * @param userId
+	 * @return 游标不存在、不属于此用户或者正在使用时返回{@code null}
+	 */
+	public SqlpadCursor acquire(String cursorId, String userId)
+	{
+		synchronized (this._cursors)
+		{
+			SqlpadCursor cursor = this._cursors.get(cursorId);
+
+			if (cursor == null || cursor._inUse || !cursor.getUserId().equals(userId))
+				return null;
+
+			cursor._inUse = true;
+			cursor.touch();
+
+			return cursor;
+		}
+	}
+
+	/**
+	 * 释放通过{@linkplain #acquire(String, String)}获取的游标，使其可被再次获取。
+	 * <p>
+	 * 如果游标在使用期间已被{@linkplain #close(String, String)}，它将在此时被关闭。
+	 * </p>
+	 *
+	 * @param cursor
+	 */
+	public void release(SqlpadCursor cursor)
+	{
+		boolean registered;
+
+		synchronized (this._cursors)
+		{
+			registered = (this._cursors.get(cursor.getId()) == cursor);
+
+			if (registered)
+			{
+				cursor._inUse = false;
+				cursor.touch();
+			}
+		}
+
+		if (!registered)
+			cursor.close();
+	}
+
+	/**
+	 * 移除并关闭当前使用者持有的游标。
+	 *
+	 * @param cursor
+	 */
+	public void discard(SqlpadCursor cursor)
+	{
+		synchronized (this._cursors)
+		{
+			if (this._cursors.get(cursor.getId()) == cursor)
+				this._cursors.remove(cursor.getId());
+		}
+
+		cursor.close();
+	}
+
+	/**
+	 * 关闭指定游标。
+	 * <p>
+	 * 如果游标正在使用，将取消其正在执行的读取，并由使用者在释放时关闭。
+	 * </p>
+	 *
+	 * @param cursorId
+	 * @param userId
+	 * @return 是否存在此游标
+	 */
+	public boolean close(String cursorId, String userId)
+	{
+		SqlpadCursor cursor;
+
+		synchronized (this._cursors)
+		{
+			cursor = this._cursors.get(cursorId);
+
+			if (cursor == null || !cursor.getUserId().equals(userId))
+				return false;
+
+			this._cursors.remove(cursorId);
+		}
+
+		closeOrCancel(cursor);
+
+		return true;
+	}
+
+	/**
+	 * 关闭所有空闲超时的游标。
+	 *
+	 * @return 关闭的游标数
+	 */
+	public int closeIdle()
+	{
+		List<SqlpadCursor> closes = new ArrayList<SqlpadCursor>();
+		long now = System.currentTimeMillis();
+		long timeout = this.idleTimeoutSeconds * 1000L;
+
+		synchronized (this._cursors)
+		{
+			for (Iterator<SqlpadCursor> it = this._cursors.values().iterator(); it.hasNext();)
+			{
+				SqlpadCursor cursor = it.next();
+
+				if (!cursor._inUse && now - cursor.getLastAccessTime() > timeout)
+				{
+					it.remove();
+					closes.add(cursor);
+				}
+			}
+		}
+
+		for (SqlpadCursor cursor : closes)
+			cursor.close();
+
+		if (!closes.isEmpty() && LOGGER.isDebugEnabled())
+			LOGGER.debug("close " + closes.size() + " idle sqlpad cursors");
+
+		return closes.size();
+	}
+
+	/**
+	 * 获取游标数。
+	 *
+	 * @return
+	 */
+	public int size()
+	{
+		synchronized (this._cursors)
+		{
+			return this._cursors.size();
+		}
+	}
+
+	/**
+	 * 获取指定用户的游标数。
+	 *
+	 * @param userId
+	 * @return
+	 */
+	public int getCursorCount(String userId)
+	{
+		synchronized (this._cursors)
+		{
+			return countFor(userId);
+		}
+	}
+
+	/**
+	 * 移除最久未使用的空闲游标，直到数目小于限制。
+	 * <p>
+	 * 调用方应持有{@linkplain #_cursors}锁。
+	 * </p>
+	 *
+	 * @param userId
+	 *            为{@code null}表示所有用户
+	 * @param max
+	 * @param evicts
+	 *            被移除的游标
+	 * @return 数目是否已小于限制
+	 */
+	protected boolean evictIdleFor(String userId, int max, List<SqlpadCursor> evicts)
+	{
+		int count = countFor(userId);
+
+		for (Iterator<SqlpadCursor> it = this._cursors.values().iterator(); it.hasNext() && count >= max;)
+		{
+			SqlpadCursor cursor = it.next();
+
+			if (cursor._inUse || (userId != null && !userId.equals(cursor.getUserId())))
+				continue;
+
+			it.remove();
+			evicts.add(cursor);
+			count--;
+		}
+
+		return (count < max);
+	}
+
+	protected int countFor(String userId)
+	{
+		if (userId == null)
+			return this._cursors.size();
+
+		int count = 0;
+
+		for (SqlpadCursor cursor : this._cursors.values())
+		{
+			if (userId.equals(cursor.getUserId()))
+				count++;
+		}
+
+		return count;
+	}
+
+	protected void closeOrCancel(SqlpadCursor cursor)
+	{
+		boolean inUse;
+
+		synchronized (this._cursors)
+		{
+			inUse = cursor._inUse;
+		}
+
+		if (inUse)
+			cursor.cancel();
+		else
+			cursor.close();
+	}
+
+	/**
+	 * SQL工作台查询游标。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class SqlpadCursor
+	{
+		private final String id;
+
+		private final String userId;
+
+		private final String schemaId;
+
+		private final String sql;
+
+		private final Connection connection;
+
+		private final QueryResultSet queryResultSet;
+
+		private final Table table;
+
+		/** 下一次读取的起始行号，以{@code 1}开头 */
+		private volatile int nextRow;
+
+		private volatile long lastAccessTime;
+
+		/** 是否正在使用，由{@linkplain SqlpadCursorRegistry}维护 */
+		private boolean _inUse = false;
+
+		private volatile boolean _closed = false;
+
+		public SqlpadCursor(String id, String userId, String schemaId, String sql, Connection connection,
+				QueryResultSet queryResultSet, Table table, int nextRow)
+		{
+			super();
+			this.id = id;
+			this.userId = userId;
+			this.schemaId = schemaId;
+			this.sql = sql;
+			this.connection = connection;
+			this.queryResultSet = queryResultSet;
+			this.table = table;
+			this.nextRow = nextRow;
+			this.lastAccessTime = System.currentTimeMillis();
+		}
+
+		public String getId()
+		{
+			return id;
+		}
+
+		public String getUserId()
+		{
+			return userId;
+		}
+
+		public String getSchemaId()
+		{
+			return schemaId;
+		}
+
+		public String getSql()
+		{
+			return sql;
+		}
+
+		public Connection getConnection()
+		{
+			return connection;
+		}
+
+		public QueryResultSet getQueryResultSet()
+		{
+			return queryResultSet;
+		}
+
+		public Table getTable()
+		{
+			return table;
+		}
+
+		public int getNextRow()
+		{
+			return nextRow;
+		}
+
+		public void setNextRow(int nextRow)
+		{
+			this.nextRow = nextRow;
+		}
+
+		public long getLastAccessTime()
+		{
+			return lastAccessTime;
+		}
+
+		public boolean isClosed()
+		{
+			return _closed;
+		}
+
+		protected void touch()
+		{
+			this.lastAccessTime = System.currentTimeMillis();
+		}
+
+		/**
+		 * 取消正在执行的读取。
+		 */
+		protected void cancel()
+		{
+			Statement st = this.queryResultSet.getStatement();
+
+			if (st == null)
+				return;
+
+			try
+			{
+				st.cancel();
+			}
+			catch (Throwable t)
+			{
+			}
+		}
+
+		/**
+		 * 关闭结果集，回滚并关闭连接。
+		 * <p>
+		 * 连接以非自动提交模式打开，关闭前需回滚，避免连接池中的连接带有未结束的事务。
+		 * </p>
+		 */
+		protected void close()
+		{
+			if (this._closed)
+				return;
+
+			this._closed = true;
+
+			QueryResultSet.close(this.queryResultSet);
+
+			if (this.connection != null)
+			{
+				try
+				{
+					JdbcUtil.rollbackIfSupports(this.connection);
+				}
+				catch (Throwable t)
+				{
+				}
+			}
+
+			JdbcUtil.closeConnection(this.connection);
+		}
+	}
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.sqlpad;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL工作台执行调度器。
+ * <p>
+ * 每个SQL工作台执行在整个脚本执行期间（包括暂停、等待提交/回滚）都占用一个线程和一个数据库连接，
+ * 此类限制全局、每个用户、每个数据源的同时执行数，超出时将执行放入容量为{@linkplain #getMaxQueued()}的队列等待。
+ * </p>
+ * <p>
+ * 队列按提交顺序调度，但会跳过所属用户或者数据源已达上限的执行，因此某个用户的大量执行不会阻塞其他用户。
+ * 队列中执行的排队位置改变时，将通过{@linkplain SchedulableTask#queuePositionChanged(int)}通知。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlpadExecutionScheduler
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SqlpadExecutionScheduler.class);
+
+	/** 全局最大同时执行数 */
+	private int maxRunning = 20;
+
+	/** 每个用户最大同时执行数 */
+	private int maxRunningPerUser = 3;
+
+	/** 每个数据源最大同时执行数 */
+	private int maxRunningPerSchema = 5;
+
+	/** 最大排队数 */
+	private int maxQueued = 100;
+
+	private final LinkedList<SchedulableTask> _queue = new LinkedList<SchedulableTask>();
+
+	private final Map<String, Integer> _userRunningCounts = new HashMap<String, Integer>();
+
+	private final Map<String, Integer> _schemaRunningCounts = new HashMap<String, Integer>();
+
+	private int _runningCount = 0;
+
+	/** 同时执行数已由调度限制，因而这里不必再限制线程数 */
+	private final ExecutorService _executorService = Executors.newCachedThreadPool(new ThreadFactory()
+	{
+		private final AtomicInteger _threadCount = new AtomicInteger(0);
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			return new Thread(r, "SqlpadExecution-" + this._threadCount.incrementAndGet());
+		}
+	});
+
+	public SqlpadExecutionScheduler()
+	{
+		super();
+	}
+
+	public int getMaxRunning()
+	{
+		return maxRunning;
+	}
+
+	public void setMaxRunning(int maxRunning)
+	{
+		this.maxRunning = maxRunning;
+	}
+
+	public int getMaxRunningPerUser()
+	{
+		return maxRunningPerUser;
+	}
+
+	public void setMaxRunningPerUser(int maxRunningPerUser)
+	{
+		this.maxRunningPerUser = maxRunningPerUser;
+	}
+
+	public int getMaxRunningPerSchema()
+	{
+		return maxRunningPerSchema;
+	}
+
+	public void setMaxRunningPerSchema(int maxRunningPerSchema)
+	{
+		this.maxRunningPerSchema = maxRunningPerSchema;
+	}
+
+	public int getMaxQueued()
+	{
+		return maxQueued;
+	}
+
+	public void setMaxQueued(int maxQueued)
+	{
+		this.maxQueued = maxQueued;
+	}
+
+	/**
+	 * 提交执行。
+	 * <p>
+	 * 未超出同时执行数限制时将立即执行，否则放入队列等待。
+	 * </p>
+	 *
+	 * @param task
+	 * @return {@code false} 队列已满，未提交
+	 */
+	public boolean submit(SchedulableTask task)
+	{
+		List<SchedulableTask> starts;
+
+		synchronized (this._queue)
+		{
+			if (this._queue.size() >= this.maxQueued)
+				return false;
+
+			this._queue.add(task);
+
+			starts = pollStartables();
+		}
+
+		start(starts);
+		notifyQueuePositions();
+
+		return true;
+	}
+
+	/**
+	 * 从队列中移除还未开始的执行。
+	 *
+	 * @param task
+	 * @return {@code false} 执行不在队列中（已开始或者已结束）
+	 */
+	public boolean remove(SchedulableTask task)
+	{
+		boolean removed;
+
+		synchronized (this._queue)
+		{
+			removed = this._queue.remove(task);
+		}
+
+		if (removed)
+			notifyQueuePositions();
+
+		return removed;
+	}
+
+	/**
+	 * 获取排队数。
+	 *
+	 * @return
+	 */
+	public int getQueuedCount()
+	{
+		synchronized (this._queue)
+		{
+			return this._queue.size();
+		}
+	}
+
+	/**
+	 * 获取正在执行数。
+	 *
+	 * @return
+	 */
+	public int getRunningCount()
+	{
+		synchronized (this._queue)
+		{
+			return this._runningCount;
+		}
+	}
+
+	/**
+	 * 获取指定用户的正在执行数。
+	 *
+	 * @param userId
+	 * @return
+	 */
+	public int getUserRunningCount(String userId)
+	{
+		synchronized (this._queue)
+		{
+			return getCount(this._userRunningCounts, userId);
+		}
+	}
+
+	/**
+	 * 获取指定数据源的正在执行数。
+	 *
+	 * @param schemaId
+	 * @return
+	 */
+	public int getSchemaRunningCount(String schemaId)
+	{
+		synchronized (this._queue)
+		{
+			return getCount(this._schemaRunningCounts, schemaId);
+		}
+	}
+
+	/**
+	 * 关闭。
+	 */
+	public void shutdown()
+	{
+		synchronized (this._queue)
+		{
+			this._queue.clear();
+		}
+
+		this._executorService.shutdown();
+	}
+
+	/**
+	 * 执行结束。
+	 *
+	 * @param task
+	 */
+	protected void finish(SchedulableTask task)
+	{
+		List<SchedulableTask> starts;
+
+		synchronized (this._queue)
+		{
+			this._runningCount--;
+			addCount(this._userRunningCounts, task.getUserId(), -1);
+			addCount(this._schemaRunningCounts, task.getSchemaId(), -1);
+
+			starts = pollStartables();
+		}
+
+		start(starts);
+
+		if (!starts.isEmpty())
+			notifyQueuePositions();
+	}
+
+	/**
+	 * 按顺序从队列中取出所有可以开始的执行，并计入正在执行数。
+	 * <p>
+	 * 调用方应持有{@linkplain #_queue}锁。
+	 * </p>
+	 *
+	 * @return
+	 */
+	protected List<SchedulableTask> pollStartables()
+	{
+		List<SchedulableTask> starts = new ArrayList<SchedulableTask>();
+
+		for (Iterator<SchedulableTask> it = this._queue.iterator(); it.hasNext()
+				&& this._runningCount < this.maxRunning;)
+		{
+			SchedulableTask task = it.next();
+
+			if (getCount(this._userRunningCounts, task.getUserId()) >= this.maxRunningPerUser
+					|| getCount(this._schemaRunningCounts, task.getSchemaId()) >= this.maxRunningPerSchema)
+				continue;
+
+			it.remove();
+
+			this._runningCount++;
+			addCount(this._userRunningCounts, task.getUserId(), 1);
+			addCount(this._schemaRunningCounts, task.getSchemaId(), 1);
+
+			starts.add(task);
+		}
+
+		return starts;
+	}
+
+	protected void start(List<SchedulableTask> tasks)
+	{
+		for (final SchedulableTask task : tasks)
+		{
+			try
+			{
+				this._executorService.execute(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						try
+						{
+							task.run();
+						}
+						finally
+						{
+							finish(task);
+						}
+					}
+				});
+			}
+			catch (RejectedExecutionException e)
+			{
+				LOGGER.warn("sqlpad execution is rejected", e);
+
+				finish(task);
+
+				try
+				{
+					task.rejected();
+				}
+				catch (Throwable t)
+				{
+					LOGGER.warn("notify sqlpad execution rejected error", t);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 通知队列中的执行其当前排队位置。
+	 */
+	protected void notifyQueuePositions()
+	{
+		List<SchedulableTask> queued;
+
+		synchronized (this._queue)
+		{
+			queued = new ArrayList<SchedulableTask>(this._queue);
+		}
+
+		for (int i = 0, len = queued.size(); i < len; i++)
+		{
+			try
+			{
+				queued.get(i).queuePositionChanged(i);
+			}
+			catch (Throwable t)
+			{
+				LOGGER.warn("notify sqlpad execution queue position error", t);
+			}
+		}
+	}
+
+	protected int getCount(Map<String, Integer> counts, String key)
+	{
+		Integer count = counts.get(key);
+		return (count == null ? 0 : count);
+	}
+
+	protected void addCount(Map<String, Integer> counts, String key, int delta)
+	{
+		int count = getCount(counts, key) + delta;
+
+		if (count <= 0)
+			counts.remove(key);
+		else
+			counts.put(key, count);
+	}
+
+	/**
+	 * 可调度的执行。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static interface SchedulableTask extends Runnable
+	{
+		/**
+		 * 获取所属用户ID。
+		 *
+		 * @return
+		 */
+		String getUserId();
+
+		/**
+		 * 获取所属数据源ID。
+		 *
+		 * @return
+		 */
+		String getSchemaId();
+
+		/**
+		 * 排队位置可能已改变。
+		 * <p>
+		 * 此方法可能在排队位置未改变时被重复调用。
+		 * </p>
+		 *
+		 * @param position
+		 *            前面的排队数，从{@code 0}开始
+		 */
+		void queuePositionChanged(int position);
+
+		/**
+		 * 已出队但无法执行（比如调度器已关闭），之后不会再被执行。
+		 */
+		void rejected();
+	}
+}
@@ -10,12 +10,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.cometd.bayeux.server.ServerChannel;
 import org.datagear.connection.ConnectionSource;
@@ -29,6 +30,8 @@ import org.datagear.persistence.support.SqlSelectResult;
 import org.datagear.util.JdbcUtil;
 import org.datagear.util.SqlScriptParser.SqlStatement;
 import org.datagear.web.controller.SqlpadController.SqlpadFileDirectory;
+import org.datagear.web.sqlpad.SqlpadExecutionScheduler.SchedulableTask;
+import org.datagear.web.util.TableNameIndexCache;
 import org.springframework.context.MessageSource;
 import org.springframework.context.NoSuchMessageException;
 
@@ -54,10 +57,20 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 	private SchemaConnectionSupport schemaConnectionSupport = new SchemaConnectionSupport();
 
-	private ExecutorService _executorService = Executors.newCachedThreadPool();
+	/** 表名索引缓存，执行DDL后清除，允许为{@code null} */
+	private TableNameIndexCache tableNameIndexCache = null;
+
+	/** 执行调度器，限制同时执行数 */
+	private SqlpadExecutionScheduler sqlpadExecutionScheduler = new SqlpadExecutionScheduler();
 
 	private ConcurrentMap<String, SqlpadExecutionRunnable> _sqlpadExecutionRunnableMap = new ConcurrentHashMap<>();
 
+	/** 正在暂停的执行数 */
+	private final AtomicInteger _pausedCount = new AtomicInteger(0);
+
+	/** 正在等待提交/回滚的执行数 */
+	private final AtomicInteger _waitingForCommitCount = new AtomicInteger(0);
+
 	public SqlpadExecutionService()
 	{
 		super();
@@ -145,6 +158,26 @@ public class SqlpadExecutionService extends PersistenceSupport
 		this.schemaConnectionSupport = schemaConnectionSupport;
 	}
 
+	public TableNameIndexCache getTableNameIndexCache()
+	{
+		return tableNameIndexCache;
+	}
+
+	public void setTableNameIndexCache(TableNameIndexCache tableNameIndexCache)
+	{
+		this.tableNameIndexCache = tableNameIndexCache;
+	}
+
+	public SqlpadExecutionScheduler getSqlpadExecutionScheduler()
+	{
+		return sqlpadExecutionScheduler;
+	}
+
+	public void setSqlpadExecutionScheduler(SqlpadExecutionScheduler sqlpadExecutionScheduler)
+	{
+		this.sqlpadExecutionScheduler = sqlpadExecutionScheduler;
+	}
+
 	/**
 	 * 提交SQL执行。
 	 * 
@@ -166,7 +199,13 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 		sqlpadExecutionRunnable.init();
 
-		this._executorService.submit(sqlpadExecutionRunnable);
+		if (!this.sqlpadExecutionScheduler.submit(sqlpadExecutionRunnable))
+		{
+			this._sqlpadExecutionRunnableMap.remove(submit.getSqlpadId());
+			sqlpadExecutionRunnable.sendRejectedMessage();
+
+			return false;
+		}
 
 		return true;
 	}
@@ -185,17 +224,47 @@ public class SqlpadExecutionService extends PersistenceSupport
 		if (sqlpadExecutionRunnable == null)
 			return false;
 
+		// 还在排队的执行直接取消
+		if (SqlCommand.STOP.equals(sqlCommand) && this.sqlpadExecutionScheduler.remove(sqlpadExecutionRunnable))
+		{
+			this._sqlpadExecutionRunnableMap.remove(sqlpadId);
+			sqlpadExecutionRunnable.sendCancelledMessage();
+
+			return true;
+		}
+
 		sqlpadExecutionRunnable.setSqlCommand(sqlCommand);
 
 		return true;
 	}
 
+	/**
+	 * 获取执行统计指标。
+	 * <p>
+	 * 包括：{@code queued}排队数、{@code running}正在执行数（包括暂停和等待提交/回滚的）、{@code paused}正在暂停的执行数、
+	 * {@code waitingForCommit}正在等待提交/回滚的执行数。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public Map<String, Integer> getExecutionMetrics()
+	{
+		Map<String, Integer> metrics = new LinkedHashMap<>();
+
+		metrics.put("queued", this.sqlpadExecutionScheduler.getQueuedCount());
+		metrics.put("running", this.sqlpadExecutionScheduler.getRunningCount());
+		metrics.put("paused", this._pausedCount.get());
+		metrics.put("waitingForCommit", this._waitingForCommitCount.get());
+
+		return metrics;
+	}
+
 	/**
 	 * 关闭。
 	 */
 	public void shutdown()
 	{
-		this._executorService.shutdown();
+		this.sqlpadExecutionScheduler.shutdown();
 	}
 
 	/**
@@ -221,6 +290,31 @@ public class SqlpadExecutionService extends PersistenceSupport
 		return this.schemaConnectionSupport.getSchemaConnection(this.connectionSource, schema);
 	}
 
+	/**
+	 * 是否是可能变更表名的DDL语句。
+	 * 
+	 * @param sql
+	 * @return
+	 */
+	protected boolean isTableNameChangeSql(String sql)
+	{
+		String sqlAction = this.sqlPermissionChecker.resolveSqlAction(sql);
+
+		return ("CREATE".equalsIgnoreCase(sqlAction) || "DROP".equalsIgnoreCase(sqlAction)
+				|| "ALTER".equalsIgnoreCase(sqlAction) || "RENAME".equalsIgnoreCase(sqlAction));
+	}
+
+	/**
+	 * 清除指定{@linkplain Schema}的表名索引。
+	 * 
+	 * @param schema
+	 */
+	protected void invalidateTableNameIndex(Schema schema)
+	{
+		if (this.tableNameIndexCache != null)
+			this.tableNameIndexCache.invalidate(schema.getId());
+	}
+
 	/**
 	 * 获取I18N消息内容。
 	 * <p>
@@ -250,7 +344,7 @@ public class SqlpadExecutionService extends PersistenceSupport
 	 * @author datagear@163.com
 	 *
 	 */
-	protected class SqlpadExecutionRunnable extends SqlpadExecutionSubmit implements Runnable
+	protected class SqlpadExecutionRunnable extends SqlpadExecutionSubmit implements SchedulableTask
 	{
 		private String sqlpadChannelId;
 
@@ -259,6 +353,15 @@ public class SqlpadExecutionService extends PersistenceSupport
 		/** 发送给此Runnable的SQL命令 */
 		private volatile SqlCommand sqlCommand;
 
+		/** SQL命令等待锁，收到新命令时将唤醒等待线程 */
+		private final Object _sqlCommandLock = new Object();
+
+		/** 收到的SQL命令序号，用于判断等待期间是否收到新命令 */
+		private long _sqlCommandVersion = 0;
+
+		/** 上次通知的排队位置 */
+		private volatile int _queuePosition = -1;
+
 		private ServerChannel _sqlpadServerChannel;
 
 		public SqlpadExecutionRunnable()
@@ -301,7 +404,13 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 		public void setSqlCommand(SqlCommand sqlCommand)
 		{
-			this.sqlCommand = sqlCommand;
+			synchronized (this._sqlCommandLock)
+			{
+				this.sqlCommand = sqlCommand;
+				this._sqlCommandVersion++;
+
+				this._sqlCommandLock.notifyAll();
+			}
 		}
 
 		/**
@@ -315,6 +424,58 @@ public class SqlpadExecutionService extends PersistenceSupport
 			this._sqlpadServerChannel = this.sqlpadCometdService.getChannelWithCreation(this.sqlpadChannelId);
 		}
 
+		@Override
+		public String getUserId()
+		{
+			return getUser().getId();
+		}
+
+		@Override
+		public String getSchemaId()
+		{
+			return getSchema().getId();
+		}
+
+		@Override
+		public void queuePositionChanged(int position)
+		{
+			if (position == this._queuePosition)
+				return;
+
+			this._queuePosition = position;
+
+			this.sqlpadCometdService.sendTextMessage(this._sqlpadServerChannel,
+					getMessage(getLocale(), "sqlpad.executionQueued", position));
+		}
+
+		@Override
+		public void rejected()
+		{
+			_sqlpadExecutionRunnableMap.remove(getSqlpadId(), this);
+			sendRejectedMessage();
+		}
+
+		/**
+		 * 发送排队已满、拒绝执行消息。
+		 */
+		public void sendRejectedMessage()
+		{
+			this.sqlpadCometdService.sendExceptionMessage(this._sqlpadServerChannel,
+					getMessage(getLocale(), "sqlpad.executionRejected"));
+
+			this.sqlpadCometdService.sendFinishMessage(this._sqlpadServerChannel);
+		}
+
+		/**
+		 * 发送排队时已取消消息。
+		 */
+		public void sendCancelledMessage()
+		{
+			sendSqlCommandMessage(SqlCommand.STOP);
+
+			this.sqlpadCometdService.sendFinishMessage(this._sqlpadServerChannel);
+		}
+
 		@Override
 		public void run()
 		{
@@ -454,11 +615,20 @@ public class SqlpadExecutionService extends PersistenceSupport
 				if (sendMessageIfPause)
 					sendSqlCommandMessage(this.sqlCommand, getOverTimeThreashold());
 
-				long waitStartTime = System.currentTimeMillis();
+				long waitDeadline = getWaitDeadline();
+				long version = getSqlCommandVersion();
+
+				_pausedCount.incrementAndGet();
 
-				while (SqlCommand.PAUSE.equals(this.sqlCommand)
-						&& (System.currentTimeMillis() - waitStartTime) <= getOverTimeThreashold() * 60 * 1000)
-					sleepForSqlCommand();
+				try
+				{
+					while (SqlCommand.PAUSE.equals(this.sqlCommand) && waitForSqlCommand(version, waitDeadline))
+						version = getSqlCommandVersion();
+				}
+				finally
+				{
+					_pausedCount.decrementAndGet();
+				}
 
 				// 暂停超时
 				if (SqlCommand.PAUSE.equals(this.sqlCommand))
@@ -528,21 +698,34 @@ public class SqlpadExecutionService extends PersistenceSupport
 		{
 			boolean sendWatingMessage = false;
 
-			long waitStartTime = System.currentTimeMillis();
+			long waitDeadline = getWaitDeadline();
+			long version = getSqlCommandVersion();
 
-			while (!SqlCommand.COMMIT.equals(this.sqlCommand) && !SqlCommand.ROLLBACK.equals(this.sqlCommand)
-					&& (System.currentTimeMillis() - waitStartTime) <= getOverTimeThreashold() * 60 * 1000)
+			_waitingForCommitCount.incrementAndGet();
+
+			try
 			{
-				if (!sendWatingMessage)
+				while (!SqlCommand.COMMIT.equals(this.sqlCommand) && !SqlCommand.ROLLBACK.equals(this.sqlCommand))
 				{
-					this.sqlpadCometdService.sendTextMessage(this._sqlpadServerChannel,
-							getMessage(getLocale(), "sqlpad.waitingForCommitOrRollback", getOverTimeThreashold()),
-							"message-content-highlight", sqlExecutionStat);
+					if (!sendWatingMessage)
+					{
+						this.sqlpadCometdService.sendTextMessage(this._sqlpadServerChannel,
+								getMessage(getLocale(), "sqlpad.waitingForCommitOrRollback",
+										getOverTimeThreashold()),
+								"message-content-highlight", sqlExecutionStat);
 
-					sendWatingMessage = true;
-				}
+						sendWatingMessage = true;
+					}
 
-				sleepForSqlCommand();
+					if (!waitForSqlCommand(version, waitDeadline))
+						break;
+
+					version = getSqlCommandVersion();
+				}
+			}
+			finally
+			{
+				_waitingForCommitCount.decrementAndGet();
 			}
 
 			// 等待超时
@@ -608,6 +791,9 @@ public class SqlpadExecutionService extends PersistenceSupport
 			}
 			else
 			{
+				if (SqlpadExecutionService.this.isTableNameChangeSql(sql))
+					SqlpadExecutionService.this.invalidateTableNameIndex(getSchema());
+
 				int updateCount = st.getUpdateCount();
 
 				// 更新操作
@@ -658,13 +844,57 @@ public class SqlpadExecutionService extends PersistenceSupport
 		}
 
 		/**
-		 * 睡眠等待SQL命令。
+		 * 获取当前的SQL命令序号。
+		 * 
+		 * @return
+		 */
+		protected long getSqlCommandVersion()
+		{
+			synchronized (this._sqlCommandLock)
+			{
+				return this._sqlCommandVersion;
+			}
+		}
+
+		/**
+		 * 获取从现在开始等待{@linkplain #getOverTimeThreashold()}分钟的截止时间。
 		 * 
+		 * @return
+		 */
+		protected long getWaitDeadline()
+		{
+			return System.currentTimeMillis() + getOverTimeThreashold() * 60L * 1000L;
+		}
+
+		/**
+		 * 阻塞等待新的SQL命令，直到收到序号不同于{@code version}的命令或者到达截止时间。
+		 * <p>
+		 * 等待期间不占用CPU，{@linkplain #setSqlCommand(SqlCommand)}将立即唤醒等待线程。
+		 * </p>
+		 * 
+		 * @param version
+		 *            等待前的{@linkplain #getSqlCommandVersion()}
+		 * @param deadline
+		 *            截止时间毫秒数
+		 * @return true 收到新命令；false 已到达截止时间
 		 * @throws InterruptedException
 		 */
-		protected void sleepForSqlCommand() throws InterruptedException
+		protected boolean waitForSqlCommand(long version, long deadline) throws InterruptedException
 		{
-			Thread.sleep(10);
+			synchronized (this._sqlCommandLock)
+			{
+				while (this._sqlCommandVersion == version)
+				{
+					long remain = deadline - System.currentTimeMillis();
+
+					if (remain <= 0)
+						return false;
+
+					this._sqlCommandLock.wait(remain);
+				}
+
+				return true;
+			}
 		}
 	}
 
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.datagear.util.FileUtil;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 看板快照管理器。
+ * <p>
+ * 看板快照是某次渲染得到的看板HTML及其所有图表的数据JSON，它们以文件形式存储在{@linkplain #getRootDirectory()}的看板ID子目录下，
+ * 写入时先写临时文件再整体替换，不会被原地修改，并以内容摘要作为ETag。
+ * </p>
+ * <p>
+ * 快照元信息仅保存在内存中，应用重启后将在首次访问时重新生成。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DashboardSnapshotManager
+{
+	public static final String HTML_FILE_EXTENSION = ".html";
+
+	public static final String DATA_FILE_EXTENSION = ".json";
+
+	private File rootDirectory;
+
+	/** 快照标识 -> 快照 */
+	private final Map<String, DashboardSnapshot> snapshots = new ConcurrentHashMap<>();
+
+	/** 正在生成的快照标识 */
+	private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+	public DashboardSnapshotManager()
+	{
+		super();
+	}
+
+	public DashboardSnapshotManager(File rootDirectory)
+	{
+		super();
+		this.rootDirectory = rootDirectory;
+	}
+
+	public File getRootDirectory()
+	{
+		return rootDirectory;
+	}
+
+	public void setRootDirectory(File rootDirectory)
+	{
+		this.rootDirectory = rootDirectory;
+	}
+
+	/**
+	 * 构建快照标识。
+	 *
+	 * @param dashboardId
+	 * @param template
+	 * @param variant
+	 *            区分同一模板不同渲染结果的变量，比如渲染风格
+	 * @return
+	 */
+	public String buildKey(String dashboardId, String template, String variant)
+	{
+		String str = dashboardId + "\n" + template + "\n" + variant;
+
+		return dashboardId + "-" + DigestUtils.md5DigestAsHex(toBytes(str));
+	}
+
+	/**
+	 * 获取快照，没有则返回{@code null}。
+	 *
+	 * @param key
+	 * @return
+	 */
+	public DashboardSnapshot get(String key)
+	{
+		if (key == null)
+			return null;
+
+		DashboardSnapshot snapshot = this.snapshots.get(key);
+
+		if (snapshot != null && (!snapshot.getHtmlFile().exists() || !snapshot.getDataFile().exists()))
+		{
+			this.snapshots.remove(key, snapshot);
+			snapshot = null;
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * 开始生成快照。
+	 * <p>
+	 * 同一快照同时只允许一个生成者，返回{@code true}的调用者在生成完成后必须调用{@linkplain #endRefresh(String)}。
+	 * </p>
+	 *
+	 * @param key
+	 * @return 是否获得生成权
+	 */
+	public boolean startRefresh(String key)
+	{
+		return this.refreshingKeys.add(key);
+	}
+
+	/**
+	 * 结束生成快照。
+	 *
+	 * @param key
+	 */
+	public void endRefresh(String key)
+	{
+		this.refreshingKeys.remove(key);
+	}
+
+	/**
+	 * 保存快照。
+	 *
+	 * @param key
+	 * @param dashboardId
+	 * @param templateLastModified
+	 *            快照对应的模板文件最后修改时间
+	 * @param html
+	 * @param htmlEncoding
+	 * @param data
+	 *            数据JSON，UTF-8编码
+	 * @return
+	 * @throws IOException
+	 */
+	public DashboardSnapshot save(String key, String dashboardId, long templateLastModified, byte[] html,
+			String htmlEncoding, byte[] data) throws IOException
+	{
+		File directory = FileUtil.getDirectory(this.rootDirectory, dashboardId);
+
+		File htmlFile = FileUtil.getFile(directory, key + HTML_FILE_EXTENSION);
+		File dataFile = FileUtil.getFile(directory, key + DATA_FILE_EXTENSION);
+
+		write(htmlFile, html);
+		write(dataFile, data);
+
+		DashboardSnapshot snapshot = new DashboardSnapshot(key, dashboardId, templateLastModified,
+				System.currentTimeMillis(), htmlFile, htmlEncoding, DigestUtils.md5DigestAsHex(html), dataFile,
+				DigestUtils.md5DigestAsHex(data));
+
+		this.snapshots.put(key, snapshot);
+
+		return snapshot;
+	}
+
+	/**
+	 * 删除看板的所有快照。
+	 *
+	 * @param dashboardId
+	 */
+	public void delete(String dashboardId)
+	{
+		Set<String> keys = new HashSet<>();
+
+		for (DashboardSnapshot snapshot : this.snapshots.values())
+		{
+			if (snapshot.getDashboardId().equals(dashboardId))
+				keys.add(snapshot.getKey());
+		}
+
+		for (String key : keys)
+			this.snapshots.remove(key);
+
+		File directory = FileUtil.getDirectory(this.rootDirectory, dashboardId, false);
+		FileUtil.deleteFile(directory);
+	}
+
+	/**
+	 * 以先写临时文件、再替换的方式写入文件，保证读取方不会读到不完整的内容。
+	 *
+	 * @param file
+	 * @param content
+	 * @throws IOException
+	 */
+	protected void write(File file, byte[] content) throws IOException
+	{
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp-" + Thread.currentThread().getId());
+
+		Files.write(tmpFile.toPath(), content);
+
+		try
+		{
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	protected byte[] toBytes(String str)
+	{
+		try
+		{
+			return str.getBytes("UTF-8");
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 看板快照。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class DashboardSnapshot
+	{
+		private final String key;
+
+		private final String dashboardId;
+
+		/** 快照对应的模板文件最后修改时间 */
+		private final long templateLastModified;
+
+		/** 生成时间 */
+		private final long createTime;
+
+		private final File htmlFile;
+
+		private final String htmlEncoding;
+
+		private final String htmlETag;
+
+		private final File dataFile;
+
+		private final String dataETag;
+
+		public DashboardSnapshot(String key, String dashboardId, long templateLastModified, long createTime,
+				File htmlFile, String htmlEncoding, String htmlETag, File dataFile, String dataETag)
+		{
+			super();
+			this.key = key;
+			this.dashboardId = dashboardId;
+			this.templateLastModified = templateLastModified;
+			this.createTime = createTime;
+			this.htmlFile = htmlFile;
+			this.htmlEncoding = htmlEncoding;
+			this.htmlETag = htmlETag;
+			this.dataFile = dataFile;
+			this.dataETag = dataETag;
+		}
+
+		public String getKey()
+		{
+			return key;
+		}
+
+		public String getDashboardId()
+		{
+			return dashboardId;
+		}
+
+		public long getTemplateLastModified()
+		{
+			return templateLastModified;
+		}
+
+		public long getCreateTime()
+		{
+			return createTime;
+		}
+
+		public File getHtmlFile()
+		{
+			return htmlFile;
+		}
+
+		public String getHtmlEncoding()
+		{
+			return htmlEncoding;
+		}
+
+		public String getHtmlETag()
+		{
+			return htmlETag;
+		}
+
+		public File getDataFile()
+		{
+			return dataFile;
+		}
+
+		public String getDataETag()
+		{
+			return dataETag;
+		}
+
+		/**
+		 * 快照是否已过期。
+		 *
+		 * @param templateLastModified
+		 *            当前模板文件最后修改时间
+		 * @param intervalMinutes
+		 *            快照更新间隔分钟数
+		 * @return
+		 */
+		public boolean isExpired(long templateLastModified, int intervalMinutes)
+		{
+			if (this.templateLastModified != templateLastModified)
+				return true;
+
+			return (System.currentTimeMillis() - this.createTime) >= intervalMinutes * 60L * 1000L;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.datagear.analysis.ChartTheme;
+import org.datagear.analysis.DashboardTheme;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 看板主题样式缓存。
+ * <p>
+ * {@linkplain DashboardTheme}是由{@linkplain org.datagear.analysis.DashboardThemeSource}提供的有限集合，
+ * 此类将每个{@linkplain DashboardTheme}的样式表仅编译一次，并以其内容摘要作为标识缓存，
+ * 使得展示看板时可以引用带摘要的样式表地址，从而让浏览器长期缓存。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DashboardThemeStyleCache
+{
+	public static final String STYLE_ENCODING = "UTF-8";
+
+	/** 主题 -> 样式 */
+	private final Map<DashboardTheme, DashboardThemeStyle> themeStyles = new ConcurrentHashMap<>();
+
+	/** 样式标识 -> 样式 */
+	private final Map<String, DashboardThemeStyle> keyStyles = new ConcurrentHashMap<>();
+
+	public DashboardThemeStyleCache()
+	{
+		super();
+	}
+
+	/**
+	 * 获取{@linkplain DashboardTheme}的样式。
+	 *
+	 * @param dashboardTheme
+	 *            允许为{@code null}
+	 * @return
+	 */
+	public DashboardThemeStyle get(DashboardTheme dashboardTheme)
+	{
+		if (dashboardTheme == null)
+			return compile(null);
+
+		DashboardThemeStyle style = this.themeStyles.get(dashboardTheme);
+
+		if (style == null)
+		{
+			style = compile(dashboardTheme);
+
+			// 相同内容的主题共享同一样式对象
+			DashboardThemeStyle old = this.keyStyles.putIfAbsent(style.getKey(), style);
+			if (old != null)
+				style = old;
+
+			this.themeStyles.put(dashboardTheme, style);
+		}
+
+		return style;
+	}
+
+	/**
+	 * 获取指定标识的样式，没有则返回{@code null}。
+	 *
+	 * @param key
+	 *            允许为{@code null}
+	 * @return
+	 */
+	public DashboardThemeStyle get(String key)
+	{
+		if (key == null)
+			return null;
+
+		return this.keyStyles.get(key);
+	}
+
+	/**
+	 * 编译样式。
+	 *
+	 * @param dashboardTheme
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected DashboardThemeStyle compile(DashboardTheme dashboardTheme)
+	{
+		String css = buildStyle(dashboardTheme);
+
+		byte[] bytes = null;
+
+		try
+		{
+			bytes = css.getBytes(STYLE_ENCODING);
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+
+		return new DashboardThemeStyle(DigestUtils.md5DigestAsHex(bytes), bytes);
+	}
+
+	/**
+	 * 构建样式表。
+	 *
+	 * @param dashboardTheme
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected String buildStyle(DashboardTheme dashboardTheme)
+	{
+		StringBuilder style = new StringBuilder();
+		ChartTheme chartTheme = (dashboardTheme == null ? null : dashboardTheme.getChartTheme());
+
+		if (chartTheme != null)
+		{
+			// 表格行
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody tr{\n");
+			style.append("background:" + chartTheme.getBackgroundColor() + ";\n");
+			style.append("}\n");
+
+			// 表格奇数行
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody tr.odd,\n"
+					+ " .dg-chart-table .dg-chart-table-content table.dataTable.display tbody tr.odd{\n");
+			style.append("background:" + chartTheme.getBorderColor() + ";\n");
+			style.append("}\n");
+
+			// 表格选中、悬浮，拷贝自/src/main/resources/org/datagear/web/webapp/static/theme/lightness/common.css
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr.hover,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr:hover,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.display tbody tr:hover {\n");
+			style.append("	background-color: " + chartTheme.getAxisScaleLineColor() + ";\n");
+			style.append("}\n");
+
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody tr.hover.selected,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody > tr.selected,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable tbody > tr > .selected,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody > tr.odd.selected,\n");
+			style.append(
+					".dg-chart-table .dg-chart-table-content table.dataTable.stripe tbody > tr.odd > .selected,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.odd.selected,\n");
+			style.append(
+					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.odd > .selected,\n");
+			style.append(".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody > tr.selected:hover,\n");
+			style.append(
+					".dg-chart-table .dg-chart-table-content table.dataTable.hover tbody > tr > .selected:hover,\n");
+			style.append(
+					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr.selected:hover,\n");
+			style.append(
+					".dg-chart-table .dg-chart-table-content table.dataTable.display tbody > tr > .selected:hover {\n");
+			style.append("	background-color: " + chartTheme.getHighlightTheme().getBackgroundColor() + ";\n");
+			style.append("	color: " + chartTheme.getHighlightTheme().getColor() + ";\n");
+			style.append("}\n");
+		}
+
+		return style.toString();
+	}
+
+	/**
+	 * 编译后的看板主题样式。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class DashboardThemeStyle
+	{
+		/** 样式内容摘要 */
+		private final String key;
+
+		/** 样式内容 */
+		private final byte[] content;
+
+		public DashboardThemeStyle(String key, byte[] content)
+		{
+			super();
+			this.key = key;
+			this.content = content;
+		}
+
+		public String getKey()
+		{
+			return key;
+		}
+
+		public byte[] getContent()
+		{
+			return content;
+		}
+	}
+}
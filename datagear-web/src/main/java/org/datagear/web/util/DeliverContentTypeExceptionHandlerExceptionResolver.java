@@ -7,6 +7,7 @@ package org.datagear.web.util;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.datagear.util.JdbcExecutionContext;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.ModelAndView;
@@ -32,6 +33,11 @@ public class DeliverContentTypeExceptionHandlerExceptionResolver extends Excepti
 	protected ModelAndView doResolveHandlerMethodException(HttpServletRequest request, HttpServletResponse response,
 			HandlerMethod handlerMethod, Exception exception)
 	{
+		JdbcExecutionContext jdbcExecutionContext = JdbcExecutionContext.get();
+
+		if (jdbcExecutionContext != null)
+			jdbcExecutionContext.handleThrowable(exception);
+
 		String contentType = response.getContentType();
 
 		if (contentType == null || contentType.isEmpty())
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.datagear.util.JdbcExecutionContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * {@linkplain JdbcExecutionContext}拦截器。
+ * <p>
+ * 它为每个请求绑定一个超时时间为{@linkplain #getTimeoutSeconds()}的{@linkplain JdbcExecutionContext}，并以控制器方法作为统计名称。
+ * </p>
+ * <p>
+ * 对于忽略{@linkplain java.sql.Statement#setQueryTimeout(int)}的驱动程序，它会在截止时间后再等待{@linkplain #getCancelGraceSeconds()}秒，
+ * 然后主动调用{@linkplain JdbcExecutionContext#cancelForTimeout()}取消仍在执行的语句。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class JdbcExecutionContextInterceptor extends HandlerInterceptorAdapter
+{
+	protected static final String KEY_CANCEL_FUTURE = JdbcExecutionContextInterceptor.class.getName()
+			+ ".cancelFuture";
+
+	/** 超时秒数，小于等于0表示不限 */
+	private int timeoutSeconds = 0;
+
+	/** 超时后主动取消前的等待秒数 */
+	private int cancelGraceSeconds = 5;
+
+	private ScheduledExecutorService cancelExecutor = null;
+
+	public JdbcExecutionContextInterceptor()
+	{
+		super();
+	}
+
+	public int getTimeoutSeconds()
+	{
+		return timeoutSeconds;
+	}
+
+	public void setTimeoutSeconds(int timeoutSeconds)
+	{
+		this.timeoutSeconds = timeoutSeconds;
+	}
+
+	public int getCancelGraceSeconds()
+	{
+		return cancelGraceSeconds;
+	}
+
+	public void setCancelGraceSeconds(int cancelGraceSeconds)
+	{
+		this.cancelGraceSeconds = cancelGraceSeconds;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		if (this.timeoutSeconds > 0 && this.cancelExecutor == null)
+		{
+			this.cancelExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "JdbcExecutionContextCanceller");
+					thread.setDaemon(true);
+
+					return thread;
+				}
+			});
+		}
+	}
+
+	/**
+	 * 销毁。
+	 */
+	public void destroy()
+	{
+		if (this.cancelExecutor != null)
+		{
+			this.cancelExecutor.shutdownNow();
+			this.cancelExecutor = null;
+		}
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws Exception
+	{
+		final JdbcExecutionContext context = new JdbcExecutionContext(getContextName(request, handler),
+				this.timeoutSeconds);
+
+		JdbcExecutionContext.set(context);
+
+		if (context.hasDeadline() && this.cancelExecutor != null)
+		{
+			ScheduledFuture<?> future = this.cancelExecutor.schedule(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					context.cancelForTimeout();
+				}
+			}, this.timeoutSeconds + this.cancelGraceSeconds, TimeUnit.SECONDS);
+
+			request.setAttribute(KEY_CANCEL_FUTURE, future);
+		}
+
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) throws Exception
+	{
+		ScheduledFuture<?> future = (ScheduledFuture<?>) request.getAttribute(KEY_CANCEL_FUTURE);
+
+		if (future != null)
+		{
+			future.cancel(false);
+			request.removeAttribute(KEY_CANCEL_FUTURE);
+		}
+
+		JdbcExecutionContext context = JdbcExecutionContext.get();
+
+		if (context != null && ex != null)
+			context.handleThrowable(ex);
+
+		JdbcExecutionContext.remove();
+	}
+
+	/**
+	 * 获取上下文统计名称。
+	 *
+	 * @param request
+	 * @param handler
+	 * @return
+	 */
+	protected String getContextName(HttpServletRequest request, Object handler)
+	{
+		if (handler instanceof HandlerMethod)
+		{
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+		}
+
+		return request.getServletPath();
+	}
+}
@@ -0,0 +1,501 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.datagear.connection.ConnectionSource;
+import org.datagear.management.domain.Schema;
+import org.datagear.management.domain.SchemaConnectionFactory;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.util.JdbcExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 多{@linkplain Schema}并行元信息解析器。
+ * <p>
+ * 它使用最多{@linkplain #getMaxThreads()}个线程并行地对多个{@linkplain Schema}执行{@linkplain SchemaMetaTask}，
+ * 同一{@linkplain Schema}同时最多打开{@linkplain #getSchemaConnectionLimit()}个连接，
+ * 所有任务共享{@linkplain #getTimeoutSeconds()}秒的截止时间，超时的任务将被取消。
+ * </p>
+ * <p>
+ * 每个{@linkplain Schema}都有对应的{@linkplain SchemaMetaResult}，某些{@linkplain Schema}失败或者超时不影响其他结果。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class ParallelSchemaMetaResolver
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelSchemaMetaResolver.class);
+
+	private ConnectionSource connectionSource;
+
+	private DBMetaResolver dbMetaResolver;
+
+	/** 最大线程数 */
+	private int maxThreads = 8;
+
+	/** 等待队列容量，超过时新任务将失败 */
+	private int queueCapacity = 200;
+
+	/** 同一Schema的最大并发连接数 */
+	private int schemaConnectionLimit = 2;
+
+	/** 超时秒数 */
+	private int timeoutSeconds = 30;
+
+	/** {@linkplain Schema} ID -> 连接许可 */
+	private final ConcurrentHashMap<String, Semaphore> _schemaSemaphores = new ConcurrentHashMap<>();
+
+	private ThreadPoolExecutor _executor = null;
+
+	public ParallelSchemaMetaResolver()
+	{
+		super();
+	}
+
+	public ParallelSchemaMetaResolver(ConnectionSource connectionSource, DBMetaResolver dbMetaResolver)
+	{
+		super();
+		this.connectionSource = connectionSource;
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public ConnectionSource getConnectionSource()
+	{
+		return connectionSource;
+	}
+
+	public void setConnectionSource(ConnectionSource connectionSource)
+	{
+		this.connectionSource = connectionSource;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public int getMaxThreads()
+	{
+		return maxThreads;
+	}
+
+	public void setMaxThreads(int maxThreads)
+	{
+		this.maxThreads = maxThreads;
+	}
+
+	public int getQueueCapacity()
+	{
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity)
+	{
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getSchemaConnectionLimit()
+	{
+		return schemaConnectionLimit;
+	}
+
+	public void setSchemaConnectionLimit(int schemaConnectionLimit)
+	{
+		this.schemaConnectionLimit = schemaConnectionLimit;
+	}
+
+	public int getTimeoutSeconds()
+	{
+		return timeoutSeconds;
+	}
+
+	public void setTimeoutSeconds(int timeoutSeconds)
+	{
+		this.timeoutSeconds = timeoutSeconds;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		final AtomicInteger threadCount = new AtomicInteger(0);
+
+		this._executor = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(this.queueCapacity), new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(Runnable r)
+					{
+						Thread thread = new Thread(r, "ParallelSchemaMetaResolver-" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+
+						return thread;
+					}
+				});
+
+		this._executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * 销毁。
+	 */
+	public void destroy()
+	{
+		if (this._executor != null)
+			this._executor.shutdownNow();
+	}
+
+	/**
+	 * 并行解析。
+	 *
+	 * @param schemas
+	 * @param task
+	 * @return 与{@code schemas}一一对应的结果
+	 */
+	public <T> List<SchemaMetaResult<T>> resolve(List<Schema> schemas, SchemaMetaTask<T> task)
+	{
+		final long deadline = System.currentTimeMillis() + this.timeoutSeconds * 1000L;
+
+		List<Future<SchemaMetaResult<T>>> futures = new ArrayList<>(schemas.size());
+		List<JdbcExecutionContext> contexts = new ArrayList<>(schemas.size());
+		List<SchemaMetaResult<T>> results = new ArrayList<>(schemas.size());
+
+		for (Schema schema : schemas)
+		{
+			JdbcExecutionContext context = new JdbcExecutionContext(
+					ParallelSchemaMetaResolver.class.getSimpleName(), this.timeoutSeconds);
+
+			Future<SchemaMetaResult<T>> future = null;
+
+			try
+			{
+				future = this._executor.submit(new SchemaMetaCallable<T>(schema, task, context, deadline));
+			}
+			catch (RejectedExecutionException e)
+			{
+				future = null;
+			}
+
+			futures.add(future);
+			contexts.add(context);
+		}
+
+		for (int i = 0; i < schemas.size(); i++)
+		{
+			Schema schema = schemas.get(i);
+			Future<SchemaMetaResult<T>> future = futures.get(i);
+			SchemaMetaResult<T> result = null;
+
+			if (future == null)
+			{
+				result = new SchemaMetaResult<T>(schema);
+				result.setErrorMessage("Too many tasks");
+			}
+			else
+			{
+				try
+				{
+					result = future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException e)
+				{
+					contexts.get(i).cancelForTimeout();
+					future.cancel(true);
+
+					result = new SchemaMetaResult<T>(schema);
+					result.setTimeout(true);
+					result.setErrorMessage("Timeout");
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+
+					contexts.get(i).cancel();
+					future.cancel(true);
+
+					result = new SchemaMetaResult<T>(schema);
+					result.setErrorMessage("Interrupted");
+				}
+				catch (ExecutionException e)
+				{
+					result = new SchemaMetaResult<T>(schema);
+					result.setErrorMessage(getErrorMessage(e.getCause()));
+				}
+			}
+
+			results.add(result);
+		}
+
+		return results;
+	}
+
+	protected <T> SchemaMetaResult<T> doResolve(Schema schema, SchemaMetaTask<T> task, JdbcExecutionContext context,
+			long deadline)
+	{
+		long startTime = System.currentTimeMillis();
+
+		SchemaMetaResult<T> result = new SchemaMetaResult<T>(schema);
+
+		Semaphore semaphore = getSchemaSemaphore(schema.getId());
+		boolean acquired = false;
+
+		SchemaConnectionFactory connectionFactory = new SchemaConnectionFactory(this.connectionSource, schema);
+		Connection cn = null;
+
+		JdbcExecutionContext.set(context);
+
+		try
+		{
+			acquired = semaphore.tryAcquire(Math.max(deadline - startTime, 0), TimeUnit.MILLISECONDS);
+
+			if (!acquired)
+			{
+				result.setTimeout(true);
+				result.setErrorMessage("Timeout");
+			}
+			else
+			{
+				cn = connectionFactory.get();
+				result.setValue(task.resolve(schema, cn, this.dbMetaResolver));
+			}
+		}
+		catch (Throwable t)
+		{
+			if (context.handleThrowable(t))
+				result.setTimeout(true);
+
+			result.setErrorMessage(getErrorMessage(t));
+
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("resolve meta for schema [" + schema.getId() + "] error", t);
+		}
+		finally
+		{
+			if (cn != null)
+			{
+				try
+				{
+					connectionFactory.release(cn);
+				}
+				catch (Throwable t)
+				{
+				}
+			}
+
+			if (acquired)
+				semaphore.release();
+
+			JdbcExecutionContext.remove();
+		}
+
+		result.setDuration(System.currentTimeMillis() - startTime);
+
+		return result;
+	}
+
+	protected Semaphore getSchemaSemaphore(String schemaId)
+	{
+		Semaphore semaphore = this._schemaSemaphores.get(schemaId);
+
+		if (semaphore == null)
+		{
+			semaphore = new Semaphore(this.schemaConnectionLimit);
+			Semaphore old = this._schemaSemaphores.putIfAbsent(schemaId, semaphore);
+
+			if (old != null)
+				semaphore = old;
+		}
+
+		return semaphore;
+	}
+
+	protected String getErrorMessage(Throwable t)
+	{
+		if (t == null)
+			return "";
+
+		String message = t.getMessage();
+
+		return (message == null || message.isEmpty() ? t.getClass().getSimpleName() : message);
+	}
+
+	protected class SchemaMetaCallable<T> implements Callable<SchemaMetaResult<T>>
+	{
+		private final Schema schema;
+
+		private final SchemaMetaTask<T> task;
+
+		private final JdbcExecutionContext context;
+
+		private final long deadline;
+
+		public SchemaMetaCallable(Schema schema, SchemaMetaTask<T> task, JdbcExecutionContext context,
+				long deadline)
+		{
+			super();
+			this.schema = schema;
+			this.task = task;
+			this.context = context;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public SchemaMetaResult<T> call() throws Exception
+		{
+			return doResolve(this.schema, this.task, this.context, this.deadline);
+		}
+	}
+
+	/**
+	 * {@linkplain Schema}元信息任务。
+	 *
+	 * @author datagear@163.com
+	 *
+	 * @param <T>
+	 */
+	public static interface SchemaMetaTask<T>
+	{
+		/**
+		 * 解析。
+		 * <p>
+		 * 此方法在工作线程中执行，不应关闭{@code cn}。
+		 * </p>
+		 *
+		 * @param schema
+		 * @param cn
+		 * @param dbMetaResolver
+		 * @return
+		 * @throws Throwable
+		 */
+		T resolve(Schema schema, Connection cn, DBMetaResolver dbMetaResolver) throws Throwable;
+	}
+
+	/**
+	 * {@linkplain Schema}元信息结果。
+	 *
+	 * @author datagear@163.com
+	 *
+	 * @param <T>
+	 */
+	public static class SchemaMetaResult<T>
+	{
+		private String schemaId;
+
+		private String schemaTitle;
+
+		/** 结果值，失败时为{@code null} */
+		private T value = null;
+
+		/** 错误信息，成功时为{@code null} */
+		private String errorMessage = null;
+
+		/** 是否超时 */
+		private boolean timeout = false;
+
+		/** 耗时毫秒数 */
+		private long duration = 0;
+
+		public SchemaMetaResult()
+		{
+			super();
+		}
+
+		public SchemaMetaResult(Schema schema)
+		{
+			super();
+			this.schemaId = schema.getId();
+			this.schemaTitle = schema.getTitle();
+		}
+
+		public String getSchemaId()
+		{
+			return schemaId;
+		}
+
+		public void setSchemaId(String schemaId)
+		{
+			this.schemaId = schemaId;
+		}
+
+		public String getSchemaTitle()
+		{
+			return schemaTitle;
+		}
+
+		public void setSchemaTitle(String schemaTitle)
+		{
+			this.schemaTitle = schemaTitle;
+		}
+
+		public T getValue()
+		{
+			return value;
+		}
+
+		public void setValue(T value)
+		{
+			this.value = value;
+		}
+
+		public String getErrorMessage()
+		{
+			return errorMessage;
+		}
+
+		public void setErrorMessage(String errorMessage)
+		{
+			this.errorMessage = errorMessage;
+		}
+
+		public boolean isTimeout()
+		{
+			return timeout;
+		}
+
+		public void setTimeout(boolean timeout)
+		{
+			this.timeout = timeout;
+		}
+
+		public long getDuration()
+		{
+			return duration;
+		}
+
+		public void setDuration(long duration)
+		{
+			this.duration = duration;
+		}
+
+		public boolean isSuccess()
+		{
+			return (this.errorMessage == null);
+		}
+	}
+}
@@ -5,19 +5,28 @@
 package org.datagear.web.util;
 
 import java.io.Serializable;
+import java.sql.Connection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.datagear.management.domain.Schema;
 import org.datagear.meta.Table;
+import org.datagear.persistence.support.SqlTemplateCache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
 /**
  * {@linkplain Table}缓存。
+ * <p>
+ * 如果设置了{@linkplain #getTableSnapshotStore()}，内存缓存未命中时将读取其中的快照，写入时也会一并写入快照，
+ * 并且应在使用前调用{@linkplain #check(String, Connection)}以检测数据库结构是否已变更。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -30,6 +39,12 @@ public class TableCache
 	/** 缓存过期分钟数 */
 	private int expireAfterAccessMinutes = 60 * 72;
 
+	/** 表的SQL语句模板缓存，表缓存清除时一并清除，允许为{@code null} */
+	private SqlTemplateCache sqlTemplateCache = null;
+
+	/** 表快照存储，允许为{@code null} */
+	private TableSnapshotStore tableSnapshotStore = null;
+
 	private Cache<TableCacheKey, Table> _cache = null;
 
 	public TableCache()
@@ -57,6 +72,26 @@ public class TableCache
 		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
 	}
 
+	public SqlTemplateCache getSqlTemplateCache()
+	{
+		return sqlTemplateCache;
+	}
+
+	public void setSqlTemplateCache(SqlTemplateCache sqlTemplateCache)
+	{
+		this.sqlTemplateCache = sqlTemplateCache;
+	}
+
+	public TableSnapshotStore getTableSnapshotStore()
+	{
+		return tableSnapshotStore;
+	}
+
+	public void setTableSnapshotStore(TableSnapshotStore tableSnapshotStore)
+	{
+		this.tableSnapshotStore = tableSnapshotStore;
+	}
+
 	/**
 	 * 初始化。
 	 */
@@ -76,7 +111,35 @@ public class TableCache
 	public Table get(String schemaId, String tableName)
 	{
 		TableCacheKey key = new TableCacheKey(schemaId, tableName);
-		return this._cache.getIfPresent(key);
+		Table table = this._cache.getIfPresent(key);
+
+		if (table == null && this.tableSnapshotStore != null)
+		{
+			table = this.tableSnapshotStore.get(schemaId, tableName);
+
+			if (table != null)
+				this._cache.put(key, table);
+		}
+
+		return table;
+	}
+
+	/**
+	 * 检测数据库结构是否已变更，已变更时清除指定{@linkplain Schema} ID的所有内存缓存。
+	 * <p>
+	 * 未设置{@linkplain #getTableSnapshotStore()}时什么也不做。
+	 * </p>
+	 * 
+	 * @param schemaId
+	 * @param cn
+	 */
+	public void check(String schemaId, Connection cn)
+	{
+		if (this.tableSnapshotStore == null)
+			return;
+
+		if (this.tableSnapshotStore.check(schemaId, cn))
+			invalidateMemory(schemaId);
 	}
 
 	/**
@@ -89,6 +152,31 @@ public class TableCache
 	{
 		TableCacheKey key = new TableCacheKey(schemaId, table.getName());
 		this._cache.put(key, table);
+
+		if (this.tableSnapshotStore != null)
+			this.tableSnapshotStore.put(schemaId, table);
+	}
+
+	/**
+	 * 将批量获取的{@linkplain Table}一次添加至缓存。
+	 * 
+	 * @param schemaId
+	 * @param tables
+	 */
+	public void putAll(String schemaId, List<Table> tables)
+	{
+		Map<TableCacheKey, Table> map = new HashMap<>();
+
+		for (Table table : tables)
+			map.put(new TableCacheKey(schemaId, table.getName()), table);
+
+		this._cache.putAll(map);
+
+		if (this.tableSnapshotStore != null)
+		{
+			for (Table table : tables)
+				this.tableSnapshotStore.put(schemaId, table);
+		}
 	}
 
 	/**
@@ -101,6 +189,12 @@ public class TableCache
 	{
 		TableCacheKey key = new TableCacheKey(schemaId, tableName);
 		this._cache.invalidate(key);
+
+		if (this.sqlTemplateCache != null)
+			this.sqlTemplateCache.invalidate(tableName);
+
+		if (this.tableSnapshotStore != null)
+			this.tableSnapshotStore.invalidate(schemaId, tableName);
 	}
 
 	/**
@@ -109,6 +203,19 @@ public class TableCache
 	 * @param schemaId
 	 */
 	public void invalidate(String schemaId)
+	{
+		invalidateMemory(schemaId);
+
+		if (this.tableSnapshotStore != null)
+			this.tableSnapshotStore.invalidate(schemaId);
+	}
+
+	/**
+	 * 清除指定{@linkplain Schema} ID的所有{@linkplain Table}内存缓存。
+	 * 
+	 * @param schemaId
+	 */
+	protected void invalidateMemory(String schemaId)
 	{
 		ConcurrentMap<TableCacheKey, Table> map = this._cache.asMap();
 		Set<TableCacheKey> keys = map.keySet();
@@ -122,6 +229,12 @@ public class TableCache
 
 		if (!myKeys.isEmpty())
 			this._cache.invalidateAll(myKeys);
+
+		if (this.sqlTemplateCache != null)
+		{
+			for (TableCacheKey key : myKeys)
+				this.sqlTemplateCache.invalidate(key.getTableName());
+		}
 	}
 
 	protected static class TableCacheKey implements Serializable
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.sql.Connection;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.datagear.management.domain.Schema;
+import org.datagear.meta.Table;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.util.resource.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@linkplain Table}元信息预取器。
+ * <p>
+ * 它按{@linkplain Schema}统计各表的访问次数，在{@linkplain Schema}连接被使用时，
+ * 使用独立连接在后台将访问次数最多的{@linkplain #getPrefetchTableCount()}个表的元信息批量加载至{@linkplain TableCache}，
+ * 使用户之后的点击可以直接命中缓存。
+ * </p>
+ * <p>
+ * 预取使用单个低优先级线程和容量为{@linkplain #getQueueCapacity()}的队列，队列已满时将丢弃新的预取任务；
+ * 同一{@linkplain Schema}最多每{@linkplain #getPrefetchIntervalMinutes()}分钟预取一次。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableMetaPrefetcher
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TableMetaPrefetcher.class);
+
+	private DBMetaResolver dbMetaResolver;
+
+	private TableCache tableCache;
+
+	/** 每次预取的表数目 */
+	private int prefetchTableCount = 20;
+
+	/** 同一Schema的预取间隔分钟数 */
+	private int prefetchIntervalMinutes = 10;
+
+	/** 预取任务队列容量 */
+	private int queueCapacity = 10;
+
+	/** 每个Schema最多统计的表数目，超过其2倍时将删除不常访问的表至此数目，并衰减访问次数 */
+	private int maxTrackedTableCount = 200;
+
+	/** {@linkplain Schema} ID -> 表名 -> 访问次数 */
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>> _accessCounts = new ConcurrentHashMap<>();
+
+	/** {@linkplain Schema} ID -> 上次预取时间 */
+	private final ConcurrentHashMap<String, Long> _prefetchTimes = new ConcurrentHashMap<>();
+
+	private ThreadPoolExecutor _executor = null;
+
+	public TableMetaPrefetcher()
+	{
+		super();
+	}
+
+	public TableMetaPrefetcher(DBMetaResolver dbMetaResolver, TableCache tableCache)
+	{
+		super();
+		this.dbMetaResolver = dbMetaResolver;
+		this.tableCache = tableCache;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public TableCache getTableCache()
+	{
+		return tableCache;
+	}
+
+	public void setTableCache(TableCache tableCache)
+	{
+		this.tableCache = tableCache;
+	}
+
+	public int getPrefetchTableCount()
+	{
+		return prefetchTableCount;
+	}
+
+	public void setPrefetchTableCount(int prefetchTableCount)
+	{
+		this.prefetchTableCount = prefetchTableCount;
+	}
+
+	public int getPrefetchIntervalMinutes()
+	{
+		return prefetchIntervalMinutes;
+	}
+
+	public void setPrefetchIntervalMinutes(int prefetchIntervalMinutes)
+	{
+		this.prefetchIntervalMinutes = prefetchIntervalMinutes;
+	}
+
+	public int getQueueCapacity()
+	{
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity)
+	{
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getMaxTrackedTableCount()
+	{
+		return maxTrackedTableCount;
+	}
+
+	public void setMaxTrackedTableCount(int maxTrackedTableCount)
+	{
+		this.maxTrackedTableCount = maxTrackedTableCount;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(this.queueCapacity), new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(Runnable r)
+					{
+						Thread thread = new Thread(r, "TableMetaPrefetcher");
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+
+						return thread;
+					}
+				}, new ThreadPoolExecutor.DiscardPolicy());
+	}
+
+	/**
+	 * 销毁。
+	 */
+	public void destroy()
+	{
+		if (this._executor != null)
+			this._executor.shutdownNow();
+	}
+
+	/**
+	 * 记录表访问。
+	 *
+	 * @param schemaId
+	 * @param tableName
+	 */
+	public void recordAccess(String schemaId, String tableName)
+	{
+		ConcurrentHashMap<String, AtomicInteger> counts = this._accessCounts.get(schemaId);
+
+		if (counts == null)
+		{
+			counts = new ConcurrentHashMap<>();
+			ConcurrentHashMap<String, AtomicInteger> old = this._accessCounts.putIfAbsent(schemaId, counts);
+
+			if (old != null)
+				counts = old;
+		}
+
+		AtomicInteger count = counts.get(tableName);
+
+		if (count == null)
+		{
+			count = new AtomicInteger(0);
+			AtomicInteger old = counts.putIfAbsent(tableName, count);
+
+			if (old != null)
+				count = old;
+		}
+
+		count.incrementAndGet();
+
+		// 超过2倍时才清理，使排序开销分摊到多次新表访问
+		if (counts.size() > this.maxTrackedTableCount * 2)
+			trim(counts, tableName);
+	}
+
+	/**
+	 * 在后台预取指定{@linkplain Schema}的常用表元信息。
+	 * <p>
+	 * 距上次预取未超过{@linkplain #getPrefetchIntervalMinutes()}分钟时什么也不做。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param connectionFactory
+	 *            用于预取的连接工厂
+	 */
+	public void prefetch(final String schemaId, final ConnectionFactory connectionFactory)
+	{
+		if (this._executor == null)
+			return;
+
+		long now = System.currentTimeMillis();
+		Long prevTime = this._prefetchTimes.get(schemaId);
+
+		if (prevTime != null && (now - prevTime) < this.prefetchIntervalMinutes * 60L * 1000L)
+			return;
+
+		final List<String> tableNames = getTopTableNames(schemaId, this.prefetchTableCount);
+
+		// 还没有访问统计时不计入预取时间，以便有统计后尽快预取
+		if (tableNames.isEmpty())
+			return;
+
+		if (prevTime == null ? this._prefetchTimes.putIfAbsent(schemaId, now) != null
+				: !this._prefetchTimes.replace(schemaId, prevTime, now))
+			return;
+
+		this._executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				doPrefetch(schemaId, connectionFactory, tableNames);
+			}
+		});
+	}
+
+	/**
+	 * 清除指定{@linkplain Schema} ID的预取状态，使其下次使用时重新预取。
+	 *
+	 * @param schemaId
+	 */
+	public void invalidate(String schemaId)
+	{
+		this._prefetchTimes.remove(schemaId);
+	}
+
+	/**
+	 * 删除指定{@linkplain Schema} ID的所有状态。
+	 *
+	 * @param schemaId
+	 */
+	public void remove(String schemaId)
+	{
+		this._prefetchTimes.remove(schemaId);
+		this._accessCounts.remove(schemaId);
+	}
+
+	/**
+	 * 获取访问次数最多的表名。
+	 *
+	 * @param schemaId
+	 * @param count
+	 * @return
+	 */
+	public List<String> getTopTableNames(String schemaId, int count)
+	{
+		List<String> tableNames = new ArrayList<>();
+
+		ConcurrentHashMap<String, AtomicInteger> counts = this._accessCounts.get(schemaId);
+
+		if (counts == null || count <= 0)
+			return tableNames;
+
+		// 先复制访问次数，避免排序过程中被修改
+		Map<String, Integer> snapshot = new HashMap<>();
+		for (Map.Entry<String, AtomicInteger> entry : counts.entrySet())
+			snapshot.put(entry.getKey(), entry.getValue().get());
+
+		List<Map.Entry<String, Integer>> entries = new ArrayList<>(snapshot.entrySet());
+
+		Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>()
+		{
+			@Override
+			public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2)
+			{
+				return o2.getValue().compareTo(o1.getValue());
+			}
+		});
+
+		for (int i = 0, len = Math.min(count, entries.size()); i < len; i++)
+			tableNames.add(entries.get(i).getKey());
+
+		return tableNames;
+	}
+
+	protected void doPrefetch(String schemaId, ConnectionFactory connectionFactory, List<String> tableNames)
+	{
+		Connection cn = null;
+
+		try
+		{
+			cn = connectionFactory.get();
+
+			this.tableCache.check(schemaId, cn);
+
+			List<String> uncachedNames = new ArrayList<>(tableNames.size());
+
+			for (String tableName : tableNames)
+			{
+				if (this.tableCache.get(schemaId, tableName) == null)
+					uncachedNames.add(tableName);
+			}
+
+			if (uncachedNames.isEmpty())
+				return;
+
+			List<Table> tables = this.dbMetaResolver.getTables(cn,
+					uncachedNames.toArray(new String[uncachedNames.size()]));
+
+			this.tableCache.putAll(schemaId, tables);
+
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("prefetch " + tables.size() + " tables for schema [" + schemaId + "]");
+		}
+		catch (Throwable t)
+		{
+			LOGGER.warn("prefetch tables for schema [" + schemaId + "] error", t);
+		}
+		finally
+		{
+			if (cn != null)
+			{
+				try
+				{
+					connectionFactory.release(cn);
+				}
+				catch (Throwable t)
+				{
+				}
+			}
+		}
+	}
+
+	/**
+	 * 删除访问次数最少的表（不包括刚访问的表）至{@linkplain #getMaxTrackedTableCount()}个，并将保留表的访问次数减半（最小为1）。
+	 *
+	 * @param counts
+	 * @param recordedTableName
+	 *            刚访问的表名，它不会被删除
+	 */
+	protected void trim(ConcurrentHashMap<String, AtomicInteger> counts, String recordedTableName)
+	{
+		synchronized (counts)
+		{
+			int removeCount = counts.size() - Math.max(this.maxTrackedTableCount, 1);
+
+			if (removeCount <= 0)
+				return;
+
+			List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.size());
+
+			for (Map.Entry<String, AtomicInteger> entry : counts.entrySet())
+			{
+				if (!entry.getKey().equals(recordedTableName))
+					entries.add(new SimpleImmutableEntry<String, Integer>(entry.getKey(), entry.getValue().get()));
+			}
+
+			Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>()
+			{
+				@Override
+				public int compare(Map.Entry<String, Integer> o1, Map.Entry<String, Integer> o2)
+				{
+					return o1.getValue().compareTo(o2.getValue());
+				}
+			});
+
+			for (int i = 0, len = Math.min(removeCount, entries.size()); i < len; i++)
+				counts.remove(entries.get(i).getKey());
+
+			for (AtomicInteger count : counts.values())
+			{
+				int value = count.get();
+
+				if (value > 1)
+					count.compareAndSet(value, value / 2);
+			}
+		}
+	}
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datagear.meta.SimpleTable;
+import org.datagear.web.util.KeywordMatcher.KeywordInfo;
+import org.datagear.web.util.KeywordMatcher.MatchType;
+
+/**
+ * 表名索引。
+ * <p>
+ * 它持有某个数据库的所有用户数据表（按照表名排序），并建立了大写表名的排序索引和{@linkplain #GRAM_LENGTH}元组索引，
+ * 用于在内存中快速执行与{@linkplain KeywordMatcher}语义一致的表名关键字查找：前缀匹配使用排序索引二分查找，
+ * 包含、后缀匹配使用元组索引求候选集后再校验。
+ * </p>
+ * <p>
+ * 此类创建后不可修改，可以被多个线程共享。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableNameIndex
+{
+	/** 元组长度 */
+	public static final int GRAM_LENGTH = 3;
+
+	private static final int[] EMPTY_INDEXES = new int[0];
+
+	/** 创建时间 */
+	private final long createTime;
+
+	/** 按照表名排序的用户数据表 */
+	private final SimpleTable[] tables;
+
+	/** 是否用户数据实体表 */
+	private final boolean[] entityTables;
+
+	/** 大写表名 */
+	private final String[] upperNames;
+
+	/** 按照大写表名排序的表索引 */
+	private final int[] upperNameOrders;
+
+	/** 元组 -> 包含它的表索引（升序） */
+	private final Map<String, int[]> gramIndexes;
+
+	/**
+	 * 创建。
+	 *
+	 * @param tables
+	 *            用户数据表
+	 * @param entityTables
+	 *            与{@code tables}对应的是否用户数据实体表
+	 */
+	public TableNameIndex(List<SimpleTable> tables, List<Boolean> entityTables)
+	{
+		super();
+
+		int size = tables.size();
+
+		Integer[] orders = new Integer[size];
+		for (int i = 0; i < size; i++)
+			orders[i] = i;
+
+		final List<SimpleTable> tablesFinal = tables;
+		Arrays.sort(orders, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer o1, Integer o2)
+			{
+				return tablesFinal.get(o1).getName().compareTo(tablesFinal.get(o2).getName());
+			}
+		});
+
+		this.createTime = System.currentTimeMillis();
+		this.tables = new SimpleTable[size];
+		this.entityTables = new boolean[size];
+		this.upperNames = new String[size];
+
+		for (int i = 0; i < size; i++)
+		{
+			this.tables[i] = tables.get(orders[i]);
+			this.entityTables[i] = Boolean.TRUE.equals(entityTables.get(orders[i]));
+			this.upperNames[i] = this.tables[i].getName().toUpperCase();
+		}
+
+		Integer[] upperOrders = new Integer[size];
+		for (int i = 0; i < size; i++)
+			upperOrders[i] = i;
+
+		Arrays.sort(upperOrders, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer o1, Integer o2)
+			{
+				return upperNames[o1].compareTo(upperNames[o2]);
+			}
+		});
+
+		this.upperNameOrders = new int[size];
+		for (int i = 0; i < size; i++)
+			this.upperNameOrders[i] = upperOrders[i];
+
+		this.gramIndexes = buildGramIndexes(this.upperNames);
+	}
+
+	public long getCreateTime()
+	{
+		return createTime;
+	}
+
+	/**
+	 * 获取表数目。
+	 *
+	 * @return
+	 */
+	public int size()
+	{
+		return this.tables.length;
+	}
+
+	/**
+	 * 查找用户数据表。
+	 *
+	 * @param keyword
+	 *            关键字，格式参考{@linkplain KeywordMatcher}，为{@code null}或空时返回全部
+	 * @return 按照表名排序的列表
+	 */
+	public List<SimpleTable> find(String keyword)
+	{
+		return find(keyword, false);
+	}
+
+	/**
+	 * 查找用户数据实体表。
+	 *
+	 * @param keyword
+	 *            关键字，格式参考{@linkplain KeywordMatcher}，为{@code null}或空时返回全部
+	 * @return 按照表名排序的列表
+	 */
+	public List<SimpleTable> findEntity(String keyword)
+	{
+		return find(keyword, true);
+	}
+
+	protected List<SimpleTable> find(String keyword, boolean entityOnly)
+	{
+		KeywordInfo keywordInfo = KeywordMatcher.resolveKeywordInfo(keyword);
+
+		List<SimpleTable> re = new ArrayList<>();
+
+		if (keywordInfo == null)
+		{
+			for (int i = 0; i < this.tables.length; i++)
+			{
+				if (!entityOnly || this.entityTables[i])
+					re.add(this.tables[i]);
+			}
+
+			return re;
+		}
+
+		int[] indexes;
+
+		if (MatchType.START.equals(keywordInfo.getMatchType()))
+			indexes = findByPrefix(keywordInfo.getUpperKeyword());
+		else
+			indexes = findByGram(keywordInfo.getMatchType(), keywordInfo.getUpperKeyword());
+
+		for (int index : indexes)
+		{
+			if (!entityOnly || this.entityTables[index])
+				re.add(this.tables[index]);
+		}
+
+		return re;
+	}
+
+	/**
+	 * 查找大写表名以指定前缀开头的表索引。
+	 *
+	 * @param upperPrefix
+	 * @return 升序表索引
+	 */
+	protected int[] findByPrefix(String upperPrefix)
+	{
+		int low = 0;
+		int high = this.upperNameOrders.length;
+
+		while (low < high)
+		{
+			int mid = (low + high) >>> 1;
+
+			if (this.upperNames[this.upperNameOrders[mid]].compareTo(upperPrefix) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		int end = low;
+		while (end < this.upperNameOrders.length && this.upperNames[this.upperNameOrders[end]].startsWith(upperPrefix))
+			end++;
+
+		int[] re = Arrays.copyOfRange(this.upperNameOrders, low, end);
+		Arrays.sort(re);
+
+		return re;
+	}
+
+	/**
+	 * 使用元组索引查找包含或者以指定关键字结尾的表索引。
+	 *
+	 * @param matchType
+	 * @param upperKeyword
+	 * @return 升序表索引
+	 */
+	protected int[] findByGram(MatchType matchType, String upperKeyword)
+	{
+		int[] candidates = null;
+
+		if (upperKeyword.length() >= GRAM_LENGTH)
+		{
+			for (int i = 0; i + GRAM_LENGTH <= upperKeyword.length(); i++)
+			{
+				int[] indexes = this.gramIndexes.get(upperKeyword.substring(i, i + GRAM_LENGTH));
+
+				if (indexes == null)
+					return EMPTY_INDEXES;
+
+				if (candidates == null || indexes.length < candidates.length)
+					candidates = indexes;
+			}
+		}
+
+		int count = (candidates == null ? this.upperNames.length : candidates.length);
+		int[] re = new int[count];
+		int reCount = 0;
+
+		for (int i = 0; i < count; i++)
+		{
+			int index = (candidates == null ? i : candidates[i]);
+			String upperName = this.upperNames[index];
+
+			boolean match = (MatchType.END.equals(matchType) ? upperName.endsWith(upperKeyword)
+					: upperName.indexOf(upperKeyword) >= 0);
+
+			if (match)
+				re[reCount++] = index;
+		}
+
+		return (reCount == re.length ? re : Arrays.copyOf(re, reCount));
+	}
+
+	protected static Map<String, int[]> buildGramIndexes(String[] upperNames)
+	{
+		Map<String, List<Integer>> gramLists = new HashMap<>();
+
+		for (int i = 0; i < upperNames.length; i++)
+		{
+			String upperName = upperNames[i];
+
+			for (int j = 0; j + GRAM_LENGTH <= upperName.length(); j++)
+			{
+				String gram = upperName.substring(j, j + GRAM_LENGTH);
+
+				List<Integer> list = gramLists.get(gram);
+
+				if (list == null)
+				{
+					list = new ArrayList<>(4);
+					gramLists.put(gram, list);
+				}
+
+				// 同一表名中重复的元组只记录一次
+				if (list.isEmpty() || list.get(list.size() - 1) != i)
+					list.add(i);
+			}
+		}
+
+		Map<String, int[]> gramIndexes = new HashMap<>(gramLists.size());
+
+		for (Map.Entry<String, List<Integer>> entry : gramLists.entrySet())
+		{
+			List<Integer> list = entry.getValue();
+			int[] indexes = new int[list.size()];
+
+			for (int i = 0; i < indexes.length; i++)
+				indexes[i] = list.get(i);
+
+			gramIndexes.put(entry.getKey(), indexes);
+		}
+
+		return Collections.unmodifiableMap(gramIndexes);
+	}
+}
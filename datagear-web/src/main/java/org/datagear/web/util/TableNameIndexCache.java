@@ -0,0 +1,266 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.datagear.management.domain.Schema;
+import org.datagear.meta.SimpleTable;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.util.resource.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@linkplain TableNameIndex}缓存。
+ * <p>
+ * 每个{@linkplain Schema}对应一个{@linkplain TableNameIndex}，首次访问时同步加载，之后超过{@linkplain #getRefreshAfterMinutes()}时，
+ * 仍返回旧索引，同时在后台重新加载。
+ * </p>
+ * <p>
+ * 数据库结构变更（比如通过SQL工作台执行DDL）后，应调用{@linkplain #invalidate(String)}。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableNameIndexCache
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TableNameIndexCache.class);
+
+	private DBMetaResolver dbMetaResolver;
+
+	/** 后台刷新间隔分钟数 */
+	private int refreshAfterMinutes = 10;
+
+	/** {@linkplain Schema} ID -> 索引 */
+	private final ConcurrentHashMap<String, TableNameIndex> _indexes = new ConcurrentHashMap<>();
+
+	/** 正在后台刷新的{@linkplain Schema} ID */
+	private final Set<String> _refreshingSchemaIds = ConcurrentHashMap.newKeySet();
+
+	/** {@linkplain Schema} ID -> 失效代数，用于避免失效前开始的加载覆盖失效操作 */
+	private final ConcurrentHashMap<String, AtomicLong> _generations = new ConcurrentHashMap<>();
+
+	private ExecutorService _refreshExecutor = null;
+
+	public TableNameIndexCache()
+	{
+		super();
+	}
+
+	public TableNameIndexCache(DBMetaResolver dbMetaResolver)
+	{
+		super();
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public int getRefreshAfterMinutes()
+	{
+		return refreshAfterMinutes;
+	}
+
+	public void setRefreshAfterMinutes(int refreshAfterMinutes)
+	{
+		this.refreshAfterMinutes = refreshAfterMinutes;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._refreshExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "TableNameIndexRefresher");
+				thread.setDaemon(true);
+
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * 销毁。
+	 */
+	public void destroy()
+	{
+		if (this._refreshExecutor != null)
+			this._refreshExecutor.shutdownNow();
+	}
+
+	/**
+	 * 获取索引。
+	 * <p>
+	 * 没有缓存时使用{@code cn}同步加载；缓存已过期时返回旧索引，并使用{@code refreshConnectionFactory}在后台重新加载。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param cn
+	 * @param refreshConnectionFactory
+	 *            用于后台刷新的连接工厂，为{@code null}则不后台刷新
+	 * @return
+	 */
+	public TableNameIndex get(String schemaId, Connection cn, ConnectionFactory refreshConnectionFactory)
+	{
+		TableNameIndex index = this._indexes.get(schemaId);
+
+		if (index == null)
+		{
+			long generation = getGeneration(schemaId).get();
+
+			index = load(cn);
+			putIfGeneration(schemaId, index, generation);
+		}
+		else if (refreshConnectionFactory != null && isExpired(index))
+			refreshAsync(schemaId, refreshConnectionFactory);
+
+		return index;
+	}
+
+	/**
+	 * 清除指定{@linkplain Schema} ID的索引。
+	 *
+	 * @param schemaId
+	 */
+	public void invalidate(String schemaId)
+	{
+		AtomicLong generation = getGeneration(schemaId);
+
+		synchronized (generation)
+		{
+			generation.incrementAndGet();
+			this._indexes.remove(schemaId);
+		}
+	}
+
+	/**
+	 * 加载索引。
+	 *
+	 * @param cn
+	 * @return
+	 */
+	public TableNameIndex load(Connection cn)
+	{
+		List<SimpleTable> tables = this.dbMetaResolver.getSimpleTables(cn);
+
+		List<SimpleTable> userTables = new ArrayList<>(tables.size());
+		List<Boolean> entityTables = new ArrayList<>(tables.size());
+
+		for (SimpleTable table : tables)
+		{
+			if (this.dbMetaResolver.isUserDataTable(cn, table))
+			{
+				userTables.add(table);
+				entityTables.add(this.dbMetaResolver.isUserDataEntityTable(cn, table));
+			}
+		}
+
+		return new TableNameIndex(userTables, entityTables);
+	}
+
+	protected boolean isExpired(TableNameIndex index)
+	{
+		return (System.currentTimeMillis() - index.getCreateTime()) >= this.refreshAfterMinutes * 60L * 1000L;
+	}
+
+	protected void refreshAsync(final String schemaId, final ConnectionFactory connectionFactory)
+	{
+		if (this._refreshExecutor == null || !this._refreshingSchemaIds.add(schemaId))
+			return;
+
+		final long generation = getGeneration(schemaId).get();
+
+		try
+		{
+			this._refreshExecutor.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					Connection cn = null;
+
+					try
+					{
+						cn = connectionFactory.get();
+						putIfGeneration(schemaId, load(cn), generation);
+					}
+					catch (Throwable t)
+					{
+						LOGGER.warn("refresh table name index for schema [" + schemaId + "] error", t);
+					}
+					finally
+					{
+						if (cn != null)
+						{
+							try
+							{
+								connectionFactory.release(cn);
+							}
+							catch (Throwable t)
+							{
+							}
+						}
+
+						_refreshingSchemaIds.remove(schemaId);
+					}
+				}
+			});
+		}
+		catch (RuntimeException e)
+		{
+			this._refreshingSchemaIds.remove(schemaId);
+			throw e;
+		}
+	}
+
+	protected void putIfGeneration(String schemaId, TableNameIndex index, long generation)
+	{
+		AtomicLong current = getGeneration(schemaId);
+
+		synchronized (current)
+		{
+			if (current.get() == generation)
+				this._indexes.put(schemaId, index);
+		}
+	}
+
+	protected AtomicLong getGeneration(String schemaId)
+	{
+		AtomicLong generation = this._generations.get(schemaId);
+
+		if (generation == null)
+		{
+			AtomicLong newGeneration = new AtomicLong(0);
+			generation = this._generations.putIfAbsent(schemaId, newGeneration);
+
+			if (generation == null)
+				generation = newGeneration;
+		}
+
+		return generation;
+	}
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.datagear.management.domain.Schema;
+import org.datagear.meta.Table;
+import org.datagear.meta.TableInterner;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.util.FileUtil;
+import org.datagear.util.IOUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+/**
+ * {@linkplain Table}快照存储。
+ * <p>
+ * 它将{@linkplain Table}以GZIP压缩的序列化文件形式存储在{@linkplain #getRootDirectory()}的
+ * “{@linkplain Schema} ID/结构变更指纹摘要”子目录下，应用重启后可直接读取，而无需重新从数据库获取元信息。
+ * </p>
+ * <p>
+ * 结构变更指纹由{@linkplain DBMetaResolver#getChangeFingerprint(Connection)}获取，
+ * 每个{@linkplain Schema}最多每{@linkplain #getCheckIntervalSeconds()}秒检查一次，指纹改变时将删除旧快照。
+ * 对于不支持结构变更指纹的数据库，此类不存储任何快照。
+ * </p>
+ * <p>
+ * {@linkplain #getRootDirectory()}可以配置为多个节点共享的目录，以便新节点也可直接读取快照。
+ * 读取快照时只允许反序列化{@linkplain #isAllowedClassName(String)}的类，以避免被篡改的快照文件执行任意代码。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableSnapshotStore
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TableSnapshotStore.class);
+
+	public static final String TABLE_FILE_EXTENSION = ".ser.gz";
+
+	/** 快照中允许反序列化的{@code java.lang}类 */
+	protected static final Set<String> ALLOWED_LANG_CLASS_NAMES = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(String.class.getName(), Enum.class.getName(), Number.class.getName(),
+					Boolean.class.getName(), Character.class.getName(), Byte.class.getName(), Short.class.getName(),
+					Integer.class.getName(), Long.class.getName(), Float.class.getName(), Double.class.getName())));
+
+	/** 快照中允许反序列化的元信息类包名前缀 */
+	protected static final String ALLOWED_META_PACKAGE_PREFIX = Table.class.getPackage().getName() + ".";
+
+	private File rootDirectory;
+
+	private DBMetaResolver dbMetaResolver;
+
+	/** 结构变更指纹检查间隔秒数 */
+	private int checkIntervalSeconds = 60;
+
+	/** {@linkplain Schema} ID -> 指纹状态 */
+	private final ConcurrentHashMap<String, FingerprintState> _states = new ConcurrentHashMap<>();
+
+	public TableSnapshotStore()
+	{
+		super();
+	}
+
+	public TableSnapshotStore(File rootDirectory, DBMetaResolver dbMetaResolver)
+	{
+		super();
+		this.rootDirectory = rootDirectory;
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public File getRootDirectory()
+	{
+		return rootDirectory;
+	}
+
+	public void setRootDirectory(File rootDirectory)
+	{
+		this.rootDirectory = rootDirectory;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public int getCheckIntervalSeconds()
+	{
+		return checkIntervalSeconds;
+	}
+
+	public void setCheckIntervalSeconds(int checkIntervalSeconds)
+	{
+		this.checkIntervalSeconds = checkIntervalSeconds;
+	}
+
+	/**
+	 * 检查结构变更指纹。
+	 * <p>
+	 * 距上次检查未超过{@linkplain #getCheckIntervalSeconds()}秒时不会执行查询。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param cn
+	 * @return 结构是否已变更（或者首次检查），此时调用方应清除其对应的内存缓存
+	 */
+	public boolean check(String schemaId, Connection cn)
+	{
+		FingerprintState state = this._states.get(schemaId);
+
+		if (state != null && !state.isCheckExpired(this.checkIntervalSeconds))
+			return false;
+
+		String fingerprint = null;
+
+		try
+		{
+			fingerprint = this.dbMetaResolver.getChangeFingerprint(cn);
+		}
+		catch (Throwable t)
+		{
+			LOGGER.warn("get change fingerprint for schema [" + schemaId + "] error", t);
+		}
+
+		String fingerprintKey = (fingerprint == null ? null : DigestUtils.md5DigestAsHex(toBytes(fingerprint)));
+		boolean changed = (state == null || !isEquals(state.getFingerprintKey(), fingerprintKey));
+
+		this._states.put(schemaId, new FingerprintState(fingerprintKey, System.currentTimeMillis()));
+
+		if (changed)
+			deleteStaleDirectories(schemaId, fingerprintKey);
+
+		return changed;
+	}
+
+	/**
+	 * 获取快照，没有则返回{@code null}。
+	 * <p>
+	 * 应先调用{@linkplain #check(String, Connection)}。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param tableName
+	 * @return
+	 */
+	public Table get(String schemaId, String tableName)
+	{
+		File file = getTableFile(schemaId, tableName, false);
+
+		if (file == null || !file.exists())
+			return null;
+
+		InputStream in = null;
+
+		try
+		{
+			in = new GZIPInputStream(IOUtil.getInputStream(file));
+			ObjectInputStream oin = new TableObjectInputStream(in);
+
+			Object obj = oin.readObject();
+
+			if (!(obj instanceof Table))
+				throw new InvalidClassException(obj == null ? null : obj.getClass().getName(), "not a table");
+
+			return TableInterner.SHARED.intern((Table) obj);
+		}
+		catch (Throwable t)
+		{
+			LOGGER.warn("read table snapshot file [" + file.getAbsolutePath() + "] error, it will be deleted", t);
+
+			IOUtil.close(in);
+			in = null;
+			FileUtil.deleteFile(file);
+
+			return null;
+		}
+		finally
+		{
+			IOUtil.close(in);
+		}
+	}
+
+	/**
+	 * 保存快照。
+	 * <p>
+	 * 应先调用{@linkplain #check(String, Connection)}，不支持结构变更指纹时什么也不做。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param table
+	 */
+	public void put(String schemaId, Table table)
+	{
+		File file = getTableFile(schemaId, table.getName(), true);
+
+		if (file == null)
+			return;
+
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp-" + Thread.currentThread().getId());
+		OutputStream out = null;
+
+		try
+		{
+			out = new GZIPOutputStream(IOUtil.getOutputStream(tmpFile));
+			ObjectOutputStream oout = new ObjectOutputStream(out);
+			oout.writeObject(table);
+			oout.flush();
+			out.close();
+			out = null;
+
+			try
+			{
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e)
+			{
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (Throwable t)
+		{
+			LOGGER.warn("write table snapshot for schema [" + schemaId + "] error", t);
+		}
+		finally
+		{
+			IOUtil.close(out);
+			FileUtil.deleteFile(tmpFile);
+		}
+	}
+
+	/**
+	 * 删除指定名称{@linkplain Table}的快照。
+	 *
+	 * @param schemaId
+	 * @param tableName
+	 */
+	public void invalidate(String schemaId, String tableName)
+	{
+		File file = getTableFile(schemaId, tableName, false);
+
+		if (file != null)
+			FileUtil.deleteFile(file);
+	}
+
+	/**
+	 * 删除指定{@linkplain Schema} ID的所有快照。
+	 *
+	 * @param schemaId
+	 */
+	public void invalidate(String schemaId)
+	{
+		this._states.remove(schemaId);
+
+		File directory = FileUtil.getDirectory(this.rootDirectory, schemaId, false);
+		FileUtil.deleteFile(directory);
+	}
+
+	/**
+	 * 获取快照文件。
+	 *
+	 * @param schemaId
+	 * @param tableName
+	 * @param createDirectory
+	 * @return 返回{@code null}表示还未检查或者不支持结构变更指纹
+	 */
+	protected File getTableFile(String schemaId, String tableName, boolean createDirectory)
+	{
+		FingerprintState state = this._states.get(schemaId);
+
+		if (state == null || state.getFingerprintKey() == null)
+			return null;
+
+		File schemaDirectory = FileUtil.getDirectory(this.rootDirectory, schemaId, createDirectory);
+		File directory = FileUtil.getDirectory(schemaDirectory, state.getFingerprintKey(), createDirectory);
+
+		return FileUtil.getFile(directory, DigestUtils.md5DigestAsHex(toBytes(tableName)) + TABLE_FILE_EXTENSION);
+	}
+
+	/**
+	 * 删除{@linkplain Schema}目录下除当前指纹外的所有快照目录。
+	 *
+	 * @param schemaId
+	 * @param fingerprintKey
+	 *            允许为{@code null}
+	 */
+	protected void deleteStaleDirectories(String schemaId, String fingerprintKey)
+	{
+		File schemaDirectory = FileUtil.getDirectory(this.rootDirectory, schemaId, false);
+
+		if (!schemaDirectory.exists())
+			return;
+
+		File[] children = schemaDirectory.listFiles();
+
+		if (children == null)
+			return;
+
+		for (File child : children)
+		{
+			if (!child.getName().equals(fingerprintKey))
+				FileUtil.deleteFile(child);
+		}
+	}
+
+	/**
+	 * 是否允许从快照中反序列化指定名称的类。
+	 * <p>
+	 * 只允许{@linkplain Table}所在包（不含子包）的类、{@linkplain #ALLOWED_LANG_CLASS_NAMES}、基本类型，以及它们的数组。
+	 * </p>
+	 *
+	 * @param className
+	 *            {@linkplain ObjectStreamClass#getName()}
+	 * @return
+	 */
+	protected static boolean isAllowedClassName(String className)
+	{
+		if (className == null || className.isEmpty())
+			return false;
+
+		if (className.charAt(0) == '[')
+		{
+			int dimension = 0;
+
+			while (dimension < className.length() && className.charAt(dimension) == '[')
+				dimension++;
+
+			String element = className.substring(dimension);
+
+			if (element.length() == 1)
+				return "ZBCSIJFD".indexOf(element.charAt(0)) >= 0;
+
+			if (element.length() > 2 && element.charAt(0) == 'L' && element.endsWith(";"))
+				return isAllowedClassName(element.substring(1, element.length() - 1));
+
+			return false;
+		}
+
+		if (ALLOWED_LANG_CLASS_NAMES.contains(className))
+			return true;
+
+		return (className.startsWith(ALLOWED_META_PACKAGE_PREFIX)
+				&& className.indexOf('.', ALLOWED_META_PACKAGE_PREFIX.length()) < 0);
+	}
+
+	protected boolean isEquals(String a, String b)
+	{
+		return (a == null ? b == null : a.equals(b));
+	}
+
+	protected byte[] toBytes(String str)
+	{
+		try
+		{
+			return str.getBytes("UTF-8");
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 只允许反序列化{@linkplain TableSnapshotStore#isAllowedClassName(String)}类的输入流。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class TableObjectInputStream extends ObjectInputStream
+	{
+		public TableObjectInputStream(InputStream in) throws IOException
+		{
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+		{
+			if (!isAllowedClassName(desc.getName()))
+				throw new InvalidClassException(desc.getName(), "class is not allowed in table snapshot");
+
+			return super.resolveClass(desc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException
+		{
+			throw new InvalidClassException("proxy class is not allowed in table snapshot");
+		}
+	}
+
+	/**
+	 * 结构变更指纹状态。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class FingerprintState
+	{
+		/** 指纹摘要，为{@code null}表示不支持 */
+		private final String fingerprintKey;
+
+		/** 检查时间 */
+		private final long checkTime;
+
+		public FingerprintState(String fingerprintKey, long checkTime)
+		{
+			super();
+			this.fingerprintKey = fingerprintKey;
+			this.checkTime = checkTime;
+		}
+
+		public String getFingerprintKey()
+		{
+			return fingerprintKey;
+		}
+
+		public long getCheckTime()
+		{
+			return checkTime;
+		}
+
+		public boolean isCheckExpired(int checkIntervalSeconds)
+		{
+			return (System.currentTimeMillis() - this.checkTime) >= checkIntervalSeconds * 1000L;
+		}
+	}
+}
@@ -35,6 +35,15 @@ readonly 是否只读操作，允许为null
 					<input type="text" name="templateName" value="${templateName?html}" class="ui-widget ui-widget-content" />
 				</div>
 			</div>
+			<div class="form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='dashboard.snapshotInterval.desc' />"><@spring.message code='dashboard.snapshotInterval' /></label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="snapshotInterval" value="${(dashboard.snapshotInterval)!'0'?html}" class="ui-widget ui-widget-content" style="width:7em;" />
+					<span><@spring.message code='dashboard.snapshotIntervalUnit' /></span>
+				</div>
+			</div>
 			<div class="form-item">
 				<div class="form-item-label">
 					<label><@spring.message code='dashboard.template' /></label>
@@ -874,13 +883,15 @@ readonly 是否只读操作，允许为null
 		{
 			"name" : "required",
 			"templateContent" : "dashboardTemplateContent",
-			"templateName" : "required"
+			"templateName" : "required",
+			"snapshotInterval" : {"required": true, "integer": true}
 		},
 		messages :
 		{
 			"name" : "<@spring.message code='validation.required' />",
 			"templateContent" : "<@spring.message code='validation.required' />",
-			"templateName" : "<@spring.message code='validation.required' />"
+			"templateName" : "<@spring.message code='validation.required' />",
+			"snapshotInterval" : {"required": "<@spring.message code='validation.required' />", "integer": "<@spring.message code='validation.integer' />"}
 		},
 		submitHandler : function(form)
 		{
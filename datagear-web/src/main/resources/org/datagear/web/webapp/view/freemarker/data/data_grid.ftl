@@ -215,13 +215,55 @@ boolean readonly 是否只读操作，默认为false
 			{
 				var options = {data: {"initSqls": response.sql}};
 				$.setGridPageHeightOption(options);
-				po.open("${contextPath}/dataexchange/"+po.schemaId+"/export", options);
+				
+				var url = "${contextPath}/dataexchange/"+po.schemaId+"/export";
+				
+				if(response.queryPlan && response.queryPlan.expensive)
+				{
+					<#assign messageArgs=['"+response.queryPlan.estimatedRows+"'] />
+					po.confirm("<@spring.messageArgs code='data.confirmExpensiveExport' args=messageArgs />",
+					{
+						"confirm" : function()
+						{
+							po.open(url, options);
+						}
+					});
+				}
+				else
+					po.open(url, options);
 			});
 		});
 		
 		po.conditionAutocompleteSource = $.buildSearchConditionAutocompleteSource(table, po.sqlIdentifierQuote);
 		po.initConditionPanel();
 		po.initPagination();
+		
+		//键集分页、总记录数计算方式由dataGrid.keyset、dataGrid.totalMode配置，默认按偏移量分页、精确计数
+		po.dataTableAjaxParamSuper = po.dataTableAjaxParam;
+		po.dataTableAjaxParam = function()
+		{
+			var param = po.dataTableAjaxParamSuper();
+			param["totalMode"] = "${dataGridTotalMode}";
+			
+			<#if dataGridKeyset>
+			param["keyset"] = true;
+			
+			if(po.nextCursor)
+				param["cursor"] = po.nextCursor;
+			</#if>
+			
+			return param;
+		};
+		po.dataTableAjaxSuccessSuper = po.dataTableAjaxSuccess;
+		po.dataTableAjaxSuccess = function(pagingData, textStatus, jqXHR)
+		{
+			po.nextCursor = pagingData.nextCursor;
+			po.dataTableAjaxSuccessSuper(pagingData, textStatus, jqXHR);
+			
+			if(pagingData.queryPlan)
+				$.tipInfo("<@spring.message code='data.expensiveQueryExecuted' />");
+		};
+		
 		po.initDataTableAjax(po.url("queryData"), table);
 		po.bindResizeDataTable();
 		
@@ -592,6 +592,30 @@ Schema schema 数据库，不允许为null
 		return tabId + "-form";
 	};
 	
+	//关闭查询结果的服务端游标
+	po.closeSqlResultCursor = function(tabId)
+	{
+		var form = po.element("#" + po.getSqlResultTabPanelFormId(tabId));
+		var cursorIdInput = $("input[name='cursorId']", form);
+		var cursorId = cursorIdInput.val();
+		
+		if(!cursorId)
+			return;
+		
+		cursorIdInput.val("");
+		
+		$.ajax(
+		{
+			type : "POST",
+			url : "${contextPath}/sqlpad/"+po.schemaId+"/closeCursor",
+			data :
+			{
+				"sqlpadId" : po.sqlpadId,
+				"cursorId" : cursorId
+			}
+		});
+	};
+	
 	po.renderSqlResultTab = function(tabId, sql, sqlSelectResult, active)
 	{
 		var tabsNav = po.getTabsNav(po.sqlResultTabs);
@@ -600,6 +624,7 @@ Schema schema 数据库，不允许为null
 		
 		if(tab.length > 0)
 	    {
+			po.closeSqlResultCursor(tabId);
 			tabPanel = po.getTabsTabPanelByTabId(po.sqlResultTabs, tabId);
 			tabPanel.empty();
 	    }
@@ -616,6 +641,7 @@ Schema schema 数据库，不允许为null
 	    	
     	    $(".tab-operation .ui-icon-close", tab).click(function()
     	    {
+    	    	po.closeSqlResultCursor(tabId);
     	    	po.closeTab(po.sqlResultTabs, tabsNav, $(this).parent().parent());
     	    });
     	    
@@ -655,6 +681,7 @@ Schema schema 数据库，不允许为null
 	    $("<textarea name='sql' />").val(sql).appendTo(form);
 	    $("<input name='startRow' type='hidden' />").val(sqlSelectResult.nextStartRow).appendTo(form);
 	    $("<input name='fetchSize' type='hidden' />").val(sqlSelectResult.fetchSize).appendTo(form);
+	    $("<input name='cursorId' type='hidden' />").val("").appendTo(form);
 
 	    if(sqlSelectResult.rows == null || sqlSelectResult.rows.length < sqlSelectResult.fetchSize)
 	    {
@@ -685,6 +712,7 @@ Schema schema 数据库，不允许为null
 	   				success : function(sqlSelectResult, statusText, xhr, $form)
 	   				{
 	   					$("input[name='startRow']", $form).val(sqlSelectResult.nextStartRow);
+	   					$("input[name='cursorId']", $form).val(sqlSelectResult.cursorId || "");
 	   					
 	   					var tabId = $form.attr("tab-id");
 	   					var tabPanel = po.getTabsTabPanelByTabId(po.sqlResultTabs, tabId);
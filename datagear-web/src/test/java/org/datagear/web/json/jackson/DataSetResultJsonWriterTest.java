@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.json.jackson;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetProperty.DataType;
+import org.datagear.analysis.DataSetResult;
+import org.datagear.analysis.support.JsonSupport;
+import org.datagear.analysis.support.MapDataSetResult;
+import org.datagear.analysis.support.SqlDataSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@linkplain DataSetResultJsonWriter}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DataSetResultJsonWriterTest
+{
+	@Test
+	public void writeTest() throws Exception
+	{
+		ObjectMapper objectMapper = JsonSupport.create();
+		JsonSupport.setWriteJsonFeatures(objectMapper);
+
+		List<DataSetProperty> properties = Arrays.asList(new DataSetProperty("name", DataType.STRING),
+				new DataSetProperty("valid", DataType.BOOLEAN), new DataSetProperty("count", DataType.INTEGER),
+				new DataSetProperty("rate", DataType.DECIMAL));
+
+		SqlDataSet dataSet = new SqlDataSet("ds", "ds", properties, null, "SELECT * FROM T");
+		Chart chart = new Chart("chart", "chart",
+				new ChartDataSet[] { new ChartDataSet(dataSet), new ChartDataSet(dataSet) }, null, null);
+
+		List<Map<String, ?>> datas = new ArrayList<>();
+
+		Map<String, Object> data0 = new LinkedHashMap<>();
+		data0.put("name", "a\"b");
+		data0.put("valid", true);
+		data0.put("count", 3);
+		data0.put("rate", new BigDecimal("1.50"));
+		data0.put("other", "x");
+		datas.add(data0);
+
+		Map<String, Object> data1 = new LinkedHashMap<>();
+		data1.put("name", null);
+		data1.put("count", 4L);
+		data1.put("rate", 2.5D);
+		datas.add(data1);
+
+		DataSetResult[] results = new DataSetResult[] { new MapDataSetResult(datas), null };
+
+		StringWriter out = new StringWriter();
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.writeStartObject();
+		generator.writeFieldName(chart.getId());
+		new DataSetResultJsonWriter().write(generator, chart, results);
+		generator.writeEndObject();
+		generator.close();
+
+		String expected = objectMapper.writeValueAsString(Collections.singletonMap(chart.getId(), results));
+
+		Assert.assertEquals(expected, out.toString());
+	}
+}
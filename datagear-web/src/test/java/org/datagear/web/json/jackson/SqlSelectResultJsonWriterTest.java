@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.json.jackson;
+
+import java.io.StringWriter;
+
+import org.datagear.persistence.Row;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@linkplain SqlSelectResultJsonWriter}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlSelectResultJsonWriterTest
+{
+	@Test
+	public void writeTest() throws Exception
+	{
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		{
+			StringWriter out = new StringWriter();
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+
+			SqlSelectResultJsonWriter writer = new SqlSelectResultJsonWriter(generator, "SELECT 1", 1, 2, false);
+
+			Row row = new Row();
+			row.put("ID", 1);
+			writer.accept(null, null, row, 1);
+
+			// 重用的行对象
+			row.clear();
+			row.put("ID", 2);
+			writer.accept(null, null, row, 2);
+
+			writer.writeEnd(null);
+
+			Assert.assertEquals(
+					"{\"sql\":\"SELECT 1\",\"startRow\":1,\"fetchSize\":2,\"rows\":[{\"ID\":1},{\"ID\":2}],\"nextStartRow\":3}",
+					out.toString());
+		}
+
+		{
+			StringWriter out = new StringWriter();
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+
+			SqlSelectResultJsonWriter writer = new SqlSelectResultJsonWriter(generator, "SELECT 1", 3, 2, false);
+			writer.writeEnd(null);
+
+			Assert.assertEquals("{\"sql\":\"SELECT 1\",\"startRow\":3,\"fetchSize\":2,\"rows\":[],\"nextStartRow\":5}",
+					out.toString());
+		}
+	}
+}
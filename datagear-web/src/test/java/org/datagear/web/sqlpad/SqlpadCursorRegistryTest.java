@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.sqlpad;
+
+import org.datagear.util.QueryResultSet;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry.SqlpadCursor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain SqlpadCursorRegistry}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlpadCursorRegistryTest
+{
+	@Test
+	public void acquireTest()
+	{
+		SqlpadCursorRegistry registry = new SqlpadCursorRegistry();
+
+		SqlpadCursor cursor = createCursor("c1", "u1");
+		Assert.assertTrue(registry.register(cursor));
+
+		Assert.assertNull(registry.acquire("c1", "u2"));
+		Assert.assertNull(registry.acquire("c2", "u1"));
+
+		Assert.assertSame(cursor, registry.acquire("c1", "u1"));
+
+		// 使用中的游标不能被再次获取
+		Assert.assertNull(registry.acquire("c1", "u1"));
+
+		registry.release(cursor);
+		Assert.assertSame(cursor, registry.acquire("c1", "u1"));
+
+		registry.discard(cursor);
+		Assert.assertTrue(cursor.isClosed());
+		Assert.assertEquals(0, registry.size());
+	}
+
+	@Test
+	public void registerTest_limit()
+	{
+		SqlpadCursorRegistry registry = new SqlpadCursorRegistry();
+		registry.setMaxCursorsPerUser(2);
+		registry.setMaxCursors(3);
+
+		SqlpadCursor c1 = createCursor("c1", "u1");
+		SqlpadCursor c2 = createCursor("c2", "u1");
+		SqlpadCursor c3 = createCursor("c3", "u1");
+
+		Assert.assertTrue(registry.register(c1));
+		Assert.assertTrue(registry.register(c2));
+
+		// 超出用户限制时关闭最久未使用的空闲游标
+		Assert.assertTrue(registry.register(c3));
+		Assert.assertTrue(c1.isClosed());
+		Assert.assertEquals(2, registry.getCursorCount("u1"));
+
+		// 没有可关闭的空闲游标时不注册
+		registry.acquire("c2", "u1");
+		registry.acquire("c3", "u1");
+		Assert.assertFalse(registry.register(createCursor("c4", "u1")));
+
+		// 超出全局限制
+		SqlpadCursor c5 = createCursor("c5", "u2");
+		Assert.assertTrue(registry.register(c5));
+		Assert.assertTrue(registry.register(createCursor("c6", "u3")));
+		Assert.assertTrue(c5.isClosed());
+		registry.acquire("c6", "u3");
+		Assert.assertFalse(registry.register(createCursor("c7", "u4")));
+		Assert.assertEquals(3, registry.size());
+	}
+
+	@Test
+	public void closeTest()
+	{
+		SqlpadCursorRegistry registry = new SqlpadCursorRegistry();
+
+		SqlpadCursor c1 = createCursor("c1", "u1");
+		SqlpadCursor c2 = createCursor("c2", "u1");
+		registry.register(c1);
+		registry.register(c2);
+
+		Assert.assertFalse(registry.close("c1", "u2"));
+		Assert.assertTrue(registry.close("c1", "u1"));
+		Assert.assertTrue(c1.isClosed());
+
+		// 使用中的游标在释放时关闭
+		registry.acquire("c2", "u1");
+		Assert.assertTrue(registry.close("c2", "u1"));
+		Assert.assertFalse(c2.isClosed());
+		registry.release(c2);
+		Assert.assertTrue(c2.isClosed());
+	}
+
+	@Test
+	public void closeIdleTest() throws Exception
+	{
+		SqlpadCursorRegistry registry = new SqlpadCursorRegistry();
+		registry.setIdleTimeoutSeconds(0);
+
+		SqlpadCursor c1 = createCursor("c1", "u1");
+		SqlpadCursor c2 = createCursor("c2", "u1");
+		registry.register(c1);
+		registry.register(c2);
+		registry.acquire("c2", "u1");
+
+		Thread.sleep(10);
+
+		Assert.assertEquals(1, registry.closeIdle());
+		Assert.assertTrue(c1.isClosed());
+		Assert.assertFalse(c2.isClosed());
+	}
+
+	protected SqlpadCursor createCursor(String id, String userId)
+	{
+		return new SqlpadCursor(id, userId, "schema", "SELECT * FROM T", null, new QueryResultSet(), null, 1);
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.sqlpad;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.datagear.web.sqlpad.SqlpadExecutionScheduler.SchedulableTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain SqlpadExecutionScheduler}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SqlpadExecutionSchedulerTest
+{
+	@Test
+	public void submitTest() throws Exception
+	{
+		SqlpadExecutionScheduler scheduler = new SqlpadExecutionScheduler();
+		scheduler.setMaxRunning(2);
+		scheduler.setMaxRunningPerUser(1);
+		scheduler.setMaxRunningPerSchema(2);
+		scheduler.setMaxQueued(2);
+
+		try
+		{
+			TestTask u1a = new TestTask("u1", "s1");
+			TestTask u1b = new TestTask("u1", "s1");
+			TestTask u2a = new TestTask("u2", "s1");
+			TestTask u3a = new TestTask("u3", "s1");
+
+			Assert.assertTrue(scheduler.submit(u1a));
+			Assert.assertTrue(u1a.awaitStarted());
+
+			// 超出用户限制，排队
+			Assert.assertTrue(scheduler.submit(u1b));
+			Assert.assertEquals(1, scheduler.getQueuedCount());
+			Assert.assertEquals(Integer.valueOf(0), u1b.positions.get(u1b.positions.size() - 1));
+
+			// 其他用户不被阻塞
+			Assert.assertTrue(scheduler.submit(u2a));
+			Assert.assertTrue(u2a.awaitStarted());
+			Assert.assertEquals(2, scheduler.getRunningCount());
+			Assert.assertEquals(2, scheduler.getSchemaRunningCount("s1"));
+
+			// 超出全局限制，排队
+			Assert.assertTrue(scheduler.submit(u3a));
+			Assert.assertEquals(2, scheduler.getQueuedCount());
+			Assert.assertEquals(Integer.valueOf(1), u3a.positions.get(u3a.positions.size() - 1));
+
+			// 队列已满
+			Assert.assertFalse(scheduler.submit(new TestTask("u4", "s1")));
+
+			// u2a结束后，u1仍达上限，因而u3a先开始
+			u2a.finish.countDown();
+			Assert.assertTrue(u3a.awaitStarted());
+			Assert.assertEquals(1, scheduler.getQueuedCount());
+			Assert.assertEquals(1, u1b.started.getCount());
+
+			u1a.finish.countDown();
+			Assert.assertTrue(u1b.awaitStarted());
+
+			u1b.finish.countDown();
+			u3a.finish.countDown();
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void removeTest() throws Exception
+	{
+		SqlpadExecutionScheduler scheduler = new SqlpadExecutionScheduler();
+		scheduler.setMaxRunningPerSchema(1);
+
+		try
+		{
+			TestTask t1 = new TestTask("u1", "s1");
+			TestTask t2 = new TestTask("u2", "s1");
+
+			scheduler.submit(t1);
+			scheduler.submit(t2);
+			Assert.assertTrue(t1.awaitStarted());
+
+			Assert.assertFalse(scheduler.remove(t1));
+			Assert.assertTrue(scheduler.remove(t2));
+			Assert.assertEquals(0, scheduler.getQueuedCount());
+
+			t1.finish.countDown();
+			t1.awaitFinished();
+
+			Assert.assertEquals(1, t2.started.getCount());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void submitTest_rejected() throws Exception
+	{
+		SqlpadExecutionScheduler scheduler = new SqlpadExecutionScheduler();
+		scheduler.shutdown();
+
+		TestTask task = new TestTask("u1", "s1");
+
+		Assert.assertTrue(scheduler.submit(task));
+		Assert.assertTrue(task.rejected);
+		Assert.assertEquals(1, task.started.getCount());
+		Assert.assertEquals(0, scheduler.getRunningCount());
+		Assert.assertEquals(0, scheduler.getUserRunningCount("u1"));
+	}
+
+	protected static class TestTask implements SchedulableTask
+	{
+		private final String userId;
+
+		private final String schemaId;
+
+		public final CountDownLatch started = new CountDownLatch(1);
+
+		public final CountDownLatch finish = new CountDownLatch(1);
+
+		public final CountDownLatch finished = new CountDownLatch(1);
+
+		public final List<Integer> positions = new CopyOnWriteArrayList<Integer>();
+
+		public volatile boolean rejected = false;
+
+		public TestTask(String userId, String schemaId)
+		{
+			super();
+			this.userId = userId;
+			this.schemaId = schemaId;
+		}
+
+		@Override
+		public String getUserId()
+		{
+			return this.userId;
+		}
+
+		@Override
+		public String getSchemaId()
+		{
+			return this.schemaId;
+		}
+
+		@Override
+		public void queuePositionChanged(int position)
+		{
+			this.positions.add(position);
+		}
+
+		@Override
+		public void rejected()
+		{
+			this.rejected = true;
+		}
+
+		@Override
+		public void run()
+		{
+			this.started.countDown();
+
+			try
+			{
+				this.finish.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+			}
+
+			this.finished.countDown();
+		}
+
+		public boolean awaitStarted() throws InterruptedException
+		{
+			return this.started.await(5, TimeUnit.SECONDS);
+		}
+
+		public boolean awaitFinished() throws InterruptedException
+		{
+			return this.finished.await(5, TimeUnit.SECONDS);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.datagear.util.FileUtil;
+import org.datagear.web.util.DashboardSnapshotManager.DashboardSnapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain DashboardSnapshotManager}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DashboardSnapshotManagerTest
+{
+	@Test
+	public void saveTest() throws Exception
+	{
+		File rootDirectory = FileUtil.createTempDirectory();
+
+		try
+		{
+			DashboardSnapshotManager manager = new DashboardSnapshotManager(rootDirectory);
+
+			String key = manager.buildKey("d0", "index.html", "LIGHT");
+			Assert.assertNotEquals(key, manager.buildKey("d0", "index.html", "DARK"));
+			Assert.assertNull(manager.get(key));
+
+			DashboardSnapshot snapshot = manager.save(key, "d0", 100L, "<html></html>".getBytes("UTF-8"), "UTF-8",
+					"{}".getBytes("UTF-8"));
+
+			Assert.assertSame(snapshot, manager.get(key));
+			Assert.assertEquals("{}", new String(Files.readAllBytes(snapshot.getDataFile().toPath()), "UTF-8"));
+			Assert.assertFalse(snapshot.isExpired(100L, 10));
+			Assert.assertTrue(snapshot.isExpired(101L, 10));
+
+			Assert.assertTrue(manager.startRefresh(key));
+			Assert.assertFalse(manager.startRefresh(key));
+			manager.endRefresh(key);
+			Assert.assertTrue(manager.startRefresh(key));
+			manager.endRefresh(key);
+
+			manager.delete("d0");
+			Assert.assertNull(manager.get(key));
+			Assert.assertFalse(snapshot.getHtmlFile().exists());
+		}
+		finally
+		{
+			FileUtil.deleteFile(rootDirectory);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+
+import org.datagear.connection.ConnectionSource;
+import org.datagear.management.domain.Schema;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.web.util.ParallelSchemaMetaResolver.SchemaMetaResult;
+import org.datagear.web.util.ParallelSchemaMetaResolver.SchemaMetaTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain ParallelSchemaMetaResolver}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class ParallelSchemaMetaResolverTest
+{
+	@Test
+	public void resolveTest()
+	{
+		ParallelSchemaMetaResolver resolver = new ParallelSchemaMetaResolver(createConnectionSource(), null);
+		resolver.setTimeoutSeconds(1);
+		resolver.init();
+
+		try
+		{
+			List<Schema> schemas = Arrays.asList(createSchema("ok"), createSchema("error"), createSchema("slow"));
+
+			long startTime = System.currentTimeMillis();
+
+			List<SchemaMetaResult<String>> results = resolver.resolve(schemas, new SchemaMetaTask<String>()
+			{
+				@Override
+				public String resolve(Schema schema, Connection cn, DBMetaResolver dbMetaResolver) throws Throwable
+				{
+					if ("error".equals(schema.getId()))
+						throw new IllegalStateException("error");
+
+					if ("slow".equals(schema.getId()))
+						Thread.sleep(10000);
+
+					return schema.getId();
+				}
+			});
+
+			Assert.assertTrue(System.currentTimeMillis() - startTime < 5000);
+			Assert.assertEquals(3, results.size());
+
+			Assert.assertTrue(results.get(0).isSuccess());
+			Assert.assertEquals("ok", results.get(0).getValue());
+
+			Assert.assertFalse(results.get(1).isSuccess());
+			Assert.assertEquals("error", results.get(1).getErrorMessage());
+			Assert.assertFalse(results.get(1).isTimeout());
+
+			Assert.assertFalse(results.get(2).isSuccess());
+			Assert.assertTrue(results.get(2).isTimeout());
+			Assert.assertEquals("slow", results.get(2).getSchemaId());
+		}
+		finally
+		{
+			resolver.destroy();
+		}
+	}
+
+	protected Schema createSchema(String id)
+	{
+		Schema schema = new Schema();
+		schema.setId(id);
+		schema.setTitle(id);
+		schema.setUrl("jdbc:test://" + id);
+		schema.setUser("test");
+		schema.setPassword("test");
+
+		return schema;
+	}
+
+	protected ConnectionSource createConnectionSource()
+	{
+		final InvocationHandler connectionHandler = new InvocationHandler()
+		{
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+			{
+				if ("hashCode".equals(method.getName()))
+					return System.identityHashCode(proxy);
+				else if ("equals".equals(method.getName()))
+					return (proxy == args[0]);
+
+				return null;
+			}
+		};
+
+		return (ConnectionSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { ConnectionSource.class }, new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						if ("getConnection".equals(method.getName()))
+							return Proxy.newProxyInstance(getClass().getClassLoader(),
+									new Class<?>[] { Connection.class }, connectionHandler);
+
+						return null;
+					}
+				});
+	}
+}
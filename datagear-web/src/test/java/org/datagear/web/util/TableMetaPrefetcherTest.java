@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain TableMetaPrefetcher}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableMetaPrefetcherTest
+{
+	@Test
+	public void getTopTableNamesTest()
+	{
+		TableMetaPrefetcher prefetcher = new TableMetaPrefetcher();
+		prefetcher.setMaxTrackedTableCount(3);
+
+		prefetcher.recordAccess("s1", "T_A");
+		prefetcher.recordAccess("s1", "T_B");
+		prefetcher.recordAccess("s1", "T_B");
+		prefetcher.recordAccess("s1", "T_C");
+		prefetcher.recordAccess("s1", "T_C");
+		prefetcher.recordAccess("s1", "T_C");
+		prefetcher.recordAccess("s1", "T_C");
+		prefetcher.recordAccess("s2", "T_D");
+
+		Assert.assertEquals(Arrays.asList("T_C", "T_B"), prefetcher.getTopTableNames("s1", 2));
+		Assert.assertEquals(Arrays.asList("T_D"), prefetcher.getTopTableNames("s2", 2));
+
+		// 未超过统计数目的2倍时不清理
+		prefetcher.recordAccess("s1", "T_E");
+		prefetcher.recordAccess("s1", "T_F");
+		prefetcher.recordAccess("s1", "T_G");
+		Assert.assertEquals(6, prefetcher.getTopTableNames("s1", 10).size());
+
+		// 超过时删除不常访问的表，但保留刚访问的表
+		prefetcher.recordAccess("s1", "T_H");
+		List<String> topNames = prefetcher.getTopTableNames("s1", 10);
+		Assert.assertEquals(3, topNames.size());
+		Assert.assertEquals("T_C", topNames.get(0));
+		Assert.assertEquals(new HashSet<String>(Arrays.asList("T_B", "T_H")),
+				new HashSet<String>(topNames.subList(1, 3)));
+
+		// 新表可以继续进入统计
+		prefetcher.recordAccess("s1", "T_I");
+		Assert.assertTrue(prefetcher.getTopTableNames("s1", 10).contains("T_I"));
+
+		prefetcher.remove("s1");
+		Assert.assertTrue(prefetcher.getTopTableNames("s1", 5).isEmpty());
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.datagear.meta.SimpleTable;
+import org.datagear.meta.TableType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain TableNameIndex}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableNameIndexTest
+{
+	@Test
+	public void findTest()
+	{
+		List<SimpleTable> tables = new ArrayList<>();
+		tables.add(new SimpleTable("T_ORDER_ITEM", TableType.TABLE));
+		tables.add(new SimpleTable("t_order", TableType.TABLE));
+		tables.add(new SimpleTable("V_ORDER_SUMMARY", TableType.VIEW));
+		tables.add(new SimpleTable("T_USER", TableType.TABLE));
+		tables.add(new SimpleTable("AB", TableType.TABLE));
+
+		TableNameIndex index = new TableNameIndex(tables, Arrays.asList(true, true, false, true, true));
+
+		Assert.assertEquals(5, index.size());
+		Assert.assertEquals(Arrays.asList("AB", "T_ORDER_ITEM", "T_USER", "V_ORDER_SUMMARY", "t_order"),
+				toNames(index.find(null)));
+		Assert.assertEquals(Arrays.asList("AB", "T_ORDER_ITEM", "T_USER", "t_order"),
+				toNames(index.findEntity("")));
+
+		// 前缀
+		Assert.assertEquals(Arrays.asList("T_ORDER_ITEM", "t_order"), toNames(index.find("t_order%")));
+		Assert.assertEquals(Arrays.asList(), toNames(index.find("X%")));
+
+		// 包含
+		Assert.assertEquals(Arrays.asList("T_ORDER_ITEM", "V_ORDER_SUMMARY", "t_order"),
+				toNames(index.find("order")));
+		Assert.assertEquals(Arrays.asList("T_ORDER_ITEM", "t_order"), toNames(index.findEntity("%order%")));
+		Assert.assertEquals(Arrays.asList("AB"), toNames(index.find("b")));
+		Assert.assertEquals(Arrays.asList(), toNames(index.find("orderx")));
+
+		// 后缀
+		Assert.assertEquals(Arrays.asList("V_ORDER_SUMMARY"), toNames(index.find("%mary")));
+		Assert.assertEquals(Arrays.asList("t_order"), toNames(index.find("%der")));
+	}
+
+	protected List<String> toNames(List<SimpleTable> tables)
+	{
+		List<String> names = new ArrayList<>();
+
+		for (SimpleTable table : tables)
+			names.add(table.getName());
+
+		return names;
+	}
+}
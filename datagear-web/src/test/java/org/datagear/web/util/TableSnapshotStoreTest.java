@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.datagear.meta.Column;
+import org.datagear.meta.Table;
+import org.datagear.meta.TableType;
+import org.datagear.meta.resolver.DBMetaResolver;
+import org.datagear.util.FileUtil;
+import org.datagear.util.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain TableSnapshotStore}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableSnapshotStoreTest
+{
+	@Test
+	public void test() throws Exception
+	{
+		File directory = FileUtil.createTempDirectory();
+		final String[] fingerprint = { "1;2019" };
+
+		try
+		{
+			TableSnapshotStore store = new TableSnapshotStore(directory, createDBMetaResolver(fingerprint));
+			store.setCheckIntervalSeconds(0);
+
+			Table table = new Table("T_ORDER", TableType.TABLE);
+			table.setColumns(new Column[] { new Column("ID", Types.INTEGER) });
+
+			// 未检查时不存储
+			store.put("s1", table);
+			Assert.assertNull(store.get("s1", "T_ORDER"));
+
+			Assert.assertTrue(store.check("s1", null));
+			store.put("s1", table);
+
+			Table actual = store.get("s1", "T_ORDER");
+			Assert.assertEquals("T_ORDER", actual.getName());
+			Assert.assertEquals("ID", actual.getColumns()[0].getName());
+
+			// 模拟重启
+			store = new TableSnapshotStore(directory, createDBMetaResolver(fingerprint));
+			store.setCheckIntervalSeconds(0);
+			store.check("s1", null);
+			Assert.assertNotNull(store.get("s1", "T_ORDER"));
+			Assert.assertFalse(store.check("s1", null));
+
+			// 结构变更
+			fingerprint[0] = "2;2020";
+			Assert.assertTrue(store.check("s1", null));
+			Assert.assertNull(store.get("s1", "T_ORDER"));
+
+			// 不支持指纹
+			fingerprint[0] = null;
+			Assert.assertTrue(store.check("s1", null));
+			store.put("s1", table);
+			Assert.assertNull(store.get("s1", "T_ORDER"));
+		}
+		finally
+		{
+			FileUtil.deleteFile(directory);
+		}
+	}
+
+	@Test
+	public void getTest_notAllowedClass() throws Exception
+	{
+		File directory = FileUtil.createTempDirectory();
+
+		try
+		{
+			TableSnapshotStore store = new TableSnapshotStore(directory, createDBMetaResolver(new String[] { "1" }));
+			store.check("s1", null);
+
+			File file = store.getTableFile("s1", "T_ORDER", true);
+
+			OutputStream out = new GZIPOutputStream(IOUtil.getOutputStream(file));
+
+			try
+			{
+				ObjectOutputStream oout = new ObjectOutputStream(out);
+				oout.writeObject(new NotAllowedObject());
+				oout.flush();
+			}
+			finally
+			{
+				IOUtil.close(out);
+			}
+
+			Assert.assertNull(store.get("s1", "T_ORDER"));
+			Assert.assertFalse(NotAllowedObject.deserialized);
+			Assert.assertFalse(file.exists());
+		}
+		finally
+		{
+			FileUtil.deleteFile(directory);
+		}
+	}
+
+	@Test
+	public void isAllowedClassNameTest()
+	{
+		Assert.assertTrue(TableSnapshotStore.isAllowedClassName(Table.class.getName()));
+		Assert.assertTrue(TableSnapshotStore.isAllowedClassName(Column[].class.getName()));
+		Assert.assertTrue(TableSnapshotStore.isAllowedClassName(String[].class.getName()));
+		Assert.assertTrue(TableSnapshotStore.isAllowedClassName(int[][].class.getName()));
+		Assert.assertTrue(TableSnapshotStore.isAllowedClassName(Integer.class.getName()));
+
+		Assert.assertFalse(TableSnapshotStore.isAllowedClassName(DBMetaResolver.class.getName()));
+		Assert.assertFalse(TableSnapshotStore.isAllowedClassName(HashMap.class.getName()));
+		Assert.assertFalse(TableSnapshotStore.isAllowedClassName(Object[].class.getName()));
+		Assert.assertFalse(TableSnapshotStore.isAllowedClassName(NotAllowedObject.class.getName()));
+		Assert.assertFalse(TableSnapshotStore.isAllowedClassName("[X"));
+	}
+
+	protected DBMetaResolver createDBMetaResolver(final String[] fingerprint)
+	{
+		return (DBMetaResolver) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { DBMetaResolver.class }, new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						if ("getChangeFingerprint".equals(method.getName()))
+							return fingerprint[0];
+
+						throw new UnsupportedOperationException();
+					}
+				});
+	}
+
+	protected static class NotAllowedObject implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		public static volatile boolean deserialized = false;
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+		{
+			in.defaultReadObject();
+			deserialized = true;
+		}
+	}
+}